@@ -30,6 +30,7 @@ public class CLI {
         final CLIAst program = parser.parse(args);
 
         final CLICoreService service = ModuleLoader.INSTANCE.getCLICoreService();
+        service.startup();
         service.dispatchCommand(program);
         service.cleanup();
     }
@@ -1,6 +1,7 @@
 package com.tzj.garvel.cli.api.core;
 
 import com.tzj.garvel.cli.exception.CLIErrorHandler;
+import com.tzj.garvel.common.spi.core.CoreService;
 import com.tzj.garvel.common.spi.core.CoreServiceLoader;
 import com.tzj.garvel.common.spi.core.command.CommandException;
 import com.tzj.garvel.common.spi.core.command.CommandType;
@@ -11,16 +12,31 @@ import com.tzj.garvel.common.util.UtilServiceImpl;
 import java.nio.file.Path;
 
 public class CLIBuildCommand extends CLICommand {
-    public CLIBuildCommand(final CLICommandOption opts) {
+    private final boolean inMemory;
+    private final boolean profile;
+    private final boolean watch;
+    private final boolean offline;
+
+    public CLIBuildCommand(final CLICommandOption opts, final boolean inMemory, final boolean profile, final boolean watch,
+                           final boolean offline) {
         super(opts);
+        this.inMemory = inMemory;
+        this.profile = profile;
+        this.watch = watch;
+        this.offline = offline;
     }
 
     @Override
     public void execute() {
-        BuildCommandParams params = new BuildCommandParams();
+        if (watch && inMemory) {
+            CLIErrorHandler.errorAndExit("The --watch option builds incrementally, and cannot be combined with --in-memory");
+        }
+
+        BuildCommandParams params = new BuildCommandParams(inMemory, profile, watch, offline);
 
         try {
-            BuildCommandResult result = (BuildCommandResult) CoreServiceLoader.INSTANCE.getCoreService().runCommand(CommandType.BUILD, params);
+            final CoreService core = watch ? CoreServiceLoader.INSTANCE.getInProcessCoreService() : CoreServiceLoader.INSTANCE.getCoreService();
+            BuildCommandResult result = (BuildCommandResult) core.runCommand(CommandType.BUILD, params);
 
             if (result == null) {
                 CLIErrorHandler.errorAndExit("build command failed: internal error");
@@ -3,6 +3,8 @@ package com.tzj.garvel.cli.api.core;
 import com.tzj.garvel.cli.api.parser.ast.CLIAst;
 
 public interface CLICoreService {
+    void startup();
+
     void dispatchCommand(final CLIAst ast);
 
     void cleanup();
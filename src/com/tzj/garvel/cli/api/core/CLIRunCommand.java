@@ -1,6 +1,7 @@
 package com.tzj.garvel.cli.api.core;
 
 import com.tzj.garvel.cli.exception.CLIErrorHandler;
+import com.tzj.garvel.common.spi.core.CoreService;
 import com.tzj.garvel.common.spi.core.CoreServiceLoader;
 import com.tzj.garvel.common.spi.core.command.CommandException;
 import com.tzj.garvel.common.spi.core.command.CommandType;
@@ -11,11 +12,13 @@ import com.tzj.garvel.common.util.UtilServiceImpl;
 public class CLIRunCommand extends CLICommand {
     private final String target;
     private String[] args;
+    private final boolean watch;
 
-    public CLIRunCommand(final CLICommandOption opts, final String target, final String[] args) {
+    public CLIRunCommand(final CLICommandOption opts, final String target, final String[] args, final boolean watch) {
         super(opts);
         this.target = target;
         this.args = args;
+        this.watch = watch;
     }
 
     /**
@@ -24,9 +27,10 @@ public class CLIRunCommand extends CLICommand {
      */
     @Override
     public void execute() {
-        final RunCommandParams params = new RunCommandParams(target, args);
+        final RunCommandParams params = new RunCommandParams(target, args, watch);
         try {
-            final RunCommandResult result = (RunCommandResult) CoreServiceLoader.INSTANCE.getCoreService().runCommand(CommandType.RUN, params);
+            final CoreService core = watch ? CoreServiceLoader.INSTANCE.getInProcessCoreService() : CoreServiceLoader.INSTANCE.getCoreService();
+            final RunCommandResult result = (RunCommandResult) core.runCommand(CommandType.RUN, params);
 
             if (result == null) {
                 CLIErrorHandler.errorAndExit("run command failed: internal error");
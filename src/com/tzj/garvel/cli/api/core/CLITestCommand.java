@@ -1,12 +1,49 @@
 package com.tzj.garvel.cli.api.core;
 
+import com.tzj.garvel.cli.exception.CLIErrorHandler;
+import com.tzj.garvel.common.spi.core.CoreServiceLoader;
+import com.tzj.garvel.common.spi.core.command.CommandException;
+import com.tzj.garvel.common.spi.core.command.CommandType;
+import com.tzj.garvel.common.spi.core.command.param.TestCommandParams;
+import com.tzj.garvel.common.spi.core.command.result.TestCommandResult;
+import com.tzj.garvel.common.util.UtilServiceImpl;
+
 public class CLITestCommand extends CLICommand {
-    public CLITestCommand(final CLICommandOption opts) {
+    private final boolean affected;
+
+    public CLITestCommand(final CLICommandOption opts, final boolean affected) {
         super(opts);
+        this.affected = affected;
     }
 
+    /**
+     * Build the project, and run its tests.
+     */
     @Override
     public void execute() {
-        throw new UnsupportedOperationException();
+        final TestCommandParams params = new TestCommandParams(affected);
+
+        try {
+            final TestCommandResult result = (TestCommandResult) CoreServiceLoader.INSTANCE.getCoreService().runCommand(CommandType.TEST, params);
+
+            if (result == null) {
+                CLIErrorHandler.errorAndExit("test command failed: internal error");
+            }
+
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\nTests: %d run, %d failed, %d skipped (%d classes, %d ms)",
+                    result.getTests(), result.getFailures(), result.getSkipped(), result.getTestClasses(), result.getDurationMillis());
+
+            checkSuccess(result);
+        } catch (CommandException e) {
+            CLIErrorHandler.errorAndExit("Tests failed: %s", e.getErrorString());
+        }
+    }
+
+    private void checkSuccess(final TestCommandResult result) {
+        if (result.isSuccessful()) {
+            return;
+        }
+
+        CLIErrorHandler.errorAndExit("Tests failed: %d of %d tests failed\n", result.getFailures(), result.getTests());
     }
 }
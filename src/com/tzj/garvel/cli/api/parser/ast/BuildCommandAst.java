@@ -3,6 +3,56 @@ package com.tzj.garvel.cli.api.parser.ast;
 import com.tzj.garvel.cli.api.parser.visitor.CLIAstVisitor;
 
 public class BuildCommandAst extends CommandAst {
+    private boolean inMemory;
+    private boolean profile;
+    private boolean watch;
+    private boolean offline;
+
+    public BuildCommandAst() {
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    public void setInMemory(final boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public boolean isProfile() {
+        return profile;
+    }
+
+    public void setProfile(final boolean profile) {
+        this.profile = profile;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(final boolean watch) {
+        this.watch = watch;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void setOffline(final boolean offline) {
+        this.offline = offline;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildCommandAst{" +
+                "inMemory=" + inMemory +
+                ", profile=" + profile +
+                ", watch=" + watch +
+                ", offline=" + offline +
+                '}';
+    }
+
     @Override
     public void accept(final CLIAstVisitor visitor) {
         visitor.visit(this);
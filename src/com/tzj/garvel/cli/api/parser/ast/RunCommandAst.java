@@ -8,6 +8,7 @@ import java.util.Objects;
 public class RunCommandAst extends CommandAst {
     private TargetNameAst target;
     private String[] arguments;
+    private boolean watch;
 
     public RunCommandAst() {
     }
@@ -20,18 +21,27 @@ public class RunCommandAst extends CommandAst {
         this.arguments = arguments;
     }
 
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(final boolean watch) {
+        this.watch = watch;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         final RunCommandAst that = (RunCommandAst) o;
-        return Objects.equals(target, that.target) &&
+        return watch == that.watch &&
+                Objects.equals(target, that.target) &&
                 Objects.equals(arguments, that.arguments);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(target, arguments);
+        return Objects.hash(target, arguments, watch);
     }
 
     @Override
@@ -39,6 +49,7 @@ public class RunCommandAst extends CommandAst {
         return "RunCommandAst{" +
                 "target=" + target +
                 ", arguments=" + arguments +
+                ", watch=" + watch +
                 '}';
     }
 
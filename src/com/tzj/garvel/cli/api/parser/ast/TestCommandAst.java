@@ -3,6 +3,26 @@ package com.tzj.garvel.cli.api.parser.ast;
 import com.tzj.garvel.cli.api.parser.visitor.CLIAstVisitor;
 
 public class TestCommandAst extends CommandAst {
+    private boolean affected;
+
+    public TestCommandAst() {
+    }
+
+    public boolean isAffected() {
+        return affected;
+    }
+
+    public void setAffected(final boolean affected) {
+        this.affected = affected;
+    }
+
+    @Override
+    public String toString() {
+        return "TestCommandAst{" +
+                "affected=" + affected +
+                '}';
+    }
+
     @Override
     public void accept(final CLIAstVisitor visitor) {
         visitor.visit(this);
@@ -15,11 +15,16 @@ public enum CLITokenType {
     UNINSTALL("uninstall"),
     NEW("new"),
     BUILD("build"),
+    IN_MEMORY("--in-memory"),
+    PROFILE("--profile"),
+    WATCH("--watch"),
+    OFFLINE("--offline"),
     CLEAN("clean"),
     RUN("run"),
     DEP("dep"),
     SHOW_DEPENDENCIES("--show-dependencies"),
     TEST("test"),
+    AFFECTED("--affected"),
     EOT("<eot>"),
     UNKNOWN("<unknown>");
 
@@ -40,12 +45,17 @@ public enum CLITokenType {
         keywordMap.put(UNINSTALL.description, UNINSTALL);
         keywordMap.put(NEW.description, NEW);
         keywordMap.put(BUILD.description, BUILD);
+        keywordMap.put(IN_MEMORY.description, IN_MEMORY);
+        keywordMap.put(PROFILE.description, PROFILE);
+        keywordMap.put(WATCH.description, WATCH);
+        keywordMap.put(OFFLINE.description, OFFLINE);
         keywordMap.put(CLEAN.description, CLEAN);
         keywordMap.put(RUN.description, RUN);
         keywordMap.put(DEP.description, DEP);
         keywordMap.put("-s", SHOW_DEPENDENCIES);
         keywordMap.put(SHOW_DEPENDENCIES.description, SHOW_DEPENDENCIES);
         keywordMap.put(TEST.description, TEST);
+        keywordMap.put(AFFECTED.description, AFFECTED);
     }
 
     private String description;
@@ -20,7 +20,8 @@ public class CLIAstCommandDispatchVisitor implements CLIAstVisitor {
      */
     @Override
     public void visit(final BuildCommandAst buildCommand) {
-        final CLICommand build = new CLIBuildCommand(opts);
+        final CLICommand build = new CLIBuildCommand(opts, buildCommand.isInMemory(), buildCommand.isProfile(),
+                buildCommand.isWatch(), buildCommand.isOffline());
         build.execute();
     }
 
@@ -104,9 +105,10 @@ public class CLIAstCommandDispatchVisitor implements CLIAstVisitor {
     public void visit(final RunCommandAst runCommand) {
         CLICommand run = null;
         if (runCommand.getTarget() == null) {
-            run = new CLIRunCommand(opts, "none", runCommand.getArguments());
+            run = new CLIRunCommand(opts, "none", runCommand.getArguments(), runCommand.isWatch());
         } else {
-            run = new CLIRunCommand(opts, runCommand.getTarget().getId().spelling(), runCommand.getArguments());
+            run = new CLIRunCommand(opts, runCommand.getTarget().getId().spelling(), runCommand.getArguments(),
+                    runCommand.isWatch());
         }
 
         run.execute();
@@ -119,7 +121,8 @@ public class CLIAstCommandDispatchVisitor implements CLIAstVisitor {
      */
     @Override
     public void visit(final TestCommandAst testCommand) {
-
+        final CLICommand test = new CLITestCommand(opts, testCommand.isAffected());
+        test.execute();
     }
 
     /**
@@ -10,6 +10,14 @@ import com.tzj.garvel.common.spi.core.CoreServiceLoader;
 public enum CLICoreServiceImpl implements CLICoreService {
     INSTANCE;
 
+    /**
+     * Start the core up before any command is dispatched.
+     */
+    @Override
+    public void startup() {
+        CoreServiceLoader.INSTANCE.getCoreService().startup();
+    }
+
     /**
      * Dispatch the appropriate command to Core.
      *
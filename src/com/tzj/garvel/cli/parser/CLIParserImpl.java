@@ -17,6 +17,7 @@ import java.util.List;
 import static com.tzj.garvel.cli.api.parser.scanner.CLITokenType.EOT;
 import static com.tzj.garvel.cli.api.parser.scanner.CLITokenType.IDENTIFIER;
 import static com.tzj.garvel.cli.api.parser.scanner.CLITokenType.SHOW_DEPENDENCIES;
+import static com.tzj.garvel.cli.api.parser.scanner.CLITokenType.WATCH;
 import static com.tzj.garvel.common.parser.GarvelConstants.SPACE;
 import static com.tzj.garvel.common.spi.core.VCSType.NONE;
 
@@ -194,7 +195,7 @@ public enum CLIParserImpl implements CLIParser {
 
             case BUILD: {
                 acceptIt();
-                command = new BuildCommandAst();
+                command = parseBuildOptions();
             }
             break;
 
@@ -208,6 +209,11 @@ public enum CLIParserImpl implements CLIParser {
                 acceptIt();
 
                 final RunCommandAst runCommand = new RunCommandAst();
+                if (currentToken.kind() == WATCH) {
+                    acceptIt();
+                    runCommand.setWatch(true);
+                }
+
                 if (currentToken.kind() == IDENTIFIER) {
                     final TargetNameAst target = parseTargetName();
                     runCommand.setTarget(target);
@@ -246,7 +252,7 @@ public enum CLIParserImpl implements CLIParser {
 
             case TEST: {
                 acceptIt();
-                command = new TestCommandAst();
+                command = parseTestOptions();
             }
             break;
         }
@@ -254,6 +260,80 @@ public enum CLIParserImpl implements CLIParser {
         return command;
     }
 
+    /**
+     * BuildCommand ::= "build" (BuildOption)*
+     * BuildOption ::= "--in-memory" | "--profile" | "--watch" | "--offline"
+     *
+     * @return
+     */
+    private BuildCommandAst parseBuildOptions() {
+        final BuildCommandAst buildCommand = new BuildCommandAst();
+
+        while (true) {
+            switch (currentToken.kind()) {
+                case IN_MEMORY: {
+                    acceptIt();
+                    buildCommand.setInMemory(true);
+                }
+                break;
+
+                case PROFILE: {
+                    acceptIt();
+                    buildCommand.setProfile(true);
+                }
+                break;
+
+                case WATCH: {
+                    acceptIt();
+                    buildCommand.setWatch(true);
+                }
+                break;
+
+                case OFFLINE: {
+                    acceptIt();
+                    buildCommand.setOffline(true);
+                }
+                break;
+
+                case EOT:
+                    return buildCommand;
+
+                default: {
+                    CLIErrorHandler.errorAndExit("Unknown option \"%s\" for the `build` command", currentToken.spelling());
+                    return buildCommand;
+                }
+            }
+        }
+    }
+
+    /**
+     * TestCommand ::= "test" (TestOption)*
+     * TestOption ::= "--affected"
+     *
+     * @return
+     */
+    private TestCommandAst parseTestOptions() {
+        final TestCommandAst testCommand = new TestCommandAst();
+
+        while (true) {
+            switch (currentToken.kind()) {
+                case AFFECTED: {
+                    acceptIt();
+                    testCommand.setAffected(true);
+                }
+                break;
+
+                case EOT:
+                    return testCommand;
+
+                default: {
+                    CLIErrorHandler.errorAndExit("Unknown option \"%s\" for the `test` command", currentToken.spelling());
+                    return testCommand;
+                }
+            }
+        }
+    }
+
     private String parseDependencyVersion() {
         String version = null;
         try {
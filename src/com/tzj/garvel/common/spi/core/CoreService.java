@@ -12,5 +12,7 @@ import com.tzj.garvel.core.cache.exception.CacheManagerException;
 public interface CoreService {
     CommandResult runCommand(final CommandType cmd, final CommandParams cmdParams) throws CommandException;
 
+    void startup();
+
     void cleanup();
 }
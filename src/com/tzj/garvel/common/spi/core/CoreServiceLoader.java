@@ -2,14 +2,33 @@ package com.tzj.garvel.common.spi.core;
 
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.CoreServiceImpl;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.daemon.DaemonCoreService;
 
 /**
- * Mediate access to the core services for clients.
+ * Mediate access to the core services for clients. With `-Dgarvel.daemon=true`,
+ * the commands are forwarded to the Garvel daemon instead of being run in-process.
  */
 public enum CoreServiceLoader {
     INSTANCE;
 
     public CoreService getCoreService() {
+        if (GarvelCoreConstants.GARVEL_DAEMON_ENABLED) {
+            return DaemonCoreService.INSTANCE;
+        }
+
+        return CoreServiceImpl.INSTANCE;
+    }
+
+    /**
+     * The watch mode runs until it is interrupted, which would tie up the daemon long after
+     * the client has gone, so it always runs in-process - with the in-process core started
+     * up, even when the client itself talks to the daemon.
+     *
+     * @return
+     */
+    public CoreService getInProcessCoreService() {
+        CoreServiceImpl.INSTANCE.startup();
         return CoreServiceImpl.INSTANCE;
     }
 }
@@ -1,4 +1,11 @@
 package com.tzj.garvel.common.spi.core.command;
 
-public abstract class CommandParams {
+import java.io.Serializable;
+
+/**
+ * Command parameters are serialized when the command is forwarded to the Garvel daemon,
+ * so subclasses must only hold serializable state.
+ */
+public abstract class CommandParams implements Serializable {
+    private static final long serialVersionUID = -4125412587436124379L;
 }
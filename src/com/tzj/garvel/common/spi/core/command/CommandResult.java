@@ -1,4 +1,11 @@
 package com.tzj.garvel.common.spi.core.command;
 
-public abstract class CommandResult {
+import java.io.Serializable;
+
+/**
+ * Command results are serialized when the command is forwarded to the Garvel daemon,
+ * so subclasses must only hold serializable state.
+ */
+public abstract class CommandResult implements Serializable {
+    private static final long serialVersionUID = 7306423618540151264L;
 }
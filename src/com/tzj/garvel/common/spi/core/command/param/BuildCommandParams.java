@@ -3,4 +3,73 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class BuildCommandParams extends CommandParams {
+    private static final long serialVersionUID = 5221446025223702190L;
+
+    private boolean inMemory;
+    private boolean profile;
+    private boolean watch;
+    private boolean offline;
+
+    public BuildCommandParams() {
+    }
+
+    public BuildCommandParams(final boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public BuildCommandParams(final boolean inMemory, final boolean profile) {
+        this.inMemory = inMemory;
+        this.profile = profile;
+    }
+
+    public BuildCommandParams(final boolean inMemory, final boolean profile, final boolean watch) {
+        this.inMemory = inMemory;
+        this.profile = profile;
+        this.watch = watch;
+    }
+
+    public BuildCommandParams(final boolean inMemory, final boolean profile, final boolean watch, final boolean offline) {
+        this.inMemory = inMemory;
+        this.profile = profile;
+        this.watch = watch;
+        this.offline = offline;
+    }
+
+    /**
+     * Compile the project in memory, and write the JAR file directly from the
+     * compiled classes, bypassing `target/build`.
+     *
+     * @return
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * Record the timings of the build steps, and write the profile reports into `target`.
+     *
+     * @return
+     */
+    public boolean isProfile() {
+        return profile;
+    }
+
+    /**
+     * Keep watching the project after the build, and rebuild it whenever it changes.
+     *
+     * @return
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Build without touching the network, using the dependencies recorded in `Garvel.lock`
+     * and the JAR files already in the Garvel Cache.
+     *
+     * @return
+     */
+    public boolean isOffline() {
+        return offline;
+    }
 }
@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class CleanCommandParams extends CommandParams {
+    private static final long serialVersionUID = 5182566278188489250L;
+
     private final boolean includeLogs;
 
     public CleanCommandParams(final boolean includeLogs) {
@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class DepCommandParams extends CommandParams {
+    private static final long serialVersionUID = 6141899282130050574L;
+
     private final String groupId;
     private final String artifactId;
     private final String version;
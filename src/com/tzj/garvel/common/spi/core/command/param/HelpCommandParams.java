@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class HelpCommandParams extends CommandParams {
+    private static final long serialVersionUID = 7796433115593736539L;
+
     private final String commandName;
 
     public HelpCommandParams(final String commandName) {
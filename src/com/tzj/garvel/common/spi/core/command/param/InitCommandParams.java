@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class InitCommandParams extends CommandParams {
+    private static final long serialVersionUID = 7892679975238224029L;
 }
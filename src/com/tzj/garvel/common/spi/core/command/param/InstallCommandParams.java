@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class InstallCommandParams extends CommandParams {
+    private static final long serialVersionUID = 3448201831624389024L;
 }
@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class ListCommandParams extends CommandParams {
+    private static final long serialVersionUID = 5926546460317759212L;
 }
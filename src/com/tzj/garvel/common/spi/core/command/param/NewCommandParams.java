@@ -4,6 +4,8 @@ import com.tzj.garvel.common.spi.core.VCSType;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class NewCommandParams extends CommandParams {
+    private static final long serialVersionUID = 5267831866643488763L;
+
     private VCSType vcs;
     private String path;
 
@@ -3,14 +3,23 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class RunCommandParams extends CommandParams {
+    private static final long serialVersionUID = 3924815160150147117L;
+
     private final String target;
     private String[] args;
+    private boolean watch;
 
     public RunCommandParams(final String target, final String[] args) {
         this.target = target;
         this.args = args;
     }
 
+    public RunCommandParams(final String target, final String[] args, final boolean watch) {
+        this.target = target;
+        this.args = args;
+        this.watch = watch;
+    }
+
     public String[] getArgs() {
         return args;
     }
@@ -18,4 +27,13 @@ public class RunCommandParams extends CommandParams {
     public String getTarget() {
         return target;
     }
+
+    /**
+     * Keep watching the project, and rebuild and rerun it whenever it changes.
+     *
+     * @return
+     */
+    public boolean isWatch() {
+        return watch;
+    }
 }
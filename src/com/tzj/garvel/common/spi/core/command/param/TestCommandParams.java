@@ -3,4 +3,23 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class TestCommandParams extends CommandParams {
+    private static final long serialVersionUID = -3792037595404559341L;
+
+    private boolean affected;
+
+    public TestCommandParams() {
+    }
+
+    public TestCommandParams(final boolean affected) {
+        this.affected = affected;
+    }
+
+    /**
+     * Only run the test classes affected by the changes made since the last green run.
+     *
+     * @return
+     */
+    public boolean isAffected() {
+        return affected;
+    }
 }
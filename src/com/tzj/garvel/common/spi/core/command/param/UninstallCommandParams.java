@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class UninstallCommandParams extends CommandParams {
+    private static final long serialVersionUID = -8155150252722582520L;
 }
@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.param;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 
 public class VersionCommandParams extends CommandParams {
+    private static final long serialVersionUID = 5042523579730407115L;
 }
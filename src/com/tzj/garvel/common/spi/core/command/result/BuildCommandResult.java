@@ -3,36 +3,47 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class BuildCommandResult extends CommandResult {
-    private Path targetDir;
-    private Path depsDir;
-    private Path jarFile;
+    private static final long serialVersionUID = 4589689223107551810L;
+
+    private String targetDir;
+    private String depsDir;
+    private String jarFile;
 
     public BuildCommandResult() {
     }
 
     public Path getTargetDir() {
-        return targetDir;
+        return toPath(targetDir);
     }
 
     public void setTargetDir(final Path targetDir) {
-        this.targetDir = targetDir;
+        this.targetDir = toString(targetDir);
     }
 
     public Path getDepsDir() {
-        return depsDir;
+        return toPath(depsDir);
     }
 
     public void setDepsDir(final Path depsDir) {
-        this.depsDir = depsDir;
+        this.depsDir = toString(depsDir);
     }
 
     public Path getJarFile() {
-        return jarFile;
+        return toPath(jarFile);
     }
 
     public void setJarFile(final Path jarFile) {
-        this.jarFile = jarFile;
+        this.jarFile = toString(jarFile);
+    }
+
+    private static String toString(final Path path) {
+        return path == null ? null : path.toString();
+    }
+
+    private static Path toPath(final String path) {
+        return path == null ? null : Paths.get(path);
     }
 }
@@ -5,6 +5,8 @@ import com.tzj.garvel.common.spi.core.command.CommandResult;
 import java.nio.file.Path;
 
 public class CleanCommandResult extends CommandResult {
+    private static final long serialVersionUID = 8449038777701148841L;
+
     private boolean targetDirDeleted;
 
     public CleanCommandResult(final boolean targetDirDeleted) {
@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class DepCommandResult extends CommandResult {
+    private static final long serialVersionUID = -5578266619456125966L;
+
     private String versions;
     private boolean dependenciesInformationAvailable;
     private String dependencyGraphString;
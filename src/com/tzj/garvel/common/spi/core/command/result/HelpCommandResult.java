@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class HelpCommandResult extends CommandResult {
+    private static final long serialVersionUID = -5538086224126428086L;
+
     private String helpContents;
 
     public HelpCommandResult(final String helpContents) {
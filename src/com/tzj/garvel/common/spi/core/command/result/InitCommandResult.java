@@ -3,4 +3,5 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class InitCommandResult extends CommandResult {
+    private static final long serialVersionUID = 8944741048901546665L;
 }
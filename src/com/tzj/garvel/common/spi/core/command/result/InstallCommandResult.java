@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class InstallCommandResult extends CommandResult {
+    private static final long serialVersionUID = 438211738509186129L;
+
     private boolean garvelRoot;
     private boolean garvelCache;
 
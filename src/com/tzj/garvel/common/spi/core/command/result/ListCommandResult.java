@@ -5,6 +5,8 @@ import com.tzj.garvel.common.spi.core.command.CommandResult;
 import java.util.List;
 
 public class ListCommandResult extends CommandResult {
+    private static final long serialVersionUID = -2319525890221605496L;
+
     private List<String> validCommands;
 
     public ListCommandResult(final List<String> validCommands) {
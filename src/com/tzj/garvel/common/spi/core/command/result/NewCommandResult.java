@@ -3,33 +3,44 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class NewCommandResult extends CommandResult {
-    private Path projectPath;
-    private Path srcPath;
-    private Path testsPath;
-    private Path configPath;
+    private static final long serialVersionUID = -986617331342251990L;
+
+    private String projectPath;
+    private String srcPath;
+    private String testsPath;
+    private String configPath;
 
     public NewCommandResult(final Path projectPath, final Path srcPath, final Path testsPath, final Path configPath) {
-        this.projectPath = projectPath;
-        this.srcPath = srcPath;
-        this.testsPath = testsPath;
-        this.configPath = configPath;
+        this.projectPath = toString(projectPath);
+        this.srcPath = toString(srcPath);
+        this.testsPath = toString(testsPath);
+        this.configPath = toString(configPath);
     }
 
     public Path getProjectPath() {
-        return projectPath;
+        return toPath(projectPath);
     }
 
     public Path getSrcPath() {
-        return srcPath;
+        return toPath(srcPath);
     }
 
     public Path getTestsPath() {
-        return testsPath;
+        return toPath(testsPath);
     }
 
     public Path getConfigPath() {
-        return configPath;
+        return toPath(configPath);
+    }
+
+    private static String toString(final Path path) {
+        return path == null ? null : path.toString();
+    }
+
+    private static Path toPath(final String path) {
+        return path == null ? null : Paths.get(path);
     }
 }
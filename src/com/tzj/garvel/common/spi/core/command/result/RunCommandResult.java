@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class RunCommandResult extends CommandResult {
+    private static final long serialVersionUID = 3415344305565999273L;
+
     private boolean runSuccessful;
 
     public RunCommandResult() {
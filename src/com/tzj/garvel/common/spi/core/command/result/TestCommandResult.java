@@ -3,4 +3,58 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class TestCommandResult extends CommandResult {
+    private static final long serialVersionUID = 3455021104373449645L;
+
+    private int testClasses;
+    private int tests;
+    private int failures;
+    private int skipped;
+    private long durationMillis;
+
+    public TestCommandResult() {
+    }
+
+    public int getTestClasses() {
+        return testClasses;
+    }
+
+    public void setTestClasses(final int testClasses) {
+        this.testClasses = testClasses;
+    }
+
+    public int getTests() {
+        return tests;
+    }
+
+    public void setTests(final int tests) {
+        this.tests = tests;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public void setFailures(final int failures) {
+        this.failures = failures;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(final int skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(final long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public boolean isSuccessful() {
+        return failures == 0;
+    }
 }
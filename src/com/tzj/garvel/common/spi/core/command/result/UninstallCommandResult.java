@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class UninstallCommandResult extends CommandResult {
+    private static final long serialVersionUID = 175772040861437219L;
+
     private boolean garvelRoot;
     private boolean garvelCache;
 
@@ -3,6 +3,8 @@ package com.tzj.garvel.common.spi.core.command.result;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 
 public class VersionCommandResult extends CommandResult {
+    private static final long serialVersionUID = -821880025757030013L;
+
     private String versionSemverString;
 
     public VersionCommandResult(final String versionSemverString) {
@@ -23,6 +23,8 @@ public interface UtilService {
 
     String getSHA1(Path path);
 
+    String getSHA256(Path path);
+
     String convertStringsToOSSpecificClassPathString(List<String> paths);
 }
 
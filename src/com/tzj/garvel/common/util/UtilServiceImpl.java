@@ -232,6 +232,17 @@ public enum UtilServiceImpl implements UtilService {
         return getHash(path, "SHA1");
     }
 
+    /**
+     * Generate the SHA-256 hash of the given path.
+     *
+     * @param path
+     * @return
+     */
+    @Override
+    public String getSHA256(final Path path) {
+        return getHash(path, "SHA-256");
+    }
+
     /**
      * Conver the given absolute paths to platform-specific classpath entries.
      *
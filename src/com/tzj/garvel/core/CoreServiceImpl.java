@@ -6,6 +6,9 @@ import com.tzj.garvel.common.spi.core.command.CommandParams;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 import com.tzj.garvel.common.spi.core.command.CommandType;
 import com.tzj.garvel.core.cache.exception.CacheManagerException;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.concurrent.api.ExecutorMetrics;
+import com.tzj.garvel.core.dep.repo.RepositoryAvailabilityRegistry;
 import com.tzj.garvel.core.engine.Command;
 import com.tzj.garvel.core.engine.command.*;
 
@@ -73,11 +76,28 @@ public enum CoreServiceImpl implements CoreService {
     }
 
     /**
-     * Shut the ExecutorSevice (the Job Engine) down. Other daemon services could be
-     * added here in later versions.
+     * Apply the process-wide settings of the core (such as the JDK keep-alive cache used by
+     * the network service). Settings the user has made explicitly are kept.
+     */
+    @Override
+    public void startup() {
+        CoreModuleLoader.INSTANCE.getNetworkFramework().configure();
+    }
+
+    /**
+     * Shut the executors down, along with the services holding on to views of them.
      */
     @Override
     public void cleanup() {
-        CoreModuleLoader.INSTANCE.getConcurrencyFramework().getExecutor().shutdown();
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        if (GarvelCoreConstants.GARVEL_EXECUTOR_METRICS) {
+            for (final ExecutorMetrics metrics : concurrency.getMetrics()) {
+                System.err.println(metrics);
+            }
+        }
+
+        RepositoryAvailabilityRegistry.INSTANCE.shutdown();
+        CoreModuleLoader.INSTANCE.getNetworkFramework().shutdown();
+        concurrency.shutdown();
     }
 }
\ No newline at end of file
@@ -19,6 +19,72 @@ public class GarvelCoreConstants {
     public static final String GARVEL_CACHE_FILE = GARVEL_CACHE_DIR +
             File.separator + "cache.mapping";
 
+    // downloaded POM and maven-metadata.xml files
+    public static final String GARVEL_METADATA_CACHE_DIR = GARVEL_CACHE_DIR +
+            File.separator + "metadata";
+
+    // the effective (merged and interpolated) POM models of released versions
+    public static final String GARVEL_MODEL_CACHE_DIR = GARVEL_CACHE_DIR +
+            File.separator + "models";
+
+    // metadata files (and SNAPSHOT POMs) older than this are downloaded again.
+    // Released POMs never expire.
+    public static final long GARVEL_METADATA_CACHE_TTL = Long.getLong("garvel.metadata.ttl", 24 * 60 * 60) * 1000L;
+
+    // repository availability is re-probed (in the background) once it is older than this
+    public static final long GARVEL_REPOSITORY_STATUS_TTL = Long.getLong("garvel.repository.ttl", 5 * 60) * 1000L;
+
+    // limits on concurrent artifact (JAR) downloads - overall, and against a single repository
+    public static final int GARVEL_DOWNLOAD_THREADS = Integer.getInteger("garvel.download.threads", 8);
+
+    public static final int GARVEL_DOWNLOAD_THREADS_PER_REPOSITORY = Integer.getInteger("garvel.download.threads.repository", 4);
+
+    // a batch of downloads fails if none of them completes for this long
+    public static final long GARVEL_DOWNLOAD_TIMEOUT = Long.getLong("garvel.download.timeout", 5 * 60) * 1000L;
+
+    // how long the resolver waits for the POM of a single dependency
+    public static final long GARVEL_RESOLVER_TIMEOUT = Long.getLong("garvel.resolver.timeout", 2 * 60) * 1000L;
+
+    // the shared pools: blocking (network and file) I/O, and CPU-bound work
+    public static final int GARVEL_IO_THREADS = Integer.getInteger("garvel.io.threads", 64);
+
+    public static final int GARVEL_CPU_THREADS = Integer.getInteger("garvel.cpu.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    // the pool for the asynchronous network requests, which the I/O pool threads may wait on
+    public static final int GARVEL_NET_THREADS = Integer.getInteger("garvel.net.threads", 8);
+
+    // the maximum number of forked JVMs running tests
+    public static final int GARVEL_TEST_WORKERS = Integer.getInteger("garvel.test.workers",
+            Runtime.getRuntime().availableProcessors());
+
+    // the worker JVM running a test class for longer than this is killed
+    public static final long GARVEL_TEST_TIMEOUT = Long.getLong("garvel.test.timeout", 10 * 60) * 1000L;
+
+    // print the executor metrics on shutdown
+    public static final boolean GARVEL_EXECUTOR_METRICS = Boolean.getBoolean("garvel.executor.metrics");
+
+    // the number of threads deflating JAR entries concurrently
+    public static final int GARVEL_JAR_THREADS = Integer.getInteger("garvel.jar.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    // the watch mode waits for the file events to settle for this long before rebuilding
+    public static final long GARVEL_WATCH_DEBOUNCE = Long.getLong("garvel.watch.debounce", 200L);
+
+    // opt-in: forward commands to a long-lived daemon process (one per project directory)
+    public static final boolean GARVEL_DAEMON_ENABLED = Boolean.getBoolean("garvel.daemon");
+
+    public static final String GARVEL_DAEMON_DIR = GARVEL_DIR + File.separator + "daemon";
+
+    // an idle daemon shuts itself down after this long
+    public static final long GARVEL_DAEMON_IDLE_TIMEOUT = Long.getLong("garvel.daemon.idle", 3 * 60 * 60) * 1000L;
+
+    // how long a client waits for a newly started daemon to come up
+    public static final long GARVEL_DAEMON_STARTUP_TIMEOUT = Long.getLong("garvel.daemon.startup", 20) * 1000L;
+
+    // how long the daemon waits for a client to send its token and request
+    public static final long GARVEL_DAEMON_REQUEST_TIMEOUT = Long.getLong("garvel.daemon.request", 10) * 1000L;
+
     public static final String POSIX_PERMISSIONS = "rwxr-xr-x";
 
     // Garvel codebase specific
@@ -31,6 +97,9 @@ public class GarvelCoreConstants {
     public static final String GARVEL_PROJECT_SOURCE_ROOT = GARVEL_PROJECT_ROOT +
             File.separator + "src";
 
+    public static final String GARVEL_PROJECT_TESTS_ROOT = GARVEL_PROJECT_ROOT +
+            File.separator + "tests";
+
     public static final String GARVEl_PROJECT_CONFIG_FILE = GARVEL_PROJECT_ROOT +
             File.separator + "Garvel.gl";
 
@@ -43,6 +112,31 @@ public class GarvelCoreConstants {
     public static final String GARVEL_PROJECT_BUILD_DIR = GARVEL_PROJECT_TARGET_DIR +
             File.separator + "build";
 
+    public static final String GARVEL_PROJECT_INCREMENTAL_STATE_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "incremental.state";
+
+    // the fingerprints (and results) of the up-to-date build steps
+    public static final String GARVEL_PROJECT_TASK_STATE_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "tasks.state";
+
+    // the compiled tests, and the durations of the test classes as of their last run
+    public static final String GARVEL_PROJECT_TEST_CLASSES_DIR = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "test-classes";
+
+    public static final String GARVEL_PROJECT_TEST_TIMINGS_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "test-timings.properties";
+
+    // the class-level dependency index of the tests, as of the last green run
+    public static final String GARVEL_PROJECT_TEST_INDEX_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "test-deps.index";
+
+    // the reports of `garvel build --profile`
+    public static final String GARVEL_PROJECT_PROFILE_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "profile.json";
+
+    public static final String GARVEL_PROJECT_PROFILE_TRACE_FILE = GARVEL_PROJECT_TARGET_DIR +
+            File.separator + "profile.trace.json";
+
     public static final String GARVEL_PROJECT_DEPS_DIR = GARVEL_PROJECT_TARGET_DIR +
             File.separator + "deps";
 
@@ -1,11 +1,15 @@
 package com.tzj.garvel.core.builder.api;
 
 import java.util.List;
+import java.util.Map;
 
 public class CompilationResult {
     private boolean successful;
     private List<String> diagnostics;
 
+    // only populated by the in-memory compiler
+    private Map<String, byte[]> classFiles;
+
     public CompilationResult() {
     }
 
@@ -24,4 +28,18 @@ public class CompilationResult {
     public void setDiagnostics(final List<String> diagnostics) {
         this.diagnostics = diagnostics;
     }
+
+    /**
+     * The compiled class files, keyed by their JAR entry name, if the compiler kept
+     * them in memory. Null otherwise.
+     *
+     * @return
+     */
+    public Map<String, byte[]> getClassFiles() {
+        return classFiles;
+    }
+
+    public void setClassFiles(final Map<String, byte[]> classFiles) {
+        this.classFiles = classFiles;
+    }
 }
@@ -1,11 +1,12 @@
 package com.tzj.garvel.core.builder.api.compiler;
 
+import com.tzj.garvel.core.builder.compiler.javax.InMemoryJavaCompiler;
 import com.tzj.garvel.core.builder.compiler.javax.JavaxJavaCompiler;
 import com.tzj.garvel.core.builder.compiler.system.SystemJavaCompiler;
 
 /**
  * Factory for the Java compiler to use for building the project. Currently, this only
- * supports the javax.tools Java Compiler.
+ * supports the javax.tools Java Compiler, writing the classes either to disk or to memory.
  */
 public class CompilerFactory {
     private CompilerFactory() {
@@ -21,6 +22,9 @@ public class CompilerFactory {
             case SYSTEM_JAVACOMPILER:
                 compiler = new SystemJavaCompiler();
                 break;
+            case IN_MEMORY_JAVACOMPILER:
+                compiler = new InMemoryJavaCompiler();
+                break;
         }
 
         return compiler;
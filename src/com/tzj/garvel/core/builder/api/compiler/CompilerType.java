@@ -2,5 +2,6 @@ package com.tzj.garvel.core.builder.api.compiler;
 
 public enum CompilerType {
     JAVAX_JAVACOMPILER,
-    SYSTEM_JAVACOMPILER;
+    SYSTEM_JAVACOMPILER,
+    IN_MEMORY_JAVACOMPILER;
 }
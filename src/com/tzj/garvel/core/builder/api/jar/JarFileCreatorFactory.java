@@ -1,7 +1,9 @@
 package com.tzj.garvel.core.builder.api.jar;
 
 import com.tzj.garvel.core.builder.jar.FatJarCreator;
+import com.tzj.garvel.core.builder.jar.InMemoryJarFileCreator;
 import com.tzj.garvel.core.builder.jar.NormalJarFileCreator;
+import com.tzj.garvel.core.builder.jar.ParallelJarFileCreator;
 
 import java.nio.file.Path;
 
@@ -22,6 +24,12 @@ public class JarFileCreatorFactory {
             case FAT_JAR:
                 jarService = new FatJarCreator();
                 break;
+            case IN_MEMORY_JAR:
+                jarService = new InMemoryJarFileCreator();
+                break;
+            case PARALLEL_JAR:
+                jarService = new ParallelJarFileCreator();
+                break;
         }
 
         return jarService;
@@ -1,10 +1,16 @@
 package com.tzj.garvel.core.builder.api.jar;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
 public class JarFileCreatorOptions {
     private String jarFileName;
     private String manifestVersion;
     private String mainClass;
     private String classPathString;
+    private Map<String, byte[]> classFiles;
+    private List<Path> dependencyJars;
 
     public JarFileCreatorOptions() {
     }
@@ -40,4 +46,32 @@ public class JarFileCreatorOptions {
     public void setMainClass(final String mainClass) {
         this.mainClass = mainClass;
     }
+
+    /**
+     * The compiled class files, keyed by their JAR entry name, when the classes
+     * were compiled in memory.
+     *
+     * @return
+     */
+    public Map<String, byte[]> getClassFiles() {
+        return classFiles;
+    }
+
+    public void setClassFiles(final Map<String, byte[]> classFiles) {
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * The dependency JAR files on the project classpath, in classpath order. These
+     * are bundled into the project JAR when a fat JAR is requested.
+     *
+     * @return
+     */
+    public List<Path> getDependencyJars() {
+        return dependencyJars;
+    }
+
+    public void setDependencyJars(final List<Path> dependencyJars) {
+        this.dependencyJars = dependencyJars;
+    }
 }
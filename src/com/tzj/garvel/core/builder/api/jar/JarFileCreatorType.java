@@ -2,5 +2,7 @@ package com.tzj.garvel.core.builder.api.jar;
 
 public enum JarFileCreatorType {
     NORMAL_JAR,
-    FAT_JAR;
+    FAT_JAR,
+    IN_MEMORY_JAR,
+    PARALLEL_JAR;
 }
@@ -0,0 +1,51 @@
+package com.tzj.garvel.core.builder.compiler.javax;
+
+import com.tzj.garvel.core.builder.api.CompilationResult;
+import com.tzj.garvel.core.builder.api.exception.CompilationException;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * This uses the Java builder provided by the JDK Tools library, but keeps the compiled
+ * classes in memory instead of writing them out to the build directory. The class files
+ * are handed back in the CompilationResult, ready to be written straight into the JAR file.
+ * <p>
+ * The build directory is therefore ignored, and the `-d` option must not be supplied.
+ */
+public class InMemoryJavaCompiler extends JavaxJavaCompiler {
+    @Override
+    public CompilationResult compile(final Path buildDirPath, final List<File> srcFiles,
+                                     final List<String> compilationOptions) throws CompilationException {
+        // setup
+        final JavaCompiler compiler = validateCompiler();
+        final DiagnosticCollector<JavaFileObject> diags = new DiagnosticCollector<>();
+        final StandardJavaFileManager standardManager = compiler.getStandardFileManager(diags, Locale.getDefault(), Charset.forName("UTF-8"));
+
+        // the compiler threads may publish the outputs concurrently
+        final Map<String, byte[]> classFiles = Collections.synchronizedMap(new TreeMap<String, byte[]>());
+
+        final CompilationResult compilationResult;
+        try (JavaFileManager manager = new InMemoryJavaFileManager(standardManager, classFiles)) {
+            final Iterable<? extends JavaFileObject> units = standardManager.getJavaFileObjectsFromFiles(srcFiles);
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, manager, diags, compilationOptions, null, units);
+
+            // invoke
+            task.call();
+
+            compilationResult = getCompilationResult(diags);
+        } catch (IOException e) {
+            throw new CompilationException(String.format("failed to close the compiler file manager: %s\n", e.getLocalizedMessage()));
+        }
+
+        if (compilationResult.isSuccessful()) {
+            compilationResult.setClassFiles(new TreeMap<>(classFiles));
+        }
+
+        return compilationResult;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tzj.garvel.core.builder.compiler.javax;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A file manager that delegates everything to the standard file manager, except for
+ * the compiler output, which is captured in memory instead of being written out to
+ * the class output directory.
+ * <p>
+ * The captured outputs are keyed by their JAR entry name, i.e., `com/foo/Bar$Baz.class`.
+ */
+public class InMemoryJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private static final char SLASH = '/';
+
+    private final Map<String, byte[]> outputs;
+
+    public InMemoryJavaFileManager(final StandardJavaFileManager fileManager, final Map<String, byte[]> outputs) {
+        super(fileManager);
+        this.outputs = outputs;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                               final JavaFileObject.Kind kind, final FileObject sibling) throws IOException {
+        if (location != StandardLocation.CLASS_OUTPUT) {
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+
+        return new InMemoryOutputFile(className.replace('.', SLASH) + kind.extension, kind, outputs);
+    }
+
+    @Override
+    public FileObject getFileForOutput(final Location location, final String packageName,
+                                       final String relativeName, final FileObject sibling) throws IOException {
+        if (location != StandardLocation.CLASS_OUTPUT) {
+            return super.getFileForOutput(location, packageName, relativeName, sibling);
+        }
+
+        final String entryName = packageName == null || packageName.isEmpty()
+                ? relativeName
+                : packageName.replace('.', SLASH) + SLASH + relativeName;
+
+        return new InMemoryOutputFile(entryName, JavaFileObject.Kind.OTHER, outputs);
+    }
+
+    @Override
+    public boolean isSameFile(final FileObject a, final FileObject b) {
+        if (a instanceof InMemoryOutputFile || b instanceof InMemoryOutputFile) {
+            return a.toUri().equals(b.toUri());
+        }
+
+        return super.isSameFile(a, b);
+    }
+}
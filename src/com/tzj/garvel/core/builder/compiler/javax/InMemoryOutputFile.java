@@ -0,0 +1,41 @@
+package com.tzj.garvel.core.builder.compiler.javax;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A compiler output file (a class file, or a resource generated during compilation)
+ * that is kept in memory. Once the compiler closes the output stream, the contents are
+ * published to the shared map of outputs, keyed by their JAR entry name.
+ */
+public class InMemoryOutputFile extends SimpleJavaFileObject {
+    private static final String SCHEME = "mem:///";
+
+    private final String entryName;
+    private final Map<String, byte[]> outputs;
+
+    public InMemoryOutputFile(final String entryName, final Kind kind, final Map<String, byte[]> outputs) {
+        super(URI.create(SCHEME + entryName), kind);
+        this.entryName = entryName;
+        this.outputs = outputs;
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    @Override
+    public OutputStream openOutputStream() throws IOException {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                outputs.put(entryName, toByteArray());
+            }
+        };
+    }
+}
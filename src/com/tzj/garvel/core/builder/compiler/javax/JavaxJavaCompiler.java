@@ -38,6 +38,16 @@ public class JavaxJavaCompiler implements Compiler {
         // invoke
         task.call();
 
+        return getCompilationResult(diags);
+    }
+
+    /**
+     * Convert the diagnostics reported by the compiler into the CompilationResult.
+     *
+     * @param diags
+     * @return
+     */
+    protected CompilationResult getCompilationResult(final DiagnosticCollector<JavaFileObject> diags) {
         final CompilationResult compilationResult = new CompilationResult();
 
         // report any compilation errors.
@@ -65,7 +75,7 @@ public class JavaxJavaCompiler implements Compiler {
      * and the returned Java compiler is not null,
      * then the user's system does have a JDK installed.
      */
-    private JavaCompiler validateCompiler() throws CompilationException {
+    protected JavaCompiler validateCompiler() throws CompilationException {
         try {
             Class.forName(TOOL_PROVIDER);
         } catch (ClassNotFoundException e) {
@@ -0,0 +1,54 @@
+package com.tzj.garvel.core.builder.incremental;
+
+import java.util.Set;
+
+/**
+ * The information extracted from a compiled class file that the incremental
+ * build needs: the name of the class, the source file it was compiled from, the
+ * names of all the classes that it refers to, and whether it declares any compile-time
+ * constants.
+ * <p>
+ * Class names are in their internal form, i.e., `com/foo/Bar$Baz`.
+ */
+public class ClassFileInfo {
+    private final String className;
+    private final String sourceFile;
+    private final Set<String> references;
+    private final boolean declaresConstants;
+
+    public ClassFileInfo(final String className, final String sourceFile, final Set<String> references,
+                         final boolean declaresConstants) {
+        this.className = className;
+        this.sourceFile = sourceFile;
+        this.references = references;
+        this.declaresConstants = declaresConstants;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * The path of the source file, relative to the source root, and using `/` as the
+     * separator, i.e., `com/foo/Bar.java`.
+     *
+     * @return
+     */
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    public Set<String> getReferences() {
+        return references;
+    }
+
+    /**
+     * True if any field of the class has a `ConstantValue` attribute, i.e., is a compile-time
+     * constant that javac inlines into the classes using it.
+     *
+     * @return
+     */
+    public boolean declaresConstants() {
+        return declaresConstants;
+    }
+}
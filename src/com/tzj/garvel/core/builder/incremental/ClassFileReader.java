@@ -0,0 +1,263 @@
+package com.tzj.garvel.core.builder.incremental;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A minimal class file reader that extracts the class-level dependencies of a
+ * compiled class from its constant pool.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Read the constant pool, remembering the UTF-8 entries, the class entries, and
+ * the UTF-8 entries which are used as String literals.
+ * 2. Every class entry is a reference (array types are reduced to their element type).
+ * 3. Every other UTF-8 entry is scanned for the `Lcom/foo/Bar;` shape of field and method
+ * descriptors and generic signatures, so that types which only appear in signatures are
+ * also picked up.
+ * 4. Note whether any of the fields has a `ConstantValue` attribute, skip the methods, and
+ * read the `SourceFile` attribute of the class.
+ * <p>
+ * Compile-time constants are inlined by javac, and leave no trace in the constant pool of
+ * the classes that use them - which is why the classes declaring them are flagged instead
+ * (see IncrementalBuildState).
+ */
+public class ClassFileReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String JAVA = ".java";
+    private static final String SOURCE_FILE = "SourceFile";
+    private static final String CONSTANT_VALUE = "ConstantValue";
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassFileReader() {
+    }
+
+    /**
+     * Read the given class file.
+     *
+     * @param classFile
+     * @return
+     * @throws IOException
+     */
+    public static ClassFileInfo read(final Path classFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile.toFile())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a class file", classFile));
+            }
+
+            // minor and major versions
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+
+            final int poolSize = in.readUnsignedShort();
+            final String[] utf8 = new String[poolSize];
+            final int[] classNameIndices = new int[poolSize];
+            final boolean[] literals = new boolean[poolSize];
+
+            for (int i = 1; i < poolSize; i++) {
+                final int tag = in.readUnsignedByte();
+
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        utf8[i] = in.readUTF();
+                        break;
+                    case CONSTANT_CLASS:
+                        classNameIndices[i] = in.readUnsignedShort();
+                        break;
+                    case CONSTANT_STRING:
+                        literals[in.readUnsignedShort()] = true;
+                        break;
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        in.readUnsignedShort();
+                        break;
+                    case CONSTANT_METHOD_HANDLE:
+                        in.readUnsignedByte();
+                        in.readUnsignedShort();
+                        break;
+                    case CONSTANT_INTEGER:
+                    case CONSTANT_FLOAT:
+                    case CONSTANT_FIELDREF:
+                    case CONSTANT_METHODREF:
+                    case CONSTANT_INTERFACE_METHODREF:
+                    case CONSTANT_NAME_AND_TYPE:
+                    case CONSTANT_DYNAMIC:
+                    case CONSTANT_INVOKE_DYNAMIC:
+                        in.readInt();
+                        break;
+                    case CONSTANT_LONG:
+                    case CONSTANT_DOUBLE:
+                        in.readLong();
+                        // these take up two slots
+                        i++;
+                        break;
+                    default:
+                        throw new IOException(String.format("%s: unknown constant pool tag %d", classFile, tag));
+                }
+            }
+
+            in.readUnsignedShort(); // access flags
+            final String className = utf8[classNameIndices[in.readUnsignedShort()]];
+            if (className == null) {
+                throw new IOException(String.format("%s: malformed class file", classFile));
+            }
+
+            final Set<String> references = new HashSet<>();
+            for (int i = 1; i < poolSize; i++) {
+                if (classNameIndices[i] != 0) {
+                    addClassReference(utf8[classNameIndices[i]], references);
+                }
+            }
+
+            for (int i = 1; i < poolSize; i++) {
+                if (utf8[i] != null && !literals[i]) {
+                    addDescriptorReferences(utf8[i], references);
+                }
+            }
+            references.remove(className);
+
+            // super class, interfaces, fields and methods
+            in.readUnsignedShort();
+            skip(in, 2 * in.readUnsignedShort());
+            final boolean declaresConstants = readFields(in, utf8);
+            skipMembers(in);
+
+            String sourceFileName = null;
+            final int attributeCount = in.readUnsignedShort();
+            for (int i = 0; i < attributeCount; i++) {
+                final String name = utf8[in.readUnsignedShort()];
+                final int length = in.readInt();
+
+                if (SOURCE_FILE.equals(name)) {
+                    sourceFileName = utf8[in.readUnsignedShort()];
+                    skip(in, length - 2);
+                } else {
+                    skip(in, length);
+                }
+            }
+
+            return new ClassFileInfo(className, getSourceFile(className, sourceFileName), references, declaresConstants);
+        }
+    }
+
+    private static void skip(final DataInputStream in, final int n) throws IOException {
+        int remaining = n;
+        while (remaining > 0) {
+            final int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                in.readByte();
+                remaining--;
+            } else {
+                remaining -= skipped;
+            }
+        }
+    }
+
+    /**
+     * Skip the fields, noting whether any of them is a constant (has a `ConstantValue` attribute).
+     */
+    private static boolean readFields(final DataInputStream in, final String[] utf8) throws IOException {
+        boolean declaresConstants = false;
+
+        final int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access flags, name, descriptor
+            final int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                if (CONSTANT_VALUE.equals(utf8[in.readUnsignedShort()])) {
+                    declaresConstants = true;
+                }
+                skip(in, in.readInt());
+            }
+        }
+
+        return declaresConstants;
+    }
+
+    private static void skipMembers(final DataInputStream in) throws IOException {
+        final int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access flags, name, descriptor
+            final int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                skip(in, 2);
+                skip(in, in.readInt());
+            }
+        }
+    }
+
+    private static void addClassReference(final String name, final Set<String> references) {
+        if (name == null) {
+            return;
+        }
+
+        if (name.startsWith("[")) {
+            addDescriptorReferences(name, references);
+        } else {
+            references.add(name);
+        }
+    }
+
+    /**
+     * Pick out every `Lname;` (or `Lname<`, in generic signatures) in the given string.
+     */
+    private static void addDescriptorReferences(final String s, final Set<String> references) {
+        int start = s.indexOf('L');
+        while (start != -1) {
+            int end = start + 1;
+            while (end < s.length() && s.charAt(end) != ';' && s.charAt(end) != '<' &&
+                    s.charAt(end) != '(' && s.charAt(end) != ')' && s.charAt(end) != ' ') {
+                end++;
+            }
+
+            if (end < s.length() && end > start + 1 && (s.charAt(end) == ';' || s.charAt(end) == '<')) {
+                references.add(s.substring(start + 1, end));
+                start = s.indexOf('L', end);
+            } else {
+                start = s.indexOf('L', start + 1);
+            }
+        }
+    }
+
+    /**
+     * The source file of a class is `SourceFile` in the package directory of the class. If the
+     * attribute is missing (classes compiled with `-g:none`), assume that the source file is
+     * named after the top-level class.
+     */
+    private static String getSourceFile(final String className, final String sourceFileName) {
+        final int slash = className.lastIndexOf('/');
+        final String packageDir = slash == -1 ? "" : className.substring(0, slash + 1);
+
+        if (sourceFileName != null) {
+            return packageDir + sourceFileName;
+        }
+
+        final String simpleName = className.substring(slash + 1);
+        final int dollar = simpleName.indexOf('$');
+
+        return packageDir + (dollar == -1 ? simpleName : simpleName.substring(0, dollar)) + JAVA;
+    }
+}
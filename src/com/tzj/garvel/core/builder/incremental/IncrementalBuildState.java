@@ -0,0 +1,189 @@
+package com.tzj.garvel.core.builder.incremental;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The state persisted between incremental builds (in `target/incremental.state`):
+ * <p>
+ * 1. the classpath that the project was compiled against.
+ * 2. the fingerprint of every source file, keyed by its path relative to the source root.
+ * 3. the classes generated from every source file.
+ * 4. the classes referenced by every generated class - the class-level dependency map.
+ * 5. the source files declaring compile-time constants. Uses of those constants are inlined,
+ * so they do not show up in the dependency map - a change to such a source file affects
+ * every other source file.
+ * <p>
+ * Class names are in their internal form, i.e., `com/foo/Bar$Baz`.
+ */
+public class IncrementalBuildState implements Serializable {
+    private static final long serialVersionUID = 3620994481563024187L;
+
+    private final String classPath;
+    private final Map<String, SourceFingerprint> fingerprints;
+    private final Map<String, Set<String>> sourceClasses;
+    private final Map<String, Set<String>> classReferences;
+    private final Set<String> constantSources;
+
+    public IncrementalBuildState(final String classPath) {
+        this.classPath = classPath;
+        this.fingerprints = new HashMap<>();
+        this.sourceClasses = new HashMap<>();
+        this.classReferences = new HashMap<>();
+        this.constantSources = new HashSet<>();
+    }
+
+    public String getClassPath() {
+        return classPath;
+    }
+
+    public Map<String, SourceFingerprint> getFingerprints() {
+        return fingerprints;
+    }
+
+    /**
+     * The classes generated from the given source file.
+     *
+     * @param source
+     * @return
+     */
+    public Set<String> getClasses(final String source) {
+        final Set<String> classes = sourceClasses.get(source);
+        return classes == null ? Collections.<String>emptySet() : classes;
+    }
+
+    /**
+     * The classes referenced by the given class.
+     *
+     * @param className
+     * @return
+     */
+    public Set<String> getReferences(final String className) {
+        final Set<String> references = classReferences.get(className);
+        return references == null ? Collections.<String>emptySet() : references;
+    }
+
+    /**
+     * The source files which declare compile-time constants.
+     *
+     * @return
+     */
+    public Set<String> getConstantSources() {
+        return constantSources;
+    }
+
+    /**
+     * The source file of every class of the project.
+     *
+     * @return
+     */
+    public Map<String, String> getClassSources() {
+        final Map<String, String> classSource = new HashMap<>();
+        for (final Map.Entry<String, Set<String>> entry : sourceClasses.entrySet()) {
+            for (final String className : entry.getValue()) {
+                classSource.put(className, entry.getKey());
+            }
+        }
+
+        return classSource;
+    }
+
+    /**
+     * Record a class generated from the given source file, along with its references.
+     *
+     * @param source
+     * @param classInfo
+     */
+    public void addClass(final String source, final ClassFileInfo classInfo) {
+        Set<String> classes = sourceClasses.get(source);
+        if (classes == null) {
+            classes = new HashSet<>();
+            sourceClasses.put(source, classes);
+        }
+
+        classes.add(classInfo.getClassName());
+        classReferences.put(classInfo.getClassName(), classInfo.getReferences());
+
+        if (classInfo.declaresConstants()) {
+            constantSources.add(source);
+        }
+    }
+
+    /**
+     * Forget everything about the given source file and its classes.
+     *
+     * @param source
+     */
+    public void removeSource(final String source) {
+        fingerprints.remove(source);
+        constantSources.remove(source);
+
+        final Set<String> classes = sourceClasses.remove(source);
+        if (classes != null) {
+            for (final String className : classes) {
+                classReferences.remove(className);
+            }
+        }
+    }
+
+    /**
+     * Find the source files which (directly or transitively) depend on the classes of
+     * the given source files, by walking the class-level dependency map backwards.
+     * <p>
+     * If any of the given source files declares compile-time constants, whose uses leave no
+     * trace in the dependency map, every other source file is considered dependent.
+     *
+     * @param sources
+     * @return the dependent source files, excluding the given ones.
+     */
+    public Set<String> getDependentSources(final Collection<String> sources) {
+        if (!Collections.disjoint(sources, constantSources)) {
+            final Set<String> all = new HashSet<>(fingerprints.keySet());
+            all.addAll(sourceClasses.keySet());
+            all.removeAll(sources);
+
+            return all;
+        }
+
+        // invert the dependency map, only keeping references to project classes
+        final Map<String, String> classSource = getClassSources();
+
+        final Map<String, Set<String>> dependents = new HashMap<>();
+        for (final Map.Entry<String, Set<String>> entry : classReferences.entrySet()) {
+            final String dependent = classSource.get(entry.getKey());
+
+            for (final String reference : entry.getValue()) {
+                final String referencedSource = classSource.get(reference);
+                if (referencedSource == null || referencedSource.equals(dependent)) {
+                    continue;
+                }
+
+                Set<String> ds = dependents.get(referencedSource);
+                if (ds == null) {
+                    ds = new HashSet<>();
+                    dependents.put(referencedSource, ds);
+                }
+                ds.add(dependent);
+            }
+        }
+
+        final Set<String> visited = new HashSet<>(sources);
+        final Deque<String> queue = new ArrayDeque<>(sources);
+        while (!queue.isEmpty()) {
+            final Set<String> ds = dependents.get(queue.poll());
+            if (ds == null) {
+                continue;
+            }
+
+            for (final String d : ds) {
+                if (visited.add(d)) {
+                    queue.add(d);
+                }
+            }
+        }
+
+        visited.removeAll(sources);
+
+        return visited;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tzj.garvel.core.builder.incremental;
+
+import java.io.Serializable;
+
+/**
+ * The fingerprint of a source file as of its last successful compilation. The size and
+ * modification time are checked first, and the (more expensive) SHA1 hash is only consulted
+ * if they differ, so that merely touching a file does not trigger a recompilation.
+ */
+public class SourceFingerprint implements Serializable {
+    private static final long serialVersionUID = 2919405327153468571L;
+
+    private final long size;
+    private final long lastModified;
+    private final String hash;
+
+    public SourceFingerprint(final long size, final long lastModified, final String hash) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tzj.garvel.core.builder.incremental;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The source files of the project as already known to the caller (the watch mode keeps them
+ * in memory), along with the ones which may have changed since the last build. This spares
+ * the incremental build from walking the source tree, and from checking every source file.
+ * <p>
+ * Source files are keyed by their path relative to the source root, and using `/` as the
+ * separator, i.e., `com/foo/Bar.java`.
+ */
+public class SourceSet {
+    private final Map<String, File> sources;
+    private final Set<String> touched;
+
+    /**
+     * @param sources the source files of the project.
+     * @param touched the source files which may have changed since the last build. The
+     *                others are taken to be unchanged.
+     */
+    public SourceSet(final Map<String, File> sources, final Set<String> touched) {
+        this.sources = Collections.unmodifiableMap(sources);
+        this.touched = Collections.unmodifiableSet(touched);
+    }
+
+    public Map<String, File> getSources() {
+        return sources;
+    }
+
+    public boolean isTouched(final String source) {
+        return touched.contains(source);
+    }
+}
@@ -1,14 +1,269 @@
 package com.tzj.garvel.core.builder.jar;
 
-import com.tzj.garvel.core.builder.api.jar.JarFileCreator;
+import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.builder.api.exception.JarFileCreationException;
 import com.tzj.garvel.core.builder.api.jar.JarFileCreatorOptions;
+import com.tzj.garvel.core.builder.jar.zip.MappedZipFile;
+import com.tzj.garvel.core.builder.jar.zip.RawZipWriter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
-public class FatJarCreator implements JarFileCreator {
+/**
+ * Creates a self-contained ("fat") JAR file, holding the project classes as well as the
+ * contents of every dependency JAR on the project classpath.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Write the manifest (without a Class-Path attribute, since everything is bundled) and
+ * the project entries, deflating them concurrently as the ParallelJarFileCreator does.
+ * 2. Copy the entries of every dependency JAR, in classpath order, straight from the memory-mapped
+ * source file into the new JAR. The compressed data is never inflated, and the CRC and sizes are
+ * taken from the source central directory.
+ * 3. Write the merged META-INF/services files at the end.
+ * <p>
+ * Rules for the dependency entries:
+ * <p>
+ * 1. The first entry with a given name wins - the project entries, then the dependencies in
+ * classpath order (the same order in which a class loader would have found them).
+ * 2. Manifests, signature files (*.SF, *.DSA, *.RSA, *.EC, SIG-*), INDEX.LIST, and module
+ * descriptors are dropped, since they are not valid for the merged JAR.
+ * 3. The META-INF/services provider files are merged line by line, keeping the first
+ * occurrence of every provider, instead of being subject to rule 1.
+ * <p>
+ * For an in-memory build, the project classes come from the options instead, and the given
+ * directory is the source root, of which only the resources are bundled (as the
+ * InMemoryJarFileCreator does).
+ */
+public class FatJarCreator extends ParallelJarFileCreator {
+    private static final String META_INF = "META-INF/";
+    private static final String SERVICES = "META-INF/services/";
+    private static final String VERSIONS = "META-INF/versions/";
+    private static final String MODULE_INFO = "module-info.class";
+    private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+    private static final String[] SIGNATURE_SUFFIXES = {".SF", ".DSA", ".RSA", ".EC"};
+    private static final String SIGNATURE_PREFIX = "SIG-";
+    private static final String JAVA = ".java";
+
+    /**
+     * Create the JAR File.
+     *
+     * @param buildDirPath
+     * @param options
+     * @return
+     * @throws JarFileCreationException
+     */
     @Override
     public Path createJarFile(final Path buildDirPath, final JarFileCreatorOptions options) throws JarFileCreationException {
-        return null;
+        final Map<String, byte[]> classFiles = options.getClassFiles();
+        final SortedMap<String, Path> files = getFiles(buildDirPath);
+        if (classFiles != null) {
+            removeSourceFiles(files, classFiles);
+        }
+
+        final SortedMap<String, Set<String>> services = new TreeMap<>();
+        int duplicates = 0;
+
+        try (RawZipWriter writer = new RawZipWriter(options.getJarFileName())) {
+            // the project service files are merged along with the dependency ones
+            final Iterator<Map.Entry<String, Path>> it = files.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, Path> file = it.next();
+                if (isServiceFile(file.getKey())) {
+                    mergeServiceFile(services, file.getKey(), Files.readAllBytes(file.getValue()));
+                    it.remove();
+                }
+            }
+
+            writeEntries(writer, getFatJarManifest(options), files);
+
+            if (classFiles != null) {
+                for (final Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                    if (isServiceFile(classFile.getKey())) {
+                        mergeServiceFile(services, classFile.getKey(), classFile.getValue());
+                    } else {
+                        writeEntry(writer, classFile.getKey(), classFile.getValue());
+                    }
+                }
+            }
+
+            final List<Path> dependencyJars = options.getDependencyJars();
+            if (dependencyJars != null) {
+                for (final Path dependencyJar : dependencyJars) {
+                    duplicates += copyDependencyJar(writer, dependencyJar, services);
+                }
+            }
+
+            for (final Map.Entry<String, Set<String>> service : services.entrySet()) {
+                writeEntry(writer, service.getKey(), joinLines(service.getValue()));
+            }
+        } catch (IOException e) {
+            throw new JarFileCreationException(String.format("Unable to create the JAR file: %s", e.getLocalizedMessage()));
+        }
+
+        if (duplicates > 0) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tSkipped %d duplicate dependency entries", duplicates);
+        }
+
+        return Paths.get(options.getJarFileName());
+    }
+
+    /**
+     * In-memory builds bundle the resources from the source root - but not the sources, nor
+     * the resources which were generated anew during compilation.
+     *
+     * @param files
+     * @param classFiles
+     */
+    private void removeSourceFiles(final SortedMap<String, Path> files, final Map<String, byte[]> classFiles) {
+        final Iterator<String> it = files.keySet().iterator();
+        while (it.hasNext()) {
+            final String name = it.next();
+            if (name.endsWith(JAVA) || classFiles.containsKey(name)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The dependencies are bundled, so there is no Class-Path.
+     *
+     * @param options
+     * @return
+     */
+    private Manifest getFatJarManifest(final JarFileCreatorOptions options) {
+        final Manifest mf = getManifest(options);
+        mf.getMainAttributes().remove(Attributes.Name.CLASS_PATH);
+
+        return mf;
+    }
+
+    /**
+     * Copy the entries of a dependency JAR, raw.
+     *
+     * @param writer
+     * @param dependencyJar
+     * @param services
+     * @return the number of (non-directory) entries skipped because they were already present.
+     * @throws IOException
+     */
+    private int copyDependencyJar(final RawZipWriter writer, final Path dependencyJar,
+                                  final Map<String, Set<String>> services) throws IOException {
+        int duplicates = 0;
+
+        try (MappedZipFile zip = new MappedZipFile(dependencyJar)) {
+            for (final MappedZipFile.Entry entry : zip.getEntries()) {
+                final String name = entry.getName();
+
+                if (isExcluded(name)) {
+                    continue;
+                }
+
+                if (isServiceFile(name)) {
+                    mergeServiceFile(services, name, zip.read(entry));
+                    continue;
+                }
+
+                if (writer.contains(name)) {
+                    if (!entry.isDirectory()) {
+                        duplicates++;
+                    }
+                    continue;
+                }
+
+                writer.writeEntry(name, entry.getMethod(), entry.getCrc(), entry.getSize(), zip.getRawData(entry));
+            }
+        } catch (IOException e) {
+            throw new IOException(String.format("%s: %s", dependencyJar, e.getLocalizedMessage()), e);
+        }
+
+        return duplicates;
+    }
+
+    /**
+     * Is this an entry that must not be carried over from a dependency JAR?
+     *
+     * @param name
+     * @return
+     */
+    private boolean isExcluded(final String name) {
+        final String upper = name.toUpperCase(Locale.ROOT);
+
+        if (upper.equals(JarFile.MANIFEST_NAME) || upper.equals(INDEX_LIST)) {
+            return true;
+        }
+
+        if (name.equals(MODULE_INFO) || (name.startsWith(VERSIONS) && name.endsWith("/" + MODULE_INFO))) {
+            return true;
+        }
+
+        // signature files only live directly under META-INF
+        if (upper.startsWith(META_INF) && upper.indexOf('/', META_INF.length()) == -1) {
+            final String fileName = upper.substring(META_INF.length());
+            if (fileName.startsWith(SIGNATURE_PREFIX)) {
+                return true;
+            }
+
+            for (final String suffix : SIGNATURE_SUFFIXES) {
+                if (fileName.endsWith(suffix)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isServiceFile(final String name) {
+        return name.startsWith(SERVICES) && name.length() > SERVICES.length() && !name.endsWith("/");
+    }
+
+    /**
+     * Add the providers listed in a service file, skipping comments, blank lines,
+     * and providers which are already present.
+     *
+     * @param services
+     * @param name
+     * @param contents
+     * @throws IOException
+     */
+    private void mergeServiceFile(final Map<String, Set<String>> services, final String name,
+                                  final byte[] contents) throws IOException {
+        Set<String> providers = services.get(name);
+        if (providers == null) {
+            providers = new LinkedHashSet<>();
+            services.put(name, providers);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new StringReader(new String(contents, StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int comment = line.indexOf('#');
+                final String provider = (comment == -1 ? line : line.substring(0, comment)).trim();
+
+                if (!provider.isEmpty()) {
+                    providers.add(provider);
+                }
+            }
+        }
+    }
+
+    private byte[] joinLines(final Set<String> lines) {
+        final StringBuilder sb = new StringBuilder();
+        for (final String line : lines) {
+            sb.append(line);
+            sb.append('\n');
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 }
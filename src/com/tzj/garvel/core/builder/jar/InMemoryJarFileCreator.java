@@ -0,0 +1,103 @@
+package com.tzj.garvel.core.builder.jar;
+
+import com.tzj.garvel.core.builder.api.exception.JarFileCreationException;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorOptions;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Creates the project JAR file straight from the class files held in memory by the
+ * InMemoryJavaCompiler, without going through the build directory.
+ * <p>
+ * 1. Write out every compiled class (supplied via the options) as a JAR entry.
+ * 2. Walk the source root, and copy every non-source file (the project resources) into
+ * the JAR as well, at the same relative path.
+ */
+public class InMemoryJarFileCreator extends NormalJarFileCreator {
+    private static final String JAVA = ".java";
+
+    /**
+     * Create the JAR File.
+     *
+     * @param srcDirPath the source root, from which the resources are picked up.
+     * @param options
+     * @return
+     * @throws JarFileCreationException
+     */
+    @Override
+    public Path createJarFile(final Path srcDirPath, final JarFileCreatorOptions options) throws JarFileCreationException {
+        final Map<String, byte[]> classFiles = options.getClassFiles();
+        if (classFiles == null) {
+            throw new JarFileCreationException("Unable to create the JAR file: no compiled classes were supplied\n");
+        }
+
+        final Map<String, Path> resources = getResources(srcDirPath);
+        final long time = System.currentTimeMillis();
+
+        try (JarOutputStream jarStream = new JarOutputStream(new FileOutputStream(options.getJarFileName()), getManifest(options))) {
+            for (final Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                final JarEntry entry = new JarEntry(classFile.getKey());
+                entry.setTime(time);
+
+                jarStream.putNextEntry(entry);
+                jarStream.write(classFile.getValue());
+                jarStream.closeEntry();
+            }
+
+            for (final Map.Entry<String, Path> resource : resources.entrySet()) {
+                // resources generated during compilation take precedence
+                if (classFiles.containsKey(resource.getKey())) {
+                    continue;
+                }
+
+                final JarEntry entry = new JarEntry(resource.getKey());
+                entry.setTime(resource.getValue().toFile().lastModified());
+
+                jarStream.putNextEntry(entry);
+                Files.copy(resource.getValue(), jarStream);
+                jarStream.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new JarFileCreationException(String.format("Unable to create the JAR file: %s", e.getLocalizedMessage()));
+        }
+
+        return Paths.get(options.getJarFileName());
+    }
+
+    /**
+     * Collect the non-source files under the source root, keyed by their JAR entry name.
+     *
+     * @param srcDirPath
+     * @return
+     * @throws JarFileCreationException
+     */
+    private Map<String, Path> getResources(final Path srcDirPath) throws JarFileCreationException {
+        final Map<String, Path> resources = new TreeMap<>();
+
+        try {
+            Files.walkFileTree(srcDirPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isRegularFile() && !file.getFileName().toString().endsWith(JAVA)) {
+                        resources.put(srcDirPath.relativize(file).toString().replace(File.separatorChar, '/'), file);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new JarFileCreationException(String.format("Unable to collect the project resources: %s", e.getLocalizedMessage()));
+        }
+
+        return resources;
+    }
+}
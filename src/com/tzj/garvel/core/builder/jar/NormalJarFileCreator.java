@@ -63,7 +63,7 @@ public class NormalJarFileCreator implements JarFileCreator {
      * @param options
      * @return
      */
-    private Manifest getManifest(final JarFileCreatorOptions options) {
+    protected Manifest getManifest(final JarFileCreatorOptions options) {
         Manifest mf = new Manifest();
 
         mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, options.getManifestVersion());
@@ -0,0 +1,416 @@
+package com.tzj.garvel.core.builder.jar;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.builder.api.exception.JarFileCreationException;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorOptions;
+import com.tzj.garvel.core.builder.jar.zip.MappedZipFile;
+import com.tzj.garvel.core.builder.jar.zip.RawZipWriter;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Creates the project JAR file, deflating the entries concurrently.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Collect the files in the build directory, sorted by entry name.
+ * 2. Deflate the entries on the CPU executor, GARVEL_JAR_THREADS at a time. Every in-flight
+ * entry is assigned one of a fixed number of slots, which owns the (reusable) input and output
+ * buffers and the Deflater, so that there is no per-file allocation once the buffers have grown
+ * to size.
+ * 3. A single writer (the calling thread) appends the compressed entries strictly in entry
+ * order, and hands each slot over to the next pending entry once its entry has been written.
+ * The RawZipWriter builds the central directory at the end.
+ * <p>
+ * Since the entries are always written in the same order, with the same timestamp, the same
+ * build directory always produces a byte-for-byte identical JAR file.
+ * <p>
+ * If the JAR file already exists, it is updated rather than created from scratch: the entries
+ * of the files which are older than the JAR file, and have the same size as their entries, are
+ * copied over from it still compressed (see MappedZipFile), so that only the changed files are
+ * deflated again. The new JAR file is written next to the old one, and then moved over it.
+ */
+public class ParallelJarFileCreator extends NormalJarFileCreator {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int SLOTS_PER_THREAD = 2;
+    private static final String UPDATE_SUFFIX = ".update";
+
+    private final int threads;
+
+    public ParallelJarFileCreator() {
+        this(GarvelCoreConstants.GARVEL_JAR_THREADS);
+    }
+
+    public ParallelJarFileCreator(final int threads) {
+        this.threads = threads > 0 ? threads : 1;
+    }
+
+    /**
+     * Create the JAR File.
+     *
+     * @param buildDirPath
+     * @param options
+     * @return
+     * @throws JarFileCreationException
+     */
+    @Override
+    public Path createJarFile(final Path buildDirPath, final JarFileCreatorOptions options) throws JarFileCreationException {
+        final SortedMap<String, Path> files = getFiles(buildDirPath);
+
+        final Path jarFilePath = Paths.get(options.getJarFileName());
+        if (jarFilePath.toFile().isFile() && updateJarFile(jarFilePath, options, files)) {
+            return jarFilePath;
+        }
+
+        try (RawZipWriter writer = new RawZipWriter(options.getJarFileName())) {
+            writeEntries(writer, getManifest(options), files);
+        } catch (IOException e) {
+            throw new JarFileCreationException(String.format("Unable to create the JAR file: %s", e.getLocalizedMessage()));
+        }
+
+        return Paths.get(options.getJarFileName());
+    }
+
+    /**
+     * Update the existing JAR file, reusing the compressed entries of the unchanged files.
+     *
+     * @param jarFilePath
+     * @param options
+     * @param files
+     * @return false if the JAR file could not be updated (say, it is not a valid ZIP file), in
+     * which case it has to be created from scratch.
+     * @throws JarFileCreationException
+     */
+    private boolean updateJarFile(final Path jarFilePath, final JarFileCreatorOptions options,
+                                  final SortedMap<String, Path> files) throws JarFileCreationException {
+        final long jarLastModified = jarFilePath.toFile().lastModified();
+        final Path updatePath = Paths.get(options.getJarFileName() + UPDATE_SUFFIX);
+
+        try {
+            try (MappedZipFile previous = new MappedZipFile(jarFilePath);
+                 RawZipWriter writer = new RawZipWriter(updatePath.toString())) {
+                writeEntries(writer, getManifest(options), files, getReusableEntries(previous, files, jarLastModified), previous);
+            }
+
+            Files.move(updatePath, jarFilePath, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // a corrupt JAR file can trip up the ZIP reader in any number of ways
+            try {
+                Files.deleteIfExists(updatePath);
+            } catch (IOException ignored) {
+                // overwritten by the next update
+            }
+            return false;
+        }
+    }
+
+    /**
+     * An entry of the previous JAR file can be reused if its file has not been modified since
+     * the JAR file was written, and still has the same size.
+     *
+     * @param previous
+     * @param files
+     * @param jarLastModified
+     * @return the reusable entries, keyed by their names.
+     */
+    private Map<String, MappedZipFile.Entry> getReusableEntries(final MappedZipFile previous, final SortedMap<String, Path> files,
+                                                                final long jarLastModified) {
+        final Map<String, MappedZipFile.Entry> reusable = new HashMap<>();
+
+        for (final MappedZipFile.Entry entry : previous.getEntries()) {
+            final Path file = files.get(entry.getName());
+            if (file == null || entry.isDirectory() ||
+                    (entry.getMethod() != RawZipWriter.STORED && entry.getMethod() != RawZipWriter.DEFLATED)) {
+                continue;
+            }
+
+            final File f = file.toFile();
+            if (f.lastModified() < jarLastModified && f.length() == entry.getSize()) {
+                reusable.put(entry.getName(), entry);
+            }
+        }
+
+        return reusable;
+    }
+
+    /**
+     * Write the manifest, followed by the given files, deflating them concurrently.
+     *
+     * @param writer
+     * @param manifest
+     * @param files    the files, keyed by their entry names.
+     * @throws IOException
+     * @throws JarFileCreationException
+     */
+    protected void writeEntries(final RawZipWriter writer, final Manifest manifest,
+                                final SortedMap<String, Path> files) throws IOException, JarFileCreationException {
+        writeEntries(writer, manifest, files, Collections.<String, MappedZipFile.Entry>emptyMap(), null);
+    }
+
+    /**
+     * Write the manifest, followed by the given files. The reusable entries are copied over
+     * from the previous JAR file as they are, and the rest are deflated concurrently.
+     *
+     * @param writer
+     * @param manifest
+     * @param files    the files, keyed by their entry names.
+     * @param reusable the entries of the previous JAR file to copy over, keyed by their names.
+     * @param previous the previous JAR file, or null if there are no reusable entries.
+     * @throws IOException
+     * @throws JarFileCreationException
+     */
+    private void writeEntries(final RawZipWriter writer, final Manifest manifest, final SortedMap<String, Path> files,
+                              final Map<String, MappedZipFile.Entry> reusable, final MappedZipFile previous)
+            throws IOException, JarFileCreationException {
+        final List<Map.Entry<String, Path>> entries = new ArrayList<>();
+        for (final Map.Entry<String, Path> file : files.entrySet()) {
+            if (!reusable.containsKey(file.getKey())) {
+                entries.add(file);
+            }
+        }
+
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        final ExecutorService pool = concurrency.newLimitedExecutor("jar", concurrency.getCPUExecutor(), threads);
+        final CompressionSlot[] slots = new CompressionSlot[Math.max(1, Math.min(entries.size(), threads * SLOTS_PER_THREAD))];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new CompressionSlot();
+        }
+
+        try {
+            writeManifest(writer, manifest, slots[0]);
+
+            final List<Future<CompressedEntry>> pending = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size() && i < slots.length; i++) {
+                pending.add(pool.submit(new CompressionTask(entries.get(i), slots[i])));
+            }
+
+            // the entries are written in the order of their names, whether reused or deflated
+            int i = 0;
+            for (final String name : files.keySet()) {
+                final MappedZipFile.Entry reused = reusable.get(name);
+                if (reused != null) {
+                    writer.writeEntry(name, reused.getMethod(), reused.getCrc(), reused.getSize(), previous.getRawData(reused));
+                    continue;
+                }
+
+                final CompressedEntry entry = await(pending.get(i));
+                writer.writeEntry(entry.name, entry.method, entry.crc, entry.size, entry.data, 0, entry.length);
+
+                // the slot is free again - use it for the next entry
+                final int next = i + slots.length;
+                if (next < entries.size()) {
+                    pending.add(pool.submit(new CompressionTask(entries.get(next), slots[i % slots.length])));
+                }
+                i++;
+            }
+        } finally {
+            pool.shutdownNow();
+            for (final CompressionSlot slot : slots) {
+                slot.deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Deflate the given data on the calling thread, and write it out.
+     *
+     * @param writer
+     * @param name
+     * @param data
+     * @throws IOException
+     */
+    protected void writeEntry(final RawZipWriter writer, final String name, final byte[] data) throws IOException {
+        final CompressionSlot slot = new CompressionSlot();
+        try {
+            final CompressedEntry entry = slot.compress(name, data, data.length);
+            writer.writeEntry(entry.name, entry.method, entry.crc, entry.size, entry.data, 0, entry.length);
+        } finally {
+            slot.deflater.end();
+        }
+    }
+
+    /**
+     * The manifest always comes first, so that JarInputStream can find it.
+     */
+    private void writeManifest(final RawZipWriter writer, final Manifest manifest,
+                               final CompressionSlot slot) throws IOException {
+        final ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+        manifest.write(manifestBytes);
+
+        final byte[] bytes = manifestBytes.toByteArray();
+        final CompressedEntry entry = slot.compress(JarFile.MANIFEST_NAME, bytes, bytes.length);
+
+        writer.writeEntry(entry.name, entry.method, entry.crc, entry.size, entry.data, 0, entry.length);
+    }
+
+    private CompressedEntry await(final Future<CompressedEntry> future) throws JarFileCreationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JarFileCreationException("Unable to create the JAR file: interrupted\n");
+        } catch (ExecutionException e) {
+            throw new JarFileCreationException(String.format("Unable to create the JAR file: %s\n",
+                    e.getCause().getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Collect the files under the build directory, sorted by their entry names.
+     *
+     * @param buildDirPath
+     * @return
+     * @throws JarFileCreationException
+     */
+    protected SortedMap<String, Path> getFiles(final Path buildDirPath) throws JarFileCreationException {
+        final SortedMap<String, Path> files = new TreeMap<>();
+
+        try {
+            Files.walkFileTree(buildDirPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isRegularFile()) {
+                        final String name = buildDirPath.relativize(file).toString().replace(File.separatorChar, '/');
+
+                        // the generated manifest takes precedence
+                        if (!JarFile.MANIFEST_NAME.equalsIgnoreCase(name)) {
+                            files.put(name, file);
+                        }
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new JarFileCreationException(String.format("Unable to create the JAR file: %s", e.getLocalizedMessage()));
+        }
+
+        return files;
+    }
+
+    /**
+     * An entry, ready to be written out. The data belongs to a slot, and is only valid
+     * until the slot is reused.
+     */
+    private static class CompressedEntry {
+        private final String name;
+        private final int method;
+        private final long crc;
+        private final long size;
+        private final byte[] data;
+        private final int length;
+
+        CompressedEntry(final String name, final int method, final long crc, final long size,
+                        final byte[] data, final int length) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The reusable buffers (and Deflater) for one in-flight entry. A slot is only ever
+     * used by one task at a time.
+     */
+    private static class CompressionSlot {
+        private final Deflater deflater;
+        private final CRC32 crc;
+        private byte[] input;
+        private byte[] output;
+
+        CompressionSlot() {
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.crc = new CRC32();
+            this.input = new byte[INITIAL_BUFFER_SIZE];
+            this.output = new byte[INITIAL_BUFFER_SIZE];
+        }
+
+        /**
+         * Read the whole file into the input buffer.
+         *
+         * @param file
+         * @return the number of bytes read.
+         * @throws IOException
+         */
+        int read(final Path file) throws IOException {
+            int length = 0;
+
+            try (InputStream in = new FileInputStream(file.toFile())) {
+                int count;
+                while ((count = in.read(input, length, input.length - length)) != -1) {
+                    length += count;
+                    if (length == input.length) {
+                        input = Arrays.copyOf(input, input.length * 2);
+                    }
+                }
+            }
+
+            return length;
+        }
+
+        /**
+         * Deflate the given data. Data which does not shrink is stored instead.
+         *
+         * @param name
+         * @param data
+         * @param length
+         * @return
+         */
+        CompressedEntry compress(final String name, final byte[] data, final int length) {
+            crc.reset();
+            crc.update(data, 0, length);
+
+            deflater.reset();
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                compressedLength += deflater.deflate(output, compressedLength, output.length - compressedLength);
+            }
+
+            if (compressedLength >= length) {
+                return new CompressedEntry(name, RawZipWriter.STORED, crc.getValue(), length, data, length);
+            }
+
+            return new CompressedEntry(name, RawZipWriter.DEFLATED, crc.getValue(), length, output, compressedLength);
+        }
+    }
+
+    private static class CompressionTask implements Callable<CompressedEntry> {
+        private final Map.Entry<String, Path> file;
+        private final CompressionSlot slot;
+
+        CompressionTask(final Map.Entry<String, Path> file, final CompressionSlot slot) {
+            this.file = file;
+            this.slot = slot;
+        }
+
+        @Override
+        public CompressedEntry call() throws IOException {
+            final int length = slot.read(file.getValue());
+            return slot.compress(file.getKey(), slot.input, length);
+        }
+    }
+}
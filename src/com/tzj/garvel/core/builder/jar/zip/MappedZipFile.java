@@ -0,0 +1,283 @@
+package com.tzj.garvel.core.builder.jar.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only view of a ZIP (or JAR) file, backed by a memory-mapped channel, which hands
+ * out the raw (still compressed) data of its entries. Together with the RawZipWriter, this
+ * allows entries to be copied from one archive into another without inflating and
+ * deflating them again.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Map the whole file, and scan backwards from the end for the End Of Central Directory record.
+ * 2. Walk the central directory, and collect the name, method, CRC, and sizes of every entry.
+ * 3. On demand, locate the data of an entry by skipping over its local header (whose name and
+ * extra field lengths may differ from the ones in the central directory).
+ * <p>
+ * ZIP64 and encrypted entries are not supported, and neither are entries compressed with
+ * anything other than STORED or DEFLATED. The sizes in the central directory are
+ * authoritative, so entries written with data descriptors are handled as well.
+ */
+public class MappedZipFile implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int ENCRYPTED_FLAG = 1;
+    private static final long ZIP64_MARKER = 0xffffffffL;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<Entry> entries;
+
+    public MappedZipFile(final Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s is too large (ZIP64 is not supported)", path));
+            }
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+            this.entries = Collections.unmodifiableList(readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The entries, in central directory order.
+     *
+     * @return
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The raw (compressed, if the method is DEFLATED) data of the entry, as a slice of
+     * the mapped file. No copy is made.
+     *
+     * @param entry
+     * @return
+     * @throws IOException
+     */
+    public ByteBuffer getRawData(final Entry entry) throws IOException {
+        final int header = (int) entry.localHeaderOffset;
+        if (header + LOCAL_HEADER_SIZE > buffer.limit() || buffer.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException(String.format("%s: invalid local header for %s", path, entry.name));
+        }
+
+        final int nameLength = buffer.getShort(header + 26) & 0xffff;
+        final int extraLength = buffer.getShort(header + 28) & 0xffff;
+        final long start = (long) header + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        if (start + entry.compressedSize > buffer.limit()) {
+            throw new IOException(String.format("%s: truncated data for %s", path, entry.name));
+        }
+
+        final ByteBuffer data = buffer.duplicate();
+        data.position((int) start);
+        data.limit((int) (start + entry.compressedSize));
+
+        return data.slice();
+    }
+
+    /**
+     * The uncompressed contents of the entry.
+     *
+     * @param entry
+     * @return
+     * @throws IOException
+     */
+    public byte[] read(final Entry entry) throws IOException {
+        final ByteBuffer raw = getRawData(entry);
+        final byte[] compressed = new byte[raw.remaining()];
+        raw.get(compressed);
+
+        if (entry.method == RawZipWriter.STORED) {
+            return compressed;
+        }
+
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream((int) entry.size);
+            final byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                final int count = inflater.inflate(chunk);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException(String.format("%s: truncated data for %s", path, entry.name));
+                }
+                out.write(chunk, 0, count);
+            }
+
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(String.format("%s: corrupt data for %s: %s", path, entry.name, e.getLocalizedMessage()));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Close the channel. The mapping itself is released once the buffer is garbage-collected.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        final int eocd = findEndOfCentralDirectory();
+
+        final int count = buffer.getShort(eocd + 10) & 0xffff;
+        final long directorySize = buffer.getInt(eocd + 12) & ZIP64_MARKER;
+        final long directoryOffset = buffer.getInt(eocd + 16) & ZIP64_MARKER;
+        if (count == 0xffff || directoryOffset == ZIP64_MARKER || directoryOffset + directorySize > eocd) {
+            throw new IOException(String.format("%s: unsupported or corrupt central directory (ZIP64 is not supported)", path));
+        }
+
+        final List<Entry> result = new ArrayList<>(count);
+        int position = (int) directoryOffset;
+
+        for (int i = 0; i < count; i++) {
+            if (position + CENTRAL_HEADER_SIZE > eocd || buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException(String.format("%s: corrupt central directory", path));
+            }
+
+            final int flags = buffer.getShort(position + 8) & 0xffff;
+            final int method = buffer.getShort(position + 10) & 0xffff;
+            final long crc = buffer.getInt(position + 16) & ZIP64_MARKER;
+            final long compressedSize = buffer.getInt(position + 20) & ZIP64_MARKER;
+            final long size = buffer.getInt(position + 24) & ZIP64_MARKER;
+            final int nameLength = buffer.getShort(position + 28) & 0xffff;
+            final int extraLength = buffer.getShort(position + 30) & 0xffff;
+            final int commentLength = buffer.getShort(position + 32) & 0xffff;
+            final long localHeaderOffset = buffer.getInt(position + 42) & ZIP64_MARKER;
+
+            final byte[] nameBytes = new byte[nameLength];
+            final ByteBuffer name = buffer.duplicate();
+            name.position(position + CENTRAL_HEADER_SIZE);
+            name.get(nameBytes);
+
+            final Entry entry = new Entry(new String(nameBytes, StandardCharsets.UTF_8), flags, method, crc,
+                    compressedSize, size, localHeaderOffset);
+
+            if ((flags & ENCRYPTED_FLAG) != 0) {
+                throw new IOException(String.format("%s: encrypted entries are not supported (%s)", path, entry.name));
+            }
+            if (method != RawZipWriter.STORED && method != RawZipWriter.DEFLATED) {
+                throw new IOException(String.format("%s: unsupported compression method %d (%s)", path, method, entry.name));
+            }
+            if (compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || localHeaderOffset == ZIP64_MARKER) {
+                throw new IOException(String.format("%s: ZIP64 entries are not supported (%s)", path, entry.name));
+            }
+
+            result.add(entry);
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+
+        return result;
+    }
+
+    /**
+     * The record sits at the very end of the file, unless the archive has a comment.
+     *
+     * @return
+     * @throws IOException
+     */
+    private int findEndOfCentralDirectory() throws IOException {
+        final int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        final int first = Math.max(0, last - MAX_COMMENT_SIZE);
+
+        for (int position = last; position >= first; position--) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                return position;
+            }
+        }
+
+        throw new IOException(String.format("%s is not a valid ZIP file", path));
+    }
+
+    /**
+     * A central directory entry.
+     */
+    public static class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        Entry(final String name, final int flags, final int method, final long crc,
+              final long compressedSize, final long size, final long localHeaderOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "name='" + name + '\'' +
+                    ", method=" + method +
+                    ", size=" + size +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.tzj.garvel.core.builder.jar.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A minimal ZIP (and therefore JAR) file writer that accepts entries whose contents
+ * have already been compressed - either by a pool of worker threads, or because they are
+ * copied over verbatim from another ZIP file. java.util.zip.ZipOutputStream always
+ * deflates the data itself, which is what this class avoids.
+ * <p>
+ * Entries are written in the order in which they are supplied, with the sizes and CRC
+ * in the local header (no data descriptors), and all of them share the same timestamp,
+ * so that the same entries always produce byte-for-byte identical files.
+ * <p>
+ * ZIP64 is not supported: archives are limited to 65535 entries, and 4 GB.
+ * This class is not thread-safe.
+ */
+public class RawZipWriter implements Closeable {
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    // 1980-02-01 00:00:00, in MS-DOS format
+    private static final int FIXED_DOS_TIME = ((1980 - 1980) << 25) | (2 << 21) | (1 << 16);
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int MAX_ENTRIES = 0xffff;
+    private static final long MAX_OFFSET = 0xffffffffL;
+
+    // small writes are batched up, large ones go straight to the channel
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private final FileChannel out;
+    private final ByteArrayOutputStream pending;
+    private final byte[] scratch;
+    private final ByteArrayOutputStream centralDirectory;
+    private final Set<String> names;
+    private long offset;
+    private int entryCount;
+
+    public RawZipWriter(final String filename) throws IOException {
+        this.out = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.pending = new ByteArrayOutputStream(2 * BATCH_SIZE);
+        this.scratch = new byte[BATCH_SIZE];
+        this.centralDirectory = new ByteArrayOutputStream();
+        this.names = new HashSet<>();
+        this.offset = 0L;
+        this.entryCount = 0;
+    }
+
+    /**
+     * Has an entry with this name been written already?
+     *
+     * @param name
+     * @return
+     */
+    public boolean contains(final String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * Write an entry.
+     *
+     * @param name             the entry name, using `/` as the separator.
+     * @param method           STORED or DEFLATED.
+     * @param crc              the CRC-32 of the uncompressed data.
+     * @param uncompressedSize
+     * @param data             the (compressed, if the method is DEFLATED) data.
+     * @param dataOffset
+     * @param dataLength
+     * @throws IOException
+     */
+    public void writeEntry(final String name, final int method, final long crc, final long uncompressedSize,
+                           final byte[] data, final int dataOffset, final int dataLength) throws IOException {
+        writeEntry(name, method, crc, uncompressedSize, ByteBuffer.wrap(data, dataOffset, dataLength));
+    }
+
+    /**
+     * Write an entry, whose data lies between the position and the limit of the given buffer
+     * (which may well be a slice of a memory-mapped ZIP file).
+     *
+     * @param name             the entry name, using `/` as the separator.
+     * @param method           STORED or DEFLATED.
+     * @param crc              the CRC-32 of the uncompressed data.
+     * @param uncompressedSize
+     * @param data             the (compressed, if the method is DEFLATED) data.
+     * @throws IOException
+     */
+    public void writeEntry(final String name, final int method, final long crc, final long uncompressedSize,
+                           final ByteBuffer data) throws IOException {
+        if (!names.add(name)) {
+            throw new IOException(String.format("duplicate entry: %s", name));
+        }
+
+        final int dataLength = data.remaining();
+        if (entryCount == MAX_ENTRIES || offset + dataLength > MAX_OFFSET || uncompressedSize > MAX_OFFSET) {
+            throw new IOException("the archive is too large (ZIP64 is not supported)");
+        }
+
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+        // local file header
+        writeInt(pending, LOCAL_HEADER_SIGNATURE);
+        writeShort(pending, VERSION);
+        writeShort(pending, UTF8_FLAG);
+        writeShort(pending, method);
+        writeInt(pending, FIXED_DOS_TIME);
+        writeInt(pending, (int) crc);
+        writeInt(pending, dataLength);
+        writeInt(pending, (int) uncompressedSize);
+        writeShort(pending, nameBytes.length);
+        writeShort(pending, 0);
+        pending.write(nameBytes, 0, nameBytes.length);
+
+        if (dataLength < BATCH_SIZE && data.hasArray()) {
+            pending.write(data.array(), data.arrayOffset() + data.position(), dataLength);
+        } else if (dataLength < BATCH_SIZE) {
+            data.duplicate().get(scratch, 0, dataLength);
+            pending.write(scratch, 0, dataLength);
+        } else {
+            flush();
+            writeFully(data);
+        }
+
+        if (pending.size() >= BATCH_SIZE) {
+            flush();
+        }
+
+        // central directory header
+        writeInt(centralDirectory, CENTRAL_HEADER_SIGNATURE);
+        writeShort(centralDirectory, VERSION);
+        writeShort(centralDirectory, VERSION);
+        writeShort(centralDirectory, UTF8_FLAG);
+        writeShort(centralDirectory, method);
+        writeInt(centralDirectory, FIXED_DOS_TIME);
+        writeInt(centralDirectory, (int) crc);
+        writeInt(centralDirectory, dataLength);
+        writeInt(centralDirectory, (int) uncompressedSize);
+        writeShort(centralDirectory, nameBytes.length);
+        writeShort(centralDirectory, 0); // extra field length
+        writeShort(centralDirectory, 0); // comment length
+        writeShort(centralDirectory, 0); // disk number
+        writeShort(centralDirectory, 0); // internal attributes
+        writeInt(centralDirectory, 0);   // external attributes
+        writeInt(centralDirectory, (int) offset);
+        centralDirectory.write(nameBytes, 0, nameBytes.length);
+
+        offset += 30 + nameBytes.length + dataLength;
+        entryCount++;
+    }
+
+    /**
+     * Write the central directory, and close the file.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (offset + centralDirectory.size() > MAX_OFFSET) {
+                throw new IOException("the archive is too large (ZIP64 is not supported)");
+            }
+
+            writeInt(centralDirectory, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            writeShort(centralDirectory, 0); // this disk
+            writeShort(centralDirectory, 0); // the disk with the central directory
+            writeShort(centralDirectory, entryCount);
+            writeShort(centralDirectory, entryCount);
+            writeInt(centralDirectory, centralDirectory.size() - 12);
+            writeInt(centralDirectory, (int) offset);
+            writeShort(centralDirectory, 0); // comment length
+
+            flush();
+            writeFully(ByteBuffer.wrap(centralDirectory.toByteArray()));
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (pending.size() > 0) {
+            writeFully(ByteBuffer.wrap(pending.toByteArray()));
+            pending.reset();
+        }
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static void writeShort(final OutputStream stream, final int value) throws IOException {
+        stream.write(value & 0xff);
+        stream.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt(final OutputStream stream, final int value) throws IOException {
+        writeShort(stream, value & 0xffff);
+        writeShort(stream, (value >>> 16) & 0xffff);
+    }
+}
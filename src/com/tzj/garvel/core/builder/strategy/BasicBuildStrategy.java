@@ -17,6 +17,8 @@ import com.tzj.garvel.core.builder.common.AllSourceFilesFileVisitor;
 import com.tzj.garvel.core.builder.common.CompilationOption;
 import com.tzj.garvel.core.cache.api.*;
 import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
 
 import java.io.File;
 import java.io.IOException;
@@ -36,8 +38,8 @@ public class BasicBuildStrategy implements BuildStrategy {
     private static final String SPACE = " ";
     private static final String JAR = ".jar";
 
-    private Compiler compiler;
-    private JarFileCreator jarCreator;
+    protected Compiler compiler;
+    protected JarFileCreator jarCreator;
 
     public BasicBuildStrategy() {
         compiler = CompilerFactory.getCompiler(CompilerType.JAVAX_JAVACOMPILER);
@@ -55,6 +57,7 @@ public class BasicBuildStrategy implements BuildStrategy {
      * @throws BuildException
      */
     @Override
+    @SuppressWarnings("try")
     public Path execute(final String classPathString) throws BuildException {
         final Path srcDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
         final Path buildDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_BUILD_DIR);
@@ -64,23 +67,19 @@ public class BasicBuildStrategy implements BuildStrategy {
             throw new BuildException(String.format("build failed - the build directory (%s) does not exist\n", buildDirPath));
         }
 
-        final CompilationResult compilationResult = compileProject(srcDirPath, classPathString, buildDirPath);
+        final CompilationResult compilationResult;
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "compile")) {
+            compilationResult = compileProject(srcDirPath, classPathString, buildDirPath);
+        }
         if (!compilationResult.isSuccessful()) {
-            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Build failed due to compilation errors");
-
-            final List<String> errorMessages = compilationResult.getDiagnostics();
-            for (final String errorMessage : errorMessages) {
-                System.out.println(errorMessage);
-            }
-
+            displayCompilationErrors(compilationResult);
             throw new BuildException("Build failed due to compilation errors");
         }
 
         UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tCompiling project sources...DONE");
 
         // generate the project artifacts
-        final JarFileCreatorOptions jarFileOptions = getJarFileOptions(classPathString);
-        final Path jarFilePath = jarCreator.createJarFile(buildDirPath, jarFileOptions);
+        final Path jarFilePath = createJarFile(buildDirPath, classPathString);
 
         // delete the build directory
         try {
@@ -94,13 +93,27 @@ public class BasicBuildStrategy implements BuildStrategy {
         return jarFilePath;
     }
 
+    /**
+     * Report the compilation errors to the user.
+     *
+     * @param compilationResult
+     */
+    protected void displayCompilationErrors(final CompilationResult compilationResult) {
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Build failed due to compilation errors");
+
+        final List<String> errorMessages = compilationResult.getDiagnostics();
+        for (final String errorMessage : errorMessages) {
+            System.out.println(errorMessage);
+        }
+    }
+
     /**
      * Return the Jar file creation options for the project.
      *
      * @param classPathString
      * @return
      */
-    private JarFileCreatorOptions getJarFileOptions(final String classPathString) {
+    protected JarFileCreatorOptions getJarFileOptions(final String classPathString) {
         final CacheManagerService cache = CoreModuleLoader.INSTANCE.getCacheManager();
 
         final String jarName = getJarName(cache);
@@ -109,6 +122,7 @@ public class BasicBuildStrategy implements BuildStrategy {
 
         final List<String> classPathStrings = getClassPathStrings(classPathString);
         StringBuffer sb = new StringBuffer();
+        final List<Path> dependencyJars = new ArrayList<>();
 
         for (int i = 1; i < classPathStrings.size(); i++) {
             final String path = classPathStrings.get(i);
@@ -120,11 +134,13 @@ public class BasicBuildStrategy implements BuildStrategy {
                     for (int j = 0; j < paths.length; j++) {
                         sb.append(paths[j]);
                         sb.append(SPACE);
+                        addDependencyJar(dependencyJars, paths[j]);
                     }
                 }
             } else {
                 sb.append(path);
                 sb.append(SPACE);
+                addDependencyJar(dependencyJars, path);
             }
         }
 
@@ -138,10 +154,62 @@ public class BasicBuildStrategy implements BuildStrategy {
         }
 
         options.setClassPathString(sb.toString());
+        options.setDependencyJars(dependencyJars);
 
         return options;
     }
 
+    /**
+     * Only existing JAR files are bundled into a fat JAR - directories on the
+     * classpath are skipped.
+     *
+     * @param dependencyJars
+     * @param path
+     */
+    private void addDependencyJar(final List<Path> dependencyJars, final String path) {
+        if (path.endsWith(JAR)) {
+            final Path jarPath = Paths.get(path);
+            if (Files.isRegularFile(jarPath) && !dependencyJars.contains(jarPath)) {
+                dependencyJars.add(jarPath);
+            }
+        }
+    }
+
+    /**
+     * Generate the project JAR file from the given directory.
+     *
+     * @param dirPath
+     * @param classPathString
+     * @return
+     * @throws BuildException
+     */
+    @SuppressWarnings("try")
+    protected Path createJarFile(final Path dirPath, final String classPathString) throws BuildException {
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "jar")) {
+            final JarFileCreatorOptions jarFileOptions = getJarFileOptions(classPathString);
+            return getJarCreator().createJarFile(dirPath, jarFileOptions);
+        }
+    }
+
+    /**
+     * Return the JAR file creator for the project artifacts - the FatJarCreator if
+     * the Garvel.gl configuration file asks for a fat JAR, the strategy's own otherwise.
+     *
+     * @return
+     */
+    protected JarFileCreator getJarCreator() {
+        final CacheManagerService cache = CoreModuleLoader.INSTANCE.getCacheManager();
+
+        if (cache.containsCacheKey(CacheKey.FAT_JAR)) {
+            final FatJarEntry fatJarEntry = (FatJarEntry) cache.getEntry(CacheKey.FAT_JAR);
+            if (fatJarEntry.isFatJar()) {
+                return JarFileCreatorFactory.getJarService(JarFileCreatorType.FAT_JAR);
+            }
+        }
+
+        return jarCreator;
+    }
+
     /**
      * Return the Main-Class attribute from the Garvel.gl configuration file.
      * The name is normalized from com.foo.Bar to com/foo/Bar as required by
@@ -199,7 +267,7 @@ public class BasicBuildStrategy implements BuildStrategy {
      *
      * @return
      */
-    private CompilationResult compileProject(final Path srcDirPath, final String classPathString, final Path buildDirPath) throws BuildException {
+    protected CompilationResult compileProject(final Path srcDirPath, final String classPathString, final Path buildDirPath) throws BuildException {
         final List<File> srcFiles = getSourceFilesForCompilation(srcDirPath);
         final List<String> compilationOptions = getCompilationOptions(classPathString, buildDirPath);
 
@@ -221,7 +289,7 @@ public class BasicBuildStrategy implements BuildStrategy {
      * @param srcDirPath
      * @return
      */
-    private List<File> getSourceFilesForCompilation(final Path srcDirPath) throws BuildException {
+    protected List<File> getSourceFilesForCompilation(final Path srcDirPath) throws BuildException {
         final Set<FileVisitOption> opts = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
 
         List<File> sourceFiles = new ArrayList<>();
@@ -249,13 +317,17 @@ public class BasicBuildStrategy implements BuildStrategy {
      *
      * @return
      */
-    private List<String> getCompilationOptions(final String classPathString, final Path buildDirPath) {
+    protected List<String> getCompilationOptions(final String classPathString, final Path buildDirPath) {
         List<String> compilationOptions = new ArrayList<>();
 
         // general options
         compilationOptions.add(CompilationOption.XLINT.toString());
-        compilationOptions.add(CompilationOption.TARGET_DIR.toString());
-        compilationOptions.add(String.format(buildDirPath.toFile().getAbsolutePath()));
+
+        // the in-memory compiler does not write to a build directory
+        if (buildDirPath != null) {
+            compilationOptions.add(CompilationOption.TARGET_DIR.toString());
+            compilationOptions.add(String.format(buildDirPath.toFile().getAbsolutePath()));
+        }
 
         // fill in the classpath entries
         // always add the current directory
@@ -283,7 +355,7 @@ public class BasicBuildStrategy implements BuildStrategy {
      * @param classPathString
      * @return
      */
-    private List<String> getClassPathStrings(final String classPathString) {
+    protected List<String> getClassPathStrings(final String classPathString) {
         List<String> finalClassPathStrings = new ArrayList<>();
 
         // add the current directory first
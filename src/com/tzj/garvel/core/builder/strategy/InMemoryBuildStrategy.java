@@ -0,0 +1,73 @@
+package com.tzj.garvel.core.builder.strategy;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.builder.api.CompilationResult;
+import com.tzj.garvel.core.builder.api.compiler.CompilerFactory;
+import com.tzj.garvel.core.builder.api.compiler.CompilerType;
+import com.tzj.garvel.core.builder.api.exception.BuildException;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorFactory;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorOptions;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorType;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The in-memory build strategy uses the InMemoryJavaCompiler for compilation, and the
+ * InMemoryJarFileCreator (or the FatJarCreator, for a fat JAR) for generating the project artifacts. The compiled classes never
+ * touch the disk before being written into the JAR file, and the build directory is not used.
+ */
+public class InMemoryBuildStrategy extends BasicBuildStrategy {
+    public InMemoryBuildStrategy() {
+        compiler = CompilerFactory.getCompiler(CompilerType.IN_MEMORY_JAVACOMPILER);
+        jarCreator = JarFileCreatorFactory.getJarService(JarFileCreatorType.IN_MEMORY_JAR);
+    }
+
+    /**
+     * Execute the build strategy -
+     * <p>
+     * 1). Compile the project into memory
+     * 2). Generate the project artifacts from the compiled classes and the project resources
+     *
+     * @param classPathString
+     * @return
+     * @throws BuildException
+     */
+    @Override
+    @SuppressWarnings("try")
+    public Path execute(final String classPathString) throws BuildException {
+        final Path srcDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
+
+        final List<File> srcFiles = getSourceFilesForCompilation(srcDirPath);
+        final List<String> compilationOptions = getCompilationOptions(classPathString, null);
+
+        final CompilationResult compilationResult;
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "compile")) {
+            compilationResult = compiler.compile(null, srcFiles, compilationOptions);
+        }
+        if (!compilationResult.isSuccessful()) {
+            displayCompilationErrors(compilationResult);
+            throw new BuildException("Build failed due to compilation errors");
+        }
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tCompiling project sources...DONE");
+
+        // generate the project artifacts
+        final Path jarFilePath;
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "jar")) {
+            final JarFileCreatorOptions jarFileOptions = getJarFileOptions(classPathString);
+            jarFileOptions.setClassFiles(compilationResult.getClassFiles());
+
+            jarFilePath = getJarCreator().createJarFile(srcDirPath, jarFileOptions);
+        }
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tGenerating project JAR...DONE");
+
+        return jarFilePath;
+    }
+}
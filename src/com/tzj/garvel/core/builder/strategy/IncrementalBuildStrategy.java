@@ -0,0 +1,315 @@
+package com.tzj.garvel.core.builder.strategy;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.builder.api.CompilationResult;
+import com.tzj.garvel.core.builder.api.exception.BuildException;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorFactory;
+import com.tzj.garvel.core.builder.api.jar.JarFileCreatorType;
+import com.tzj.garvel.core.builder.incremental.ClassFileInfo;
+import com.tzj.garvel.core.builder.incremental.ClassFileReader;
+import com.tzj.garvel.core.builder.incremental.IncrementalBuildState;
+import com.tzj.garvel.core.builder.incremental.SourceFingerprint;
+import com.tzj.garvel.core.builder.incremental.SourceSet;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * The incremental build strategy keeps the compiled classes in `target/build` across
+ * builds, and only recompiles the source files that have changed since the last build,
+ * along with the source files that depend on them.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Load the state of the last build (see IncrementalBuildState). If there is none, or the
+ * project classpath has changed, fall back to a full build.
+ * 2. Compare the fingerprint of every source file against the stored one to find the new,
+ * modified, and deleted source files.
+ * 3. Add the source files which depend on the classes of the changed source files, using the
+ * class-level dependency map extracted from the class files.
+ * 4. Delete the class files generated from the deleted and to-be-recompiled source files.
+ * 5. Compile the remaining set of source files, with `target/build` on the classpath so that
+ * the unchanged classes are picked up from there.
+ * 6. Read the newly generated class files to update the dependency map, and save the state.
+ * 7. Generate the project artifacts (with the ParallelJarFileCreator), keeping `target/build` around
+ * for the next build.
+ * <p>
+ * If the caller already knows the source files, and which of them may have changed (see
+ * SourceSet), the source tree is not walked, and only those source files are fingerprinted.
+ */
+public class IncrementalBuildStrategy extends BasicBuildStrategy {
+    private static final String CLASS = ".class";
+
+    private final SourceSet sourceSet;
+
+    public IncrementalBuildStrategy() {
+        this(null);
+    }
+
+    public IncrementalBuildStrategy(final SourceSet sourceSet) {
+        super();
+        jarCreator = JarFileCreatorFactory.getJarService(JarFileCreatorType.PARALLEL_JAR);
+        this.sourceSet = sourceSet;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public Path execute(final String classPathString) throws BuildException {
+        final Path srcDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
+        final Path buildDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_BUILD_DIR);
+
+        if (!buildDirPath.toFile().exists()) {
+            throw new BuildException(String.format("build failed - the build directory (%s) does not exist\n", buildDirPath));
+        }
+
+        final Map<String, File> sources = sourceSet != null ? sourceSet.getSources() : getSources(srcDirPath);
+
+        IncrementalBuildState state = loadState();
+        if (state == null || !classPathString.equals(state.getClassPath())) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tNo usable incremental build state, rebuilding all sources");
+            deleteAllClassFiles(buildDirPath);
+            state = new IncrementalBuildState(classPathString);
+        }
+
+        // find the new, modified, and deleted source files
+        final Set<String> changed = new HashSet<>();
+        final Map<String, SourceFingerprint> fingerprints = new HashMap<>();
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "fingerprint-sources")) {
+            for (final Map.Entry<String, File> entry : sources.entrySet()) {
+                final SourceFingerprint stored = state.getFingerprints().get(entry.getKey());
+                final SourceFingerprint current = sourceSet != null && stored != null && !sourceSet.isTouched(entry.getKey())
+                        ? stored
+                        : fingerprint(entry.getValue(), stored);
+                fingerprints.put(entry.getKey(), current);
+
+                if (stored == null || current.getHash() == null || !current.getHash().equals(stored.getHash())) {
+                    changed.add(entry.getKey());
+                }
+            }
+        }
+
+        final Set<String> deleted = new HashSet<>(state.getFingerprints().keySet());
+        deleted.removeAll(sources.keySet());
+        changed.addAll(deleted);
+
+        final Set<String> dirty = new HashSet<>(changed);
+        dirty.addAll(state.getDependentSources(changed));
+
+        // remove the stale classes
+        for (final String source : dirty) {
+            deleteClassFiles(buildDirPath, state.getClasses(source));
+            state.removeSource(source);
+        }
+
+        final List<File> srcFiles = new ArrayList<>();
+        for (final String source : dirty) {
+            if (sources.containsKey(source)) {
+                srcFiles.add(sources.get(source));
+            }
+        }
+
+        if (srcFiles.isEmpty()) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tCompiling project sources...UP-TO-DATE");
+        } else {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tCompiling %d of %d project sources (%d changed, %d deleted)",
+                    srcFiles.size(), sources.size(), changed.size() - deleted.size(), deleted.size());
+
+            final long compilationStart = System.currentTimeMillis();
+            final CompilationResult compilationResult;
+            try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "compile")) {
+                compilationResult = compileSources(srcFiles, classPathString, buildDirPath);
+            }
+
+            if (!compilationResult.isSuccessful()) {
+                // the failed sources (and their dependents) have already been forgotten,
+                // so they will be recompiled by the next build
+                saveState(state);
+                displayCompilationErrors(compilationResult);
+                throw new BuildException("Build failed due to compilation errors");
+            }
+
+            recordGeneratedClasses(buildDirPath, compilationStart, state);
+
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tCompiling project sources...DONE");
+        }
+
+        state.getFingerprints().putAll(fingerprints);
+        saveState(state);
+
+        // generate the project artifacts
+        final Path jarFilePath = createJarFile(buildDirPath, classPathString);
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\tGenerating project JAR...DONE");
+
+        return jarFilePath;
+    }
+
+    /**
+     * Compile the given sources, against the previously compiled classes as well as
+     * the project classpath.
+     *
+     * @param srcFiles
+     * @param classPathString
+     * @param buildDirPath
+     * @return
+     * @throws BuildException
+     */
+    private CompilationResult compileSources(final List<File> srcFiles, final String classPathString,
+                                             final Path buildDirPath) throws BuildException {
+        final String incrementalClassPathString = buildDirPath.toFile().getAbsolutePath() +
+                File.pathSeparator + classPathString;
+        final List<String> compilationOptions = getCompilationOptions(incrementalClassPathString, buildDirPath);
+
+        return compiler.compile(buildDirPath, srcFiles, compilationOptions);
+    }
+
+    /**
+     * Collect the source files of the project, keyed by their path relative to the source root.
+     *
+     * @param srcDirPath
+     * @return
+     * @throws BuildException
+     */
+    private Map<String, File> getSources(final Path srcDirPath) throws BuildException {
+        final Map<String, File> sources = new HashMap<>();
+
+        for (final File srcFile : getSourceFilesForCompilation(srcDirPath)) {
+            sources.put(getSourceKey(srcDirPath.relativize(srcFile.toPath())), srcFile);
+        }
+
+        return sources;
+    }
+
+    private String getSourceKey(final Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Fingerprint the given source file. The file is only hashed again if its size or
+     * modification time differs from the stored fingerprint.
+     *
+     * @param srcFile
+     * @param stored
+     * @return
+     */
+    private SourceFingerprint fingerprint(final File srcFile, final SourceFingerprint stored) {
+        final long size = srcFile.length();
+        final long lastModified = srcFile.lastModified();
+
+        if (stored != null && stored.getSize() == size && stored.getLastModified() == lastModified) {
+            return stored;
+        }
+
+        return new SourceFingerprint(size, lastModified, UtilServiceImpl.INSTANCE.getSHA1(srcFile.toPath()));
+    }
+
+    /**
+     * Read the class files written by the compiler, and record them against their source files.
+     *
+     * @param buildDirPath
+     * @param compilationStart
+     * @param state
+     * @throws BuildException
+     */
+    private void recordGeneratedClasses(final Path buildDirPath, final long compilationStart,
+                                        final IncrementalBuildState state) throws BuildException {
+        // allow for filesystems with a coarse timestamp granularity
+        final long threshold = compilationStart - 2000L;
+
+        try {
+            Files.walkFileTree(buildDirPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (file.toString().endsWith(CLASS) && attrs.lastModifiedTime().toMillis() >= threshold) {
+                        final ClassFileInfo classInfo = ClassFileReader.read(file);
+                        state.addClass(classInfo.getSourceFile(), classInfo);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new BuildException(String.format("failed to read the generated class files: %s\n", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Delete the class files of the given classes (nested classes are tracked as classes of
+     * their own, so they are covered as well).
+     *
+     * @param buildDirPath
+     * @param classes
+     * @throws BuildException
+     */
+    private void deleteClassFiles(final Path buildDirPath, final Set<String> classes) throws BuildException {
+        for (final String className : classes) {
+            final Path classFile = buildDirPath.resolve(className.replace('/', File.separatorChar) + CLASS);
+            try {
+                Files.deleteIfExists(classFile);
+            } catch (IOException e) {
+                throw new BuildException(String.format("failed to delete stale class file %s: %s\n",
+                        classFile, e.getLocalizedMessage()));
+            }
+        }
+    }
+
+    /**
+     * Without any state, there is no telling which class files are stale, so delete all of them.
+     *
+     * @param buildDirPath
+     * @throws BuildException
+     */
+    private void deleteAllClassFiles(final Path buildDirPath) throws BuildException {
+        try {
+            Files.walkFileTree(buildDirPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (file.toString().endsWith(CLASS)) {
+                        Files.delete(file);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new BuildException(String.format("failed to clean the build directory: %s\n", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Load the state of the previous build, if any. An unreadable state is treated as missing.
+     *
+     * @return
+     */
+    private IncrementalBuildState loadState() {
+        final String stateFile = GarvelCoreConstants.GARVEL_PROJECT_INCREMENTAL_STATE_FILE;
+
+        if (!CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(stateFile)) {
+            return null;
+        }
+
+        try {
+            return CoreModuleLoader.INSTANCE.getFileSystemFramework()
+                    .loadSerializedObject(stateFile, IncrementalBuildState.class);
+        } catch (FilesystemFrameworkException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    private void saveState(final IncrementalBuildState state) throws BuildException {
+        try {
+            CoreModuleLoader.INSTANCE.getFileSystemFramework()
+                    .storeSerializedObject(state, GarvelCoreConstants.GARVEL_PROJECT_INCREMENTAL_STATE_FILE);
+        } catch (FilesystemFrameworkException e) {
+            throw new BuildException(String.format("failed to save the incremental build state: %s", e.getErrorString()));
+        }
+    }
+}
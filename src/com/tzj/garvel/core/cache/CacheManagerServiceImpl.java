@@ -26,7 +26,7 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
     INSTANCE;
 
     private Map<CacheKey, CacheEntry> configCache; // Garvel.gl
-    private Map<CacheKey, CacheEntry> lockCache; // Garvel.lock, if present
+    private String cachedFileStamp; // the state of the file when the cache was last populated
 
     private CacheManagerServiceImpl() {
         if (configCache == null) {
@@ -40,6 +40,10 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
 
     /**
      * Populate the Core Cache with the data from the Garvel.gl configuration file.
+     * The file is only parsed again if it has changed since the last time - which only
+     * makes a difference when running inside the Garvel daemon.
+     * <p>
+     * Note that Garvel.lock is not a configuration file, and is handled by the Dependency Manager.
      *
      * @throws CacheManagerException
      */
@@ -50,6 +54,12 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
             throw new CacheManagerException(String.format("Garvel configuration file %s does not exist!", GarvelCoreConstants.GARVEl_PROJECT_CONFIG_FILE));
         }
 
+        final String fileStamp = getFileStamp(GarvelCoreConstants.GARVEl_PROJECT_CONFIG_FILE);
+        if (configCache != null && fileStamp.equals(cachedFileStamp)) {
+            return;
+        }
+
+        cachedFileStamp = null;
         configCache = new HashMap<>();
 
         try {
@@ -63,39 +73,32 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
             throw new CacheManagerException(String.format("Error while populating Garvel config cache. Reason = %s", e.getErrorString()));
         }
 
-        // optional
-        if (CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE)) {
-            try {
-                final ConfigAst lock = CoreModuleLoader.INSTANCE
-                        .getParserFramework()
-                        .getTOMLParser(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE)
-                        .parse();
-
-                populateLockCache(lock);
-            } catch (TOMLParserException e) {
-                throw new CacheManagerException(String.format("Error while populating Garvel lock cache. Reason = %s", e.getErrorString()));
-            }
-        }
+        cachedFileStamp = fileStamp;
     }
 
     /**
-     * Check if the config cache has been populated using Garvel.gl.
+     * The modification time and size of the file, or "-" if it does not exist.
      *
+     * @param filename
      * @return
      */
-    @Override
-    public boolean isConfigCachePopulated() {
-        return configCache != null;
+    private String getFileStamp(final String filename) {
+        final File file = new File(filename);
+        if (!file.isFile()) {
+            return "-";
+        }
+
+        return file.lastModified() + ":" + file.length();
     }
 
     /**
-     * Check if the lock cache has been populate using Garvel.lock.
+     * Check if the config cache has been populated using Garvel.gl.
      *
      * @return
      */
     @Override
-    public boolean isLockCachePopulated() {
-        return lockCache != null;
+    public boolean isConfigCachePopulated() {
+        return configCache != null;
     }
 
     @Override
@@ -107,15 +110,6 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
         return null;
     }
 
-    @Override
-    public DependenciesEntry getLockDependencies() {
-        if (lockCache != null) {
-            return (DependenciesEntry) lockCache.get(CacheKey.DEPENDENCIES);
-        }
-
-        return null;
-    }
-
     /**
      * Some of the keys are optional, and so this method needs to be
      * invoked before those operations.
@@ -156,16 +150,4 @@ public enum CacheManagerServiceImpl implements CacheManagerService {
         TOMLAstVisitor configCacheFillVisitor = new TOMLAstCacheVisitor(configCache);
         config.accept(configCacheFillVisitor);
     }
-
-    /**
-     * Populate the lock cache, if applicable.
-     *
-     * @param lock
-     */
-    private void populateLockCache(final ConfigAst lock) {
-        lockCache = new HashMap<>();
-
-        TOMLAstVisitor lockCacheFillVisitor = new TOMLAstCacheVisitor(lockCache);
-        lock.accept(lockCacheFillVisitor);
-    }
 }
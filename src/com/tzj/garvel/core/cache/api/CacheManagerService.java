@@ -7,12 +7,8 @@ public interface CacheManagerService {
 
     boolean isConfigCachePopulated();
 
-    boolean isLockCachePopulated();
-
     DependenciesEntry getConfigDependencies();
 
-    DependenciesEntry getLockDependencies();
-
     boolean containsCacheKey(final CacheKey key);
 
     CacheEntry getEntry(final CacheKey key);
@@ -1,25 +1,174 @@
 package com.tzj.garvel.core.concurrent;
 
+import com.tzj.garvel.core.GarvelCoreConstants;
 import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.concurrent.api.ExecutorMetrics;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A simple wrapper over an ExecutorService.
+ * The shared executors of Garvel, each sized and named for the kind of work it runs:
+ * <p>
+ * 1. the job engine - an unbounded pool running the jobs, which mostly wait on the others.
+ * 2. I/O - a bounded pool for blocking network and file I/O. Its threads time out when idle.
+ * 3. network - a bounded pool for the asynchronous network requests that I/O tasks wait on.
+ * 4. CPU - a work-stealing pool with one thread per core (by default) for CPU-bound work.
+ * 5. the scheduler - a single thread for timeouts and delayed work.
+ * <p>
+ * Components which need to bound their own concurrency (say, the number of concurrent
+ * downloads) take a limited view of one of these pools instead of creating a pool of
+ * their own. Since a task waiting on another task of the same pool holds on to its thread,
+ * tasks on the I/O pool only ever wait on the network pool, whose tasks wait on nothing.
+ * <p>
+ * The executors are created lazily, and recreated if they are needed again after a shutdown.
  */
 public enum ConcurrencyServiceImpl implements ConcurrencyService {
     INSTANCE;
 
-    private ExecutorService service;
+    private final Set<LimitedExecutor> views = Collections.newSetFromMap(new ConcurrentHashMap<LimitedExecutor, Boolean>());
+
+    private ExecutorService jobExecutor;
+    private ThreadPoolExecutor ioExecutor;
+    private ThreadPoolExecutor networkExecutor;
+    private ForkJoinPool cpuExecutor;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Override
+    public synchronized ExecutorService getExecutor() {
+        if (jobExecutor == null || jobExecutor.isShutdown()) {
+            jobExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("job"));
+        }
+        return jobExecutor;
+    }
+
+    @Override
+    public synchronized ExecutorService getIOExecutor() {
+        if (ioExecutor == null || ioExecutor.isShutdown()) {
+            final int threads = Math.max(1, GarvelCoreConstants.GARVEL_IO_THREADS);
+            ioExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("io"));
+            ioExecutor.allowCoreThreadTimeOut(true);
+        }
+        return ioExecutor;
+    }
+
+    @Override
+    public synchronized ExecutorService getNetworkExecutor() {
+        if (networkExecutor == null || networkExecutor.isShutdown()) {
+            final int threads = Math.max(1, GarvelCoreConstants.GARVEL_NET_THREADS);
+            networkExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("net"));
+            networkExecutor.allowCoreThreadTimeOut(true);
+        }
+        return networkExecutor;
+    }
+
+    @Override
+    public synchronized ForkJoinPool getCPUExecutor() {
+        if (cpuExecutor == null || cpuExecutor.isShutdown()) {
+            cpuExecutor = new ForkJoinPool(Math.max(1, GarvelCoreConstants.GARVEL_CPU_THREADS),
+                    new CPUThreadFactory(), null, false);
+        }
+        return cpuExecutor;
+    }
+
+    @Override
+    public synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null || scheduler.isShutdown()) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("scheduler"));
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    @Override
+    public ExecutorService newLimitedExecutor(final String name, final ExecutorService pool, final int limit) {
+        final LimitedExecutor[] holder = new LimitedExecutor[1];
+        final LimitedExecutor view = new LimitedExecutor(name, pool, limit, new Runnable() {
+            @Override
+            public void run() {
+                views.remove(holder[0]);
+            }
+        });
+        holder[0] = view;
+        views.add(view);
+
+        return view;
+    }
+
+    @Override
+    public synchronized List<ExecutorMetrics> getMetrics() {
+        final List<ExecutorMetrics> metrics = new ArrayList<>();
+
+        if (jobExecutor instanceof ThreadPoolExecutor) {
+            metrics.add(getMetrics("job", (ThreadPoolExecutor) jobExecutor));
+        }
+        if (ioExecutor != null) {
+            metrics.add(getMetrics("io", ioExecutor));
+        }
+        if (networkExecutor != null) {
+            metrics.add(getMetrics("net", networkExecutor));
+        }
+        if (cpuExecutor != null) {
+            metrics.add(new ExecutorMetrics("cpu", cpuExecutor.getPoolSize(), cpuExecutor.getActiveThreadCount(),
+                    cpuExecutor.getQueuedTaskCount() + cpuExecutor.getQueuedSubmissionCount(), -1));
+        }
+        if (scheduler != null) {
+            metrics.add(getMetrics("scheduler", scheduler));
+        }
+        for (final LimitedExecutor view : views) {
+            metrics.add(view.getMetrics());
+        }
+
+        return metrics;
+    }
 
     @Override
-    public ExecutorService getExecutor() {
-        // different strategies can be adopted based
-        // on project parameters later on
-        if (this.service == null) {
-            service = Executors.newCachedThreadPool();
+    public synchronized void shutdown() {
+        for (final LimitedExecutor view : views) {
+            view.shutdownNow();
+        }
+        views.clear();
+
+        if (jobExecutor != null) {
+            jobExecutor.shutdown();
+        }
+        if (ioExecutor != null) {
+            ioExecutor.shutdownNow();
+        }
+        if (networkExecutor != null) {
+            networkExecutor.shutdownNow();
+        }
+        if (cpuExecutor != null) {
+            cpuExecutor.shutdownNow();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private ExecutorMetrics getMetrics(final String name, final ThreadPoolExecutor executor) {
+        return new ExecutorMetrics(name, executor.getPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), executor.getCompletedTaskCount());
+    }
+
+    /**
+     * Daemon worker threads named garvel-cpu-N, like the threads of the other executors.
+     */
+    private static class CPUThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+            final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("garvel-cpu-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
         }
-        return service;
     }
 }
@@ -0,0 +1,163 @@
+package com.tzj.garvel.core.concurrent;
+
+import com.tzj.garvel.core.concurrent.api.ExecutorMetrics;
+
+import java.util.*;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A view of a shared pool which runs at most `limit` of its tasks at a time. This lets
+ * every user of a shared pool bound its own concurrency (say, the number of concurrent
+ * downloads) without owning any threads, and shutting the view down only affects the
+ * tasks submitted through it.
+ * <p>
+ * Tasks are queued locally, and up to `limit` drainers - each of them a task on the shared
+ * pool - take them off the queue one after the other.
+ */
+public class LimitedExecutor extends AbstractExecutorService {
+    private final String name;
+    private final Executor pool;
+    private final int limit;
+    private final Deque<Runnable> queue;
+    private final Set<Thread> running;
+    private final Runnable onTermination;
+    private int drainers;
+    private long completed;
+    private boolean shutdown;
+    private boolean terminationReported;
+
+    LimitedExecutor(final String name, final Executor pool, final int limit, final Runnable onTermination) {
+        this.name = name;
+        this.pool = pool;
+        this.limit = Math.max(1, limit);
+        this.queue = new ArrayDeque<>();
+        this.running = new HashSet<>();
+        this.onTermination = onTermination;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException(String.format("%s has been shut down", name));
+            }
+
+            queue.add(command);
+            if (drainers == limit) {
+                return;
+            }
+            drainers++;
+        }
+
+        try {
+            pool.execute(new Drainer());
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queue.remove(command);
+                drainers--;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        checkTermination();
+    }
+
+    /**
+     * Drop the queued tasks, and interrupt the running ones.
+     *
+     * @return the tasks that never ran.
+     */
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown = true;
+
+        final List<Runnable> pending = new ArrayList<>(queue);
+        queue.clear();
+
+        for (final Thread thread : running) {
+            thread.interrupt();
+        }
+
+        checkTermination();
+        return pending;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && drainers == 0;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + remaining;
+
+        while (!isTerminated()) {
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        return true;
+    }
+
+    public synchronized ExecutorMetrics getMetrics() {
+        return new ExecutorMetrics(name, limit, running.size(), queue.size(), completed);
+    }
+
+    private void checkTermination() {
+        if (isTerminated()) {
+            notifyAll();
+            if (onTermination != null && !terminationReported) {
+                terminationReported = true;
+                onTermination.run();
+            }
+        }
+    }
+
+    private class Drainer implements Runnable {
+        @Override
+        public void run() {
+            final Thread current = Thread.currentThread();
+
+            while (true) {
+                final Runnable task;
+                synchronized (LimitedExecutor.this) {
+                    task = queue.poll();
+                    if (task == null) {
+                        drainers--;
+                        checkTermination();
+                        return;
+                    }
+                    running.add(current);
+                }
+
+                try {
+                    task.run();
+                } finally {
+                    synchronized (LimitedExecutor.this) {
+                        running.remove(current);
+                        completed++;
+                    }
+
+                    // an interrupt aimed at this view's task must not leak into the shared pool
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tzj.garvel.core.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named daemon threads (garvel-<name>-N), so that the threads are easy to pick out in a
+ * thread dump, and that a stuck task can never keep the JVM alive.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger count;
+
+    public NamedThreadFactory(final String name) {
+        this.prefix = "garvel-" + name + "-";
+        this.count = new AtomicInteger(0);
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+        final Thread t = new Thread(r, prefix + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    }
+}
@@ -1,10 +1,62 @@
 package com.tzj.garvel.core.concurrent.api;
 
-import com.tzj.garvel.common.spi.core.command.CommandResult;
-
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 
 public interface ConcurrencyService {
+    /**
+     * The Job Engine - runs the jobs (and the tasks of their task graphs), which mostly
+     * wait on the other executors.
+     *
+     * @return
+     */
     ExecutorService getExecutor();
+
+    /**
+     * For blocking network and file I/O.
+     *
+     * @return
+     */
+    ExecutorService getIOExecutor();
+
+    /**
+     * For short, self-contained network requests (hash files, say) that tasks running on the
+     * I/O pool wait on. These must never wait on other tasks themselves, and are kept off
+     * the I/O pool so that the tasks waiting on them cannot starve them.
+     *
+     * @return
+     */
+    ExecutorService getNetworkExecutor();
+
+    /**
+     * For CPU-bound work - hashing, parsing, compression.
+     *
+     * @return
+     */
+    ForkJoinPool getCPUExecutor();
+
+    /**
+     * For timeouts and delayed work. Scheduled tasks must be short, and hand any real work
+     * over to one of the other executors.
+     *
+     * @return
+     */
+    ScheduledExecutorService getScheduler();
+
+    /**
+     * A view of the given pool which runs at most `limit` tasks at a time. Shutting the
+     * view down does not affect the pool.
+     *
+     * @param name
+     * @param pool
+     * @param limit
+     * @return
+     */
+    ExecutorService newLimitedExecutor(final String name, final ExecutorService pool, final int limit);
+
+    List<ExecutorMetrics> getMetrics();
+
+    void shutdown();
 }
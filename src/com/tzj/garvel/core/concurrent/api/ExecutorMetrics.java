@@ -0,0 +1,57 @@
+package com.tzj.garvel.core.concurrent.api;
+
+/**
+ * A point-in-time snapshot of the load on one of the executors.
+ */
+public class ExecutorMetrics {
+    private final String name;
+    private final int threads;
+    private final int activeTasks;
+    private final long queuedTasks;
+    private final long completedTasks;
+
+    public ExecutorMetrics(final String name, final int threads, final int activeTasks,
+                           final long queuedTasks, final long completedTasks) {
+        this.name = name;
+        this.threads = threads;
+        this.activeTasks = activeTasks;
+        this.queuedTasks = queuedTasks;
+        this.completedTasks = completedTasks;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The number of threads currently in the pool (or, for a limited executor, the limit).
+     *
+     * @return
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getActiveTasks() {
+        return activeTasks;
+    }
+
+    public long getQueuedTasks() {
+        return queuedTasks;
+    }
+
+    /**
+     * The number of completed tasks, or -1 if the executor does not keep count.
+     *
+     * @return
+     */
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: threads=%d, active=%d, queued=%d, completed=%s", name, threads, activeTasks,
+                queuedTasks, completedTasks < 0 ? "n/a" : String.valueOf(completedTasks));
+    }
+}
@@ -0,0 +1,322 @@
+package com.tzj.garvel.core.daemon;
+
+import com.tzj.garvel.common.spi.core.CoreService;
+import com.tzj.garvel.common.spi.core.command.CommandException;
+import com.tzj.garvel.common.spi.core.command.CommandParams;
+import com.tzj.garvel.common.spi.core.command.CommandResult;
+import com.tzj.garvel.common.spi.core.command.CommandType;
+import com.tzj.garvel.core.CoreServiceImpl;
+import com.tzj.garvel.core.GarvelCoreConstants;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The client side of the Garvel daemon: a CoreService which forwards every command to
+ * the daemon of the current project, and streams the output of the command back to the
+ * console. This is what clients get from the CoreServiceLoader when `-Dgarvel.daemon=true`
+ * is set.
+ * <p>
+ * 1. Read the daemon file of the project. If there is no (compatible) daemon running, start
+ * one in the background, and wait for it to publish its port.
+ * 2. Send the command and its parameters, and copy the OUT and ERR frames to System.out
+ * and System.err until the RESULT or FAILURE frame arrives.
+ * 3. If no daemon can be reached at all, run the command in-process instead.
+ * <p>
+ * `run` is always executed in-process, since it invokes the project's main method, which
+ * needs the user's console (and may well call System.exit).
+ */
+public enum DaemonCoreService implements CoreService {
+    INSTANCE;
+
+    private static final int CONNECT_TIMEOUT = 2000;
+    private static final long POLL_INTERVAL = 50L;
+    private static final String GARVEL_PROPERTY_PREFIX = "garvel.";
+    private static final String DAEMON_PROPERTY = "garvel.daemon";
+
+    private boolean ranInProcess;
+
+    @Override
+    public CommandResult runCommand(final CommandType cmd, final CommandParams cmdParams) throws CommandException {
+        if (cmd != CommandType.RUN) {
+            final Connection connection;
+            try {
+                connection = connect(true);
+            } catch (DaemonException e) {
+                System.err.println(String.format("Garvel daemon unavailable (%s), running in-process", e.getErrorString()));
+                return runInProcess(cmd, cmdParams);
+            }
+
+            return forward(connection, cmd, cmdParams);
+        }
+
+        return runInProcess(cmd, cmdParams);
+    }
+
+    /**
+     * The daemon configures itself - the in-process Core is only started up if it is used.
+     */
+    @Override
+    public void startup() {
+    }
+
+    /**
+     * The daemon keeps running - only the in-process Core (if it was used) is shut down.
+     */
+    @Override
+    public void cleanup() {
+        if (ranInProcess) {
+            CoreServiceImpl.INSTANCE.cleanup();
+        }
+    }
+
+    /**
+     * Ask the daemon of the current project (if any) to shut down.
+     */
+    public void stopDaemon() {
+        try (Connection connection = connect(false)) {
+            sendRequest(connection, new DaemonRequest(null, null));
+            readResponse(connection.socket);
+            System.out.println("Garvel daemon stopped");
+        } catch (DaemonException e) {
+            System.out.println("No Garvel daemon is running for this project");
+        } catch (IOException | CommandException e) {
+            System.err.println(String.format("Failed to stop the Garvel daemon: %s", e.getLocalizedMessage()));
+        }
+    }
+
+    private CommandResult runInProcess(final CommandType cmd, final CommandParams cmdParams) throws CommandException {
+        if (!ranInProcess) {
+            CoreServiceImpl.INSTANCE.startup();
+            ranInProcess = true;
+        }
+
+        return CoreServiceImpl.INSTANCE.runCommand(cmd, cmdParams);
+    }
+
+    /**
+     * Send the command to the daemon, and stream its output. Once the request has been
+     * sent, the command is never re-run in-process, even if the daemon goes away.
+     *
+     * @param connection
+     * @param cmd
+     * @param cmdParams
+     * @return
+     * @throws CommandException
+     */
+    private CommandResult forward(final Connection connection, final CommandType cmd, final CommandParams cmdParams) throws CommandException {
+        try (Connection c = connection) {
+            sendRequest(c, new DaemonRequest(cmd, cmdParams));
+
+            return readResponse(c.socket);
+        } catch (IOException e) {
+            throw new CommandException(String.format("lost connection to the Garvel daemon: %s\n", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * The token goes first, so that the daemon can authenticate the client before
+     * deserializing the request.
+     *
+     * @param connection
+     * @param request
+     * @throws IOException
+     */
+    private void sendRequest(final Connection connection, final DaemonRequest request) throws IOException {
+        final OutputStream buffered = new BufferedOutputStream(connection.socket.getOutputStream());
+        new DataOutputStream(buffered).writeUTF(connection.info.getToken());
+
+        final ObjectOutputStream out = new ObjectOutputStream(buffered);
+        out.writeObject(request);
+        out.flush();
+    }
+
+    private CommandResult readResponse(final Socket socket) throws IOException, CommandException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        byte[] buffer = new byte[8192];
+
+        while (true) {
+            final int kind = in.readUnsignedByte();
+            final int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("invalid frame");
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+
+            switch (kind) {
+                case DaemonFrameWriter.OUT:
+                    System.out.write(buffer, 0, length);
+                    System.out.flush();
+                    break;
+                case DaemonFrameWriter.ERR:
+                    System.err.write(buffer, 0, length);
+                    System.err.flush();
+                    break;
+                case DaemonFrameWriter.RESULT:
+                    return readResult(buffer, length);
+                case DaemonFrameWriter.FAILURE:
+                    throw new CommandException(new String(buffer, 0, length, StandardCharsets.UTF_8));
+                default:
+                    throw new IOException(String.format("unknown frame kind %d", kind));
+            }
+        }
+    }
+
+    private CommandResult readResult(final byte[] buffer, final int length) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer, 0, length))) {
+            return (CommandResult) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException(String.format("invalid command result: %s", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Connect to the daemon of the current project.
+     *
+     * @param start start a new daemon if none can be reached.
+     * @return
+     * @throws DaemonException
+     */
+    private Connection connect(final boolean start) throws DaemonException {
+        final Connection connection = tryConnect(DaemonInfo.read());
+        if (connection != null || !start) {
+            if (connection == null) {
+                throw new DaemonException("no daemon running");
+            }
+            return connection;
+        }
+
+        // only one client gets to start the daemon - the others wait for it
+        try {
+            Files.createDirectories(DaemonInfo.getLockFile().getParent());
+            try (FileChannel channel = FileChannel.open(DaemonInfo.getLockFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                final FileLock lock = channel.lock();
+                try {
+                    Connection started = tryConnect(DaemonInfo.read());
+                    if (started != null) {
+                        return started;
+                    }
+
+                    final Process process = startDaemon();
+                    final long deadline = System.currentTimeMillis() + GarvelCoreConstants.GARVEL_DAEMON_STARTUP_TIMEOUT;
+
+                    while (System.currentTimeMillis() < deadline) {
+                        started = tryConnect(DaemonInfo.read());
+                        if (started != null) {
+                            return started;
+                        }
+                        if (hasExited(process)) {
+                            throw new DaemonException(String.format("the daemon exited, see %s", DaemonInfo.getLogFile()));
+                        }
+
+                        Thread.sleep(POLL_INTERVAL);
+                    }
+
+                    throw new DaemonException("timed out waiting for the daemon to start");
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new DaemonException(String.format("failed to start the daemon: %s", e.getLocalizedMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DaemonException("interrupted while starting the daemon");
+        }
+    }
+
+    /**
+     * @param info
+     * @return a connection, or null if there is no compatible daemon listening.
+     */
+    private Connection tryConnect(final DaemonInfo info) {
+        if (info == null || !info.isCompatible()) {
+            return null;
+        }
+
+        final Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getByName(null), info.getPort()), CONNECT_TIMEOUT);
+            return new Connection(socket, info);
+        } catch (IOException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Start the daemon with the same JVM and classpath as this process, in the project root,
+     * passing on the Garvel tuning properties.
+     *
+     * @return
+     * @throws IOException
+     */
+    private Process startDaemon() throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+        for (final Map.Entry<Object, Object> prop : System.getProperties().entrySet()) {
+            final String key = String.valueOf(prop.getKey());
+            if (key.startsWith(GARVEL_PROPERTY_PREFIX) && !key.equals(DAEMON_PROPERTY)) {
+                command.add(String.format("-D%s=%s", key, prop.getValue()));
+            }
+        }
+
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(GarvelDaemon.class.getName());
+
+        final File logFile = DaemonInfo.getLogFile().toFile();
+        final ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(new File(GarvelCoreConstants.GARVEL_PROJECT_ROOT))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+                .redirectInput(ProcessBuilder.Redirect.from(new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null")));
+
+        return builder.start();
+    }
+
+    private boolean hasExited(final Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A socket connected to a daemon, along with the daemon file that led to it - the
+     * token must come from the same file as the port.
+     */
+    private static class Connection implements Closeable {
+        private final Socket socket;
+        private final DaemonInfo info;
+
+        Connection(final Socket socket, final DaemonInfo info) {
+            this.socket = socket;
+            this.info = info;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.tzj.garvel.core.daemon;
+
+import com.tzj.garvel.common.spi.exception.GarvelCheckedException;
+
+public class DaemonException extends GarvelCheckedException {
+    private static final long serialVersionUID = -6312950467802719310L;
+
+    public DaemonException(final String errorMessage) {
+        super(errorMessage);
+    }
+}
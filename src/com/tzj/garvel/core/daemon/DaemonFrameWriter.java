@@ -0,0 +1,70 @@
+package com.tzj.garvel.core.daemon;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The daemon's half of the wire protocol. Everything sent back to the client is a frame:
+ * <p>
+ * [kind: 1 byte][length: 4 bytes][payload: length bytes]
+ * <p>
+ * The output of the command (OUT and ERR frames) is streamed as it is produced, and the
+ * exchange ends with exactly one RESULT (the serialized CommandResult) or FAILURE (the
+ * error message) frame. Frames may be written from several threads (the command's worker
+ * threads print as well), so every frame is written atomically.
+ */
+public class DaemonFrameWriter {
+    public static final int OUT = 1;
+    public static final int ERR = 2;
+    public static final int RESULT = 3;
+    public static final int FAILURE = 4;
+
+    private final DataOutputStream out;
+
+    public DaemonFrameWriter(final OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    public synchronized void writeFrame(final int kind, final byte[] data, final int offset, final int length) throws IOException {
+        out.writeByte(kind);
+        out.writeInt(length);
+        out.write(data, offset, length);
+        out.flush();
+    }
+
+    public void writeFailure(final String message) throws IOException {
+        final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        writeFrame(FAILURE, bytes, 0, bytes.length);
+    }
+
+    public void writeResult(final Serializable result) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(bytes)) {
+            objectStream.writeObject(result);
+        }
+
+        writeFrame(RESULT, bytes.toByteArray(), 0, bytes.size());
+    }
+
+    /**
+     * A stream which sends whatever is written to it as frames of the given kind.
+     *
+     * @param kind OUT or ERR.
+     * @return
+     */
+    public OutputStream getStream(final int kind) {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                if (len > 0) {
+                    writeFrame(kind, b, off, len);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.tzj.garvel.core.daemon;
+
+import com.tzj.garvel.core.GarvelCoreConstants;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Where a running Garvel daemon can be reached. Every project directory has its own
+ * daemon (the project root is fixed for the lifetime of the process), described by a
+ * file under ~/.garvel/daemon named after the hash of the project root. The file holds
+ * the loopback port, the Garvel version, and a random token which the clients must
+ * present - the file is only readable by the owner.
+ */
+public class DaemonInfo {
+    private static final String PORT = "port";
+    private static final String TOKEN = "token";
+    private static final String VERSION = "version";
+    private static final String ROOT = "root";
+    private static final String INFO_EXTENSION = ".daemon";
+    private static final String LOCK_EXTENSION = ".lock";
+    private static final String LOG_EXTENSION = ".log";
+    private static final String OWNER_ONLY = "rw-------";
+
+    private final int port;
+    private final String token;
+    private final String version;
+
+    public DaemonInfo(final int port, final String token, final String version) {
+        this.port = port;
+        this.token = token;
+        this.version = version;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Was this daemon started by the same version of Garvel?
+     *
+     * @return
+     */
+    public boolean isCompatible() {
+        return GarvelCoreConstants.GARVEL_GARVEL_VERSION.equals(version);
+    }
+
+    /**
+     * Read the daemon file for the current project, if there is one.
+     *
+     * @return the daemon info, or null if no daemon has been started.
+     */
+    public static DaemonInfo read() {
+        final Path infoFile = getInfoFile();
+        if (!Files.isRegularFile(infoFile)) {
+            return null;
+        }
+
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(infoFile)) {
+            props.load(in);
+            return new DaemonInfo(Integer.parseInt(props.getProperty(PORT)),
+                    props.getProperty(TOKEN), props.getProperty(VERSION));
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atomically replace the daemon file for the current project.
+     *
+     * @throws IOException
+     */
+    public void write() throws IOException {
+        final Path infoFile = getInfoFile();
+        Files.createDirectories(infoFile.getParent());
+
+        final Properties props = new Properties();
+        props.setProperty(PORT, String.valueOf(port));
+        props.setProperty(TOKEN, token);
+        props.setProperty(VERSION, version);
+        props.setProperty(ROOT, GarvelCoreConstants.GARVEL_PROJECT_ROOT);
+
+        final Path tmpFile = Files.createTempFile(infoFile.getParent(), infoFile.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(tmpFile);
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                props.store(out, "Garvel daemon");
+            }
+
+            Files.move(tmpFile, infoFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Delete the daemon file, unless it has been taken over by another daemon in the meantime.
+     */
+    public void delete() {
+        final DaemonInfo current = read();
+        if (current != null && token.equals(current.token)) {
+            try {
+                Files.deleteIfExists(getInfoFile());
+            } catch (IOException e) {
+                // a stale file is detected (and replaced) by the next client
+            }
+        }
+    }
+
+    public static Path getInfoFile() {
+        return getFile(INFO_EXTENSION);
+    }
+
+    /**
+     * Held by a client while it starts a daemon, so that concurrent clients do not
+     * start one each.
+     *
+     * @return
+     */
+    public static Path getLockFile() {
+        return getFile(LOCK_EXTENSION);
+    }
+
+    public static Path getLogFile() {
+        return getFile(LOG_EXTENSION);
+    }
+
+    private static Path getFile(final String extension) {
+        return Paths.get(GarvelCoreConstants.GARVEL_DAEMON_DIR, getProjectKey() + extension);
+    }
+
+    /**
+     * The hex SHA-1 of the project root.
+     *
+     * @return
+     */
+    private static String getProjectKey() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            final byte[] hash = digest.digest(GarvelCoreConstants.GARVEL_PROJECT_ROOT.getBytes(StandardCharsets.UTF_8));
+
+            final StringBuilder sb = new StringBuilder();
+            for (final byte b : hash) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void restrictToOwner(final Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString(OWNER_ONLY));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system - the user's home directory is private anyway
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DaemonInfo{" +
+                "port=" + port +
+                ", version='" + version + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.tzj.garvel.core.daemon;
+
+import com.tzj.garvel.common.spi.core.command.CommandParams;
+import com.tzj.garvel.common.spi.core.command.CommandType;
+
+import java.io.Serializable;
+
+/**
+ * A request from a client to the Garvel daemon - either a command to run, or a
+ * request to shut down. It is only deserialized once the client has presented the
+ * daemon token.
+ */
+public class DaemonRequest implements Serializable {
+    private static final long serialVersionUID = 3418867091523571042L;
+
+    private final CommandType type;
+    private final CommandParams params;
+
+    public DaemonRequest(final CommandType type, final CommandParams params) {
+        this.type = type;
+        this.params = params;
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public CommandParams getParams() {
+        return params;
+    }
+
+    /**
+     * A request without a command asks the daemon to shut down.
+     *
+     * @return
+     */
+    public boolean isStop() {
+        return type == null;
+    }
+
+    @Override
+    public String toString() {
+        return "DaemonRequest{" +
+                "type=" + type +
+                '}';
+    }
+}
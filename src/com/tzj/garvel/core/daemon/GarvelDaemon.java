@@ -0,0 +1,182 @@
+package com.tzj.garvel.core.daemon;
+
+import com.tzj.garvel.common.spi.core.command.CommandException;
+import com.tzj.garvel.common.spi.core.command.CommandResult;
+import com.tzj.garvel.core.CoreServiceImpl;
+import com.tzj.garvel.core.GarvelCoreConstants;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * The Garvel daemon - a long-lived process which runs the commands forwarded to it by
+ * the CLI (see DaemonCoreService), so that the parsed configuration, the Garvel Cache, the
+ * metadata caches, the loaded compiler, and the JIT-compiled code of Garvel itself survive
+ * from one command to the next.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Bind a server socket to an ephemeral port on the loopback interface, and publish the
+ * port along with a random token in the daemon file of the project (see DaemonInfo).
+ * 2. Accept one client at a time, giving it GARVEL_DAEMON_REQUEST_TIMEOUT to send its token and
+ * request, so that a silent client cannot hold up the daemon. Check the token, redirect System.out and System.err to
+ * the client for the duration of the command, and run the command on the Core.
+ * 3. Send back the result (or the failure) of the command.
+ * 4. Shut down on a stop request, or once no client has connected for GARVEL_DAEMON_IDLE_TIMEOUT.
+ * <p>
+ * The daemon is started by the first client which finds none running, in the project root.
+ * It can also be stopped with `java -cp garvel.jar com.tzj.garvel.core.daemon.GarvelDaemon --stop`.
+ */
+public class GarvelDaemon {
+    public static final String STOP_OPTION = "--stop";
+
+    private final String token;
+
+    public GarvelDaemon() {
+        this.token = new BigInteger(130, new SecureRandom()).toString(32);
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && STOP_OPTION.equals(args[0])) {
+            DaemonCoreService.INSTANCE.stopDaemon();
+            return;
+        }
+
+        int exitCode = 0;
+        try {
+            CoreServiceImpl.INSTANCE.startup();
+            new GarvelDaemon().serve();
+        } catch (IOException e) {
+            System.err.println(String.format("Garvel daemon failed: %s", e.getLocalizedMessage()));
+            exitCode = 1;
+        } finally {
+            CoreServiceImpl.INSTANCE.cleanup();
+        }
+
+        System.exit(exitCode);
+    }
+
+    /**
+     * Serve clients until asked to stop, or until idle for too long.
+     *
+     * @throws IOException
+     */
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getByName(null))) {
+            server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, GarvelCoreConstants.GARVEL_DAEMON_IDLE_TIMEOUT));
+
+            final DaemonInfo info = new DaemonInfo(server.getLocalPort(), token, GarvelCoreConstants.GARVEL_GARVEL_VERSION);
+            info.write();
+
+            System.out.println(String.format("Garvel daemon listening on port %d for %s",
+                    server.getLocalPort(), GarvelCoreConstants.GARVEL_PROJECT_ROOT));
+
+            try {
+                boolean stop = false;
+                while (!stop) {
+                    final Socket client;
+                    try {
+                        client = server.accept();
+                    } catch (SocketTimeoutException e) {
+                        System.out.println("Garvel daemon idle - shutting down");
+                        break;
+                    }
+
+                    stop = handle(client);
+                }
+            } finally {
+                info.delete();
+            }
+        }
+    }
+
+    /**
+     * Run a single client request.
+     *
+     * @param client
+     * @return true if the daemon has been asked to stop.
+     */
+    private boolean handle(final Socket client) {
+        try (Socket socket = client) {
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, GarvelCoreConstants.GARVEL_DAEMON_REQUEST_TIMEOUT));
+
+            final InputStream in = new BufferedInputStream(socket.getInputStream());
+            final DaemonFrameWriter frames = new DaemonFrameWriter(socket.getOutputStream());
+
+            // never deserialize anything from an unauthenticated client
+            if (!isValidToken(new DataInputStream(in).readUTF())) {
+                frames.writeFailure("invalid daemon token\n");
+                return false;
+            }
+
+            final DaemonRequest request;
+            try {
+                request = (DaemonRequest) new ObjectInputStream(in).readObject();
+            } catch (ClassNotFoundException | ClassCastException e) {
+                frames.writeFailure("invalid daemon request\n");
+                return false;
+            }
+
+            // the client is only written to from here on
+            socket.setSoTimeout(0);
+
+            if (request.isStop()) {
+                frames.writeResult(null);
+                return true;
+            }
+
+            runCommand(request, frames);
+        } catch (IOException e) {
+            // the client went away - nothing to report to
+            System.out.println(String.format("Garvel daemon: lost client connection: %s", e.getLocalizedMessage()));
+        }
+
+        return false;
+    }
+
+    /**
+     * Compare the tokens in constant time, so that the comparison gives nothing away.
+     *
+     * @param clientToken
+     * @return
+     */
+    private boolean isValidToken(final String clientToken) {
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), clientToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void runCommand(final DaemonRequest request, final DaemonFrameWriter frames) throws IOException {
+        final PrintStream stdout = System.out;
+        final PrintStream stderr = System.err;
+
+        System.setOut(new PrintStream(frames.getStream(DaemonFrameWriter.OUT), true));
+        System.setErr(new PrintStream(frames.getStream(DaemonFrameWriter.ERR), true));
+
+        CommandResult result = null;
+        String failure = null;
+        try {
+            result = CoreServiceImpl.INSTANCE.runCommand(request.getType(), request.getParams());
+        } catch (CommandException e) {
+            failure = e.getErrorString() == null ? "" : e.getErrorString();
+        } catch (RuntimeException e) {
+            failure = String.format("internal error in the Garvel daemon: %s\n", e);
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+
+        if (failure != null) {
+            frames.writeFailure(failure);
+        } else {
+            frames.writeResult(result);
+        }
+    }
+}
@@ -14,6 +14,10 @@ import java.util.Map;
  * Wrapper class that holds the actual Dependency Graph as well as stores the
  * current mapping between the integer ids and the Maven coordinates of the
  * arrifact.
+ * <p>
+ * Each distinct artifact (groupId, artifactId, version) is represented by exactly
+ * one vertex. The reverse index from Artifact to vertex id is not serialized, but
+ * rebuilt from the artifact mapping on load.
  */
 @SuppressWarnings("unchecked")
 public class DependencyGraph implements Externalizable {
@@ -21,6 +25,7 @@ public class DependencyGraph implements Externalizable {
 
     private Graph g;
     private Map<Integer, Artifact> artifactMapping;
+    private transient Map<Artifact, Integer> vertexIndex;
 
     // needed for deserialization
     public DependencyGraph() {}
@@ -28,6 +33,8 @@ public class DependencyGraph implements Externalizable {
     public DependencyGraph(final Graph g, final Map<Integer, Artifact> artifactMapping) {
         this.g = g;
         this.artifactMapping = artifactMapping;
+        this.vertexIndex = new HashMap<>();
+        rebuildVertexIndex();
     }
 
     public Graph getG() {
@@ -40,6 +47,29 @@ public class DependencyGraph implements Externalizable {
 
     public void addArtifactMapping(final Integer id, final Artifact artifact) {
         artifactMapping.put(id, artifact);
+        vertexIndex.put(artifact, id);
+    }
+
+    /**
+     * Retrieve the vertex id of an artifact that has already been added to
+     * the graph.
+     *
+     * @param artifact
+     * @return the id, or null if the artifact is not part of the graph.
+     */
+    public Integer getVertexId(final Artifact artifact) {
+        return vertexIndex.get(artifact);
+    }
+
+    public boolean containsArtifact(final Artifact artifact) {
+        return vertexIndex.containsKey(artifact);
+    }
+
+    private void rebuildVertexIndex() {
+        vertexIndex.clear();
+        for (Map.Entry<Integer, Artifact> entry : artifactMapping.entrySet()) {
+            vertexIndex.put(entry.getValue(), entry.getKey());
+        }
     }
 
     @Override
@@ -52,5 +82,7 @@ public class DependencyGraph implements Externalizable {
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
         this.g = (Graph) in.readObject();
         this.artifactMapping = (Map<Integer, Artifact>) in.readObject();
+        this.vertexIndex = new HashMap<>();
+        rebuildVertexIndex();
     }
 }
@@ -0,0 +1,272 @@
+package com.tzj.garvel.core.dep;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.graph.Graph;
+import com.tzj.garvel.core.dep.api.graph.GraphKind;
+import com.tzj.garvel.core.dep.graph.CompressedSparseRowGraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads and writes the DependencyGraph in Garvel's compact binary format (target/deps/dependency.graph).
+ * <p>
+ * Layout (all integers other than the magic number are unsigned LEB128 varints):
+ * <p>
+ * 1. magic (4 bytes, "GDG\0"), format version (1 byte), graph kind (1 byte).
+ * 2. the string table: count, followed by each string as a length and its UTF-8 bytes.
+ * Every distinct groupId, artifactId and version is stored once.
+ * 3. the vertices: count, followed by the string table indices of (groupId, artifactId, version)
+ * of each vertex, each offset by 1 (0 means that the vertex has no artifact).
+ * 4. the edges, in CSR order: for each vertex, the number of neighbours, followed by the
+ * (sorted) neighbours, each one encoded as the difference from the previous one.
+ * <p>
+ * Files are read through a memory mapping, and written atomically.
+ */
+public class DependencyGraphCodec {
+    private static final int MAGIC = 0x47444700;
+    private static final int FORMAT_VERSION = 1;
+
+    private DependencyGraphCodec() {
+    }
+
+    /**
+     * Write the given Dependency Graph to the given file.
+     *
+     * @param dependencyGraph
+     * @param filename
+     * @throws IOException
+     */
+    public static void write(final DependencyGraph dependencyGraph, final String filename) throws IOException {
+        final Graph g = dependencyGraph.getG();
+        final Map<Integer, Artifact> mapping = dependencyGraph.getArtifactMapping();
+        final int n = g.size();
+
+        // build the string table
+        final Map<String, Integer> stringIndices = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        final int[] artifactRefs = new int[n * 3];
+
+        for (int v = 0; v < n; v++) {
+            final Artifact artifact = mapping.get(v);
+            if (artifact != null) {
+                artifactRefs[3 * v] = intern(artifact.getGroupId(), stringIndices, strings) + 1;
+                artifactRefs[3 * v + 1] = intern(artifact.getArtifactId(), stringIndices, strings) + 1;
+                artifactRefs[3 * v + 2] = intern(artifact.getVersion(), stringIndices, strings) + 1;
+            }
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        out.write(FORMAT_VERSION);
+        out.write(g.kind() == GraphKind.DIRECTED ? 0 : 1);
+
+        writeVarint(out, strings.size());
+        for (final String s : strings) {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        writeVarint(out, n);
+        for (int i = 0; i < artifactRefs.length; i++) {
+            writeVarint(out, artifactRefs[i]);
+        }
+
+        if (g instanceof CompressedSparseRowGraph) {
+            final CompressedSparseRowGraph csr = (CompressedSparseRowGraph) g;
+            final int[] offsets = csr.getOffsets();
+            final int[] targets = csr.getTargets();
+
+            for (int v = 0; v < n; v++) {
+                writeRow(out, targets, offsets[v], offsets[v + 1]);
+            }
+        } else {
+            for (int v = 0; v < n; v++) {
+                final List<Integer> vs = g.getAdjacentVertices(v);
+                final int[] row = new int[vs.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = vs.get(i);
+                }
+                Arrays.sort(row);
+
+                writeRow(out, row, 0, row.length);
+            }
+        }
+
+        final Path target = Paths.get(filename).toAbsolutePath();
+        final Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, out.toByteArray());
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read a Dependency Graph from the given file. The graph is backed by a CompressedSparseRowGraph.
+     *
+     * @param filename
+     * @return the graph, or null if the file is not in a format that this codec recognises (for instance,
+     * a graph persisted by an older version of Garvel).
+     * @throws IOException
+     */
+    public static DependencyGraph read(final String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            final ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return decode(in);
+        }
+    }
+
+    private static DependencyGraph decode(final ByteBuffer in) throws IOException {
+        try {
+            if (in.remaining() < 6 || in.getInt() != MAGIC || (in.get() & 0xff) != FORMAT_VERSION) {
+                return null;
+            }
+
+            final GraphKind kind = in.get() == 0 ? GraphKind.DIRECTED : GraphKind.UNDIRECTED;
+
+            // every string takes at least the byte of its length
+            final int stringCount = readLength(in, 1, "string count");
+            final String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                final byte[] bytes = new byte[readLength(in, 1, "string length")];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            // every vertex takes at least the three bytes of its artifact, and the byte of its row length
+            final int n = readLength(in, 4, "vertex count");
+            final Map<Integer, Artifact> mapping = new HashMap<>();
+            for (int v = 0; v < n; v++) {
+                final int groupId = readVarint(in);
+                final int artifactId = readVarint(in);
+                final int version = readVarint(in);
+
+                if (groupId != 0) {
+                    mapping.put(v, new Artifact(getString(strings, groupId), getString(strings, artifactId),
+                            getString(strings, version)));
+                }
+            }
+
+            final int[] offsets = new int[n + 1];
+            int[] targets = new int[Math.max(n, 16)];
+            int e = 0;
+
+            for (int v = 0; v < n; v++) {
+                final int rowLength = readLength(in, 1, "row length");
+                if (e + rowLength > targets.length) {
+                    targets = Arrays.copyOf(targets, Math.max(targets.length * 2, e + rowLength));
+                }
+
+                int previous = 0;
+                for (int i = 0; i < rowLength; i++) {
+                    // the deltas of a sorted row are never negative
+                    final int delta = readVarint(in);
+                    if (delta < 0 || delta >= n - previous) {
+                        throw new IOException("corrupt dependency graph: invalid vertex " + ((long) previous + delta));
+                    }
+
+                    previous += delta;
+                    targets[e++] = previous;
+                }
+
+                offsets[v + 1] = e;
+            }
+
+            final Graph g = new CompressedSparseRowGraph(kind, offsets, Arrays.copyOf(targets, e));
+
+            return new DependencyGraph(g, mapping);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("corrupt dependency graph: unexpected end of data");
+        }
+    }
+
+    /**
+     * Read a count or a length, and check it against the remaining input before anything is
+     * allocated for it, so that corrupt input cannot request a huge (or negative) array.
+     *
+     * @param in
+     * @param minBytesPerUnit the fewest bytes that each unit counted takes up in the input
+     * @param what            what is being read (for error reporting)
+     * @return
+     * @throws IOException
+     */
+    private static int readLength(final ByteBuffer in, final int minBytesPerUnit, final String what) throws IOException {
+        final int value = readVarint(in);
+        if (value < 0 || (long) value * minBytesPerUnit > in.remaining()) {
+            throw new IOException(String.format("corrupt dependency graph: invalid %s %d", what, value));
+        }
+
+        return value;
+    }
+
+    private static String getString(final String[] strings, final int ref) throws IOException {
+        if (ref < 1 || ref > strings.length) {
+            throw new IOException("corrupt dependency graph: invalid string reference " + ref);
+        }
+
+        return strings[ref - 1];
+    }
+
+    private static int intern(final String s, final Map<String, Integer> indices, final List<String> strings) {
+        Integer index = indices.get(s);
+        if (index == null) {
+            index = strings.size();
+            indices.put(s, index);
+            strings.add(s);
+        }
+
+        return index;
+    }
+
+    private static void writeRow(final ByteArrayOutputStream out, final int[] row, final int start, final int end) {
+        writeVarint(out, end - start);
+
+        int previous = 0;
+        for (int i = start; i < end; i++) {
+            writeVarint(out, row[i] - previous);
+            previous = row[i];
+        }
+    }
+
+    private static void writeVarint(final ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+    }
+
+    private static int readVarint(final ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.get();
+            value |= (b & 0x7f) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("corrupt dependency graph: malformed varint");
+    }
+}
@@ -3,27 +3,29 @@ package com.tzj.garvel.core.dep;
 import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.GarvelCoreConstants;
-import com.tzj.garvel.core.cache.CacheManagerServiceImpl;
-import com.tzj.garvel.core.cache.api.DependenciesEntry;
 import com.tzj.garvel.core.dep.api.Artifact;
 import com.tzj.garvel.core.dep.api.DependencyManagerService;
 import com.tzj.garvel.core.dep.api.cache.GarvelCache;
 import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
 import com.tzj.garvel.core.dep.api.exception.DependencyResolverException;
-import com.tzj.garvel.core.dep.api.exception.RepositoryLoaderException;
+import com.tzj.garvel.core.dep.api.lock.GarvelLock;
+import com.tzj.garvel.core.dep.api.lock.LockedArtifact;
 import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
 import com.tzj.garvel.core.dep.api.repo.RepositoryLoaderFactory;
 import com.tzj.garvel.core.dep.api.resolver.DependencyResolverContext;
 import com.tzj.garvel.core.dep.api.resolver.DependencyResolverOperation;
+import com.tzj.garvel.core.dep.download.ArtifactDownloadScheduler;
 import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
-import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
-import com.tzj.garvel.core.parser.api.visitor.semver.SemverKey;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Thie module handles all the Dependency Management for Garvel.
@@ -31,11 +33,29 @@ import java.util.Map;
 public enum DependencyManagerServiceImpl implements DependencyManagerService {
     INSTANCE;
 
+    // the last loaded (or stored) Garvel Cache, and the state of the file at that time
+    private GarvelCache loadedGarvelCache;
+    private String loadedGarvelCacheStamp;
+
+    // likewise for Garvel.lock
+    private GarvelLock loadedGarvelLock;
+    private String loadedGarvelLockStamp;
+
+    // the state of the cached JAR files (and the hash) as of their last successful verification
+    private final Map<String, String> verifiedJarStamps = new ConcurrentHashMap<>();
+
+    // shares the versions of the artifacts between validations
+    private final DependencyVersionValidator versionValidator = new DependencyVersionValidator();
+
     /**
-     * 1. Check if the Garvel lock cache has been populated (Garvel lock is present).
-     * 3. Send all dependencies to the Resolver.
-     * 4. Once the dependency list order is received from the resolver, download them into
-     * the Garvel Cache.
+     * 1. If Garvel.lock records a resolution of the dependencies currently declared in
+     * Garvel.gl, take the ordered list of artifacts straight from it - the dependencies need
+     * not be resolved again.
+     * 2. Otherwise, send all dependencies to the Resolver (updating the existing dependency
+     * graph if there is one).
+     * 3. Once the dependency list order is available, download the missing artifacts into
+     * the Garvel Cache, and verify them against the hashes in the lock, if any.
+     * 4. Record the resolution in Garvel.lock.
      * 5. Return the list of ordered dependencies as the classpath string.
      *
      * @param ctx
@@ -44,59 +64,250 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
      */
     @Override
     public List<String> analyse(final DependencyResolverContext ctx) throws DependencyManagerException {
-        List<Artifact> artifactsOrdering = null;
-        List<String> classPaths = null;
-
-        // if the lock file exists, we need to diff the dependencies, handling
-        // all the possible states of operations.
-        if (CoreModuleLoader.INSTANCE.getCacheManager().isLockCachePopulated()) {
-            final boolean configHasChanged = checkIfProjectConfigurationHasChanged();
-
-            // the configuration has changed
-            if (configHasChanged) {
-                deleteGarvelLockFile();
-                final boolean dependencyGraphExists = checkDependencyGraphExists();
-
-                if (dependencyGraphExists) {
-                    artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.UPDATE_AND_ANALYSE);
-                } else {
-                    artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.CREATE_AND_ANALYSE);
-                }
-
+        final SortedMap<String, String> declaredDependencies = getDeclaredDependencies();
+        final GarvelLock lock = loadGarvelLock();
+
+        // the lock is up to date - no need to resolve anything
+        if (lock != null && lock.matches(declaredDependencies)) {
+            final List<Artifact> artifactsOrdering = lock.getArtifactsOrdering();
+            List<String> classPaths = createClassPathEntries(artifactsOrdering);
+
+            final List<LockedArtifact> mismatched = verifyLockedArtifacts(lock, classPaths);
+            if (!mismatched.isEmpty()) {
+                // the cached copies are damaged - download them afresh
+                evictFromGarvelCache(mismatched);
                 classPaths = createClassPathEntries(artifactsOrdering);
-                saveGarvelLockFile();
-            } else {
-                // config has not changed
-                final boolean dependencyGraphExists = checkDependencyGraphExists();
+                checkLockedArtifacts(verifyLockedArtifacts(lock, classPaths));
+            }
 
-                if (dependencyGraphExists) {
-                    artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.ANALYSE);
-                } else {
-                    artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.CREATE_AND_ANALYSE);
-                }
+            return classPaths;
+        }
 
-                classPaths = createClassPathEntries(artifactsOrdering);
-                saveGarvelLockFile();
+        List<Artifact> artifactsOrdering = null;
+        if (lock != null || CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE)) {
+            // the configuration has changed (or the lock is unreadable)
+            deleteGarvelLockFile();
+
+            if (checkDependencyGraphExists()) {
+                artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.UPDATE_AND_ANALYSE);
+            } else {
+                artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.CREATE_AND_ANALYSE);
             }
         } else {
             // lock file does not exist - implies that the dependency graph also does not exist.
             artifactsOrdering = ctx.resolveStrategy(DependencyResolverOperation.CREATE_AND_ANALYSE);
-            classPaths = createClassPathEntries(artifactsOrdering);
-            saveGarvelLockFile();
         }
 
+        final List<String> classPaths = createClassPathEntries(artifactsOrdering);
+        saveGarvelLockFile(declaredDependencies, artifactsOrdering, classPaths);
+
+        return classPaths;
+    }
+
+    /**
+     * Build the classpath from Garvel.lock and the Garvel Cache alone, without touching the
+     * network - the resolver, the validation of the dependencies, and the repository probes
+     * are all skipped.
+     * <p>
+     * 1. Garvel.lock must exist, and record a resolution of the dependencies currently
+     * declared in Garvel.gl.
+     * 2. Every locked artifact must be in the Garvel Cache.
+     * 3. Every cached JAR file must match the hashes in the lock.
+     *
+     * @return
+     * @throws DependencyManagerException
+     */
+    @Override
+    public List<String> analyseOffline() throws DependencyManagerException {
+        final GarvelLock lock = loadGarvelLock();
+        if (lock == null) {
+            throw new DependencyManagerException("offline build failed: there is no (readable) Garvel.lock file. " +
+                    "Please run an online build first\n");
+        }
+
+        if (!lock.matches(getDeclaredDependencies())) {
+            throw new DependencyManagerException("offline build failed: the dependencies in Garvel.gl have changed since " +
+                    "Garvel.lock was written. Please run an online build first\n");
+        }
+
+        GarvelCache garvelCache = null;
+        if (CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(GarvelCoreConstants.GARVEL_CACHE_FILE)) {
+            try {
+                garvelCache = loadGarvelCache();
+            } catch (FilesystemFrameworkException e) {
+                throw new DependencyManagerException(String.format("offline build failed: unable to load the Garvel Cache (%s)\n",
+                        e.getErrorString()));
+            }
+        }
+
+        final List<Artifact> artifactsOrdering = lock.getArtifactsOrdering();
+        final List<String> classPaths = garvelCache == null ? new ArrayList<String>() : garvelCache.getPaths(artifactsOrdering);
+
+        final List<Artifact> missing = new ArrayList<>();
+        for (int i = 0; i < artifactsOrdering.size(); i++) {
+            if (garvelCache == null || classPaths.get(i) == null || !new File(classPaths.get(i)).isFile()) {
+                missing.add(artifactsOrdering.get(i));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            throw new DependencyManagerException(String.format("offline build failed: the following dependencies are not " +
+                    "in the Garvel Cache: %s. Please run an online build first\n", missing));
+        }
+
+        checkLockedArtifacts(verifyLockedArtifacts(lock, classPaths));
+
         return classPaths;
     }
 
     /**
-     * Create the new Garvel.lock file by copying over the current Garvel.gl file.
+     * Validate the declared versions of the given artifacts in a single batch - the metadata
+     * of the artifacts is fetched concurrently, and every invalid artifact is reported.
+     *
+     * @param artifacts
+     * @throws DependencyManagerException
+     */
+    @Override
+    public void validateVersions(final List<Artifact> artifacts) throws DependencyManagerException {
+        versionValidator.validate(artifacts);
+    }
+
+    /**
+     * Record the resolution in Garvel.lock: the declared dependencies, and the resolved
+     * artifacts along with their repositories and the hashes of their (cached) JAR files.
+     *
+     * @param declaredDependencies
+     * @param artifactsOrdering
+     * @param classPaths
+     * @throws DependencyManagerException
      */
-    private void saveGarvelLockFile() throws DependencyManagerException {
+    private void saveGarvelLockFile(final SortedMap<String, String> declaredDependencies, final List<Artifact> artifactsOrdering,
+                                    final List<String> classPaths) throws DependencyManagerException {
+        final List<LockedArtifact> lockedArtifacts = new ArrayList<>();
+
+        for (int i = 0; i < artifactsOrdering.size(); i++) {
+            final Artifact artifact = artifactsOrdering.get(i);
+            final Path jarPath = Paths.get(classPaths.get(i));
+
+            final String sha1 = UtilServiceImpl.INSTANCE.getSHA1(jarPath);
+            final String sha256 = UtilServiceImpl.INSTANCE.getSHA256(jarPath);
+            if (sha1 == null || sha256 == null) {
+                throw new DependencyManagerException(String.format("dependency analysis failed: unable to hash %s for Garvel.lock\n",
+                        jarPath));
+            }
+
+            lockedArtifacts.add(new LockedArtifact(artifact, loadedGarvelCache.getRepository(artifact), sha1, sha256));
+            markVerified(jarPath, sha256);
+        }
+
+        final GarvelLock lock = new GarvelLock(declaredDependencies, lockedArtifacts);
         try {
-            CoreModuleLoader.INSTANCE.getFileSystemFramework().copyFile(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE, GarvelCoreConstants.GARVEl_PROJECT_CONFIG_FILE);
-        } catch (FilesystemFrameworkException e) {
-            throw new DependencyManagerException(String.format("dependency analysis failed: failed to create Garvel.lock file (%s)\n", e.getErrorString()));
+            GarvelLockCodec.write(lock, GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE);
+        } catch (IOException e) {
+            throw new DependencyManagerException(String.format("dependency analysis failed: failed to create Garvel.lock file (%s)\n",
+                    e.getLocalizedMessage()));
+        }
+
+        loadedGarvelLock = lock;
+        loadedGarvelLockStamp = getFileStamp(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE);
+    }
+
+    /**
+     * Load Garvel.lock, reusing the previously loaded (or stored) copy if the file has not
+     * changed since.
+     *
+     * @return the lock, or null if it does not exist, or cannot be read (say, a lock written
+     * by an older version of Garvel).
+     */
+    private GarvelLock loadGarvelLock() {
+        final String stamp = getFileStamp(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE);
+        if (loadedGarvelLock != null && stamp.equals(loadedGarvelLockStamp)) {
+            return loadedGarvelLock;
+        }
+
+        loadedGarvelLock = null;
+        loadedGarvelLockStamp = null;
+
+        if (!CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE)) {
+            return null;
+        }
+
+        try {
+            loadedGarvelLock = GarvelLockCodec.read(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE);
+            loadedGarvelLockStamp = stamp;
+        } catch (IOException e) {
+            return null;
+        }
+
+        return loadedGarvelLock;
+    }
+
+    /**
+     * Check the cached JAR files of the locked artifacts against the SHA-256 hashes in the lock.
+     * A file which has already been verified (and has not changed since) is not hashed again.
+     *
+     * @param lock
+     * @param classPaths the paths of the JAR files, in the same order as the locked artifacts.
+     * @return the artifacts which do not match.
+     */
+    private List<LockedArtifact> verifyLockedArtifacts(final GarvelLock lock, final List<String> classPaths) {
+        final List<LockedArtifact> mismatched = new ArrayList<>();
+        final List<LockedArtifact> lockedArtifacts = lock.getArtifacts();
+
+        for (int i = 0; i < lockedArtifacts.size(); i++) {
+            final LockedArtifact locked = lockedArtifacts.get(i);
+            final Path jarPath = Paths.get(classPaths.get(i));
+            final String stamp = getFileStamp(jarPath.toString()) + ":" + locked.getSha256();
+
+            if (stamp.equals(verifiedJarStamps.get(jarPath.toString()))) {
+                continue;
+            }
+
+            if (!locked.getSha256().equalsIgnoreCase(UtilServiceImpl.INSTANCE.getSHA256(jarPath))) {
+                mismatched.add(locked);
+                continue;
+            }
+
+            verifiedJarStamps.put(jarPath.toString(), stamp);
         }
+
+        return mismatched;
+    }
+
+    private void checkLockedArtifacts(final List<LockedArtifact> mismatched) throws DependencyManagerException {
+        if (!mismatched.isEmpty()) {
+            final List<Artifact> artifacts = new ArrayList<>();
+            for (final LockedArtifact locked : mismatched) {
+                artifacts.add(locked.getArtifact());
+            }
+
+            throw new DependencyManagerException(String.format("dependency analysis failed: the JAR files of %s do not match " +
+                    "the hashes recorded in Garvel.lock\n", artifacts));
+        }
+    }
+
+    private void markVerified(final Path jarPath, final String sha256) {
+        verifiedJarStamps.put(jarPath.toString(), getFileStamp(jarPath.toString()) + ":" + sha256);
+    }
+
+    /**
+     * Drop the given artifacts from the Garvel Cache, so that they are downloaded again.
+     *
+     * @param lockedArtifacts
+     * @throws DependencyManagerException
+     */
+    private void evictFromGarvelCache(final List<LockedArtifact> lockedArtifacts) throws DependencyManagerException {
+        for (final LockedArtifact locked : lockedArtifacts) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Cached copy of dependency %s does not match Garvel.lock, " +
+                    "downloading it again", locked.getArtifact());
+            loadedGarvelCache.removeArtifact(locked.getArtifact());
+        }
+
+        store(loadedGarvelCache);
+    }
+
+    private SortedMap<String, String> getDeclaredDependencies() {
+        return GarvelLock.getDeclaredDependencies(CoreModuleLoader.INSTANCE.getCacheManager().getConfigDependencies());
     }
 
     /**
@@ -124,9 +335,7 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
         if (garvelCacheExists) {
             GarvelCache garvelCache = null;
             try {
-                garvelCache = CoreModuleLoader.INSTANCE
-                        .getFileSystemFramework()
-                        .loadSerializedObject(GarvelCoreConstants.GARVEL_CACHE_FILE, GarvelCache.class);
+                garvelCache = loadGarvelCache();
             } catch (FilesystemFrameworkException e) {
                 // fallback scheme
                 return createNewCache(artifactsOrdering);
@@ -143,8 +352,7 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
             if (!unavailableArtifacts.isEmpty()) {
                 // download those dependencies which are not locally available,
                 // update the Garvel Cache, and retrieve the class paths.
-                List<String> downloadedPaths = downloadDependencies(unavailableArtifacts);
-                updateGarvelCache(garvelCache, unavailableArtifacts, downloadedPaths);
+                downloadDependencies(garvelCache, unavailableArtifacts);
             }
 
             store(garvelCache);
@@ -154,6 +362,37 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
         }
     }
 
+    /**
+     * Load the Garvel Cache, reusing the previously loaded copy if the file has not
+     * changed since it was loaded (or stored) - which is always the case for consecutive
+     * builds inside the Garvel daemon.
+     *
+     * @return
+     * @throws FilesystemFrameworkException
+     */
+    private GarvelCache loadGarvelCache() throws FilesystemFrameworkException {
+        final String stamp = getGarvelCacheStamp();
+        if (loadedGarvelCache != null && stamp.equals(loadedGarvelCacheStamp)) {
+            return loadedGarvelCache;
+        }
+
+        loadedGarvelCache = CoreModuleLoader.INSTANCE
+                .getFileSystemFramework()
+                .loadSerializedObject(GarvelCoreConstants.GARVEL_CACHE_FILE, GarvelCache.class);
+        loadedGarvelCacheStamp = stamp;
+
+        return loadedGarvelCache;
+    }
+
+    private String getGarvelCacheStamp() {
+        return getFileStamp(GarvelCoreConstants.GARVEL_CACHE_FILE);
+    }
+
+    private String getFileStamp(final String filename) {
+        final File file = new File(filename);
+        return file.lastModified() + ":" + file.length();
+    }
+
     /**
      * Handle the case where the Garvel Cache does not exist.
      *
@@ -162,10 +401,9 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
      */
     private List<String> createNewCache(final List<Artifact> artifactsOrdering) throws DependencyManagerException {
         // cache file does not exist
-        List<String> downloadedPaths = downloadDependencies(artifactsOrdering);
         final GarvelCache garvelCache = createGarvelCache();
 
-        updateGarvelCache(garvelCache, artifactsOrdering, downloadedPaths);
+        downloadDependencies(garvelCache, artifactsOrdering);
         store(garvelCache);
         return garvelCache.getPaths(artifactsOrdering);
     }
@@ -179,20 +417,6 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
         return new GarvelCache();
     }
 
-    /**
-     * Update the Garvel Cache with the new information, overwriting old data if
-     * necessary.
-     *
-     * @param garvelCache
-     * @param unavailableArtifacts
-     * @param downloadedPaths
-     */
-    private void updateGarvelCache(final GarvelCache garvelCache, final List<Artifact> unavailableArtifacts, final List<String> downloadedPaths) {
-        for (int i = 0; i < unavailableArtifacts.size(); i++) {
-            garvelCache.addArtifact(unavailableArtifacts.get(i), downloadedPaths.get(i));
-        }
-    }
-
     /**
      * Persist the new or update Garvel Cache onto the File System.
      *
@@ -202,6 +426,9 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
     private void store(final GarvelCache garvelCache) throws DependencyManagerException {
         try {
             CoreModuleLoader.INSTANCE.getFileSystemFramework().storeSerializedObject(garvelCache, GarvelCoreConstants.GARVEL_CACHE_FILE);
+
+            loadedGarvelCache = garvelCache;
+            loadedGarvelCacheStamp = getGarvelCacheStamp();
         } catch (FilesystemFrameworkException e) {
             throw new DependencyManagerException(String.format("dependency analysis failed: failed to save Garvel Cache: %s\n", e.getErrorString()));
         }
@@ -209,48 +436,21 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
 
     /**
      * Download the project dependencies into the Garvel Cache, creating
-     * the required directories on the fly.
+     * the required directories on the fly, and add them to the given Garvel Cache
+     * (along with the repositories they were served from). The downloads are run
+     * concurrently, and this returns only once every one of them has been verified.
      *
-     * @param artifactsOrdering
+     * @param garvelCache
+     * @param artifacts
      */
-    private List<String> downloadDependencies(final List<Artifact> artifactsOrdering) throws DependencyResolverException {
+    private void downloadDependencies(final GarvelCache garvelCache, final List<Artifact> artifacts) throws DependencyResolverException {
         final RepositoryLoader repoLoader = RepositoryLoaderFactory.getLoader();
-        final List<String> downloadedPaths = new ArrayList<>();
-
-        for (final Artifact artifact : artifactsOrdering) {
-            final String modGroupId = artifact.getGroupId().replace(".", File.separator);
-            final String directoryPath = GarvelCoreConstants.GARVEL_CACHE_DIR + File.separator +
-                    modGroupId + File.separator + artifact.getArtifactId() +
-                    File.separator + artifact.getVersion();
-
-            // create the dependency hierarchy
-            try {
-                CoreModuleLoader.INSTANCE.getFileSystemFramework().makeDirectoryHierarchy(directoryPath);
-            } catch (FilesystemFrameworkException e) {
-                throw new DependencyResolverException(String.format("failed to create Garvel Cache: %s", e.getErrorString()));
-            }
+        final ArtifactDownloadScheduler scheduler = new ArtifactDownloadScheduler(repoLoader);
 
-            // download the JAR file
-            try {
-                final String jarFileUrl = repoLoader.constructJARFileUrl(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
-                final String jarFilePath = directoryPath + File.separator + jarFileUrl
-                        .substring(jarFileUrl.lastIndexOf("/") + 1, jarFileUrl.length())
-                        .replace("pom", "jar");
-
-                CoreModuleLoader.INSTANCE.getNetworkFramework().downloadBinaryFile(jarFileUrl, jarFilePath);
-                downloadedPaths.add(jarFilePath);
-
-                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Finished downloading dependency %s", artifact.toString());
-            } catch (RepositoryLoaderException e) {
-                throw new DependencyResolverException(String.format("failed to download project dependency %s: %s",
-                        artifact, e.getErrorString()));
-            } catch (NetworkServiceException e) {
-                throw new DependencyResolverException(String.format("failed to download project dependency %s: %s",
-                        artifact, e.getErrorString()));
-            }
+        final List<String> downloadedPaths = scheduler.download(artifacts);
+        for (int i = 0; i < artifacts.size(); i++) {
+            garvelCache.addArtifact(artifacts.get(i), downloadedPaths.get(i), scheduler.getRepository(artifacts.get(i)));
         }
-
-        return downloadedPaths;
     }
 
     /**
@@ -274,78 +474,4 @@ public enum DependencyManagerServiceImpl implements DependencyManagerService {
             throw new DependencyManagerException("dependency analysis failed: failed to delete the Garvel lock file\n");
         }
     }
-
-    /**
-     * Check if the configuration file has changed (in any way).
-     *
-     * @return
-     */
-    private boolean checkIfProjectConfigurationHasChanged() {
-        final DependenciesEntry configDeps = CacheManagerServiceImpl.INSTANCE.getConfigDependencies();
-        final DependenciesEntry lockDeps = CacheManagerServiceImpl.INSTANCE.getLockDependencies();
-
-        // sanity check
-        if (configDeps == null || lockDeps == null) {
-            return true;
-        }
-
-        final Map<String, Map<SemverKey, List<String>>> configMapping = configDeps.getDependencies();
-        final Map<String, Map<SemverKey, List<String>>> lockMapping = lockDeps.getDependencies();
-
-        final List<String> sanitizedConfigDeps = sanitize(configMapping);
-        final List<String> sanitizedLockDeps = sanitize(lockMapping);
-
-        // check insertion/deletion
-        if (sanitizedConfigDeps.size() != sanitizedLockDeps.size()) {
-            return true;
-        }
-
-        // check version change
-        if (!sanitizedConfigDeps.equals(sanitizedLockDeps)) {
-            return true;
-        }
-
-        return false;
-    }
-
-    private List<String> sanitize(final Map<String, Map<SemverKey, List<String>>> mapping) {
-        List<String> flat = new ArrayList<>();
-
-        StringBuffer sb = null;
-        for (Map.Entry<String, Map<SemverKey, List<String>>> entry : mapping.entrySet()) {
-            sb = new StringBuffer();
-            sb.append(entry.getKey());
-
-            final Map<SemverKey, List<String>> versionInfo = entry.getValue();
-            if (versionInfo.containsKey(SemverKey.MAJOR)) {
-                sb.append(versionInfo.get(SemverKey.MAJOR).get(0));
-            }
-
-            if (versionInfo.containsKey(SemverKey.MINOR)) {
-                sb.append(",");
-                sb.append(versionInfo.get(SemverKey.MINOR).get(0));
-            }
-
-            if (versionInfo.containsKey(SemverKey.PATCH)) {
-                sb.append(",");
-                sb.append(versionInfo.get(SemverKey.PATCH).get(0));
-            }
-
-            if (versionInfo.containsKey(SemverKey.PRERELEASE)) {
-                sb.append("-");
-                sb.append(versionInfo.get(SemverKey.PRERELEASE).get(0));
-            }
-
-            if (versionInfo.containsKey(SemverKey.BUILD)) {
-                sb.append("+");
-                sb.append(versionInfo.get(SemverKey.BUILD).get(0));
-            }
-
-            flat.add(sb.toString());
-        }
-
-        Collections.sort(flat);
-
-        return flat;
-    }
 }
@@ -0,0 +1,240 @@
+package com.tzj.garvel.core.dep;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+import com.tzj.garvel.core.dep.api.exception.DependencyNotFoundException;
+import com.tzj.garvel.core.dep.api.exception.RepositoryLoaderException;
+import com.tzj.garvel.core.dep.api.parser.DependencyParser;
+import com.tzj.garvel.core.dep.api.parser.DependencyParserFactory;
+import com.tzj.garvel.core.dep.api.parser.DependencyParserKind;
+import com.tzj.garvel.core.dep.api.parser.Versions;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoaderFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Validates the declared versions of a batch of dependencies against the versions published
+ * in the `maven-metadata.xml` files of the repositories.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Submit a fetch for the metadata of every distinct `groupId/artifactId` in the batch, on a
+ * pool of at most GARVEL_DOWNLOAD_THREADS threads. The metadata files themselves are served
+ * from the DependencyFileCache when possible.
+ * 2. Each fetch parses the metadata into a sorted set of versions (see VersionComparator).
+ * The sets are kept in memory (for GARVEL_METADATA_CACHE_TTL milliseconds), and shared by
+ * every batch - and by concurrent fetches of the same artifact, which wait on the same fetch.
+ * 3. Once all the fetches are in, check every declared version against its set in a single
+ * pass, and report all the invalid dependencies together.
+ * <p>
+ * Failed fetches are not kept, so that the next batch tries again. Only an artifact whose
+ * metadata the repository does not have is reported as invalid - any other failure (an
+ * unreachable repository, a network outage) is reported, with its cause, as one that cannot
+ * be checked.
+ */
+public class DependencyVersionValidator {
+    private final ConcurrentMap<String, VersionsFetch> fetches;
+
+    public DependencyVersionValidator() {
+        this.fetches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Validate that every one of the given artifacts exists in the repositories, with the
+     * declared version.
+     *
+     * @param artifacts
+     * @throws DependencyManagerException listing every invalid artifact, and every artifact
+     *                                    that could not be checked.
+     */
+    public void validate(final List<Artifact> artifacts) throws DependencyManagerException {
+        if (artifacts.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Throwable> failures = new HashMap<>();
+        final Map<String, SortedSet<String>> versions = fetchVersions(artifacts, failures);
+
+        final StringBuilder errors = new StringBuilder();
+        boolean invalid = false;
+        for (final Artifact artifact : artifacts) {
+            final String key = getKey(artifact);
+            final SortedSet<String> available = versions.get(key);
+
+            if (available == null) {
+                final Throwable cause = failures.get(key);
+                if (cause instanceof DependencyNotFoundException) {
+                    errors.append(String.format("Either the artifact (%s) and/or the version (%s) is invalid.\n",
+                            key, artifact.getVersion()));
+                    invalid = true;
+                } else {
+                    errors.append(String.format("The version (%s) specified for artifact (%s) cannot be checked: %s\n",
+                            artifact.getVersion(), key, describe(cause)));
+                }
+            } else if (!available.contains(artifact.getVersion())) {
+                errors.append(String.format("The version (%s) specified for artifact (%s) is invalid%s.\n",
+                        artifact.getVersion(), key, available.isEmpty() ? "" : " (latest: " + available.last() + ")"));
+                invalid = true;
+            }
+        }
+
+        if (invalid) {
+            errors.append("Please run the `garvel dep` command to see the full list of valid versions for a valid artifact\n");
+        }
+        if (errors.length() > 0) {
+            throw new DependencyManagerException(errors.toString());
+        }
+    }
+
+    /**
+     * Fetch the versions of all the given artifacts concurrently.
+     *
+     * @param artifacts
+     * @param failures   filled with the cause of every failed fetch, keyed by `groupId/artifactId`.
+     * @return the sorted versions, keyed by `groupId/artifactId`. Artifacts whose metadata
+     * could not be retrieved are left out.
+     * @throws DependencyManagerException
+     */
+    private Map<String, SortedSet<String>> fetchVersions(final List<Artifact> artifacts,
+                                                         final Map<String, Throwable> failures) throws DependencyManagerException {
+        final Set<String> keys = new LinkedHashSet<>();
+        for (final Artifact artifact : artifacts) {
+            keys.add(getKey(artifact));
+        }
+
+        final RepositoryLoader repoLoader = RepositoryLoaderFactory.getLoader();
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        final ExecutorService pool = concurrency.newLimitedExecutor("metadata", concurrency.getIOExecutor(),
+                Math.max(1, Math.min(GarvelCoreConstants.GARVEL_DOWNLOAD_THREADS, keys.size())));
+
+        final Map<String, VersionsFetch> batch = new LinkedHashMap<>();
+        try {
+            for (final String key : keys) {
+                batch.put(key, getFetch(key, repoLoader, pool));
+            }
+
+            final Map<String, SortedSet<String>> versions = new HashMap<>();
+            for (final Map.Entry<String, VersionsFetch> entry : batch.entrySet()) {
+                final SortedSet<String> available = await(entry.getKey(), entry.getValue(), failures);
+                if (available != null) {
+                    versions.put(entry.getKey(), available);
+                }
+            }
+
+            return versions;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Get the (possibly already completed) fetch for the given artifact, submitting a new one
+     * if there is none, or if the cached one has expired.
+     *
+     * @param key
+     * @param repoLoader
+     * @param pool
+     * @return
+     */
+    private VersionsFetch getFetch(final String key, final RepositoryLoader repoLoader, final ExecutorService pool) {
+        while (true) {
+            final VersionsFetch existing = fetches.get(key);
+            if (existing != null && !existing.isExpired()) {
+                return existing;
+            }
+
+            final VersionsFetch fetch = new VersionsFetch(key, repoLoader);
+            final boolean installed = existing == null ? fetches.putIfAbsent(key, fetch) == null : fetches.replace(key, existing, fetch);
+
+            if (installed) {
+                pool.execute(fetch);
+                return fetch;
+            }
+        }
+    }
+
+    /**
+     * Wait for the given fetch.
+     *
+     * @param key
+     * @param fetch
+     * @param failures
+     * @return the versions, or null if the fetch failed - in which case its cause is put in failures.
+     * @throws DependencyManagerException
+     */
+    private SortedSet<String> await(final String key, final VersionsFetch fetch,
+                                    final Map<String, Throwable> failures) throws DependencyManagerException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyManagerException(String.format("interrupted while validating the version of %s\n", key));
+        } catch (ExecutionException e) {
+            fetches.remove(key, fetch);
+            failures.put(key, e.getCause());
+            return null;
+        }
+    }
+
+    private static String describe(final Throwable cause) {
+        if (cause == null) {
+            return "unknown error";
+        }
+
+        final String message = cause.getLocalizedMessage();
+        return message == null ? cause.toString() : message.trim();
+    }
+
+    private String getKey(final Artifact artifact) {
+        return artifact.getGroupId() + "/" + artifact.getArtifactId();
+    }
+
+    /**
+     * Fetch and parse the metadata of a single artifact.
+     */
+    private static class VersionsFetch extends FutureTask<SortedSet<String>> {
+        private final long createdAt;
+
+        VersionsFetch(final String key, final RepositoryLoader repoLoader) {
+            super(new Callable<SortedSet<String>>() {
+                @Override
+                public SortedSet<String> call() throws DependencyManagerException, RepositoryLoaderException {
+                    final String[] parts = key.split("/");
+                    final String metadataUrl = repoLoader.constructMetadataUrl(parts[0], parts[1]);
+
+                    final DependencyParser parser = DependencyParserFactory.getParser(DependencyParserKind.METADATA, metadataUrl);
+                    parser.parse(null);
+
+                    final Versions versions = parser.getVersions();
+                    final SortedSet<String> available = new TreeSet<>(VersionComparator.INSTANCE);
+                    available.addAll(versions.getAvailableVersions());
+
+                    if (versions.getLatestVersion() != null) {
+                        available.add(versions.getLatestVersion());
+                    }
+                    if (versions.getReleaseVersion() != null) {
+                        available.add(versions.getReleaseVersion());
+                    }
+
+                    return Collections.unmodifiableSortedSet(available);
+                }
+            });
+
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        /**
+         * A fetch still in flight never expires.
+         *
+         * @return
+         */
+        boolean isExpired() {
+            return isDone() && System.currentTimeMillis() - createdAt > GarvelCoreConstants.GARVEL_METADATA_CACHE_TTL;
+        }
+    }
+}
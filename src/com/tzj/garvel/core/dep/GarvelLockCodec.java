@@ -0,0 +1,191 @@
+package com.tzj.garvel.core.dep;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.lock.GarvelLock;
+import com.tzj.garvel.core.dep.api.lock.LockedArtifact;
+import com.tzj.garvel.core.dep.api.repo.RepositoryKind;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads and writes the GarvelLock in the text format of Garvel.lock - meant to be kept under
+ * version control, and therefore stable and easy to diff:
+ * <p>
+ * 1. the format version, as `version = 2`.
+ * 2. the `[dependencies]` section, with the declared dependencies (as in Garvel.gl), sorted.
+ * 3. one `[[artifact]]` section per resolved artifact, in classpath order, with its `group`,
+ * `name`, `version`, `repository` (omitted if not known), `sha1` and `sha256`.
+ * <p>
+ * Files are written atomically. Any other content (such as the copy of Garvel.gl that older
+ * versions of Garvel wrote) fails to read.
+ */
+public class GarvelLockCodec {
+    // 2: test, provided, system, and optional dependencies (and exclusions) are pruned
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String HEADER = "# This file is generated by Garvel, and is not meant to be edited by hand.\n" +
+            "# It records the resolved dependencies of the project, in classpath order.\n";
+    private static final String DEPENDENCIES_SECTION = "[dependencies]";
+    private static final String ARTIFACT_SECTION = "[[artifact]]";
+
+    private static final String VERSION = "version";
+    private static final String GROUP = "group";
+    private static final String NAME = "name";
+    private static final String REPOSITORY = "repository";
+    private static final String SHA1 = "sha1";
+    private static final String SHA256 = "sha256";
+
+    private GarvelLockCodec() {
+    }
+
+    /**
+     * Write the given lock to the given file.
+     *
+     * @param lock
+     * @param filename
+     * @throws IOException
+     */
+    public static void write(final GarvelLock lock, final String filename) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append(HEADER);
+        sb.append('\n');
+        appendPair(sb, VERSION, String.valueOf(FORMAT_VERSION));
+
+        sb.append('\n');
+        sb.append(DEPENDENCIES_SECTION).append('\n');
+        for (final Map.Entry<String, String> dependency : lock.getDependencies().entrySet()) {
+            appendPair(sb, dependency.getKey(), dependency.getValue());
+        }
+
+        for (final LockedArtifact locked : lock.getArtifacts()) {
+            final Artifact artifact = locked.getArtifact();
+
+            sb.append('\n');
+            sb.append(ARTIFACT_SECTION).append('\n');
+            appendPair(sb, GROUP, artifact.getGroupId());
+            appendPair(sb, NAME, artifact.getArtifactId());
+            appendPair(sb, VERSION, artifact.getVersion());
+            if (locked.getRepository() != null) {
+                appendPair(sb, REPOSITORY, locked.getRepository().name());
+            }
+            appendPair(sb, SHA1, locked.getSha1());
+            appendPair(sb, SHA256, locked.getSha256());
+        }
+
+        final Path target = Paths.get(filename).toAbsolutePath();
+        final Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read the lock from the given file.
+     *
+     * @param filename
+     * @return
+     * @throws IOException if the file cannot be read, or is not in the expected format.
+     */
+    public static GarvelLock read(final String filename) throws IOException {
+        final List<String> lines = Files.readAllLines(Paths.get(filename), StandardCharsets.UTF_8);
+
+        final SortedMap<String, String> dependencies = new TreeMap<>();
+        final List<LockedArtifact> artifacts = new ArrayList<>();
+
+        String version = null;
+        String section = null;
+        Map<String, String> artifactPairs = null;
+
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            if (line.equals(DEPENDENCIES_SECTION) || line.equals(ARTIFACT_SECTION)) {
+                if (artifactPairs != null) {
+                    artifacts.add(toLockedArtifact(artifactPairs, filename));
+                }
+
+                section = line;
+                artifactPairs = line.equals(ARTIFACT_SECTION) ? new HashMap<String, String>() : null;
+                continue;
+            }
+
+            final int separator = line.indexOf('=');
+            if (separator <= 0) {
+                throw new IOException(String.format("%s:%d: malformed line \"%s\"", filename, i + 1, line));
+            }
+
+            final String key = line.substring(0, separator).trim();
+            final String value = unquote(line.substring(separator + 1).trim());
+
+            if (section == null) {
+                if (VERSION.equals(key)) {
+                    version = value;
+                }
+            } else if (artifactPairs == null) {
+                dependencies.put(key, value);
+            } else {
+                artifactPairs.put(key, value);
+            }
+        }
+
+        if (artifactPairs != null) {
+            artifacts.add(toLockedArtifact(artifactPairs, filename));
+        }
+
+        if (!String.valueOf(FORMAT_VERSION).equals(version)) {
+            throw new IOException(String.format("%s: unsupported lock file format (%s)", filename, version));
+        }
+
+        return new GarvelLock(dependencies, artifacts);
+    }
+
+    private static LockedArtifact toLockedArtifact(final Map<String, String> pairs, final String filename) throws IOException {
+        final String groupId = pairs.get(GROUP);
+        final String artifactId = pairs.get(NAME);
+        final String version = pairs.get(VERSION);
+        final String sha1 = pairs.get(SHA1);
+        final String sha256 = pairs.get(SHA256);
+
+        if (groupId == null || artifactId == null || version == null || sha1 == null || sha256 == null) {
+            throw new IOException(String.format("%s: incomplete artifact entry %s", filename, pairs));
+        }
+
+        RepositoryKind repository = null;
+        if (pairs.containsKey(REPOSITORY)) {
+            try {
+                repository = RepositoryKind.valueOf(pairs.get(REPOSITORY));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(String.format("%s: unknown repository \"%s\"", filename, pairs.get(REPOSITORY)));
+            }
+        }
+
+        return new LockedArtifact(new Artifact(groupId, artifactId, version), repository, sha1, sha256);
+    }
+
+    private static void appendPair(final StringBuilder sb, final String key, final String value) {
+        sb.append(key).append(" = \"").append(value).append("\"\n");
+    }
+
+    private static String unquote(final String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+
+        return value;
+    }
+}
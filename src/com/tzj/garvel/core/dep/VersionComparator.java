@@ -0,0 +1,96 @@
+package com.tzj.garvel.core.dep;
+
+import java.util.Comparator;
+
+/**
+ * Orders Maven version strings, such as `1.2`, `1.10.0`, `2.0-beta-1`, and `2.0`.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Split both versions into tokens at `.`, `-`, and `+`.
+ * 2. Compare the tokens pairwise - numerically if both are numbers, and case-insensitively
+ * otherwise, with numbers ordered after qualifiers (so that `1.0-rc1` comes before `1.0.1`).
+ * 3. If one version runs out of tokens, it comes first, unless the other one goes on with a
+ * qualifier (so that `2.0-beta-1` comes before `2.0`).
+ * 4. Versions which are still equal (`1.0` and `1.0.0`, say) are ordered by their spelling,
+ * so that the ordering is consistent with equals, and can be used for sorted sets.
+ */
+public enum VersionComparator implements Comparator<String> {
+    INSTANCE;
+
+    private static final String SEPARATORS = "[.+-]";
+
+    @Override
+    public int compare(final String v1, final String v2) {
+        final String[] tokens1 = v1.split(SEPARATORS);
+        final String[] tokens2 = v2.split(SEPARATORS);
+        final int common = Math.min(tokens1.length, tokens2.length);
+
+        for (int i = 0; i < common; i++) {
+            final int result = compareTokens(tokens1[i], tokens2[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        if (tokens1.length != tokens2.length) {
+            final boolean firstIsLonger = tokens1.length > tokens2.length;
+            final String next = firstIsLonger ? tokens1[common] : tokens2[common];
+
+            // a trailing qualifier marks a pre-release
+            final int longerFirst = isNumber(next) ? 1 : -1;
+            return firstIsLonger ? longerFirst : -longerFirst;
+        }
+
+        return v1.compareTo(v2);
+    }
+
+    private int compareTokens(final String t1, final String t2) {
+        final boolean number1 = isNumber(t1);
+        final boolean number2 = isNumber(t2);
+
+        if (number1 && number2) {
+            // compare without overflowing - strip the leading zeros, and the longer one is larger
+            final String n1 = stripLeadingZeros(t1);
+            final String n2 = stripLeadingZeros(t2);
+
+            if (n1.length() != n2.length()) {
+                return n1.length() < n2.length() ? -1 : 1;
+            }
+            return n1.compareTo(n2);
+        }
+
+        if (number1) {
+            return 1;
+        }
+
+        if (number2) {
+            return -1;
+        }
+
+        return t1.compareToIgnoreCase(t2);
+    }
+
+    private boolean isNumber(final String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String stripLeadingZeros(final String number) {
+        int i = 0;
+        while (i < number.length() - 1 && number.charAt(i) == '0') {
+            i++;
+        }
+
+        return number.substring(i);
+    }
+}
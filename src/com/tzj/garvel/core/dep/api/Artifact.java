@@ -1,12 +1,19 @@
 package com.tzj.garvel.core.dep.api;
 
 import java.io.*;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Represents the basic jar in Garvel.
  * This useful Value Object is used both by the Dependency Graph
  * as well as the Garvel Cache.
+ * <p>
+ * An Artifact read from a POM may also carry the `exclusions` of its
+ * declaration. These only matter while the Dependency Graph is being built,
+ * and are not part of its identity (nor of its serialized form).
  */
 public class Artifact implements Externalizable {
     private static final long serialVersionUID = -6809826376997667381L;
@@ -14,6 +21,7 @@ public class Artifact implements Externalizable {
     private String groupId;
     private String artifactId;
     private String version;
+    private transient Set<String> exclusions = Collections.emptySet();
 
     public Artifact(final int id, final String groupId, final String artifactId, final String version) {
         this.groupId = groupId;
@@ -74,6 +82,40 @@ public class Artifact implements Externalizable {
         this.version = version;
     }
 
+    /**
+     * The exclusions, as `groupId:artifactId` patterns, where either part may be `*`.
+     *
+     * @return
+     */
+    public Set<String> getExclusions() {
+        return exclusions;
+    }
+
+    public void addExclusion(final String groupId, final String artifactId) {
+        if (exclusions.isEmpty()) {
+            exclusions = new HashSet<>();
+        }
+
+        exclusions.add(groupId + ":" + artifactId);
+    }
+
+    /**
+     * Check whether this artifact matches any of the given exclusion patterns.
+     *
+     * @param exclusions
+     * @return
+     */
+    public boolean isExcludedBy(final Set<String> exclusions) {
+        if (exclusions.isEmpty()) {
+            return false;
+        }
+
+        return exclusions.contains(groupId + ":" + artifactId) ||
+                exclusions.contains(groupId + ":*") ||
+                exclusions.contains("*:" + artifactId) ||
+                exclusions.contains("*:*");
+    }
+
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
         out.writeUTF(groupId);
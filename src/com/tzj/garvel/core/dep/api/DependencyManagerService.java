@@ -7,4 +7,8 @@ import java.util.List;
 
 public interface DependencyManagerService {
     List<String> analyse(final DependencyResolverContext ctx) throws DependencyManagerException;
+
+    List<String> analyseOffline() throws DependencyManagerException;
+
+    void validateVersions(final List<Artifact> artifacts) throws DependencyManagerException;
 }
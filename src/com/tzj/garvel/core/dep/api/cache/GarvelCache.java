@@ -1,11 +1,9 @@
 package com.tzj.garvel.core.dep.api.cache;
 
 import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.repo.RepositoryKind;
 
-import java.io.Externalizable;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectOutput;
+import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -14,6 +12,9 @@ import java.util.Map;
 /**
  * Represents the mapping between the artifacts and the downloaded
  * resources. Uses the Maven coordinates as the key.
+ * <p>
+ * The repository that each artifact was downloaded from is kept as well, so that it can be
+ * recorded in Garvel.lock. Caches written before that was tracked simply have no repositories.
  */
 
 @SuppressWarnings("unchecked")
@@ -21,27 +22,58 @@ public class GarvelCache implements Externalizable {
     private static final long serialVersionUID = -7195654373684604629L;
 
     private Map<Artifact, String> cacheMapping;
+    private Map<Artifact, RepositoryKind> repositoryMapping;
 
     public GarvelCache() {
         cacheMapping = new HashMap<>();
+        repositoryMapping = new HashMap<>();
     }
 
-    public void addArtifact(final Artifact artifact, final String path) {
+    public void addArtifact(final Artifact artifact, final String path, final RepositoryKind repository) {
         cacheMapping.put(artifact, path);
+
+        if (repository != null) {
+            repositoryMapping.put(artifact, repository);
+        } else {
+            repositoryMapping.remove(artifact);
+        }
+    }
+
+    public void removeArtifact(final Artifact artifact) {
+        cacheMapping.remove(artifact);
+        repositoryMapping.remove(artifact);
     }
 
     public boolean artifactAvailable(final Artifact artifact) {
         return cacheMapping.containsKey(artifact);
     }
 
+    /**
+     * The repository that the given artifact was downloaded from.
+     *
+     * @param artifact
+     * @return the repository, or null if it is not known.
+     */
+    public RepositoryKind getRepository(final Artifact artifact) {
+        return repositoryMapping.get(artifact);
+    }
+
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
         out.writeObject(cacheMapping);
+        out.writeObject(repositoryMapping);
     }
 
     @Override
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
         cacheMapping = (Map<Artifact, String>) in.readObject();
+
+        try {
+            repositoryMapping = (Map<Artifact, RepositoryKind>) in.readObject();
+        } catch (OptionalDataException | EOFException e) {
+            // written by an older version
+            repositoryMapping = new HashMap<>();
+        }
     }
 
     public List<String> getPaths(final List<Artifact> artifacts) {
@@ -0,0 +1,13 @@
+package com.tzj.garvel.core.dep.api.exception;
+
+/**
+ * The repository answered, and does not have the requested file - as opposed to a
+ * DependencyManagerException, which may just as well mean that it could not be reached.
+ */
+public class DependencyNotFoundException extends DependencyManagerException {
+    private static final long serialVersionUID = -4133725180842417903L;
+
+    public DependencyNotFoundException(final String errorMessage) {
+        super(errorMessage);
+    }
+}
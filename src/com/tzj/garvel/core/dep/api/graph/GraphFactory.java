@@ -1,6 +1,7 @@
 package com.tzj.garvel.core.dep.api.graph;
 
 import com.tzj.garvel.core.dep.graph.AdjacencySet;
+import com.tzj.garvel.core.dep.graph.CompressedSparseRowGraph;
 
 public class GraphFactory {
     private GraphFactory() {
@@ -13,6 +14,9 @@ public class GraphFactory {
             case ADJACENCY_SET:
                 g = new AdjacencySet(kind);
                 break;
+            case COMPRESSED_SPARSE_ROW:
+                g = new CompressedSparseRowGraph(kind);
+                break;
         }
 
         return g;
@@ -1,5 +1,6 @@
 package com.tzj.garvel.core.dep.api.graph;
 
 public enum GraphImplType {
-    ADJACENCY_SET;
+    ADJACENCY_SET,
+    COMPRESSED_SPARSE_ROW;
 }
@@ -0,0 +1,111 @@
+package com.tzj.garvel.core.dep.api.lock;
+
+import com.tzj.garvel.core.cache.api.DependenciesEntry;
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.parser.api.visitor.semver.SemverKey;
+
+import java.util.*;
+
+/**
+ * The complete resolution record of the project (Garvel.lock):
+ * <p>
+ * 1. the dependencies declared in Garvel.gl at the time of the resolution.
+ * 2. the fully resolved (transitive) artifacts, in classpath order, along with the repository
+ * each one was downloaded from, and the SHA-1 and SHA-256 hashes of its JAR file.
+ * <p>
+ * As long as the declared dependencies match those of Garvel.gl, the artifacts can be used
+ * as they are, without resolving the dependencies again.
+ */
+public class GarvelLock {
+    private final SortedMap<String, String> dependencies;
+    private final List<LockedArtifact> artifacts;
+
+    public GarvelLock(final SortedMap<String, String> dependencies, final List<LockedArtifact> artifacts) {
+        this.dependencies = dependencies;
+        this.artifacts = artifacts;
+    }
+
+    /**
+     * The declared dependencies, as `groupId/artifactId` mapped to the version.
+     *
+     * @return
+     */
+    public SortedMap<String, String> getDependencies() {
+        return Collections.unmodifiableSortedMap(dependencies);
+    }
+
+    public List<LockedArtifact> getArtifacts() {
+        return Collections.unmodifiableList(artifacts);
+    }
+
+    /**
+     * The resolved artifacts, in classpath order.
+     *
+     * @return
+     */
+    public List<Artifact> getArtifactsOrdering() {
+        final List<Artifact> ordering = new ArrayList<>();
+        for (final LockedArtifact artifact : artifacts) {
+            ordering.add(artifact.getArtifact());
+        }
+
+        return ordering;
+    }
+
+    /**
+     * Check if this lock was resolved from the given declared dependencies.
+     *
+     * @param declaredDependencies
+     * @return
+     */
+    public boolean matches(final Map<String, String> declaredDependencies) {
+        return dependencies.equals(declaredDependencies);
+    }
+
+    /**
+     * Flatten the dependencies of the Core Cache into `groupId/artifactId` mapped to the version,
+     * which is spelt out as in Garvel.gl.
+     *
+     * @param entry
+     * @return
+     */
+    public static SortedMap<String, String> getDeclaredDependencies(final DependenciesEntry entry) {
+        final SortedMap<String, String> declared = new TreeMap<>();
+        if (entry == null || entry.getDependencies() == null) {
+            return declared;
+        }
+
+        for (final Map.Entry<String, Map<SemverKey, List<String>>> dep : entry.getDependencies().entrySet()) {
+            final Map<SemverKey, List<String>> versionInfo = dep.getValue();
+            final StringBuilder version = new StringBuilder();
+
+            if (versionInfo.containsKey(SemverKey.MAJOR)) {
+                version.append(versionInfo.get(SemverKey.MAJOR).get(0));
+            }
+
+            if (versionInfo.containsKey(SemverKey.MINOR)) {
+                version.append(".");
+                version.append(versionInfo.get(SemverKey.MINOR).get(0));
+            }
+
+            if (versionInfo.containsKey(SemverKey.PATCH)) {
+                version.append(".");
+                version.append(versionInfo.get(SemverKey.PATCH).get(0));
+            }
+
+            if (versionInfo.containsKey(SemverKey.PRERELEASE)) {
+                version.append("-");
+                version.append(versionInfo.get(SemverKey.PRERELEASE).get(0));
+            }
+
+            if (versionInfo.containsKey(SemverKey.BUILD)) {
+                version.append("+");
+                version.append(versionInfo.get(SemverKey.BUILD).get(0));
+            }
+
+            declared.put(dep.getKey(), version.toString());
+        }
+
+        return declared;
+    }
+}
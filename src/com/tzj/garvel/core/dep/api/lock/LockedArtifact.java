@@ -0,0 +1,55 @@
+package com.tzj.garvel.core.dep.api.lock;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.repo.RepositoryKind;
+
+/**
+ * A resolved artifact, as recorded in Garvel.lock: the artifact itself, the repository
+ * it was downloaded from, and the hashes of its JAR file.
+ */
+public class LockedArtifact {
+    private final Artifact artifact;
+    private final RepositoryKind repository;
+    private final String sha1;
+    private final String sha256;
+
+    /**
+     * @param artifact
+     * @param repository the repository, or null if it is not known (artifacts downloaded by
+     *                   older versions of Garvel).
+     * @param sha1
+     * @param sha256
+     */
+    public LockedArtifact(final Artifact artifact, final RepositoryKind repository, final String sha1, final String sha256) {
+        this.artifact = artifact;
+        this.repository = repository;
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+    }
+
+    public Artifact getArtifact() {
+        return artifact;
+    }
+
+    public RepositoryKind getRepository() {
+        return repository;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    @Override
+    public String toString() {
+        return "LockedArtifact{" +
+                "artifact=" + artifact +
+                ", repository=" + repository +
+                ", sha1='" + sha1 + '\'' +
+                ", sha256='" + sha256 + '\'' +
+                '}';
+    }
+}
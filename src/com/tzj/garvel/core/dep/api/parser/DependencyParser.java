@@ -1,14 +1,17 @@
 package com.tzj.garvel.core.dep.api.parser;
 
-import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+import com.tzj.garvel.core.dep.cache.DependencyFileCache;
+import com.tzj.garvel.core.dep.download.VerifiedDownloader;
 import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
-import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
+import com.tzj.garvel.core.filesystem.api.FilesystemConstants;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -20,63 +23,71 @@ public abstract class DependencyParser {
     public abstract Dependencies getDependencies();
 
     /**
-     * Download the MD5 and SHA1 files into the given directory.
-     * contents.
+     * Create a private scratch directory under the system temp directory for this
+     * parser's downloads. Parsers may run concurrently, and files with the same name
+     * (a shared parent POM, for instance) must not be written to the same location.
      *
+     * @return
      * @throws DependencyManagerException
      */
-    protected void download(final String kind, final String url, final String dir) throws DependencyManagerException {
+    protected String createDownloadDirectory() throws DependencyManagerException {
         try {
-            CoreModuleLoader.INSTANCE.getNetworkFramework().downloadTextFile(url, dir);
-        } catch (NetworkServiceException e) {
-            // @TODO remove this with a robust check
-            if (url.contains("SNAPSHOT")) {
-                return;
-            }
-            throw new DependencyManagerException(String.format("unable to download the %s file (%s) for validation.\n", kind, url));
+            return Files.createTempDirectory(Paths.get(FilesystemConstants.TMPDIR), "garvel-").toFile().getAbsolutePath();
+        } catch (IOException e) {
+            throw new DependencyManagerException(String.format("unable to create a download directory: %s\n", e.getLocalizedMessage()));
         }
     }
 
     /**
-     * Validate the MD5 and SHA1 hashes against the downloaded file's generated hashes.
+     * Remove the scratch directory created by createDownloadDirectory. Failure
+     * to do so is not an error.
+     *
+     * @param dir
      */
-    protected Path validate(final String kind, final String url, final String md5Url, final String sha1Url, final String dir) throws DependencyManagerException {
-        final String filename = url.substring(url.lastIndexOf("/"), url.length());
-        final Path filePath = Paths.get(dir + File.separator + filename);
-
-        if (!UtilServiceImpl.INSTANCE.pathExists(filePath)) {
-            throw new DependencyManagerException(String.format("unable to validate - %s file %s could not be found\n",
-                    kind, filePath.toFile().getAbsolutePath()));
+    protected void deleteDownloadDirectory(final String dir) {
+        if (dir == null) {
+            return;
         }
 
-        final String fileMD5 = UtilServiceImpl.INSTANCE.getMD5(filePath);
-        final String fileSHA1 = UtilServiceImpl.INSTANCE.getSHA1(filePath);
-
         try {
-            final String md5HashFull = CoreModuleLoader.INSTANCE.getNetworkFramework().downloadTextFileAsString(md5Url);
-            final String sha1HashFull = CoreModuleLoader.INSTANCE.getNetworkFramework().downloadTextFileAsString(sha1Url);
+            CoreModuleLoader.INSTANCE.getFileSystemFramework().deleteDirectoryHierarchy(Paths.get(dir));
+        } catch (FilesystemFrameworkException e) {
+            // ignore
+        }
+    }
 
-            // some Hash files tend to contain extra text. so split at the first whitespace
-            final String md5Hash = md5HashFull.split(" ")[0];
-            final String sha1Hash = sha1HashFull.split(" ")[0];
+    /**
+     * Retrieve a validated local copy of the file at the given url, serving it from
+     * the Garvel cache when possible. On a miss, the file is downloaded and validated
+     * against its MD5 and SHA1 hashes in a single pass, and then added to the cache.
+     *
+     * @param kind
+     * @param url
+     * @param md5Url
+     * @param sha1Url
+     * @param immutable true if the contents at this url can never change (released POMs)
+     * @return
+     * @throws DependencyManagerException
+     */
+    protected Path retrieve(final String kind, final String url, final String md5Url, final String sha1Url,
+                            final boolean immutable) throws DependencyManagerException {
+        final Path cached = DependencyFileCache.INSTANCE.lookup(url, immutable);
+        if (cached != null) {
+            return cached;
+        }
 
-            if (fileMD5 == null || fileSHA1 == null || md5Hash == null || sha1Hash == null) {
-                throw new DependencyManagerException(String.format("%s file validation failed: hashes do not match for url: %s",
-                        kind, url));
-            }
+        final String dir = createDownloadDirectory();
+        try {
+            final String filename = url.substring(url.lastIndexOf("/") + 1, url.length());
+            final Path filePath = Paths.get(dir, filename);
+            final String sha1 = VerifiedDownloader.INSTANCE.download(kind, url, md5Url, sha1Url, filePath);
 
-            if (!fileMD5.equalsIgnoreCase(md5Hash) || !sha1Hash.equalsIgnoreCase(sha1Hash)) {
-                throw new DependencyManagerException(String.format("%s file validation failed: hashes do not match for url: %s",
-                        kind, url));
-            }
-        } catch (NetworkServiceException e) {
-            throw new DependencyManagerException(String.format("failed to download the MD5 and/or SHA1 hash files for validation for url: %s", url));
+            return DependencyFileCache.INSTANCE.store(url, filePath, sha1);
+        } finally {
+            deleteDownloadDirectory(dir);
         }
-
-        return filePath;
     }
 
-
     /**
      * Given the list of child nodes, try and locate a specific tag using its name.
      *
@@ -2,6 +2,7 @@ package com.tzj.garvel.core.dep.api.parser;
 
 import com.tzj.garvel.core.dep.parser.metadata.DependencyMetadataParser;
 import com.tzj.garvel.core.dep.parser.pom.DependencyPOMParser;
+import com.tzj.garvel.core.dep.parser.pom.StreamingPOMParser;
 
 public class DependencyParserFactory {
     private DependencyParserFactory() {
@@ -17,6 +18,9 @@ public class DependencyParserFactory {
             case POM:
                 parser = new DependencyPOMParser(url);
                 break;
+            case STREAMING_POM:
+                parser = new StreamingPOMParser(url);
+                break;
         }
 
         return parser;
@@ -2,5 +2,6 @@ package com.tzj.garvel.core.dep.api.parser;
 
 public enum DependencyParserKind {
     METADATA,
-    POM;
+    POM,
+    STREAMING_POM;
 }
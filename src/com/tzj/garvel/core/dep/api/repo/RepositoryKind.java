@@ -85,4 +85,20 @@ public enum RepositoryKind {
 
 
     public abstract String getUrl();
+
+    /**
+     * Find the repository that the given URL points into.
+     *
+     * @param url
+     * @return the repository, or null if the URL is not served by any of them.
+     */
+    public static RepositoryKind fromUrl(final String url) {
+        for (final RepositoryKind kind : values()) {
+            if (url.startsWith(kind.getUrl().trim())) {
+                return kind;
+            }
+        }
+
+        return null;
+    }
 }
@@ -1,10 +1,8 @@
 package com.tzj.garvel.core.dep.api.repo;
 
-import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.dep.api.exception.RepositoryLoaderException;
-import com.tzj.garvel.core.net.api.NetworkConnector;
+import com.tzj.garvel.core.dep.repo.RepositoryAvailabilityRegistry;
 import com.tzj.garvel.core.net.api.NetworkConstants;
-import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
 
 import java.io.File;
 
@@ -27,12 +25,15 @@ public abstract class RepositoryLoader {
         return nextLoader;
     }
 
+    /**
+     * Check whether this repository is available. The actual probing (and
+     * caching of the result) is handled by the RepositoryAvailabilityRegistry,
+     * so this is normally an in-memory lookup.
+     *
+     * @return
+     */
     public boolean checkRepoStatus() {
-        try {
-            return CoreModuleLoader.INSTANCE.getNetworkFramework().checkUrlAvailable(kind.getUrl());
-        } catch (NetworkServiceException e) {
-            return false;
-        }
+        return RepositoryAvailabilityRegistry.INSTANCE.isAvailable(kind);
     }
 
     /**
@@ -131,6 +132,11 @@ public abstract class RepositoryLoader {
                     RepositoryConstants.JAR);
         }
 
+        if (nextLoader == null) {
+            throw new RepositoryLoaderException(String.format("unable to construct jar file url for artifact \"%s%s%s:%s\"\n",
+                    groupId, File.separator, artifactId, version));
+        }
+
         return nextLoader.constructJARFileUrl(groupId, artifactId, version);
     }
 }
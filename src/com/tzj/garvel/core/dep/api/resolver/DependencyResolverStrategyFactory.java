@@ -0,0 +1,54 @@
+package com.tzj.garvel.core.dep.api.resolver;
+
+import com.tzj.garvel.core.dep.resolver.ConcurrentDependencyResolverStrategy;
+import com.tzj.garvel.core.dep.resolver.SimpleDependencyResolverStrategy;
+
+/**
+ * The default scheme is to use the concurrent resolver. The simple resolver can still be
+ * selected by setting the `garvel.resolver` property to SIMPLE.
+ */
+public class DependencyResolverStrategyFactory {
+    private static final String RESOLVER_PROPERTY = "garvel.resolver";
+
+    private DependencyResolverStrategyFactory() {
+    }
+
+    public static DependencyResolverStrategy getStrategy() {
+        return getStrategy(getConfiguredType());
+    }
+
+    /**
+     * The resolver type selected by the `garvel.resolver` property - CONCURRENT by default.
+     *
+     * @return
+     */
+    public static DependencyResolverStrategyType getConfiguredType() {
+        DependencyResolverStrategyType type = DependencyResolverStrategyType.CONCURRENT;
+
+        final String configuredType = System.getProperty(RESOLVER_PROPERTY);
+        if (configuredType != null) {
+            try {
+                type = DependencyResolverStrategyType.valueOf(configuredType.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // fall back to the default
+            }
+        }
+
+        return type;
+    }
+
+    public static DependencyResolverStrategy getStrategy(final DependencyResolverStrategyType type) {
+        DependencyResolverStrategy strategy = null;
+
+        switch (type) {
+            case SIMPLE:
+                strategy = new SimpleDependencyResolverStrategy();
+                break;
+            case CONCURRENT:
+                strategy = new ConcurrentDependencyResolverStrategy();
+                break;
+        }
+
+        return strategy;
+    }
+}
@@ -0,0 +1,12 @@
+package com.tzj.garvel.core.dep.api.resolver;
+
+/**
+ * The available DependencyResolverStrategy implementations.
+ * <p>
+ * SIMPLE fetches the POM files one at a time, on the calling thread.
+ * CONCURRENT fetches them on a bounded pool, while building the very same graph.
+ */
+public enum DependencyResolverStrategyType {
+    SIMPLE,
+    CONCURRENT
+}
@@ -0,0 +1,161 @@
+package com.tzj.garvel.core.dep.cache;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * A persistent cache of the POM and maven-metadata.xml files downloaded
+ * from the remote repositories, stored under $HOME/.garvel/cache/metadata.
+ * <p>
+ * Each entry is stored at the path of its URL (host included, so that different
+ * repositories never share entries), alongside a `.sha1` file holding the checksum
+ * of the entry at the time it was stored. An entry is only served if its contents
+ * still match that checksum.
+ * <p>
+ * Immutable entries (POMs of released versions) never expire. All other entries
+ * (metadata files and SNAPSHOT POMs) expire after GARVEL_METADATA_CACHE_TTL milliseconds.
+ */
+public enum DependencyFileCache {
+    INSTANCE;
+
+    private static final String SCHEME_SEPARATOR = "://";
+    private static final String CHECKSUM_SUFFIX = ".sha1";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String CURRENT_DIR = ".";
+    private static final String PARENT_DIR = "..";
+
+    /**
+     * Look up a valid cached copy of the file at the given url.
+     *
+     * @param url
+     * @param immutable
+     * @return the path of the cached file, or null if there is no valid entry.
+     */
+    public Path lookup(final String url, final boolean immutable) {
+        final Path entry = getEntryPath(url);
+        if (entry == null) {
+            return null;
+        }
+
+        final Path checksum = getChecksumPath(entry);
+
+        if (!Files.isRegularFile(entry) || !Files.isRegularFile(checksum)) {
+            return null;
+        }
+
+        try {
+            if (!immutable) {
+                final long age = System.currentTimeMillis() - Files.getLastModifiedTime(entry).toMillis();
+                if (age > GarvelCoreConstants.GARVEL_METADATA_CACHE_TTL) {
+                    return null;
+                }
+            }
+
+            final String expected = new String(Files.readAllBytes(checksum), StandardCharsets.UTF_8).trim();
+            final String actual = UtilServiceImpl.INSTANCE.getSHA1(entry);
+
+            if (actual == null || !actual.equalsIgnoreCase(expected)) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Store a downloaded (and already validated) file in the cache. The file is moved
+     * into the cache, and the path of the new entry is returned.
+     * <p>
+     * Both the entry and its checksum are first written next to their final location
+     * and then atomically renamed, so that concurrent resolvers (or an interrupted run)
+     * never observe a partially written entry.
+     *
+     * @param url
+     * @param downloadedFile
+     * @param sha1           the SHA1 hash of the downloaded file, as computed during the download
+     * @return
+     * @throws DependencyManagerException
+     */
+    public Path store(final String url, final Path downloadedFile, final String sha1) throws DependencyManagerException {
+        final Path entry = getEntryPath(url);
+        if (entry == null) {
+            throw new DependencyManagerException(String.format("unable to store %s in the Garvel cache: invalid url\n", url));
+        }
+
+        final Path checksum = getChecksumPath(entry);
+
+        try {
+            Files.createDirectories(entry.getParent());
+
+            final Path checksumTmp = Files.createTempFile(entry.getParent(), checksum.getFileName().toString(), TMP_SUFFIX);
+            Files.write(checksumTmp, sha1.getBytes(StandardCharsets.UTF_8));
+            move(checksumTmp, checksum);
+
+            final Path entryTmp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), TMP_SUFFIX);
+            Files.move(downloadedFile, entryTmp, StandardCopyOption.REPLACE_EXISTING);
+            move(entryTmp, entry);
+        } catch (IOException e) {
+            throw new DependencyManagerException(String.format("unable to store %s in the Garvel cache: %s\n",
+                    url, e.getLocalizedMessage()));
+        }
+
+        return entry;
+    }
+
+    private void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Map a url such as http://host/path/to/file.pom to
+     * $HOME/.garvel/cache/metadata/host/path/to/file.pom
+     * <p>
+     * The coordinates in a url may come from a (remote) POM, so urls with empty, `.`, or `..`
+     * path segments - or which would otherwise resolve outside the cache - are rejected.
+     *
+     * @param url
+     * @return the path, or null if the url cannot be mapped safely.
+     */
+    private Path getEntryPath(final String url) {
+        String relative = url.trim();
+
+        final int schemeEnd = relative.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd != -1) {
+            relative = relative.substring(schemeEnd + SCHEME_SEPARATOR.length());
+        }
+
+        // a host:port pair is not a valid path component on every platform
+        relative = relative.replace(':', '_');
+
+        final String[] segments = relative.split("/");
+        for (final String segment : segments) {
+            if (segment.isEmpty() || CURRENT_DIR.equals(segment) || PARENT_DIR.equals(segment) || segment.contains("\\")) {
+                return null;
+            }
+        }
+
+        final Path root = Paths.get(GarvelCoreConstants.GARVEL_METADATA_CACHE_DIR).toAbsolutePath().normalize();
+        final Path entry = root.resolve(Paths.get("", segments)).normalize();
+
+        if (!entry.startsWith(root) || entry.equals(root)) {
+            return null;
+        }
+
+        return entry;
+    }
+
+    private Path getChecksumPath(final Path entry) {
+        return entry.resolveSibling(entry.getFileName().toString() + CHECKSUM_SUFFIX);
+    }
+}
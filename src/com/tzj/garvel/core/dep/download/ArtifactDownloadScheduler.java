@@ -0,0 +1,245 @@
+package com.tzj.garvel.core.dep.download;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+import com.tzj.garvel.core.dep.api.exception.DependencyResolverException;
+import com.tzj.garvel.core.dep.api.exception.RepositoryLoaderException;
+import com.tzj.garvel.core.dep.api.repo.RepositoryConstants;
+import com.tzj.garvel.core.dep.api.repo.RepositoryKind;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
+import com.tzj.garvel.core.dep.parser.DependencyParserConstants;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a batch of artifact JAR files into the Garvel Cache concurrently.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Each artifact is downloaded by a task on a pool of at most GARVEL_DOWNLOAD_THREADS threads.
+ * 2. Before touching the network, a task acquires a permit for the repository host the
+ * artifact is served from, so that no more than GARVEL_DOWNLOAD_THREADS_PER_REPOSITORY
+ * downloads hit a single repository at any time.
+ * 3. The JAR is streamed to disk and verified against the repository's hashes by the
+ * VerifiedDownloader, which only moves it to its final location in the cache once it checks out.
+ * 4. As soon as any download fails, the remaining ones are cancelled, and the batch fails as a whole.
+ * So does a batch in which no download has completed for GARVEL_DOWNLOAD_TIMEOUT.
+ * <p>
+ * The scheduler never touches the GarvelCache itself - callers update it with the returned
+ * paths (and the repositories the artifacts were served from) once the whole batch has succeeded.
+ */
+public class ArtifactDownloadScheduler {
+    private final RepositoryLoader repoLoader;
+    private final int globalLimit;
+    private final int repositoryLimit;
+    private final ConcurrentMap<String, Semaphore> repositoryPermits;
+    private final ConcurrentMap<Artifact, RepositoryKind> repositories;
+    private final AtomicLong bytesDownloaded;
+
+    public ArtifactDownloadScheduler(final RepositoryLoader repoLoader) {
+        this(repoLoader, GarvelCoreConstants.GARVEL_DOWNLOAD_THREADS, GarvelCoreConstants.GARVEL_DOWNLOAD_THREADS_PER_REPOSITORY);
+    }
+
+    public ArtifactDownloadScheduler(final RepositoryLoader repoLoader, final int globalLimit, final int repositoryLimit) {
+        this.repoLoader = repoLoader;
+        this.globalLimit = globalLimit > 0 ? globalLimit : 1;
+        this.repositoryLimit = repositoryLimit > 0 ? repositoryLimit : 1;
+        this.repositoryPermits = new ConcurrentHashMap<>();
+        this.repositories = new ConcurrentHashMap<>();
+        this.bytesDownloaded = new AtomicLong(0L);
+    }
+
+    /**
+     * Download the given artifacts into the Garvel Cache.
+     *
+     * @param artifacts
+     * @return the paths of the downloaded JAR files, in the same order as the artifacts.
+     * @throws DependencyResolverException
+     */
+    public List<String> download(final List<Artifact> artifacts) throws DependencyResolverException {
+        final List<String> downloadedPaths = new ArrayList<>();
+        if (artifacts.isEmpty()) {
+            return downloadedPaths;
+        }
+
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        final ExecutorService pool = concurrency.newLimitedExecutor("download", concurrency.getIOExecutor(),
+                Math.min(globalLimit, artifacts.size()));
+        final CompletionService<String> completionService = new ExecutorCompletionService<>(pool);
+        final Map<Future<String>, Integer> downloads = new HashMap<>();
+        final String[] paths = new String[artifacts.size()];
+        final long start = System.nanoTime();
+
+        try {
+            for (int i = 0; i < artifacts.size(); i++) {
+                downloads.put(completionService.submit(new ArtifactDownload(artifacts.get(i))), i);
+            }
+
+            // collect in order of completion, so that the first failure aborts the batch
+            for (int i = 0; i < artifacts.size(); i++) {
+                final Future<String> download = take(completionService);
+                final int index = downloads.get(download);
+                paths[index] = await(download, artifacts.get(index));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        downloadedPaths.addAll(Arrays.asList(paths));
+        reportThroughput(artifacts.size(), System.nanoTime() - start);
+
+        return downloadedPaths;
+    }
+
+    /**
+     * The repository that the given (downloaded) artifact was served from.
+     *
+     * @param artifact
+     * @return the repository, or null if it is not known.
+     */
+    public RepositoryKind getRepository(final Artifact artifact) {
+        return repositories.get(artifact);
+    }
+
+    private Future<String> take(final CompletionService<String> completionService) throws DependencyResolverException {
+        try {
+            final Future<String> download = completionService.poll(GarvelCoreConstants.GARVEL_DOWNLOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (download == null) {
+                throw new DependencyResolverException(String.format("timed out downloading project dependencies: no download completed in %ds\n",
+                        GarvelCoreConstants.GARVEL_DOWNLOAD_TIMEOUT / 1000));
+            }
+
+            return download;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyResolverException("interrupted while downloading project dependencies\n");
+        }
+    }
+
+    private String await(final Future<String> download, final Artifact artifact) throws DependencyResolverException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyResolverException(String.format("interrupted while downloading project dependency %s\n", artifact));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof DependencyResolverException) {
+                throw (DependencyResolverException) cause;
+            }
+
+            throw new DependencyResolverException(String.format("failed to download project dependency %s: %s\n",
+                    artifact, cause.getLocalizedMessage()));
+        }
+    }
+
+    private void reportThroughput(final int count, final long elapsedNanos) {
+        final double seconds = Math.max(elapsedNanos, 1L) / 1e9;
+        final double kilobytes = bytesDownloaded.get() / 1024.0;
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Downloaded %d dependencies (%.1f KB) in %.2fs (%.1f KB/s)",
+                count, kilobytes, seconds, kilobytes / seconds);
+    }
+
+    private Semaphore getRepositoryPermits(final String jarFileUrl) {
+        String repository = null;
+        try {
+            repository = new URL(jarFileUrl).getHost();
+        } catch (MalformedURLException e) {
+            repository = jarFileUrl;
+        }
+
+        Semaphore permits = repositoryPermits.get(repository);
+        if (permits == null) {
+            final Semaphore newPermits = new Semaphore(repositoryLimit);
+            permits = repositoryPermits.putIfAbsent(repository, newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+
+        return permits;
+    }
+
+    /**
+     * Download and verify a single artifact.
+     */
+    private class ArtifactDownload implements Callable<String> {
+        private final Artifact artifact;
+
+        ArtifactDownload(final Artifact artifact) {
+            this.artifact = artifact;
+        }
+
+        @Override
+        public String call() throws DependencyResolverException {
+            final String modGroupId = artifact.getGroupId().replace(".", File.separator);
+            final String directoryPath = GarvelCoreConstants.GARVEL_CACHE_DIR + File.separator +
+                    modGroupId + File.separator + artifact.getArtifactId() +
+                    File.separator + artifact.getVersion();
+
+            // create the dependency hierarchy
+            try {
+                CoreModuleLoader.INSTANCE.getFileSystemFramework().makeDirectoryHierarchy(directoryPath);
+            } catch (FilesystemFrameworkException e) {
+                throw new DependencyResolverException(String.format("failed to create Garvel Cache: %s", e.getErrorString()));
+            }
+
+            String jarFileUrl = null;
+            try {
+                jarFileUrl = repoLoader.constructJARFileUrl(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+            } catch (RepositoryLoaderException e) {
+                throw new DependencyResolverException(String.format("failed to download project dependency %s: %s",
+                        artifact, e.getErrorString()));
+            }
+
+            final String jarFilePath = directoryPath + File.separator + jarFileUrl
+                    .substring(jarFileUrl.lastIndexOf("/") + 1, jarFileUrl.length())
+                    .replace("pom", "jar");
+            final Path jarPath = Paths.get(jarFilePath);
+
+            final Semaphore permits = getRepositoryPermits(jarFileUrl);
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DependencyResolverException(String.format("interrupted while downloading project dependency %s\n", artifact));
+            }
+
+            try {
+                VerifiedDownloader.INSTANCE.download(DependencyParserConstants.JAR, jarFileUrl,
+                        jarFileUrl + RepositoryConstants.MD5, jarFileUrl + RepositoryConstants.SHA1, jarPath);
+                bytesDownloaded.addAndGet(Files.size(jarPath));
+            } catch (DependencyManagerException e) {
+                throw new DependencyResolverException(String.format("failed to download project dependency %s: %s",
+                        artifact, e.getErrorString()));
+            } catch (IOException e) {
+                throw new DependencyResolverException(String.format("failed to download project dependency %s: %s\n",
+                        artifact, e.getLocalizedMessage()));
+            } finally {
+                permits.release();
+            }
+
+            final RepositoryKind repository = RepositoryKind.fromUrl(jarFileUrl);
+            if (repository != null) {
+                repositories.put(artifact, repository);
+            }
+
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Finished downloading dependency %s", artifact.toString());
+
+            return jarFilePath;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.tzj.garvel.core.dep.download;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+import com.tzj.garvel.core.dep.api.exception.DependencyNotFoundException;
+import com.tzj.garvel.core.net.api.NetworkService;
+import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Downloads files from the repositories, verifying them against the MD5 and
+ * SHA1 hashes published alongside them.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Request the MD5 and SHA1 hash files asynchronously.
+ * 2. Stream the file itself into a `.part` file next to the target, computing its
+ * MD5 and SHA1 digests on the fly.
+ * 3. Compare the digests with the published hashes.
+ * 4. Only if both match, rename the `.part` file to the target. Otherwise delete it.
+ * <p>
+ * The callers run on (limited views of) the I/O pool, and block on the hash files - which
+ * is why the asynchronous requests of the NetworkService run on the separate network pool
+ * (see ConcurrencyService), and can never be starved by the callers waiting on them.
+ */
+public enum VerifiedDownloader {
+    INSTANCE;
+
+    private static final String MD5 = "MD5";
+    private static final String SHA1 = "SHA1";
+    private static final String PART_SUFFIX = ".part";
+
+    /**
+     * Download the file at url into target, verifying its contents.
+     *
+     * @param kind    the kind of file (for error reporting)
+     * @param url
+     * @param md5Url
+     * @param sha1Url
+     * @param target
+     * @return the verified SHA1 hash of the file.
+     * @throws DependencyNotFoundException if the repository does not have the file.
+     * @throws DependencyManagerException
+     */
+    public String download(final String kind, final String url, final String md5Url, final String sha1Url,
+                           final Path target) throws DependencyManagerException {
+        final NetworkService net = CoreModuleLoader.INSTANCE.getNetworkFramework();
+        final Path partPath = target.resolveSibling(target.getFileName().toString() + PART_SUFFIX);
+
+        final Future<String> md5Future = net.downloadTextFileAsStringAsync(md5Url);
+        final Future<String> sha1Future = net.downloadTextFileAsStringAsync(sha1Url);
+
+        try {
+            Map<String, String> digests = null;
+            try {
+                digests = net.downloadBinaryFileWithDigests(url, partPath.toString(), MD5, SHA1);
+            } catch (NetworkServiceException e) {
+                final String message = String.format("unable to download the %s file (%s): %s",
+                        kind, url, e.getErrorString());
+                if (e.getStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                    throw new DependencyNotFoundException(message);
+                }
+
+                throw new DependencyManagerException(message);
+            }
+
+            final String md5Hash = firstToken(await(md5Future, url));
+            final String sha1Hash = firstToken(await(sha1Future, url));
+
+            if (md5Hash == null || sha1Hash == null ||
+                    !md5Hash.equalsIgnoreCase(digests.get(MD5)) || !sha1Hash.equalsIgnoreCase(digests.get(SHA1))) {
+                throw new DependencyManagerException(String.format("%s file validation failed: hashes do not match for url: %s\n",
+                        kind, url));
+            }
+
+            move(partPath, target);
+
+            return digests.get(SHA1);
+        } catch (IOException e) {
+            throw new DependencyManagerException(String.format("unable to save the %s file (%s): %s\n",
+                    kind, url, e.getLocalizedMessage()));
+        } finally {
+            md5Future.cancel(true);
+            sha1Future.cancel(true);
+            deletePartFile(partPath);
+        }
+    }
+
+    private String await(final Future<String> hashFuture, final String url) throws DependencyManagerException {
+        try {
+            return hashFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyManagerException(String.format("interrupted while validating url: %s\n", url));
+        } catch (ExecutionException e) {
+            throw new DependencyManagerException(String.format("failed to download the MD5 and/or SHA1 hash files for validation for url: %s\n", url));
+        }
+    }
+
+    /**
+     * Some hash files tend to contain extra text, so split at the first whitespace.
+     *
+     * @param hashFull
+     * @return
+     */
+    private String firstToken(final String hashFull) {
+        if (hashFull == null || hashFull.trim().isEmpty()) {
+            return null;
+        }
+
+        return hashFull.trim().split("\\s+")[0];
+    }
+
+    private void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deletePartFile(final Path partPath) {
+        try {
+            Files.deleteIfExists(partPath);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
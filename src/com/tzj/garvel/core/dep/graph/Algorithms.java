@@ -44,17 +44,24 @@ public class Algorithms {
      * collating the results along the way.
      */
     private static void doTopoSort(final Graph g, List<Integer> vs) {
-        Queue<Integer> q = new ArrayDeque<>();
+        if (g instanceof CompressedSparseRowGraph) {
+            doTopoSort((CompressedSparseRowGraph) g, vs);
+            return;
+        }
 
-        Map<Integer, Integer> indegs = new HashMap<>();
+        // compute all the in-degrees in a single pass over the edges
+        final int[] indegs = new int[g.size()];
         for (int i = 0; i < g.size(); i++) {
-            int d = g.getIndegree(i);
+            for (int vv : g.getAdjacentVertices(i)) {
+                indegs[vv]++;
+            }
+        }
 
-            if (d == 0) {
+        Queue<Integer> q = new ArrayDeque<>();
+        for (int i = 0; i < g.size(); i++) {
+            if (indegs[i] == 0) {
                 q.add(i);
             }
-
-            indegs.put(i, d);
         }
 
         while (!q.isEmpty()) {
@@ -62,16 +69,51 @@ public class Algorithms {
 
             vs.add(v);
             for (int vv : g.getAdjacentVertices(v)) {
-                int d = indegs.get(vv) - 1;
+                indegs[vv]--;
 
-                indegs.put(vv, d);
-                if (d == 0) {
+                if (indegs[vv] == 0) {
                     q.add(vv);
                 }
             }
         }
     }
 
+    /**
+     * Kahn's algorithm directly over the CSR arrays, using a plain int array
+     * as the queue.
+     */
+    private static void doTopoSort(final CompressedSparseRowGraph g, List<Integer> vs) {
+        final int n = g.size();
+        final int[] offsets = g.getOffsets();
+        final int[] targets = g.getTargets();
+        final int[] indegs = Arrays.copyOf(g.getIndegrees(), n);
+
+        final int[] q = new int[n];
+        int head = 0;
+        int tail = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (indegs[i] == 0) {
+                q[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            final int v = q[head++];
+
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (--indegs[targets[i]] == 0) {
+                    q[tail++] = targets[i];
+                }
+            }
+        }
+
+        // the queue now holds the topological ordering
+        for (int i = 0; i < tail; i++) {
+            vs.add(q[i]);
+        }
+    }
+
     /**
      * Depth-First Traversal.
      *
@@ -82,9 +124,32 @@ public class Algorithms {
     public static void dfs(Graph g, int s, GraphCallback<Integer> cb) {
         boolean[] visited = new boolean[g.size()];
 
+        if (g instanceof CompressedSparseRowGraph) {
+            final CompressedSparseRowGraph csr = (CompressedSparseRowGraph) g;
+            dfsInternal(csr, csr.getOffsets(), csr.getTargets(), visited, s, cb);
+            return;
+        }
+
         dfsInternal(g, visited, s, cb);
     }
 
+    private static void dfsInternal(final CompressedSparseRowGraph g, final int[] offsets, final int[] targets,
+                                    final boolean[] visited, final int s, final GraphCallback<Integer> cb) {
+        if (visited[s]) {
+            return;
+        }
+
+        cb.pre();
+        visited[s] = true;
+        cb.invoke(s);
+
+        for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+            dfsInternal(g, offsets, targets, visited, targets[i], cb);
+        }
+
+        cb.post();
+    }
+
     private static void dfsInternal(final Graph g, final boolean[] visited, final int s, final GraphCallback<Integer> cb) {
         if (visited[s]) {
             return;
@@ -109,6 +174,11 @@ public class Algorithms {
      * @param cb
      */
     public static void bfs(Graph g, int s, GraphCallback<Integer> cb) {
+        if (g instanceof CompressedSparseRowGraph) {
+            bfs((CompressedSparseRowGraph) g, s, cb);
+            return;
+        }
+
         boolean[] visited = new boolean[g.size()];
 
         Queue<Integer> q = new ArrayDeque<>();
@@ -134,4 +204,39 @@ public class Algorithms {
 
         cb.post();
     }
+
+    /**
+     * Breadth-First Traversal over the CSR arrays. Every edge enqueues at most one
+     * vertex, so the int array queue is bounded by E + 1.
+     */
+    private static void bfs(final CompressedSparseRowGraph g, final int s, final GraphCallback<Integer> cb) {
+        final int[] offsets = g.getOffsets();
+        final int[] targets = g.getTargets();
+        final boolean[] visited = new boolean[g.size()];
+
+        final int[] q = new int[targets.length + 1];
+        int head = 0;
+        int tail = 0;
+        q[tail++] = s;
+
+        while (head < tail) {
+            final int v = q[head++];
+
+            cb.pre();
+            if (visited[v]) {
+                continue;
+            }
+
+            visited[v] = true;
+            cb.invoke(v);
+
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (!visited[targets[i]]) {
+                    q[tail++] = targets[i];
+                }
+            }
+        }
+
+        cb.post();
+    }
 }
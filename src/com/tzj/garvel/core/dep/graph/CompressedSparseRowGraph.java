@@ -0,0 +1,329 @@
+package com.tzj.garvel.core.dep.graph;
+
+import com.tzj.garvel.core.dep.api.exception.GraphUncheckedException;
+import com.tzj.garvel.core.dep.api.graph.Graph;
+import com.tzj.garvel.core.dep.api.graph.GraphKind;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Graph stored in Compressed Sparse Row form: the neighbours of vertex v are
+ * targets[offsets[v]] ... targets[offsets[v + 1] - 1], sorted in ascending order.
+ * The in-degree of every vertex is precomputed.
+ * <p>
+ * Edges are first appended to a pair of growable int arrays. The CSR arrays are built
+ * (in O(V+E), with a counting sort) the first time the graph is queried after being
+ * modified, so a graph is cheapest when it is built completely before being analysed,
+ * which is how the resolvers use it. Duplicate edges are dropped during compaction.
+ * <p>
+ * Vertex ids must be contiguous, starting at 0 (as handed out by GraphIdGenerator).
+ * This class is not thread-safe.
+ */
+public class CompressedSparseRowGraph implements Graph {
+    private static final long serialVersionUID = -3072458117394624617L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private GraphKind kind;
+    private int vertexCount;
+
+    // pending (uncompacted) edges
+    private int[] edgeSources;
+    private int[] edgeTargets;
+    private int edgeCount;
+    private boolean dirty;
+
+    // compacted form
+    private int[] offsets;
+    private int[] targets;
+    private int[] indegrees;
+
+    // needed for deserialization
+    public CompressedSparseRowGraph() {
+    }
+
+    public CompressedSparseRowGraph(final GraphKind kind) {
+        this.kind = kind;
+        this.vertexCount = 0;
+        this.edgeSources = new int[INITIAL_CAPACITY];
+        this.edgeTargets = new int[INITIAL_CAPACITY];
+        this.edgeCount = 0;
+        this.offsets = new int[1];
+        this.targets = new int[0];
+        this.indegrees = new int[0];
+        this.dirty = false;
+    }
+
+    /**
+     * Create a graph directly from its CSR arrays, as read back from storage.
+     * The rows are expected to be sorted, and free of duplicates.
+     *
+     * @param kind
+     * @param offsets
+     * @param targets
+     */
+    public CompressedSparseRowGraph(final GraphKind kind, final int[] offsets, final int[] targets) {
+        this(kind);
+        load(offsets, targets);
+    }
+
+    @Override
+    public void addVertex(final int v) {
+        if (v < 0) {
+            throw new GraphUncheckedException(String.format("invalid vertex %d\n", v));
+        }
+
+        if (v >= vertexCount) {
+            vertexCount = v + 1;
+            dirty = true;
+        }
+    }
+
+    @Override
+    public void addEdge(final int v1, final int v2) {
+        if (v1 < 0 || v1 >= size() || v2 < 0 || v2 >= size()) {
+            throw new GraphUncheckedException(String.format("invalid vertex or vertices: %d, %d\n", v1, v2));
+        }
+
+        appendEdge(v1, v2);
+        if (kind == GraphKind.UNDIRECTED) {
+            appendEdge(v2, v1);
+        }
+
+        dirty = true;
+    }
+
+    @Override
+    public List<Integer> getAdjacentVertices(final int v) {
+        if (v < 0 || v >= size()) {
+            throw new GraphUncheckedException(String.format("invalid vertex %d\n", v));
+        }
+
+        compact();
+
+        final List<Integer> vs = new ArrayList<>(offsets[v + 1] - offsets[v]);
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            vs.add(targets[i]);
+        }
+
+        return vs;
+    }
+
+    @Override
+    public int getIndegree(final int v) {
+        if (kind == GraphKind.UNDIRECTED) {
+            throw new GraphUncheckedException("indegree is not specified for undirected graphs\n");
+        }
+
+        if (v < 0 || v >= size()) {
+            throw new GraphUncheckedException(String.format("invalid vertex, %d\n", v));
+        }
+
+        compact();
+
+        return indegrees[v];
+    }
+
+    @Override
+    public int size() {
+        return vertexCount;
+    }
+
+    /**
+     * The number of (distinct) edges in the graph.
+     *
+     * @return
+     */
+    public int edgeCount() {
+        compact();
+        return targets.length;
+    }
+
+    /**
+     * The row offsets. The array is shared, and must not be modified.
+     *
+     * @return
+     */
+    public int[] getOffsets() {
+        compact();
+        return offsets;
+    }
+
+    /**
+     * The concatenated rows of neighbours. The array is shared, and must not be modified.
+     *
+     * @return
+     */
+    public int[] getTargets() {
+        compact();
+        return targets;
+    }
+
+    /**
+     * The in-degree of every vertex. The array is shared, and must not be modified.
+     *
+     * @return
+     */
+    public int[] getIndegrees() {
+        compact();
+        return indegrees;
+    }
+
+    @Override
+    public void display() {
+        compact();
+
+        for (int i = 0; i < size(); i++) {
+            System.out.printf("%d: ", i);
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                System.out.printf("%d ", targets[j]);
+            }
+            System.out.println();
+        }
+    }
+
+    @Override
+    public GraphKind kind() {
+        return kind;
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        compact();
+
+        out.writeObject(kind);
+        out.writeInt(vertexCount);
+        out.writeInt(targets.length);
+
+        for (int i = 0; i <= vertexCount; i++) {
+            out.writeInt(offsets[i]);
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            out.writeInt(targets[i]);
+        }
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+        kind = (GraphKind) in.readObject();
+
+        final int n = in.readInt();
+        final int e = in.readInt();
+
+        final int[] offs = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            offs[i] = in.readInt();
+        }
+
+        final int[] tgts = new int[e];
+        for (int i = 0; i < e; i++) {
+            tgts[i] = in.readInt();
+        }
+
+        edgeSources = new int[INITIAL_CAPACITY];
+        edgeTargets = new int[INITIAL_CAPACITY];
+        load(offs, tgts);
+    }
+
+    /**
+     * Replace the contents of this graph with the given CSR arrays. The existing edges
+     * are kept in the pending arrays as well, so that the graph can still be extended.
+     *
+     * @param offs
+     * @param tgts
+     */
+    private void load(final int[] offs, final int[] tgts) {
+        vertexCount = offs.length - 1;
+        edgeCount = 0;
+
+        for (int v = 0; v < vertexCount; v++) {
+            for (int i = offs[v]; i < offs[v + 1]; i++) {
+                appendEdge(v, tgts[i]);
+            }
+        }
+
+        offsets = offs;
+        targets = tgts;
+        indegrees = computeIndegrees(vertexCount, tgts);
+        dirty = false;
+    }
+
+    private void appendEdge(final int v1, final int v2) {
+        if (edgeCount == edgeSources.length) {
+            final int newCapacity = Math.max(INITIAL_CAPACITY, edgeSources.length * 2);
+            edgeSources = Arrays.copyOf(edgeSources, newCapacity);
+            edgeTargets = Arrays.copyOf(edgeTargets, newCapacity);
+        }
+
+        edgeSources[edgeCount] = v1;
+        edgeTargets[edgeCount] = v2;
+        edgeCount++;
+    }
+
+    /**
+     * Build the CSR arrays from the pending edges.
+     * <p>
+     * 1. Count the out-degree of every vertex, and turn the counts into row offsets.
+     * 2. Scatter the targets into their rows.
+     * 3. Sort every row, and squeeze out duplicate edges.
+     * 4. Compute the in-degrees.
+     */
+    private void compact() {
+        if (!dirty) {
+            return;
+        }
+
+        final int n = vertexCount;
+        final int[] rowOffsets = new int[n + 1];
+
+        for (int i = 0; i < edgeCount; i++) {
+            rowOffsets[edgeSources[i] + 1]++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            rowOffsets[v + 1] += rowOffsets[v];
+        }
+
+        final int[] rowTargets = new int[edgeCount];
+        final int[] next = Arrays.copyOf(rowOffsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            rowTargets[next[edgeSources[i]]++] = edgeTargets[i];
+        }
+
+        // sort and dedupe each row in place, shifting the rows down as we go
+        int write = 0;
+        for (int v = 0; v < n; v++) {
+            final int start = rowOffsets[v];
+            final int end = rowOffsets[v + 1];
+
+            Arrays.sort(rowTargets, start, end);
+
+            rowOffsets[v] = write;
+            for (int i = start; i < end; i++) {
+                if (i == start || rowTargets[i] != rowTargets[i - 1]) {
+                    rowTargets[write++] = rowTargets[i];
+                }
+            }
+        }
+        rowOffsets[n] = write;
+
+        offsets = rowOffsets;
+        targets = write == rowTargets.length ? rowTargets : Arrays.copyOf(rowTargets, write);
+        indegrees = computeIndegrees(n, targets);
+        dirty = false;
+    }
+
+    private static int[] computeIndegrees(final int n, final int[] tgts) {
+        final int[] degs = new int[n];
+        for (int i = 0; i < tgts.length; i++) {
+            degs[tgts[i]]++;
+        }
+
+        return degs;
+    }
+}
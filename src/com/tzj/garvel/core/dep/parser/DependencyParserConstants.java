@@ -10,6 +10,8 @@ public class DependencyParserConstants {
 
     public static final String METADATA = "metadata";
 
+    public static final String JAR = "JAR";
+
     // metadata file tags
     public static final String VERSIONING = "versioning";
 
@@ -35,4 +37,26 @@ public class DependencyParserConstants {
     public static final String PROPERTIES = "properties";
 
     public static final String DEPENDENCY_MANAGEMENT = "dependencyManagement";
+
+    public static final String SCOPE = "scope";
+
+    public static final String TYPE = "type";
+
+    public static final String OPTIONAL = "optional";
+
+    public static final String EXCLUSIONS = "exclusions";
+
+    public static final String EXCLUSION = "exclusion";
+
+    // the scopes of dependencies which are never on the (runtime) classpath of the dependent project
+    public static final String TEST = "test";
+
+    public static final String PROVIDED = "provided";
+
+    public static final String SYSTEM = "system";
+
+    // the scope of the BOMs imported into the dependencyManagement section
+    public static final String IMPORT = "import";
+
+    public static final String POM_TYPE = "pom";
 }
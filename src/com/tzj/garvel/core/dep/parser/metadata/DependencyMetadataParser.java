@@ -5,7 +5,6 @@ import com.tzj.garvel.core.dep.api.parser.*;
 import com.tzj.garvel.core.dep.api.repo.RepositoryConstants;
 import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
 import com.tzj.garvel.core.dep.parser.DependencyParserConstants;
-import com.tzj.garvel.core.filesystem.api.FilesystemConstants;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -42,9 +41,8 @@ public class DependencyMetadataParser extends DependencyParser {
     @Override
     public void parse(final RepositoryLoader repoLoader) throws DependencyManagerException {
         try {
-            download(DependencyParserConstants.METADATA, metadataUrl, FilesystemConstants.TMPDIR);
-            final Path metadataPath = validate(DependencyParserConstants.METADATA, metadataUrl,
-                    metadataMD5Url, metadataSHA1Url, FilesystemConstants.TMPDIR);
+            final Path metadataPath = retrieve(DependencyParserConstants.METADATA, metadataUrl,
+                    metadataMD5Url, metadataSHA1Url, false);
 
             final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             final DocumentBuilder builder = factory.newDocumentBuilder();
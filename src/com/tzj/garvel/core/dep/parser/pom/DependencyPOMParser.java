@@ -9,7 +9,6 @@ import com.tzj.garvel.core.dep.api.parser.Versions;
 import com.tzj.garvel.core.dep.api.repo.RepositoryConstants;
 import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
 import com.tzj.garvel.core.dep.parser.DependencyParserConstants;
-import com.tzj.garvel.core.filesystem.api.FilesystemConstants;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -27,6 +26,7 @@ import java.nio.file.Path;
  */
 public class DependencyPOMParser extends DependencyParser {
     private static final String DOLLAR = "$";
+    private static final String SNAPSHOT = "SNAPSHOT";
 
     private String pomUrl;
     private String pomMD5Url;
@@ -62,8 +62,7 @@ public class DependencyPOMParser extends DependencyParser {
     @Override
     public void parse(final RepositoryLoader repoLoader) throws DependencyManagerException {
         try {
-            download(DependencyParserConstants.POM, pomUrl, FilesystemConstants.TMPDIR);
-            final Path pomPath = validate(DependencyParserConstants.POM, pomUrl, pomMD5Url, pomSHA1Url, FilesystemConstants.TMPDIR);
+            final Path pomPath = retrieve(DependencyParserConstants.POM, pomUrl, pomMD5Url, pomSHA1Url, isImmutable(pomUrl));
 
             final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             final DocumentBuilder builder = factory.newDocumentBuilder();
@@ -150,6 +149,16 @@ public class DependencyPOMParser extends DependencyParser {
         }
     }
 
+    /**
+     * POMs of released versions never change once published. SNAPSHOT POMs do.
+     *
+     * @param url
+     * @return
+     */
+    private boolean isImmutable(final String url) {
+        return !url.contains(SNAPSHOT);
+    }
+
     /**
      * Convert a ${project.var} to `project.var` to be used for locating
      * the tag.
@@ -194,9 +203,8 @@ public class DependencyPOMParser extends DependencyParser {
             final String parentPOMMD5Url = parentPOMUrl + RepositoryConstants.MD5;
             final String parentSHA1Url = parentPOMUrl + RepositoryConstants.SHA1;
 
-            download(DependencyParserConstants.POM, parentPOMUrl, FilesystemConstants.TMPDIR);
-            final Path parentPOMPath = validate(DependencyParserConstants.POM, parentPOMUrl,
-                    parentPOMMD5Url, parentSHA1Url, FilesystemConstants.TMPDIR);
+            final Path parentPOMPath = retrieve(DependencyParserConstants.POM, parentPOMUrl,
+                    parentPOMMD5Url, parentSHA1Url, isImmutable(parentPOMUrl));
 
             final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             final DocumentBuilder builder = factory.newDocumentBuilder();
@@ -318,9 +326,8 @@ public class DependencyPOMParser extends DependencyParser {
             final String parentPOMMD5Url = parentPOMUrl + RepositoryConstants.MD5;
             final String parentSHA1Url = parentPOMUrl + RepositoryConstants.SHA1;
 
-            download(DependencyParserConstants.POM, parentPOMUrl, FilesystemConstants.TMPDIR);
-            final Path parentPOMPath = validate(DependencyParserConstants.POM, parentPOMUrl,
-                    parentPOMMD5Url, parentSHA1Url, FilesystemConstants.TMPDIR);
+            final Path parentPOMPath = retrieve(DependencyParserConstants.POM, parentPOMUrl,
+                    parentPOMMD5Url, parentSHA1Url, isImmutable(parentPOMUrl));
 
             final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             final DocumentBuilder builder = factory.newDocumentBuilder();
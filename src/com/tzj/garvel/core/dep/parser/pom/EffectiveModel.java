@@ -0,0 +1,191 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.GarvelCoreConstants;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The effective model of a POM, as built by the EffectiveModelBuilder: its `properties` and
+ * `dependencyManagement` tables (versions and scopes) merged with those of its whole parent
+ * chain (and of its imported BOMs), with every ${var.value} already resolved.
+ * <p>
+ * The merged tables are also kept as written, since a child POM interpolates what it inherits
+ * in its own context (an inherited ${project.version} is the version of the child).
+ */
+public class EffectiveModel implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    static final String VARIABLE_START = "${";
+    static final String VARIABLE_END = "}";
+
+    // guards against properties that (directly or not) refer to themselves
+    private static final int MAX_INTERPOLATION_DEPTH = 16;
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+
+    // as written, merged down the parent chain
+    private final Map<String, String> properties;
+    private final Map<String, String> managedVersions;
+    private final List<PomModel.PomDependency> imports;
+
+    // resolved, and including the imported BOMs
+    private final Map<String, String> resolvedProperties;
+    private final Map<String, String> resolvedManagedVersions;
+
+    // scopes are never interpolated - merged down the parent chain, and including the imported BOMs
+    private final Map<String, String> managedScopes;
+
+    // true if neither the POM nor any of the POMs it was built from is a SNAPSHOT
+    private final boolean immutable;
+    private final long createdAt;
+
+    EffectiveModel(final String groupId, final String artifactId, final String version,
+                   final Map<String, String> properties, final Map<String, String> managedVersions,
+                   final List<PomModel.PomDependency> imports, final Map<String, String> resolvedProperties,
+                   final Map<String, String> resolvedManagedVersions, final Map<String, String> managedScopes,
+                   final boolean immutable) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.properties = Collections.unmodifiableMap(properties);
+        this.managedVersions = Collections.unmodifiableMap(managedVersions);
+        this.imports = Collections.unmodifiableList(imports);
+        this.resolvedProperties = Collections.unmodifiableMap(resolvedProperties);
+        this.resolvedManagedVersions = Collections.unmodifiableMap(resolvedManagedVersions);
+        this.managedScopes = Collections.unmodifiableMap(managedScopes);
+        this.immutable = immutable;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    Map<String, String> getProperties() {
+        return properties;
+    }
+
+    Map<String, String> getManagedVersions() {
+        return managedVersions;
+    }
+
+    List<PomModel.PomDependency> getImports() {
+        return imports;
+    }
+
+    Map<String, String> getResolvedManagedVersions() {
+        return resolvedManagedVersions;
+    }
+
+    Map<String, String> getManagedScopes() {
+        return managedScopes;
+    }
+
+    boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * Models built from SNAPSHOT POMs are only reused for as long as the POMs themselves are.
+     *
+     * @return
+     */
+    boolean isExpired() {
+        return !immutable && System.currentTimeMillis() - createdAt > GarvelCoreConstants.GARVEL_METADATA_CACHE_TTL;
+    }
+
+    /**
+     * The resolved version of the given artifact, from the `dependencyManagement` sections.
+     *
+     * @param groupId
+     * @param artifactId
+     * @return the version, or null if the artifact is not managed.
+     */
+    public String getManagedVersion(final String groupId, final String artifactId) {
+        return resolvedManagedVersions.get(PomModel.getKey(groupId, artifactId));
+    }
+
+    /**
+     * The scope of the given artifact, from the `dependencyManagement` sections.
+     *
+     * @param groupId
+     * @param artifactId
+     * @return the scope, or null if the scope of the artifact is not managed.
+     */
+    public String getManagedScope(final String groupId, final String artifactId) {
+        return managedScopes.get(PomModel.getKey(groupId, artifactId));
+    }
+
+    /**
+     * Replace every ${var.value} in the given value with its resolved value.
+     *
+     * @param value
+     * @return the value, or null if any of the variables cannot be resolved.
+     */
+    public String interpolate(final String value) {
+        return interpolate(value, resolvedProperties);
+    }
+
+    static String interpolate(final String value, final Map<String, String> variables) {
+        return interpolate(value, variables, MAX_INTERPOLATION_DEPTH);
+    }
+
+    /**
+     * Replace every ${var.value} in the given value, using the given variables - whose own
+     * values may in turn contain variables, up to the given depth.
+     *
+     * @param value
+     * @param variables
+     * @param depth
+     * @return the value, or null if any of the variables cannot be resolved.
+     */
+    private static String interpolate(final String value, final Map<String, String> variables, final int depth) {
+        if (value == null || !value.contains(VARIABLE_START)) {
+            return value;
+        }
+
+        if (depth < 0) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        int from = 0;
+
+        while (true) {
+            final int start = value.indexOf(VARIABLE_START, from);
+            if (start < 0) {
+                break;
+            }
+
+            final int end = value.indexOf(VARIABLE_END, start);
+            if (end < 0) {
+                break;
+            }
+
+            final String resolved = interpolate(variables.get(value.substring(start + VARIABLE_START.length(), end)),
+                    variables, depth - 1);
+            if (resolved == null) {
+                return null;
+            }
+
+            sb.append(value, from, start).append(resolved);
+            from = end + VARIABLE_END.length();
+        }
+
+        sb.append(value.substring(from));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builds the EffectiveModel of a POM, resolving its whole parent chain (and its imported
+ * BOMs) only once.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Look the model up by its coordinates, in memory first and then under
+ * $HOME/.garvel/cache/models.
+ * 2. On a miss, build the effective model of the parent (recursively, and through the same
+ * caches), and merge the `properties`, the `dependencyManagement` versions and scopes, and
+ * the BOM imports of the POM over those of its parent.
+ * 3. Resolve every property against the merged properties, with the coordinates of the POM
+ * (`project.version` and the like) taking precedence. Then resolve the managed versions.
+ * 4. Add the (resolved) managed versions and the managed scopes of every imported BOM - built recursively, through
+ * the same caches - that the POM does not already manage, in the order of the imports.
+ * 5. Keep the model in memory, and on disk if neither the POM nor any POM it was built from
+ * is a SNAPSHOT.
+ * <p>
+ * Cycles (a POM which is, directly or not, its own parent or BOM) are cut at the repeated POM.
+ */
+public enum EffectiveModelBuilder {
+    INSTANCE;
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+    private static final String MODEL_SUFFIX = ".model";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final ConcurrentMap<String, EffectiveModel> models = new ConcurrentHashMap<>();
+
+    /**
+     * Build the effective model of the given POM.
+     *
+     * @param model
+     * @param retriever used for the parents and BOMs which are not cached
+     * @return
+     * @throws DependencyManagerException
+     */
+    public EffectiveModel build(final PomModel model, final PomRetriever retriever) throws DependencyManagerException {
+        final String groupId = getGroupId(model);
+        final String version = getVersion(model);
+
+        if (groupId == null || model.getArtifactId() == null || version == null) {
+            return build(model, retriever, new HashSet<String>());
+        }
+
+        final String key = getKey(groupId, model.getArtifactId(), version);
+        final EffectiveModel cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Set<String> inProgress = new HashSet<>();
+        inProgress.add(key);
+
+        return store(key, build(model, retriever, inProgress));
+    }
+
+    /**
+     * Get the effective model of the POM with the given coordinates.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @param retriever
+     * @param inProgress the POMs being built, down this chain
+     * @return the model, or null if the POM is not available, or is part of a cycle.
+     * @throws DependencyManagerException
+     */
+    private EffectiveModel get(final String groupId, final String artifactId, final String version,
+                               final PomRetriever retriever, final Set<String> inProgress) throws DependencyManagerException {
+        final String key = getKey(groupId, artifactId, version);
+        final EffectiveModel cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!inProgress.add(key)) {
+            return null;
+        }
+
+        try {
+            final PomModel model = retriever.retrieve(groupId, artifactId, version);
+            if (model == null) {
+                return null;
+            }
+
+            return store(key, build(model, retriever, inProgress));
+        } finally {
+            inProgress.remove(key);
+        }
+    }
+
+    private EffectiveModel build(final PomModel model, final PomRetriever retriever,
+                                 final Set<String> inProgress) throws DependencyManagerException {
+        final Artifact parentCoordinates = model.getParent();
+        final String groupId = getGroupId(model);
+        final String version = getVersion(model);
+
+        boolean immutable = version == null || !version.contains(SNAPSHOT);
+
+        EffectiveModel parent = null;
+        if (parentCoordinates != null && !isCycle(parentCoordinates.getGroupId(), parentCoordinates.getArtifactId(),
+                parentCoordinates.getVersion(), inProgress)) {
+            parent = get(parentCoordinates.getGroupId(), parentCoordinates.getArtifactId(),
+                    parentCoordinates.getVersion(), retriever, inProgress);
+
+            // a missing parent leaves the model incomplete - never persist it
+            immutable &= parent != null && parent.isImmutable();
+        }
+
+        // merge, as written
+        final Map<String, String> properties = new HashMap<>();
+        final Map<String, String> managedVersions = new HashMap<>();
+        final Map<String, String> managedScopes = new HashMap<>();
+        final List<PomModel.PomDependency> imports = new ArrayList<>(model.getImports());
+
+        if (parent != null) {
+            properties.putAll(parent.getProperties());
+            managedVersions.putAll(parent.getManagedVersions());
+            managedScopes.putAll(parent.getManagedScopes());
+
+            final Set<String> imported = new HashSet<>();
+            for (final PomModel.PomDependency bom : model.getImports()) {
+                imported.add(PomModel.getKey(bom.getGroupId(), bom.getArtifactId()));
+            }
+
+            for (final PomModel.PomDependency bom : parent.getImports()) {
+                if (!imported.contains(PomModel.getKey(bom.getGroupId(), bom.getArtifactId()))) {
+                    imports.add(bom);
+                }
+            }
+        }
+
+        properties.putAll(model.getProperties());
+        managedVersions.putAll(model.getManagedVersions());
+        managedScopes.putAll(model.getManagedScopes());
+
+        // resolve, in the context of this POM
+        final Map<String, String> variables = new HashMap<>(properties);
+        addBuiltins(variables, model, groupId, version);
+
+        final Map<String, String> resolvedProperties = new HashMap<>();
+        for (final Map.Entry<String, String> entry : variables.entrySet()) {
+            final String value = EffectiveModel.interpolate(entry.getValue(), variables);
+            if (value != null) {
+                resolvedProperties.put(entry.getKey(), value);
+            }
+        }
+
+        final Map<String, String> resolvedManagedVersions = new HashMap<>();
+        for (final Map.Entry<String, String> entry : managedVersions.entrySet()) {
+            final String value = EffectiveModel.interpolate(entry.getValue(), resolvedProperties);
+            if (value != null && !value.isEmpty()) {
+                resolvedManagedVersions.put(entry.getKey(), value);
+            }
+        }
+
+        for (final PomModel.PomDependency bom : imports) {
+            final String bomGroupId = EffectiveModel.interpolate(bom.getGroupId(), resolvedProperties);
+            final String bomArtifactId = EffectiveModel.interpolate(bom.getArtifactId(), resolvedProperties);
+            final String bomVersion = EffectiveModel.interpolate(bom.getVersion(), resolvedProperties);
+
+            if (isCycle(bomGroupId, bomArtifactId, bomVersion, inProgress)) {
+                continue;
+            }
+
+            final EffectiveModel imported = bomGroupId == null || bomArtifactId == null || bomVersion == null ? null :
+                    get(bomGroupId, bomArtifactId, bomVersion, retriever, inProgress);
+            if (imported == null) {
+                immutable = false;
+                continue;
+            }
+
+            immutable &= imported.isImmutable();
+            for (final Map.Entry<String, String> entry : imported.getResolvedManagedVersions().entrySet()) {
+                if (!resolvedManagedVersions.containsKey(entry.getKey())) {
+                    resolvedManagedVersions.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            for (final Map.Entry<String, String> entry : imported.getManagedScopes().entrySet()) {
+                if (!managedScopes.containsKey(entry.getKey())) {
+                    managedScopes.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return new EffectiveModel(groupId, model.getArtifactId(), version, properties, managedVersions,
+                imports, resolvedProperties, resolvedManagedVersions, managedScopes, immutable);
+    }
+
+    private boolean isCycle(final String groupId, final String artifactId, final String version, final Set<String> inProgress) {
+        return groupId != null && artifactId != null && version != null &&
+                inProgress.contains(getKey(groupId, artifactId, version));
+    }
+
+    /**
+     * The coordinates of the POM (and of its parent), which take precedence over the
+     * properties of the same name.
+     *
+     * @param variables
+     * @param model
+     * @param groupId
+     * @param version
+     */
+    private void addBuiltins(final Map<String, String> variables, final PomModel model,
+                             final String groupId, final String version) {
+        putIfNotNull(variables, version, "project.version", "pom.version", "version");
+        putIfNotNull(variables, groupId, "project.groupId", "pom.groupId", "groupId");
+        putIfNotNull(variables, model.getArtifactId(), "project.artifactId", "pom.artifactId");
+
+        final Artifact parent = model.getParent();
+        if (parent != null) {
+            putIfNotNull(variables, parent.getVersion(), "project.parent.version", "parent.version");
+            putIfNotNull(variables, parent.getGroupId(), "project.parent.groupId", "parent.groupId");
+        }
+    }
+
+    private void putIfNotNull(final Map<String, String> variables, final String value, final String... names) {
+        if (value == null) {
+            return;
+        }
+
+        for (final String name : names) {
+            variables.put(name, value);
+        }
+    }
+
+    private String getGroupId(final PomModel model) {
+        if (model.getGroupId() != null) {
+            return model.getGroupId();
+        }
+
+        return model.getParent() != null ? model.getParent().getGroupId() : null;
+    }
+
+    private String getVersion(final PomModel model) {
+        if (model.getVersion() != null) {
+            return model.getVersion();
+        }
+
+        return model.getParent() != null ? model.getParent().getVersion() : null;
+    }
+
+    private String getKey(final String groupId, final String artifactId, final String version) {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    private EffectiveModel lookup(final String key) {
+        final EffectiveModel cached = models.get(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        final EffectiveModel persisted = read(key);
+        if (persisted != null) {
+            models.put(key, persisted);
+        }
+
+        return persisted;
+    }
+
+    private EffectiveModel store(final String key, final EffectiveModel model) {
+        models.put(key, model);
+
+        if (model.isImmutable()) {
+            write(key, model);
+        }
+
+        return model;
+    }
+
+    /**
+     * The coordinates come from (remote) POMs - keys which do not map to exactly three plain
+     * path segments under the cache are not persisted.
+     *
+     * @param key
+     * @return the path, or null if the key cannot be mapped safely.
+     */
+    private Path getModelPath(final String key) {
+        final String[] parts = key.split(":");
+        if (parts.length != 3) {
+            return null;
+        }
+
+        for (final String part : parts) {
+            if (part.isEmpty() || part.equals(".") || part.equals("..") || part.contains("/") || part.contains("\\")) {
+                return null;
+            }
+        }
+
+        final Path root = Paths.get(GarvelCoreConstants.GARVEL_MODEL_CACHE_DIR).toAbsolutePath().normalize();
+        final Path path = root.resolve(Paths.get(parts[0], parts[1], parts[2] + MODEL_SUFFIX)).normalize();
+
+        return path.startsWith(root) ? path : null;
+    }
+
+    /**
+     * Read a persisted model. Unreadable entries (from an older Garvel, say) are removed.
+     *
+     * @param key
+     * @return the model, or null if there is no valid entry.
+     */
+    private EffectiveModel read(final String key) {
+        final Path path = getModelPath(key);
+        if (path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return (EffectiveModel) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // ignore
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Persist a model - written next to its final location and then atomically renamed, so
+     * that concurrent builds never observe a partially written entry. Failure to do so is
+     * not an error.
+     *
+     * @param key
+     * @param model
+     */
+    private void write(final String key, final EffectiveModel model) {
+        final Path path = getModelPath(key);
+        if (path == null) {
+            return;
+        }
+
+        Path tmp = null;
+
+        try {
+            Files.createDirectories(path.getParent());
+            tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), TMP_SUFFIX);
+
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeObject(model);
+            }
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
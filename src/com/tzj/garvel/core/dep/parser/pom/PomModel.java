@@ -0,0 +1,200 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM file that matter for dependency resolution, as read by the
+ * PomStreamReader: the coordinates of the project and of its parent, the `properties`,
+ * the `dependencyManagement` versions and scopes (and imported BOMs), and the `dependencies`.
+ * <p>
+ * Values are kept as they appear in the file, i.e., versions may still contain
+ * `${...}` references.
+ */
+public class PomModel {
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private Artifact parent;
+    private final Map<String, String> properties;
+    private final Map<String, String> managedVersions;
+    private final Map<String, String> managedScopes;
+    private final List<PomDependency> imports;
+    private final List<PomDependency> dependencies;
+
+    public PomModel() {
+        this.properties = new HashMap<>();
+        this.managedVersions = new HashMap<>();
+        this.managedScopes = new HashMap<>();
+        this.imports = new ArrayList<>();
+        this.dependencies = new ArrayList<>();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(final String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public void setArtifactId(final String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(final String version) {
+        this.version = version;
+    }
+
+    /**
+     * The coordinates of the parent POM.
+     *
+     * @return the parent, or null if there is none.
+     */
+    public Artifact getParent() {
+        return parent;
+    }
+
+    public void setParent(final Artifact parent) {
+        this.parent = parent;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * The versions in the `dependencyManagement` section.
+     *
+     * @param groupId
+     * @param artifactId
+     * @return the version, or null if the artifact is not managed by this POM.
+     */
+    public String getManagedVersion(final String groupId, final String artifactId) {
+        return managedVersions.get(getKey(groupId, artifactId));
+    }
+
+    public void addManagedVersion(final String groupId, final String artifactId, final String version) {
+        final String key = getKey(groupId, artifactId);
+
+        // the first declaration wins
+        if (!managedVersions.containsKey(key)) {
+            managedVersions.put(key, version);
+        }
+    }
+
+    public void addManagedScope(final String groupId, final String artifactId, final String scope) {
+        final String key = getKey(groupId, artifactId);
+
+        // the first declaration wins
+        if (!managedScopes.containsKey(key)) {
+            managedScopes.put(key, scope);
+        }
+    }
+
+    /**
+     * The scopes in the `dependencyManagement` section, keyed by `groupId:artifactId`.
+     *
+     * @return
+     */
+    public Map<String, String> getManagedScopes() {
+        return managedScopes;
+    }
+
+    /**
+     * All the `dependencyManagement` versions, keyed by `groupId:artifactId`.
+     *
+     * @return
+     */
+    public Map<String, String> getManagedVersions() {
+        return managedVersions;
+    }
+
+    /**
+     * The BOMs imported into the `dependencyManagement` section (`import` scope, `pom` type),
+     * in the order of declaration.
+     *
+     * @return
+     */
+    public List<PomDependency> getImports() {
+        return imports;
+    }
+
+    public List<PomDependency> getDependencies() {
+        return dependencies;
+    }
+
+    static String getKey(final String groupId, final String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    /**
+     * A `dependency` entry, with its version and scope as written (null if there was no such tag).
+     */
+    public static class PomDependency implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String scope;
+        private final boolean optional;
+        private final List<String> exclusions;
+
+        public PomDependency(final String groupId, final String artifactId, final String version) {
+            this(groupId, artifactId, version, null, false, new ArrayList<String>());
+        }
+
+        public PomDependency(final String groupId, final String artifactId, final String version,
+                             final String scope, final boolean optional, final List<String> exclusions) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.scope = scope;
+            this.optional = optional;
+            this.exclusions = exclusions;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public boolean isOptional() {
+            return optional;
+        }
+
+        /**
+         * The exclusions, as `groupId:artifactId` (either part may be `*`).
+         *
+         * @return
+         */
+        public List<String> getExclusions() {
+            return exclusions;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+
+/**
+ * Retrieves and reads the POM files the EffectiveModelBuilder needs (parents and imported
+ * BOMs) from the repositories.
+ */
+public interface PomRetriever {
+    /**
+     * Retrieve and read the POM with the given coordinates.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return the POM, or null if it is not available (a SNAPSHOT that could not be retrieved, say).
+     * @throws DependencyManagerException
+     */
+    PomModel retrieve(final String groupId, final String artifactId, final String version) throws DependencyManagerException;
+}
@@ -0,0 +1,337 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.parser.DependencyParserConstants;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a PomModel from a POM file in a single forward pass over an XMLStreamReader,
+ * without building a DOM.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Move to the `project` element.
+ * 2. For each child of `project`, read `groupId`, `artifactId`, `version`, `parent`,
+ * `properties`, `dependencyManagement`, and `dependencies` into the model, and skip
+ * everything else (`build`, `profiles`, `reporting`, and so on) without looking at it.
+ * 3. Within the dependencies, only the coordinates, the scope, the type (which marks an
+ * imported BOM), `optional`, and the `exclusions` are read - everything else is skipped.
+ * <p>
+ * The XMLInputFactory is created (and configured) once per thread, and reused for every
+ * file. DTDs and external entities are not processed.
+ */
+public class PomStreamReader {
+    private static final String DEPENDENCY = "dependency";
+
+    private static final ThreadLocal<XMLInputFactory> FACTORIES = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            return factory;
+        }
+    };
+
+    private PomStreamReader() {
+    }
+
+    /**
+     * Read the given POM file.
+     *
+     * @param pomPath
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException if the file is not well-formed, or is not a POM.
+     */
+    public static PomModel read(final Path pomPath) throws IOException, XMLStreamException {
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(pomPath))) {
+            final XMLStreamReader reader = FACTORIES.get().createXMLStreamReader(in);
+            try {
+                return read(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static PomModel read(final XMLStreamReader reader) throws XMLStreamException {
+        if (!nextElement(reader) || !DependencyParserConstants.PROJECT.equals(reader.getLocalName())) {
+            throw new XMLStreamException("not a POM file: missing the `project` element", reader.getLocation());
+        }
+
+        final PomModel model = new PomModel();
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case DependencyParserConstants.GROUPID:
+                    model.setGroupId(readText(reader));
+                    break;
+                case DependencyParserConstants.ARTIFACTID:
+                    model.setArtifactId(readText(reader));
+                    break;
+                case DependencyParserConstants.VERSION:
+                    model.setVersion(readText(reader));
+                    break;
+                case DependencyParserConstants.PARENT:
+                    model.setParent(readParent(reader));
+                    break;
+                case DependencyParserConstants.PROPERTIES:
+                    while (nextChild(reader)) {
+                        model.getProperties().put(reader.getLocalName(), readText(reader));
+                    }
+                    break;
+                case DependencyParserConstants.DEPENDENCY_MANAGEMENT:
+                    readDependencyManagement(reader, model);
+                    break;
+                case DependencyParserConstants.DEPENDENCIES:
+                    readDependencies(reader, model, false);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        return model;
+    }
+
+    private static Artifact readParent(final XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case DependencyParserConstants.GROUPID:
+                    groupId = readText(reader);
+                    break;
+                case DependencyParserConstants.ARTIFACTID:
+                    artifactId = readText(reader);
+                    break;
+                case DependencyParserConstants.VERSION:
+                    version = readText(reader);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        if (groupId == null || artifactId == null || version == null) {
+            return null;
+        }
+
+        return new Artifact(groupId, artifactId, version);
+    }
+
+    private static void readDependencyManagement(final XMLStreamReader reader, final PomModel model) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (DependencyParserConstants.DEPENDENCIES.equals(reader.getLocalName())) {
+                readDependencies(reader, model, true);
+            } else {
+                skip(reader);
+            }
+        }
+    }
+
+    private static void readDependencies(final XMLStreamReader reader, final PomModel model, final boolean managed) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (!DEPENDENCY.equals(reader.getLocalName())) {
+                skip(reader);
+                continue;
+            }
+
+            String groupId = null;
+            String artifactId = null;
+            String version = null;
+            String scope = null;
+            String type = null;
+            boolean optional = false;
+            final List<String> exclusions = new ArrayList<>();
+
+            while (nextChild(reader)) {
+                switch (reader.getLocalName()) {
+                    case DependencyParserConstants.GROUPID:
+                        groupId = readText(reader);
+                        break;
+                    case DependencyParserConstants.ARTIFACTID:
+                        artifactId = readText(reader);
+                        break;
+                    case DependencyParserConstants.VERSION:
+                        version = readText(reader);
+                        break;
+                    case DependencyParserConstants.SCOPE:
+                        scope = readText(reader);
+                        break;
+                    case DependencyParserConstants.TYPE:
+                        type = readText(reader);
+                        break;
+                    case DependencyParserConstants.OPTIONAL:
+                        optional = Boolean.parseBoolean(readText(reader));
+                        break;
+                    case DependencyParserConstants.EXCLUSIONS:
+                        readExclusions(reader, exclusions);
+                        break;
+                    default:
+                        skip(reader);
+                        break;
+                }
+            }
+
+            if (groupId == null || artifactId == null) {
+                continue;
+            }
+
+            if (managed) {
+                if (DependencyParserConstants.IMPORT.equals(scope) && DependencyParserConstants.POM_TYPE.equals(type)) {
+                    if (version != null) {
+                        model.getImports().add(new PomModel.PomDependency(groupId, artifactId, version));
+                    }
+                } else {
+                    if (version != null) {
+                        model.addManagedVersion(groupId, artifactId, version);
+                    }
+                    if (scope != null) {
+                        model.addManagedScope(groupId, artifactId, scope);
+                    }
+                }
+            } else {
+                model.getDependencies().add(new PomModel.PomDependency(groupId, artifactId, version, scope, optional, exclusions));
+            }
+        }
+    }
+
+    private static void readExclusions(final XMLStreamReader reader, final List<String> exclusions) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (!DependencyParserConstants.EXCLUSION.equals(reader.getLocalName())) {
+                skip(reader);
+                continue;
+            }
+
+            String groupId = null;
+            String artifactId = null;
+
+            while (nextChild(reader)) {
+                switch (reader.getLocalName()) {
+                    case DependencyParserConstants.GROUPID:
+                        groupId = readText(reader);
+                        break;
+                    case DependencyParserConstants.ARTIFACTID:
+                        artifactId = readText(reader);
+                        break;
+                    default:
+                        skip(reader);
+                        break;
+                }
+            }
+
+            if (groupId != null && artifactId != null) {
+                exclusions.add(groupId + ":" + artifactId);
+            }
+        }
+    }
+
+    /**
+     * Advance to the first element of the document.
+     *
+     * @param reader
+     * @return false if there is none.
+     * @throws XMLStreamException
+     */
+    private static boolean nextElement(final XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Advance to the next child element of the current element.
+     *
+     * @param reader
+     * @return false once the end of the current element has been reached instead.
+     * @throws XMLStreamException
+     */
+    private static boolean nextChild(final XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            final int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Read the (trimmed) text of the current element, and move to its end. The text of
+     * any nested elements is ignored.
+     *
+     * @param reader
+     * @return
+     * @throws XMLStreamException
+     */
+    private static String readText(final XMLStreamReader reader) throws XMLStreamException {
+        final StringBuilder sb = new StringBuilder();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    sb.append(reader.getText());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    skip(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return sb.toString().trim();
+                default:
+                    break;
+            }
+        }
+
+        return sb.toString().trim();
+    }
+
+    /**
+     * Skip the current element, along with everything in it.
+     *
+     * @param reader
+     * @throws XMLStreamException
+     */
+    private static void skip(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0 && reader.hasNext()) {
+            final int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
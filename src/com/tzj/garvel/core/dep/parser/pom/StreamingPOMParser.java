@@ -0,0 +1,188 @@
+package com.tzj.garvel.core.dep.parser.pom;
+
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
+import com.tzj.garvel.core.dep.api.exception.RepositoryLoaderException;
+import com.tzj.garvel.core.dep.api.parser.Dependencies;
+import com.tzj.garvel.core.dep.api.parser.DependencyParser;
+import com.tzj.garvel.core.dep.api.parser.Versions;
+import com.tzj.garvel.core.dep.api.repo.RepositoryConstants;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
+import com.tzj.garvel.core.dep.parser.DependencyParserConstants;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Retrieve the POM file for a particular dependency, and explore its own transitive
+ * dependencies - like the DependencyPOMParser, but reading each POM (and each parent POM)
+ * in a single streaming pass into a PomModel (see PomStreamReader), instead of building
+ * and walking a DOM.
+ * <p>
+ * The parent chain (and the imported BOMs) are resolved through the EffectiveModelBuilder,
+ * which retrieves and merges each of them only once, and caches the result across parses.
+ */
+public class StreamingPOMParser extends DependencyParser implements PomRetriever {
+    private static final String SNAPSHOT = "SNAPSHOT";
+    private final String pomUrl;
+    private final String pomMD5Url;
+    private final String pomSHA1Url;
+    private Dependencies dependencies;
+    private RepositoryLoader repoLoader;
+
+    public StreamingPOMParser(final String pomUrl) {
+        this.pomUrl = pomUrl;
+        this.pomMD5Url = pomUrl + RepositoryConstants.MD5;
+        this.pomSHA1Url = pomUrl + RepositoryConstants.SHA1;
+        this.dependencies = new Dependencies();
+    }
+
+    /**
+     * Parse the contents of the POM file and retrieve the available dependencies.
+     * <p>
+     * Dependency parsing algorithm:
+     * <p>
+     * 1. Read the POM into a PomModel, and get its EffectiveModel.
+     * 2. For each of its dependencies, if the version is given as a ${var.value}, replace
+     * the variable with its resolved value from the effective model.
+     * 3. If the version is missing, take the resolved version from the `dependencyManagement`
+     * tables of the effective model (which include those of the imported BOMs).
+     * 4. Dependencies whose version cannot be resolved are left out, as are `optional` ones, and
+     * those in the `test`, `provided`, and `system` scopes (declared or managed).
+     * 5. The `exclusions` of each dependency are added to its Artifact, for the resolver to
+     * apply to the subtree of that dependency.
+     *
+     * @param repoLoader
+     * @throws DependencyManagerException
+     */
+    @Override
+    public void parse(final RepositoryLoader repoLoader) throws DependencyManagerException {
+        PomModel model = null;
+        try {
+            final Path pomPath = retrieve(DependencyParserConstants.POM, pomUrl, pomMD5Url, pomSHA1Url, isImmutable(pomUrl));
+            model = PomStreamReader.read(pomPath);
+        } catch (IOException | XMLStreamException e) {
+            // @TODO remove this with a robust check
+            if (e.getLocalizedMessage() != null && e.getLocalizedMessage().contains(SNAPSHOT)) {
+                return;
+            }
+
+            throw new DependencyManagerException(String.format("Failed to parse the POM file at %s\n", pomUrl));
+        }
+
+        this.repoLoader = repoLoader;
+        final EffectiveModel effectiveModel = EffectiveModelBuilder.INSTANCE.build(model, this);
+
+        for (final PomModel.PomDependency dependency : model.getDependencies()) {
+            // never on the classpath of the dependent project - do not explore them at all
+            if (dependency.isOptional() || !isTransitive(getScope(effectiveModel, dependency))) {
+                continue;
+            }
+
+            String version = dependency.getVersion();
+
+            if (version == null) {
+                version = effectiveModel.getManagedVersion(dependency.getGroupId(), dependency.getArtifactId());
+            } else {
+                version = effectiveModel.interpolate(version);
+            }
+
+            if (version != null && !version.isEmpty()) {
+                final Artifact artifact = new Artifact(dependency.getGroupId(), dependency.getArtifactId(), version);
+                for (final String exclusion : dependency.getExclusions()) {
+                    final int separator = exclusion.indexOf(':');
+                    artifact.addExclusion(exclusion.substring(0, separator), exclusion.substring(separator + 1));
+                }
+
+                dependencies.addDependency(artifact);
+            }
+        }
+    }
+
+    /**
+     * The scope of the given dependency, as declared, or as managed by the POM (or its
+     * ancestors, or its BOMs).
+     *
+     * @param effectiveModel
+     * @param dependency
+     * @return the scope, or null for the default (`compile`) scope.
+     */
+    private String getScope(final EffectiveModel effectiveModel, final PomModel.PomDependency dependency) {
+        if (dependency.getScope() != null) {
+            return dependency.getScope();
+        }
+
+        return effectiveModel.getManagedScope(dependency.getGroupId(), dependency.getArtifactId());
+    }
+
+    /**
+     * Dependencies in the `test`, `provided`, and `system` scopes (as well as the `import`
+     * pseudo-scope) are not inherited by the dependent project.
+     *
+     * @param scope
+     * @return
+     */
+    private boolean isTransitive(final String scope) {
+        if (scope == null) {
+            return true;
+        }
+
+        switch (scope) {
+            case DependencyParserConstants.TEST:
+            case DependencyParserConstants.PROVIDED:
+            case DependencyParserConstants.SYSTEM:
+            case DependencyParserConstants.IMPORT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Retrieve and read the POM with the given coordinates (a parent or an imported BOM).
+     *
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return the POM, or null if it is a SNAPSHOT that could not be retrieved.
+     * @throws DependencyManagerException
+     */
+    @Override
+    public PomModel retrieve(final String groupId, final String artifactId, final String version) throws DependencyManagerException {
+        try {
+            final String url = repoLoader.constructPOMUrl(groupId, artifactId, version);
+            final Path path = retrieve(DependencyParserConstants.POM, url,
+                    url + RepositoryConstants.MD5, url + RepositoryConstants.SHA1, isImmutable(url));
+
+            return PomStreamReader.read(path);
+        } catch (RepositoryLoaderException | IOException | XMLStreamException e) {
+            // @TODO remove this with fallback schemes
+            if (e.getLocalizedMessage() != null && e.getLocalizedMessage().contains(SNAPSHOT)) {
+                return null;
+            }
+
+            throw new DependencyManagerException(String.format("Failed to resolve the parent POM file: %s\n", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * POMs of released versions never change once published. SNAPSHOT POMs do.
+     *
+     * @param url
+     * @return
+     */
+    private boolean isImmutable(final String url) {
+        return !url.contains(SNAPSHOT);
+    }
+
+    @Override
+    public Versions getVersions() {
+        throw new UnsupportedOperationException("getVersion is not supported by StreamingPOMParser");
+    }
+
+    @Override
+    public Dependencies getDependencies() {
+        return dependencies;
+    }
+}
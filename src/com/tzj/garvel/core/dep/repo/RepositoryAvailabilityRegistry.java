@@ -0,0 +1,179 @@
+package com.tzj.garvel.core.dep.repo;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.dep.api.repo.RepositoryKind;
+import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
+
+import java.util.concurrent.*;
+
+/**
+ * Keeps track of the availability of the remote repositories, shared by all
+ * the loaders in the chain.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. The first query for a repository probes it synchronously. Concurrent queries
+ * for the same repository wait on that same probe instead of sending their own.
+ * 2. The result is cached. Queries within GARVEL_REPOSITORY_STATUS_TTL milliseconds
+ * of the last probe are answered from memory.
+ * 3. Queries after that are still answered from memory with the last known status,
+ * while a single re-probe runs in the background and refreshes the entry.
+ * <p>
+ * A dead repository therefore costs at most one connection timeout per session
+ * on the calling thread.
+ */
+public enum RepositoryAvailabilityRegistry {
+    INSTANCE;
+
+    private final ConcurrentMap<RepositoryKind, RepositoryStatus> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<RepositoryKind, FutureTask<RepositoryStatus>> probes = new ConcurrentHashMap<>();
+
+    private ExecutorService prober;
+
+    /**
+     * Check whether the given repository is (believed to be) available.
+     *
+     * @param kind
+     * @return
+     */
+    public boolean isAvailable(final RepositoryKind kind) {
+        final RepositoryStatus status = statuses.get(kind);
+
+        if (status == null) {
+            return awaitProbe(kind);
+        }
+
+        if (System.currentTimeMillis() - status.getCheckedAt() > GarvelCoreConstants.GARVEL_REPOSITORY_STATUS_TTL) {
+            final FutureTask<RepositoryStatus> probe = startProbe(kind);
+            if (probe != null) {
+                getProber().execute(probe);
+            }
+        }
+
+        return status.isAvailable();
+    }
+
+    /**
+     * Forget everything known about the repositories.
+     */
+    public void clear() {
+        statuses.clear();
+    }
+
+    /**
+     * Stop any background re-probing.
+     */
+    public synchronized void shutdown() {
+        if (prober != null) {
+            prober.shutdownNow();
+            prober = null;
+        }
+    }
+
+    private boolean awaitProbe(final RepositoryKind kind) {
+        FutureTask<RepositoryStatus> probe = startProbe(kind);
+
+        if (probe != null) {
+            // we own the probe - run it on this thread
+            probe.run();
+        } else {
+            probe = probes.get(kind);
+
+            // a background probe may still be queued behind a busy I/O pool - run it here
+            // rather than wait on it (this is a no-op if it is already running, or done)
+            if (probe != null) {
+                probe.run();
+            }
+        }
+
+        if (probe == null) {
+            // the probe finished in the meantime
+            final RepositoryStatus status = statuses.get(kind);
+            return status != null && status.isAvailable();
+        }
+
+        try {
+            return probe.get().isAvailable();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Register a new probe for the given repository.
+     *
+     * @param kind
+     * @return the probe to run, or null if a probe for this repository is already in flight.
+     */
+    private FutureTask<RepositoryStatus> startProbe(final RepositoryKind kind) {
+        final FutureTask<RepositoryStatus> probe = new FutureTask<>(new RepositoryProbe(kind));
+
+        if (probes.putIfAbsent(kind, probe) != null) {
+            return null;
+        }
+
+        return probe;
+    }
+
+    private synchronized ExecutorService getProber() {
+        if (prober == null || prober.isShutdown()) {
+            final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+            prober = concurrency.newLimitedExecutor("repository-prober", concurrency.getIOExecutor(), 1);
+        }
+
+        return prober;
+    }
+
+    /**
+     * Sends the HEAD request to the repository root, and publishes the result.
+     */
+    private class RepositoryProbe implements Callable<RepositoryStatus> {
+        private final RepositoryKind kind;
+
+        RepositoryProbe(final RepositoryKind kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public RepositoryStatus call() {
+            boolean available = false;
+            try {
+                available = CoreModuleLoader.INSTANCE.getNetworkFramework().checkUrlAvailable(kind.getUrl());
+            } catch (NetworkServiceException e) {
+                available = false;
+            }
+
+            final RepositoryStatus status = new RepositoryStatus(available, System.currentTimeMillis());
+            try {
+                statuses.put(kind, status);
+            } finally {
+                probes.remove(kind);
+            }
+
+            return status;
+        }
+    }
+
+    private static class RepositoryStatus {
+        private final boolean available;
+        private final long checkedAt;
+
+        RepositoryStatus(final boolean available, final long checkedAt) {
+            this.available = available;
+            this.checkedAt = checkedAt;
+        }
+
+        boolean isAvailable() {
+            return available;
+        }
+
+        long getCheckedAt() {
+            return checkedAt;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.tzj.garvel.core.dep.resolver;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+import com.tzj.garvel.core.dep.DependencyGraph;
+import com.tzj.garvel.core.dep.api.Artifact;
+import com.tzj.garvel.core.dep.api.exception.DependencyResolverException;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoader;
+import com.tzj.garvel.core.dep.api.repo.RepositoryLoaderFactory;
+import com.tzj.garvel.core.dep.graph.GraphIdGenerator;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A resolver that fetches and parses the POM files of transitive dependencies
+ * concurrently on a bounded pool of worker threads.
+ * <p>
+ * Only the network and parsing work is done in parallel. The Dependency Graph itself
+ * is still updated by the calling thread in the same depth-first order as the
+ * SimpleDependencyResolverStrategy, so the vertex ids, and therefore the topological
+ * ordering of the artifacts, are identical to those produced by the simple resolver.
+ * <p>
+ * The pool size can be changed with the `garvel.resolver.threads` system property, and the
+ * time the resolver waits for any single POM with the `garvel.resolver.timeout` one (in seconds).
+ */
+public class ConcurrentDependencyResolverStrategy extends SimpleDependencyResolverStrategy {
+    private static final String POOL_SIZE_PROPERTY = "garvel.resolver.threads";
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    private final int poolSize;
+
+    public ConcurrentDependencyResolverStrategy() {
+        this(Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE));
+    }
+
+    public ConcurrentDependencyResolverStrategy(final int poolSize) {
+        this.poolSize = poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * Add the project dependencies as vertices of the dependency graph, and update the mapping of their ids to their
+     * Artifact objects.
+     * <p>
+     * Algorithm:
+     * <p>
+     * 1. Submit a fetch for every project dependency.
+     * 2. For each project dependency (in declaration order), wait for its fetch to complete,
+     * submit fetches for all of its children, and then descend into the children in order.
+     * 3. Each artifact is fetched at most once per run - repeated artifacts reuse the
+     * result of the first fetch, including when they are explored again with fewer
+     * exclusions (see getReexploreExclusions).
+     *
+     * @param g
+     * @param deps
+     * @param gen
+     */
+    @Override
+    protected void updateDependencyGraphWithProjectDependencies(final DependencyGraph g, final List<Artifact> deps, final GraphIdGenerator gen) throws DependencyResolverException {
+        final RepositoryLoader repoLoader = RepositoryLoaderFactory.getLoader();
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        final ExecutorService pool = concurrency.newLimitedExecutor("resolver", concurrency.getIOExecutor(), poolSize);
+
+        // only ever accessed by the calling thread
+        final Map<Artifact, Future<List<Artifact>>> fetches = new HashMap<>();
+        final Map<Integer, Set<String>> explored = new HashMap<>();
+
+        try {
+            prefetch(pool, fetches, deps, repoLoader);
+
+            for (final Artifact dep : deps) {
+                // a project dependency may already have been pulled in transitively
+                final Integer existingId = g.getVertexId(dep);
+                if (existingId != null) {
+                    final Set<String> reexploreExclusions = getReexploreExclusions(explored, existingId, dep.getExclusions());
+                    if (reexploreExclusions != null) {
+                        updateTransitiveDependencies(g, dep, gen, repoLoader, existingId, reexploreExclusions,
+                                explored, pool, fetches);
+                    }
+                    continue;
+                }
+
+                final int id = gen.getId();
+                g.getG().addVertex(id);
+                g.addArtifactMapping(id, dep);
+                explored.put(id, dep.getExclusions());
+
+                updateTransitiveDependencies(g, dep, gen, repoLoader, id, dep.getExclusions(), explored, pool, fetches);
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Resolving dependency %s... DONE", dep.toString());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Merge the (possibly already fetched) dependencies of the given artifact into the
+     * Dependency Graph, kicking off the fetches for the next level before descending.
+     *
+     * @param g
+     * @param dep
+     * @param gen
+     * @param repoLoader
+     * @param srcId
+     * @param exclusions the exclusions on the path to this dependency, its own included
+     * @param explored   the exclusions each vertex has been explored with
+     * @param pool
+     * @param fetches
+     * @throws DependencyResolverException
+     */
+    private void updateTransitiveDependencies(final DependencyGraph g, final Artifact dep,
+                                              final GraphIdGenerator gen, final RepositoryLoader repoLoader,
+                                              final int srcId, final Set<String> exclusions,
+                                              final Map<Integer, Set<String>> explored, final ExecutorService pool,
+                                              final Map<Artifact, Future<List<Artifact>>> fetches) throws DependencyResolverException {
+        final List<Artifact> fetched = await(fetches.get(dep), dep);
+        if (fetched.isEmpty()) {
+            return;
+        }
+
+        // prune the excluded dependencies before fetching anything for them
+        final List<Artifact> transDeps = new ArrayList<>(fetched.size());
+        for (final Artifact transDep : fetched) {
+            if (!transDep.isExcludedBy(exclusions)) {
+                transDeps.add(transDep);
+            }
+        }
+
+        prefetch(pool, fetches, transDeps, repoLoader);
+
+        for (final Artifact transDep : transDeps) {
+            final Set<String> transExclusions = getExclusions(exclusions, transDep);
+
+            // already resolved elsewhere in the graph - share the vertex
+            final Integer existingId = g.getVertexId(transDep);
+            if (existingId != null) {
+                g.getG().addEdge(srcId, existingId);
+
+                final Set<String> reexploreExclusions = getReexploreExclusions(explored, existingId, transExclusions);
+                if (reexploreExclusions != null) {
+                    updateTransitiveDependencies(g, transDep, gen, repoLoader, existingId, reexploreExclusions,
+                            explored, pool, fetches);
+                }
+                continue;
+            }
+
+            final int id = gen.getId();
+            g.getG().addVertex(id);
+            g.getG().addEdge(srcId, id);
+            g.addArtifactMapping(id, transDep);
+            explored.put(id, transExclusions);
+
+            updateTransitiveDependencies(g, transDep, gen, repoLoader, id, transExclusions, explored, pool, fetches);
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Resolving dependency %s... DONE", transDep.toString());
+        }
+    }
+
+    /**
+     * Submit a fetch for each artifact that has not been fetched (or is not being fetched) yet.
+     *
+     * @param pool
+     * @param fetches
+     * @param deps
+     * @param repoLoader
+     */
+    private void prefetch(final ExecutorService pool, final Map<Artifact, Future<List<Artifact>>> fetches,
+                          final List<Artifact> deps, final RepositoryLoader repoLoader) {
+        for (final Artifact dep : deps) {
+            if (!fetches.containsKey(dep)) {
+                fetches.put(dep, pool.submit(new TransitiveDependenciesFetch(dep, repoLoader)));
+            }
+        }
+    }
+
+    private List<Artifact> await(final Future<List<Artifact>> fetch, final Artifact dep) throws DependencyResolverException {
+        try {
+            return fetch.get(GarvelCoreConstants.GARVEL_RESOLVER_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            fetch.cancel(true);
+            throw new DependencyResolverException(String.format("resolver timed out after %ds waiting for the POM of %s\n",
+                    GarvelCoreConstants.GARVEL_RESOLVER_TIMEOUT / 1000, dep.toString()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyResolverException(String.format("resolver interrupted while resolving %s\n", dep.toString()));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof DependencyResolverException) {
+                throw (DependencyResolverException) cause;
+            }
+
+            throw new DependencyResolverException(String.format("resolver failed for %s: %s\n", dep.toString(), cause.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Fetch the direct dependencies of a single artifact.
+     */
+    private class TransitiveDependenciesFetch implements Callable<List<Artifact>> {
+        private final Artifact dep;
+        private final RepositoryLoader repoLoader;
+
+        TransitiveDependenciesFetch(final Artifact dep, final RepositoryLoader repoLoader) {
+            this.dep = dep;
+            this.repoLoader = repoLoader;
+        }
+
+        @Override
+        public List<Artifact> call() throws DependencyResolverException {
+            return fetchTransitiveDependencies(dep, repoLoader);
+        }
+    }
+}
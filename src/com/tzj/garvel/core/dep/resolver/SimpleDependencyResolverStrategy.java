@@ -1,15 +1,11 @@
 package com.tzj.garvel.core.dep.resolver;
 
-import com.tzj.garvel.common.spi.core.CoreServiceLoader;
-import com.tzj.garvel.common.spi.core.command.CommandException;
-import com.tzj.garvel.common.spi.core.command.CommandType;
-import com.tzj.garvel.common.spi.core.command.param.DepCommandParams;
-import com.tzj.garvel.common.spi.core.command.result.DepCommandResult;
 import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.GarvelCoreConstants;
 import com.tzj.garvel.core.cache.api.DependenciesEntry;
 import com.tzj.garvel.core.dep.DependencyGraph;
+import com.tzj.garvel.core.dep.DependencyGraphCodec;
 import com.tzj.garvel.core.dep.api.Artifact;
 import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
 import com.tzj.garvel.core.dep.api.exception.DependencyResolverException;
@@ -27,9 +23,11 @@ import com.tzj.garvel.core.dep.api.resolver.DependencyResolverStrategy;
 import com.tzj.garvel.core.dep.graph.Algorithms;
 import com.tzj.garvel.core.dep.graph.GraphCollectArtifactsCallback;
 import com.tzj.garvel.core.dep.graph.GraphIdGenerator;
-import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
 import com.tzj.garvel.core.parser.api.visitor.semver.SemverKey;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -37,8 +35,15 @@ import java.util.*;
  * This resolver does not handle cyclic dependencies. In addition,
  * for version conflicts, it will return the first suitable entry that it finds,
  * leaving any potential errors to the user to handle.
+ * <p>
+ * The POM parser leaves out `optional` dependencies, and those in the `test`, `provided`,
+ * and `system` scopes, and this resolver applies the `exclusions` of each dependency to its
+ * subtree - so that none of these are ever fetched. An artifact is only left out if every path
+ * to it excludes it.
  */
 public class SimpleDependencyResolverStrategy implements DependencyResolverStrategy {
+    private static final String PROFILE_CATEGORY = "resolver";
+
     /**
      * 1. From the list of dependencies, construct the Dependency Graph (DG).
      * 2. Analyse the DG by checking to ensure no cyclic dependencies.
@@ -102,6 +107,7 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
      *
      * @return
      */
+    @SuppressWarnings("try")
     private List<Artifact> createAndAnalyse() throws DependencyResolverException {
         List<Artifact> artifactsOrdering = new ArrayList<>();
 
@@ -115,55 +121,48 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
         // validate that the artifacts and the versions specified are correct.
         // Once the project dependencies have been validate, all subsequent
         // dependencies should, in theory, be correct.
-        validateProjectDependencies(sanitizedProjectDependencies);
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "validate-dependencies")) {
+            validateProjectDependencies(sanitizedProjectDependencies);
+        }
 
         // add the project dependencies as vertices of the graph. and
         // update the dependency graph with the transitive dependencies of
         // each project dependency
         final GraphIdGenerator idGenerator = new GraphIdGenerator();
-        updateDependencyGraphWithProjectDependencies(dependencyGraph, sanitizedProjectDependencies, idGenerator);
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "resolve-graph")) {
+            updateDependencyGraphWithProjectDependencies(dependencyGraph, sanitizedProjectDependencies, idGenerator);
+        }
 
         // analyse using Topological Sort - artifactsOrdering now
         // contains the correct ordering of dependencies.
-        final List<Artifact> finalArtifactsOrdering = doTopologicalAnalysis(dependencyGraph, artifactsOrdering);
+        final List<Artifact> finalArtifactsOrdering;
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "topological-sort")) {
+            finalArtifactsOrdering = doTopologicalAnalysis(dependencyGraph, artifactsOrdering);
+        }
 
         // persist the dependency graph
-        store(dependencyGraph);
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "store-graph")) {
+            store(dependencyGraph);
+        }
 
         return finalArtifactsOrdering;
     }
 
     /**
      * This is the most important step in this whole process. Validate, for each dependency,
-     * that the artifact and the version specified thereof are correct. Fail fast if any
+     * that the artifact and the version specified thereof are correct. Fail if any
      * dependency is invalid.
+     * <p>
+     * The dependencies are validated as a batch by the Dependency Manager, which fetches the
+     * metadata of all of them concurrently.
      *
      * @param projectDependencies
      */
     private void validateProjectDependencies(final List<Artifact> projectDependencies) throws DependencyResolverException {
-        for (final Artifact dependency : projectDependencies) {
-            final String dependencyName = dependency.getGroupId() + "/" + dependency.getArtifactId();
-            final DepCommandParams params = new DepCommandParams(dependency.getGroupId(),
-                    dependency.getArtifactId(), dependency.getVersion(), false);
-
-            try {
-                final DepCommandResult projectDepResult =
-                        (DepCommandResult) CoreServiceLoader.INSTANCE.getCoreService().runCommand(CommandType.DEP, params);
-
-                if (projectDepResult != null) {
-                    final String versionsString = projectDepResult.getVersions();
-
-                    if (!versionsString.contains(dependency.getVersion())) {
-                        throw new DependencyResolverException(String.format("The version (%s) specified for artifact (%s) is invalid.\n" +
-                                        "Please run the `garvel dep` command to see the full list of valid versions for a valid artifact\n",
-                                dependency.getVersion(), dependencyName));
-                    }
-                }
-            } catch (CommandException e) {
-                throw new DependencyResolverException(String.format("Either the artifact (%s) and/or the version (%s) is invalid.\n" +
-                                "Please run the `garvel dep` command to see the full list of valid versions for a valid artifact\n",
-                        dependencyName, dependency.getVersion()));
-            }
+        try {
+            CoreModuleLoader.INSTANCE.getDependencyManager().validateVersions(projectDependencies);
+        } catch (DependencyManagerException e) {
+            throw new DependencyResolverException(e.getErrorString());
         }
     }
 
@@ -175,21 +174,133 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
      * <p>
      * 2. For each POM dependency, construct its POM URL and query for the POM, and download its own dependencies.
      * <p>
+     * 3. Dependencies excluded by the dependency itself, or by any dependency on the path to it, are pruned
+     * (along with their whole subtree) before their POMs are fetched.
+     * <p>
      * 4. This process is carried out for each dependency till such time as no POM is found and/or no further
      * dependencies are found.
      * <p>
      * 5. The updated dependency graph is now ready for further analysis.
+     * <p>
+     * An artifact reached through several paths is explored again whenever a path excludes less
+     * than the ones before it (see getReexploreExclusions).
      *
      * @param g
      * @param dep
      * @param gen
-     * @parama gen
-     * @parama repoLoader
-     * @parama srcId
+     * @param repoLoader
+     * @param srcId
+     * @param exclusions the exclusions on the path to this dependency, its own included
+     * @param explored   the exclusions each vertex has been explored with
      */
     private void updateTransitiveDependencies(final DependencyGraph g, final Artifact dep,
                                               final GraphIdGenerator gen, final RepositoryLoader repoLoader,
-                                              int srcId) throws DependencyResolverException {
+                                              int srcId, final Set<String> exclusions,
+                                              final Map<Integer, Set<String>> explored) throws DependencyResolverException {
+        final List<Artifact> transDeps = fetchTransitiveDependencies(dep, repoLoader);
+        if (transDeps.isEmpty()) {
+            return;
+        }
+
+        for (final Artifact transDep : transDeps) {
+            if (transDep.isExcludedBy(exclusions)) {
+                continue;
+            }
+
+            final Set<String> transExclusions = getExclusions(exclusions, transDep);
+
+            // already resolved elsewhere in the graph - share the vertex
+            final Integer existingId = g.getVertexId(transDep);
+            if (existingId != null) {
+                g.getG().addEdge(srcId, existingId);
+
+                final Set<String> reexploreExclusions = getReexploreExclusions(explored, existingId, transExclusions);
+                if (reexploreExclusions != null) {
+                    updateTransitiveDependencies(g, transDep, gen, repoLoader, existingId, reexploreExclusions, explored);
+                }
+                continue;
+            }
+
+            final int id = gen.getId();
+            g.getG().addVertex(id);
+            g.getG().addEdge(srcId, id);
+            g.addArtifactMapping(id, transDep);
+            explored.put(id, transExclusions);
+
+            updateTransitiveDependencies(g, transDep, gen, repoLoader, id, transExclusions, explored);
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Resolving dependency %s... DONE", transDep.toString());
+        }
+    }
+
+    /**
+     * The exclusions for the subtree of the given dependency: those on the path to it, and its own.
+     *
+     * @param pathExclusions
+     * @param dep
+     * @return
+     */
+    protected Set<String> getExclusions(final Set<String> pathExclusions, final Artifact dep) {
+        if (dep.getExclusions().isEmpty()) {
+            return pathExclusions;
+        }
+
+        if (pathExclusions.isEmpty()) {
+            return dep.getExclusions();
+        }
+
+        final Set<String> exclusions = new HashSet<>(pathExclusions);
+        exclusions.addAll(dep.getExclusions());
+
+        return exclusions;
+    }
+
+    /**
+     * Exclusions must never remove an artifact that another path brings in: a vertex reached again
+     * with exclusions which do not cover those it was explored with must be explored again, with
+     * the intersection of the two - which only adds to its subtree.
+     * <p>
+     * Since the exclusions of a vertex can only shrink, every vertex is explored a bounded number
+     * of times (and cycles terminate).
+     *
+     * @param explored   the exclusions each vertex has been explored with, updated in place
+     * @param id
+     * @param exclusions the exclusions of the new path to the vertex, its own included
+     * @return the exclusions to explore the vertex again with, or null if it need not be.
+     */
+    protected Set<String> getReexploreExclusions(final Map<Integer, Set<String>> explored, final int id,
+                                                 final Set<String> exclusions) {
+        final Set<String> previous = explored.get(id);
+        if (previous == null || exclusions.containsAll(previous)) {
+            return null;
+        }
+
+        final Set<String> intersection = new HashSet<>(previous);
+        intersection.retainAll(exclusions);
+        explored.put(id, intersection);
+
+        return intersection;
+    }
+
+    /**
+     * Download and parse the POM file of the given dependency, and return its direct dependencies.
+     * A missing or empty `dependencies` section (as well as a SNAPSHOT POM that could not be retrieved)
+     * yields an empty list.
+     * <p>
+     * This does not touch the Dependency Graph, and is therefore safe to call from multiple threads.
+     *
+     * @param dep
+     * @param repoLoader
+     * @return
+     * @throws DependencyResolverException
+     */
+    @SuppressWarnings("try")
+    protected List<Artifact> fetchTransitiveDependencies(final Artifact dep, final RepositoryLoader repoLoader) throws DependencyResolverException {
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "fetch-pom", dep.toString())) {
+            return fetchPOMDependencies(dep, repoLoader);
+        }
+    }
+
+    private List<Artifact> fetchPOMDependencies(final Artifact dep, final RepositoryLoader repoLoader) throws DependencyResolverException {
         String pomUrl = null;
 
         try {
@@ -200,12 +311,12 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
 
         DependencyParser depParser = null;
         try {
-            depParser = DependencyParserFactory.getParser(DependencyParserKind.POM, pomUrl);
+            depParser = DependencyParserFactory.getParser(DependencyParserKind.STREAMING_POM, pomUrl);
             depParser.parse(repoLoader);
         } catch (DependencyManagerException e) {
             // @TODO remove this with fallback schemes
             if (e.getLocalizedMessage().contains("SNAPSHOT")) {
-                return;
+                return Collections.emptyList();
             }
 
             throw new DependencyResolverException(String.format("resolver failed: %s\n", e.getErrorString()));
@@ -213,24 +324,11 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
 
         final Dependencies transDepsWrapper = depParser.getDependencies();
 
-        if (transDepsWrapper == null) {
-            return;
+        if (transDepsWrapper == null || transDepsWrapper.getDependencies() == null) {
+            return Collections.emptyList();
         }
 
-        final List<Artifact> transDeps = transDepsWrapper.getDependencies();
-        if (transDeps == null || transDeps.isEmpty()) {
-            return;
-        }
-
-        for (final Artifact transDep : transDeps) {
-            final int id = gen.getId();
-            g.getG().addVertex(id);
-            g.getG().addEdge(srcId, id);
-            g.getArtifactMapping().put(id, transDep);
-
-            updateTransitiveDependencies(g, transDep, gen, repoLoader, id);
-            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Resolving dependency %s... DONE", transDep.toString());
-        }
+        return transDepsWrapper.getDependencies();
     }
 
     /**
@@ -241,17 +339,29 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
      * @param deps
      * @param gen
      */
-    private void updateDependencyGraphWithProjectDependencies(final DependencyGraph g, final List<Artifact> deps, final GraphIdGenerator gen) throws DependencyResolverException {
+    protected void updateDependencyGraphWithProjectDependencies(final DependencyGraph g, final List<Artifact> deps, final GraphIdGenerator gen) throws DependencyResolverException {
         final RepositoryLoader repoLoader = RepositoryLoaderFactory.getLoader();
+        final Map<Integer, Set<String>> explored = new HashMap<>();
 
         for (final Artifact dep : deps) {
+            // a project dependency may already have been pulled in transitively
+            final Integer existingId = g.getVertexId(dep);
+            if (existingId != null) {
+                final Set<String> reexploreExclusions = getReexploreExclusions(explored, existingId, dep.getExclusions());
+                if (reexploreExclusions != null) {
+                    updateTransitiveDependencies(g, dep, gen, repoLoader, existingId, reexploreExclusions, explored);
+                }
+                continue;
+            }
+
             final int id = gen.getId();
             g.getG().addVertex(id);
-            g.getArtifactMapping().put(id, dep);
+            g.addArtifactMapping(id, dep);
+            explored.put(id, dep.getExclusions());
 
             // update the dependency graph with this dependency' dependencies
             // (depth-first exploration)
-            updateTransitiveDependencies(g, dep, gen, repoLoader, id);
+            updateTransitiveDependencies(g, dep, gen, repoLoader, id, dep.getExclusions(), explored);
             UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Resolving dependency %s... DONE", dep.toString());
         }
     }
@@ -262,7 +372,7 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
      * @return
      */
     private DependencyGraph createNewDependencyGraph() {
-        final Graph g = GraphFactory.getGraphImpl(GraphImplType.ADJACENCY_SET, GraphKind.DIRECTED);
+        final Graph g = GraphFactory.getGraphImpl(GraphImplType.COMPRESSED_SPARSE_ROW, GraphKind.DIRECTED);
         final Map<Integer, Artifact> artifactMapping = new HashMap<>();
         final DependencyGraph dependencyGraph = new DependencyGraph(g, artifactMapping);
 
@@ -328,25 +438,28 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
 
     /**
      * Simply use the existing Dependency Graph to get the list of
-     * artifacts in the order of dependencies.
+     * artifacts in the order of dependencies. A graph persisted in a
+     * format that is no longer supported is rebuilt from scratch.
      *
      * @return
      */
+    @SuppressWarnings("try")
     private List<Artifact> analyse() throws DependencyResolverException {
-        final DependencyGraph dependencyGraph;
-        try {
-            dependencyGraph = CoreModuleLoader.INSTANCE.getFileSystemFramework().loadSerializedObject(GarvelCoreConstants.GARVEL_PROJECT_DEPS_FILE, DependencyGraph.class);
-        } catch (FilesystemFrameworkException e) {
-            throw new DependencyResolverException(String.format("resolver cannot analyse dependency graph: graph does not exist (%s)\n", e.getErrorString()));
+        DependencyGraph dependencyGraph = null;
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, "read-graph")) {
+            dependencyGraph = DependencyGraphCodec.read(GarvelCoreConstants.GARVEL_PROJECT_DEPS_FILE);
+        } catch (IOException e) {
+            throw new DependencyResolverException(String.format("resolver cannot analyse dependency graph: graph could not be read (%s)\n", e.getLocalizedMessage()));
         }
 
-        List<Artifact> artifactsOrdering = new ArrayList<>();
-
-        final List<Artifact> finalArtifactsOrdering = doTopologicalAnalysis(dependencyGraph, artifactsOrdering);
+        // the graph was persisted in an older format - build it afresh
+        if (dependencyGraph == null) {
+            return createAndAnalyse();
+        }
 
-        store(dependencyGraph);
+        List<Artifact> artifactsOrdering = new ArrayList<>();
 
-        return finalArtifactsOrdering;
+        return doTopologicalAnalysis(dependencyGraph, artifactsOrdering);
     }
 
     /**
@@ -430,8 +543,8 @@ public class SimpleDependencyResolverStrategy implements DependencyResolverStrat
      */
     private void store(final DependencyGraph dependencyGraph) throws DependencyResolverException {
         try {
-            CoreModuleLoader.INSTANCE.getFileSystemFramework().storeSerializedObject(dependencyGraph, GarvelCoreConstants.GARVEL_PROJECT_DEPS_FILE);
-        } catch (FilesystemFrameworkException e) {
+            DependencyGraphCodec.write(dependencyGraph, GarvelCoreConstants.GARVEL_PROJECT_DEPS_FILE);
+        } catch (IOException e) {
             throw new DependencyResolverException("dependency analysis failed: unable to store dependency graph\n");
         }
     }
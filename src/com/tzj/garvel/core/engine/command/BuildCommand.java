@@ -3,7 +3,7 @@ package com.tzj.garvel.core.engine.command;
 import com.tzj.garvel.common.spi.core.command.CommandException;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
-import com.tzj.garvel.common.spi.core.command.param.InstallCommandParams;
+import com.tzj.garvel.common.spi.core.command.param.BuildCommandParams;
 import com.tzj.garvel.common.spi.core.command.result.BuildCommandResult;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.concurrent.api.Job;
@@ -16,26 +16,23 @@ import java.util.concurrent.Future;
 
 public class BuildCommand extends Command {
     public BuildCommand() {
-        super(new InstallCommand());
+        super(null);
     }
 
     /**
-     * `build` has a dependency on `install`.
+     * `build` has a dependency on `install`, but the BuildJob runs it itself, concurrently
+     * with the first build steps.
      *
      * @throws CommandException
      */
     @Override
     protected void executePrerequisite() throws CommandException {
-        try {
-            prerequisiteCommand.run(new InstallCommandParams());
-        } catch (CommandException e) {
-            throw new CommandException(String.format("Prerequisite (install) for build command failed, %s\n", e.getErrorString()));
-        }
+        return;
     }
 
     @Override
     public CommandResult execute(final CommandParams params) throws CommandException {
-        final Job<BuildCommandResult> job = new BuildJob();
+        final Job<BuildCommandResult> job = new BuildJob((BuildCommandParams) params);
         final Future<BuildCommandResult> task = CoreModuleLoader.INSTANCE.getConcurrencyFramework().getExecutor().submit(job);
 
         BuildCommandResult cmdRes = null;
@@ -52,10 +52,26 @@ public class RunCommand extends Command {
         }
     }
 
+    /**
+     * The watch mode runs the builds itself.
+     *
+     * @param cmdParams
+     * @return
+     * @throws CommandException
+     */
+    @Override
+    public CommandResult run(final CommandParams cmdParams) throws CommandException {
+        if (((RunCommandParams) cmdParams).isWatch()) {
+            return execute(cmdParams);
+        }
+
+        return super.run(cmdParams);
+    }
+
     @Override
     public CommandResult execute(final CommandParams params) throws CommandException {
         final RunCommandParams cmdParams = (RunCommandParams) params;
-        final Job<RunCommandResult> job = new RunJob(cmdParams.getTarget(), cmdParams.getArgs());
+        final Job<RunCommandResult> job = new RunJob(cmdParams.getTarget(), cmdParams.getArgs(), cmdParams.isWatch());
         final Future<RunCommandResult> task = CoreModuleLoader.INSTANCE.getConcurrencyFramework().getExecutor().submit(job);
 
         RunCommandResult cmdRes = null;
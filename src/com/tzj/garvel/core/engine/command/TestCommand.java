@@ -4,6 +4,7 @@ import com.tzj.garvel.common.spi.core.command.CommandException;
 import com.tzj.garvel.common.spi.core.command.CommandParams;
 import com.tzj.garvel.common.spi.core.command.CommandResult;
 import com.tzj.garvel.common.spi.core.command.param.BuildCommandParams;
+import com.tzj.garvel.common.spi.core.command.param.TestCommandParams;
 import com.tzj.garvel.common.spi.core.command.result.TestCommandResult;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.concurrent.api.Job;
@@ -35,7 +36,7 @@ public class TestCommand extends Command {
 
     @Override
     public CommandResult execute(final CommandParams params) throws CommandException {
-        final Job<TestCommandResult> job = new TestJob();
+        final Job<TestCommandResult> job = new TestJob((TestCommandParams) params);
         final Future<TestCommandResult> task = CoreModuleLoader.INSTANCE.getConcurrencyFramework().getExecutor().submit(job);
 
         TestCommandResult cmdRes = null;
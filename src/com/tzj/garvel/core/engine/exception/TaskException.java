@@ -0,0 +1,27 @@
+package com.tzj.garvel.core.engine.exception;
+
+import com.tzj.garvel.common.spi.exception.GarvelCheckedException;
+
+public class TaskException extends GarvelCheckedException {
+    private static final long serialVersionUID = 4471809367725925618L;
+
+    private String taskName;
+
+    public TaskException(final String errorMessage) {
+        super(errorMessage);
+    }
+
+    public TaskException(final String taskName, final String errorMessage) {
+        super(errorMessage);
+        this.taskName = taskName;
+    }
+
+    /**
+     * The name of the task that failed, if known.
+     *
+     * @return
+     */
+    public String getTaskName() {
+        return taskName;
+    }
+}
@@ -1,28 +1,59 @@
 package com.tzj.garvel.core.engine.job;
 
+import com.tzj.garvel.common.spi.core.command.param.BuildCommandParams;
+import com.tzj.garvel.common.spi.core.command.param.InstallCommandParams;
 import com.tzj.garvel.common.spi.core.command.result.BuildCommandResult;
+import com.tzj.garvel.common.spi.core.command.result.InstallCommandResult;
 import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.CoreModuleLoader;
 import com.tzj.garvel.core.GarvelCoreConstants;
 import com.tzj.garvel.core.builder.api.exception.BuildException;
 import com.tzj.garvel.core.builder.api.strategy.BuildContext;
-import com.tzj.garvel.core.builder.strategy.BasicBuildStrategy;
+import com.tzj.garvel.core.builder.api.strategy.BuildStrategy;
+import com.tzj.garvel.core.builder.incremental.SourceSet;
+import com.tzj.garvel.core.builder.strategy.InMemoryBuildStrategy;
+import com.tzj.garvel.core.builder.strategy.IncrementalBuildStrategy;
 import com.tzj.garvel.core.cache.exception.CacheManagerException;
 import com.tzj.garvel.core.concurrent.api.Job;
+import com.tzj.garvel.core.dep.GarvelLockCodec;
 import com.tzj.garvel.core.dep.api.exception.DependencyManagerException;
 import com.tzj.garvel.core.dep.api.resolver.DependencyResolverContext;
-import com.tzj.garvel.core.dep.resolver.SimpleDependencyResolverStrategy;
+import com.tzj.garvel.core.dep.api.resolver.DependencyResolverStrategyFactory;
 import com.tzj.garvel.core.engine.exception.JobException;
+import com.tzj.garvel.core.engine.exception.TaskException;
 import com.tzj.garvel.core.engine.job.visitors.BuildSkeletonCreatorFileVisitor;
+import com.tzj.garvel.core.engine.job.visitors.StaleResourceDeleterFileVisitor;
+import com.tzj.garvel.core.engine.task.Task;
+import com.tzj.garvel.core.engine.task.TaskGraph;
+import com.tzj.garvel.core.engine.task.TaskResults;
 import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileReportWriter;
+import com.tzj.garvel.core.profile.ProfileSpan;
+import com.tzj.garvel.core.watch.ProjectWatcher;
+import com.tzj.garvel.core.watch.WatchChanges;
 
 import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
 
 public class BuildJob implements Job<BuildCommandResult> {
-    public BuildJob() {
+    private static final String INSTALL_TASK = "install";
+    private static final String TARGET_HIERARCHY_TASK = "target-hierarchy";
+    private static final String CORE_CACHE_TASK = "core-cache";
+    private static final String DEPENDENCIES_TASK = "dependencies";
+    private static final String BUILD_TASK = "build";
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final BuildCommandParams params;
+
+    // the classpath of the last successful dependency analysis, reused by the watch mode
+    private volatile List<String> artifactPaths;
+
+    public BuildJob(final BuildCommandParams params) {
+        this.params = params;
     }
 
     /**
@@ -41,6 +72,25 @@ public class BuildJob implements Job<BuildCommandResult> {
      * 3). Compile the project and create the deliverable JAR file, ${PROJECT_NAME}.jar in the `target` directory.
      * If there are any errors, report them to the user and exit immediately.
      * <p>
+     * The steps (along with the `install` prerequisite) are run as a TaskGraph:
+     * <p>
+     * install ------------------------\
+     * create target hierarchy --------+--> analyse dependencies --> build project
+     * populate core cache ------------/
+     * <p>
+     * The first three run concurrently. The dependency analysis is skipped (reusing the classpath
+     * of the last build) as long as neither Garvel.gl nor Garvel.lock has changed, and the dependency
+     * graph, and the dependency JARs are all still in place. Otherwise, as long as Garvel.lock
+     * matches Garvel.gl, the resolved dependencies are taken from it, without resolving them again.
+     * <p>
+     * With `--offline`, the dependencies must be taken from Garvel.lock and the Garvel Cache, and
+     * the build fails (instead of going to the network) if either does not have them.
+     * <p>
+     * With `--profile`, the timings of the steps are recorded while the build runs, and the profile
+     * reports are written into `target` at the end (whether or not the build succeeded).
+     * <p>
+     * With `--watch`, the project is rebuilt whenever it changes, until interrupted (see watch).
+     * <p>
      * Note: Since the idea is to bootstrap Garvel to use Garvel itself, special handling must be done for the
      * `Garvel` project name to generate the the wrapper scripts for `garvel`.jar as well. Whether to restrict
      * new project names with the same name will depend on testing and verification.
@@ -50,29 +100,326 @@ public class BuildJob implements Job<BuildCommandResult> {
      */
     @Override
     public BuildCommandResult call() throws JobException {
-        BuildCommandResult result = new BuildCommandResult();
+        if (params.isWatch()) {
+            return watch(null);
+        }
+
+        return build(null, null);
+    }
+
+    /**
+     * Build the project, and then keep rebuilding it whenever it changes, until interrupted.
+     * <p>
+     * Algorithm:
+     * <p>
+     * 1. Start watching the project (see ProjectWatcher) - before the initial build, so that
+     * no change made while it runs is missed.
+     * 2. Run the initial (full) build.
+     * 3. Wait for a (debounced) batch of changes.
+     * 4. If `Garvel.gl` has changed, run a full build, which analyses the dependencies again.
+     * Otherwise, rebuild with the classpath of the last build, and the source set kept in
+     * memory by the watcher: copy over the changed resources, compile the changed sources
+     * (and their dependents), and update the JAR file (reusing the entries of the unchanged
+     * files).
+     * 5. Hand every successful build to the listener, and go back to 3.
+     * <p>
+     * A failed build is reported, and the project is watched for the fix.
+     *
+     * @param listener notified after every successful build, or null.
+     * @return the result of the last successful build, once interrupted.
+     * @throws JobException if the project cannot be watched.
+     */
+    public BuildCommandResult watch(final WatchListener listener) throws JobException {
+        final Path srcDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
+        final Path configFilePath = Paths.get(GarvelCoreConstants.GARVEl_PROJECT_CONFIG_FILE);
+
+        BuildCommandResult lastResult = null;
+        try (ProjectWatcher watcher = new ProjectWatcher(srcDirPath, configFilePath, GarvelCoreConstants.GARVEL_WATCH_DEBOUNCE)) {
+            WatchChanges changes = null;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                final long start = System.nanoTime();
+                try {
+                    final boolean full = changes == null || changes.isConfigChanged() || changes.isRescanned() ||
+                            artifactPaths == null || !Files.isDirectory(Paths.get(GarvelCoreConstants.GARVEL_PROJECT_BUILD_DIR));
+
+                    lastResult = full ? build(null, null) : build(changes, watcher.getSources());
+
+                    UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Project built in %d ms",
+                            (System.nanoTime() - start) / 1000000L);
+
+                    if (listener != null) {
+                        listener.buildCompleted(lastResult);
+                    }
+                } catch (JobException e) {
+                    UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Build failed: %s", e.getErrorString());
+                }
+
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\nWatching %s for changes (press Ctrl-C to stop)...",
+                        srcDirPath);
+                changes = watcher.awaitChanges();
+            }
+        } catch (IOException e) {
+            throw new JobException(String.format("failed to watch the project: %s\n", e.getLocalizedMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return lastResult;
+    }
+
+    /**
+     * Run a full build or, given the changes, a rebuild - profiling it, if requested.
+     *
+     * @param changes
+     * @param sources
+     * @return
+     * @throws JobException
+     */
+    private BuildCommandResult build(final WatchChanges changes, final Map<String, File> sources) throws JobException {
+        if (!params.isProfile()) {
+            return changes == null ? build() : rebuild(changes, sources);
+        }
+
+        BuildProfiler.INSTANCE.start();
+        try {
+            return changes == null ? build() : rebuild(changes, sources);
+        } finally {
+            writeProfile();
+        }
+    }
+
+    /**
+     * Rebuild the project after the given changes, skipping the install, core cache, and
+     * dependency steps altogether.
+     *
+     * @param changes
+     * @param sources the source files of the project, as kept in memory by the watcher.
+     * @return
+     * @throws JobException
+     */
+    @SuppressWarnings("try")
+    private BuildCommandResult rebuild(final WatchChanges changes, final Map<String, File> sources) throws JobException {
+        final BuildCommandResult result = new BuildCommandResult();
+
+        try (final ProfileSpan span = BuildProfiler.INSTANCE.begin(BuildProfiler.BUILD_CATEGORY, "copy-resources")) {
+            copyResources(changes.getResources());
+        }
+
+        buildProject(artifactPaths, new SourceSet(sources, changes.getSources()), result);
+
+        result.setTargetDir(Paths.get(GarvelCoreConstants.GARVEL_PROJECT_TARGET_DIR));
+        result.setDepsDir(Paths.get(GarvelCoreConstants.GARVEL_PROJECT_TARGET_DIR, "deps"));
+
+        return result;
+    }
+
+    /**
+     * Bring the given resources in `target/build` in line with `src`: copy over the created
+     * and modified ones (whole directories, for new directories), and delete the deleted ones.
+     * The class files are left to the build strategy.
+     *
+     * @param resources
+     * @throws JobException
+     */
+    private void copyResources(final Set<String> resources) throws JobException {
+        final Path srcDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
+        final Path buildDirPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_BUILD_DIR);
+
+        for (final String resource : resources) {
+            final Path srcPath = srcDirPath.resolve(resource);
+            final Path buildPath = buildDirPath.resolve(resource);
+
+            try {
+                if (Files.isDirectory(srcPath)) {
+                    CoreModuleLoader.INSTANCE.getFileSystemFramework().makeDirectoryHierarchyWithVisitor(srcPath,
+                            buildPath.toString(), new BuildSkeletonCreatorFileVisitor(srcPath, buildPath.toString()));
+                } else if (Files.isRegularFile(srcPath)) {
+                    Files.createDirectories(buildPath.getParent());
+                    Files.copy(srcPath, buildPath, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    deleteResources(buildPath);
+                }
+            } catch (IOException e) {
+                throw new JobException(String.format("failed to copy resource %s: %s\n", resource, e.getLocalizedMessage()));
+            } catch (FilesystemFrameworkException e) {
+                throw new JobException(String.format("failed to copy resource %s: %s\n", resource, e.getErrorString()));
+            }
+        }
+    }
+
+    /**
+     * Delete the non-class files at (or under) the given path in `target/build`.
+     *
+     * @param buildPath
+     * @throws IOException
+     */
+    private void deleteResources(final Path buildPath) throws IOException {
+        if (!Files.exists(buildPath)) {
+            return;
+        }
+
+        Files.walkFileTree(buildPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                if (!file.toString().endsWith(CLASS_FILE_EXTENSION)) {
+                    Files.delete(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Notified by the watch mode after every successful build.
+     */
+    public interface WatchListener {
+        void buildCompleted(final BuildCommandResult result);
+    }
+
+    private BuildCommandResult build() throws JobException {
+        final BuildCommandResult result = new BuildCommandResult();
+        final TaskGraph graph = new TaskGraph(GarvelCoreConstants.GARVEL_PROJECT_TASK_STATE_FILE);
+
+        final Task<InstallCommandResult> install = graph.add(new Task<InstallCommandResult>(INSTALL_TASK) {
+            @Override
+            public InstallCommandResult execute(final TaskResults results) throws TaskException {
+                try {
+                    return new InstallJob(new InstallCommandParams()).call();
+                } catch (JobException e) {
+                    throw new TaskException(getName(), String.format("Prerequisite (install) for build command failed, %s", e.getErrorString()));
+                }
+            }
+        });
+
+        // 1. create target directory hierarchy
+        final Task<Void> targetHierarchy = graph.add(new Task<Void>(TARGET_HIERARCHY_TASK) {
+            @Override
+            public Void execute(final TaskResults results) throws TaskException {
+                try {
+                    createTargetHierarchy(result);
+                } catch (JobException e) {
+                    throw new TaskException(getName(), e.getErrorString());
+                }
+                return null;
+            }
+        });
+
+        // 2. Parse the project config file and populate the Core Cache.
+        final Task<Void> coreCache = graph.add(new Task<Void>(CORE_CACHE_TASK) {
+            @Override
+            public Void execute(final TaskResults results) throws TaskException {
+                try {
+                    populateCoreCache();
+                } catch (JobException e) {
+                    throw new TaskException(getName(), e.getErrorString());
+                }
+                return null;
+            }
+        });
+
+        // 3. Analyse the dependencies.
+        final Task<ArrayList<String>> dependencies = graph.add(new Task<ArrayList<String>>(DEPENDENCIES_TASK, install, targetHierarchy, coreCache) {
+            @Override
+            public ArrayList<String> execute(final TaskResults results) throws TaskException {
+                try {
+                    return new ArrayList<>(analyseDependencies());
+                } catch (JobException e) {
+                    throw new TaskException(getName(), e.getErrorString());
+                }
+            }
+
+            @Override
+            public List<Path> getInputs() {
+                return Arrays.asList(Paths.get(GarvelCoreConstants.GARVEl_PROJECT_CONFIG_FILE),
+                        Paths.get(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE));
+            }
+
+            /**
+             * The lock must also be readable in its current format - a lock written by an older
+             * Garvel has to be resolved afresh, even though the file itself has not changed.
+             *
+             * @param artifactPaths
+             * @return
+             */
+            @Override
+            public boolean isResultValid(final ArrayList<String> artifactPaths) {
+                if (artifactPaths == null ||
+                        !new File(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE).isFile() ||
+                        !new File(GarvelCoreConstants.GARVEL_PROJECT_DEPS_FILE).isFile()) {
+                    return false;
+                }
+
+                try {
+                    GarvelLockCodec.read(GarvelCoreConstants.GARVEL_PROJECT_LOCK_FILE);
+                } catch (IOException e) {
+                    return false;
+                }
+
+                for (final String artifactPath : artifactPaths) {
+                    if (!new File(artifactPath).exists()) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        });
+
+        // 4. Compile the project.
+        // 5. generate the project artifacts
+        graph.add(new Task<Void>(BUILD_TASK, dependencies) {
+            @Override
+            public Void execute(final TaskResults results) throws TaskException {
+                if (results.isSkipped(dependencies)) {
+                    UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Analysing Dependencies...UP-TO-DATE");
+                }
+
+                try {
+                    artifactPaths = results.get(dependencies);
+                    buildProject(artifactPaths, null, result);
+                } catch (JobException e) {
+                    throw new TaskException(getName(), e.getErrorString());
+                }
+                return null;
+            }
+        });
 
         try {
-            // 1. create target directory hierarchy
-            createTargetHierarchy(result);
-
-            // 2. Parse the project config file and populate the Core Cache.
-            populateCoreCache();
-
-            // 3. Analyse the dependencies.
-            List<String> artifactPaths = analyseDependencies();
-
-            // 4. Compile the project.
-            // 5. generate the project artifacts
-            buildProject(artifactPaths, result);
-        } catch (JobException e) {
-            cleanup(Paths.get(GarvelCoreConstants.GARVEL_PROJECT_TARGET_DIR));
-            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Cleaning up after failed build...DONE");
-            throw e;
+            graph.execute(CoreModuleLoader.INSTANCE.getConcurrencyFramework().getExecutor());
+        } catch (TaskException e) {
+            // the `target` directory is left in place if the build itself fails, so that the next
+            // (incremental) build can pick up from the classes compiled so far.
+            if (!BUILD_TASK.equals(e.getTaskName())) {
+                cleanup(Paths.get(GarvelCoreConstants.GARVEL_PROJECT_TARGET_DIR));
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Cleaning up after failed build...DONE");
+            }
+
+            throw new JobException(e.getErrorString());
         }
+
         return result;
     }
 
+    /**
+     * Stop profiling, and write the summary and the trace of the build steps.
+     */
+    private void writeProfile() {
+        final ProfileReportWriter writer = new ProfileReportWriter(BuildProfiler.INSTANCE.stop());
+
+        try {
+            writer.writeSummary(GarvelCoreConstants.GARVEL_PROJECT_PROFILE_FILE);
+            writer.writeTrace(GarvelCoreConstants.GARVEL_PROJECT_PROFILE_TRACE_FILE);
+        } catch (IOException e) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Warning: failed to write the build profile: %s",
+                    e.getLocalizedMessage());
+            return;
+        }
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Build profile written to %s and %s",
+                GarvelCoreConstants.GARVEL_PROJECT_PROFILE_FILE, GarvelCoreConstants.GARVEL_PROJECT_PROFILE_TRACE_FILE);
+    }
+
     /**
      * Step 4 - Compile the project sources into the `target/build` directory.
      * <p>
@@ -84,14 +431,16 @@ public class BuildJob implements Job<BuildCommandResult> {
      * Step 5 - Generate the project artifacts in the `target` directory.
      *
      * @param artifactPaths
+     * @param sourceSet     the source files as known to the watch mode, or null.
      * @param result
      */
-    private void buildProject(final List<String> artifactPaths, final BuildCommandResult result) throws JobException {
+    private void buildProject(final List<String> artifactPaths, final SourceSet sourceSet,
+                              final BuildCommandResult result) throws JobException {
         String classPathString = UtilServiceImpl.INSTANCE.convertStringsToOSSpecificClassPathString(artifactPaths);
         Path jarFilePath = null;
 
         try {
-            final BuildContext ctx = new BuildContext(new BasicBuildStrategy());
+            final BuildContext ctx = new BuildContext(getBuildStrategy(sourceSet));
             jarFilePath = ctx.executeStrategy(classPathString);
         } catch (BuildException e) {
             throw new JobException(String.format("Project Build failed: %s\n", e.getErrorString()));
@@ -104,13 +453,34 @@ public class BuildJob implements Job<BuildCommandResult> {
     }
 
     /**
-     * Step 3 - Invoke the Dependency Manager to analyse the dependencies, if any.
+     * Builds are incremental by default. In-memory builds always compile every source file,
+     * but skip the build directory altogether.
+     *
+     * @param sourceSet
+     * @return
+     */
+    private BuildStrategy getBuildStrategy(final SourceSet sourceSet) {
+        if (params.isInMemory()) {
+            return new InMemoryBuildStrategy();
+        }
+
+        return new IncrementalBuildStrategy(sourceSet);
+    }
+
+    /**
+     * Step 3 - Invoke the Dependency Manager to analyse the dependencies, if any, with the resolver
+     * selected by the `garvel.resolver` property. With `--offline`, the classpath is taken from
+     * Garvel.lock and the Garvel Cache, without touching the network.
      */
     private List<String> analyseDependencies() throws JobException {
         List<String> dependenciesClassPath = null;
         try {
-            final DependencyResolverContext ctx = new DependencyResolverContext(new SimpleDependencyResolverStrategy());
-            dependenciesClassPath = CoreModuleLoader.INSTANCE.getDependencyManager().analyse(ctx);
+            if (params.isOffline()) {
+                dependenciesClassPath = CoreModuleLoader.INSTANCE.getDependencyManager().analyseOffline();
+            } else {
+                final DependencyResolverContext ctx = new DependencyResolverContext(DependencyResolverStrategyFactory.getStrategy());
+                dependenciesClassPath = CoreModuleLoader.INSTANCE.getDependencyManager().analyse(ctx);
+            }
         } catch (DependencyManagerException e) {
             throw new JobException(String.format("Dependency Analysis failed: %s\n", e.getErrorString()));
         }
@@ -149,12 +519,15 @@ public class BuildJob implements Job<BuildCommandResult> {
             throw new JobException(String.format("failed to create `target`: %s\n", e.getErrorString()));
         }
 
+        // in-memory builds do not need the build directory
         Path buildDirPath = null;
-        try {
-            buildDirPath = createBuildDir(targetDirPath);
-        } catch (FilesystemFrameworkException e) {
-            cleanup(targetDirPath);
-            throw new JobException(String.format("failed to create `target/build`: %s\n", e.getErrorString()));
+        if (!params.isInMemory()) {
+            try {
+                buildDirPath = createBuildDir(targetDirPath);
+            } catch (FilesystemFrameworkException e) {
+                cleanup(targetDirPath);
+                throw new JobException(String.format("failed to create `target/build`: %s\n", e.getErrorString()));
+            }
         }
 
         Path depsDirPath = null;
@@ -180,6 +553,10 @@ public class BuildJob implements Job<BuildCommandResult> {
      */
     private void cleanup(final Path... paths) {
         for (Path path : paths) {
+            if (path == null) {
+                continue;
+            }
+
             try {
                 CoreModuleLoader.INSTANCE
                         .getFileSystemFramework()
@@ -225,17 +602,21 @@ public class BuildJob implements Job<BuildCommandResult> {
         final Path projectSrcPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_SOURCE_ROOT);
         final String buildDir = targetDirPath.toFile().getAbsolutePath() + File.separator + "build";
 
-        final Path checkBuild = CoreModuleLoader.INSTANCE.getFileSystemFramework().checkDirectoryExistsGetPath(buildDir);
-        if (checkBuild != null) {
-            return checkBuild;
-        }
-
         // create the entire project skeleton under $PROJECT_ROOT/src into the build
         // directory, and copy over the non-source files into their respective
-        // directories.
+        // directories. The `build` directory is kept across incremental builds, so
+        // this is done even if it already exists, to pick up new and changed files.
         final Path buildDirPath = CoreModuleLoader.INSTANCE.getFileSystemFramework()
                 .makeDirectoryHierarchyWithVisitor(projectSrcPath, buildDir, new BuildSkeletonCreatorFileVisitor(projectSrcPath, buildDir));
 
+        // and delete the non-source files which have since been deleted (or renamed) under `src`
+        try {
+            Files.walkFileTree(buildDirPath, new StaleResourceDeleterFileVisitor(projectSrcPath, buildDirPath));
+        } catch (IOException e) {
+            throw new FilesystemFrameworkException(String.format("failed to delete stale resources from %s: %s\n",
+                    buildDir, e.getLocalizedMessage()));
+        }
+
         return buildDirPath;
     }
 
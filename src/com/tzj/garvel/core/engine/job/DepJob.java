@@ -140,7 +140,7 @@ public class DepJob implements Job<DepCommandResult> {
         final int id = gen.getId();
 
         g.getG().addVertex(id);
-        g.getArtifactMapping().put(id, suppliedArtifact);
+        g.addArtifactMapping(id, suppliedArtifact);
 
         // update the dependency graph with this dependency' dependencies
         // (depth-first exploration)
@@ -166,7 +166,7 @@ public class DepJob implements Job<DepCommandResult> {
      * @return
      */
     private DependencyGraph createDependencyGraph() {
-        final Graph graph = GraphFactory.getGraphImpl(GraphImplType.ADJACENCY_SET, GraphKind.DIRECTED);
+        final Graph graph = GraphFactory.getGraphImpl(GraphImplType.COMPRESSED_SPARSE_ROW, GraphKind.DIRECTED);
         final Map<Integer, Artifact> mapping = new HashMap<>();
         final DependencyGraph g = new DependencyGraph(graph, mapping);
 
@@ -207,7 +207,7 @@ public class DepJob implements Job<DepCommandResult> {
 
         DependencyParser depParser = null;
         try {
-            depParser = DependencyParserFactory.getParser(DependencyParserKind.POM, pomUrl);
+            depParser = DependencyParserFactory.getParser(DependencyParserKind.STREAMING_POM, pomUrl);
             depParser.parse(repoLoader);
         } catch (DependencyManagerException e) {
             // @TODO remove this with fallback schemes
@@ -230,10 +230,17 @@ public class DepJob implements Job<DepCommandResult> {
         }
 
         for (final Artifact transDep : transDeps) {
+            // already resolved elsewhere in the graph - share the vertex
+            final Integer existingId = g.getVertexId(transDep);
+            if (existingId != null) {
+                g.getG().addEdge(srcId, existingId);
+                continue;
+            }
+
             final int id = gen.getId();
             g.getG().addVertex(id);
             g.getG().addEdge(srcId, id);
-            g.getArtifactMapping().put(id, transDep);
+            g.addArtifactMapping(id, transDep);
 
             updateTransitiveDependencies(g, transDep, gen, repoLoader, id);
         }
@@ -44,6 +44,9 @@ public class HelpJob implements Job<HelpCommandResult> {
             case "run":
                 helpPages = HelpPages.runCommand;
                 break;
+            case "test":
+                helpPages = HelpPages.testCommand;
+                break;
             case "dep":
                 helpPages = HelpPages.depCommand;
                 break;
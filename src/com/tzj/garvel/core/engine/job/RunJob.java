@@ -1,5 +1,7 @@
 package com.tzj.garvel.core.engine.job;
 
+import com.tzj.garvel.common.spi.core.command.param.BuildCommandParams;
+import com.tzj.garvel.common.spi.core.command.result.BuildCommandResult;
 import com.tzj.garvel.common.spi.core.command.result.RunCommandResult;
 import com.tzj.garvel.common.util.UtilServiceImpl;
 import com.tzj.garvel.core.CoreModuleLoader;
@@ -10,6 +12,8 @@ import com.tzj.garvel.core.cache.api.MainClassEntry;
 import com.tzj.garvel.core.concurrent.api.Job;
 import com.tzj.garvel.core.engine.exception.JobException;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -17,15 +21,24 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class RunJob implements Job<RunCommandResult> {
     private final String target;
     private final String[] args;
+    private final boolean watch;
 
     public RunJob(final String target, final String[] args) {
+        this(target, args, false);
+    }
+
+    public RunJob(final String target, final String[] args, final boolean watch) {
         this.target = target;
         this.args = args;
+        this.watch = watch;
     }
 
     /**
@@ -42,6 +55,10 @@ public class RunJob implements Job<RunCommandResult> {
      */
     @Override
     public RunCommandResult call() throws JobException {
+        if (watch) {
+            return watch();
+        }
+
         final RunCommandResult result = new RunCommandResult();
 
         // setup
@@ -57,6 +74,53 @@ public class RunJob implements Job<RunCommandResult> {
         return result;
     }
 
+    /**
+     * Watch the project (see BuildJob.watch), and after every successful build, run the target
+     * afresh in a JVM of its own - stopping the previous run first, if it is still going.
+     * The target runs in a separate JVM since, unlike a thread, a JVM can always be stopped.
+     *
+     * @return
+     * @throws JobException
+     */
+    private RunCommandResult watch() throws JobException {
+        final TargetProcess targetProcess = new TargetProcess();
+
+        // stop the target along with Garvel (on Ctrl-C)
+        final Thread shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                targetProcess.stop();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        try {
+            new BuildJob(new BuildCommandParams(false, false, true)).watch(new BuildJob.WatchListener() {
+                @Override
+                public void buildCompleted(final BuildCommandResult buildResult) {
+                    try {
+                        targetProcess.restart(buildResult.getJarFile(), getClassNameForTarget(), args);
+                    } catch (JobException e) {
+                        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Unable to run target \"%s\": %s",
+                                target, e.getErrorString());
+                    }
+                }
+            });
+        } finally {
+            targetProcess.stop();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // already shutting down
+            }
+        }
+
+        final RunCommandResult result = new RunCommandResult();
+        result.setRunSuccessful(true);
+
+        return result;
+    }
+
     /**
      * Query the Core Cache to retrieve the actual class specified
      * for the given target.
@@ -194,4 +258,46 @@ public class RunJob implements Job<RunCommandResult> {
 
         return clazz;
     }
+
+    /**
+     * The target, running in a JVM of its own, with its output passed through.
+     */
+    private static class TargetProcess {
+        private Process process;
+
+        synchronized void restart(final Path jarFilePath, final String className, final String[] targetArgs) throws JobException {
+            stop();
+
+            final List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(jarFilePath.toFile().getAbsolutePath());
+            command.add(className);
+            if (targetArgs != null) {
+                command.addAll(Arrays.asList(targetArgs));
+            }
+
+            try {
+                process = new ProcessBuilder(command).inheritIO().start();
+            } catch (IOException e) {
+                throw new JobException(String.format("failed to start the target JVM: %s\n", e.getLocalizedMessage()));
+            }
+
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Running %s...", className);
+        }
+
+        synchronized void stop() {
+            if (process == null) {
+                return;
+            }
+
+            process.destroy();
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            process = null;
+        }
+    }
 }
@@ -1,12 +1,342 @@
 package com.tzj.garvel.core.engine.job;
 
+import com.tzj.garvel.common.spi.core.command.param.TestCommandParams;
 import com.tzj.garvel.common.spi.core.command.result.TestCommandResult;
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.builder.api.CompilationResult;
+import com.tzj.garvel.core.builder.api.compiler.CompilerFactory;
+import com.tzj.garvel.core.builder.api.compiler.CompilerType;
+import com.tzj.garvel.core.builder.api.exception.CompilationException;
 import com.tzj.garvel.core.concurrent.api.Job;
 import com.tzj.garvel.core.engine.exception.JobException;
+import com.tzj.garvel.core.engine.job.visitors.BuildSkeletonCreatorFileVisitor;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+import com.tzj.garvel.core.test.AffectedTestSelector;
+import com.tzj.garvel.core.test.TestClassResult;
+import com.tzj.garvel.core.test.TestDependencyIndex;
+import com.tzj.garvel.core.test.TestRunner;
+import com.tzj.garvel.core.test.TestRunnerException;
+import com.tzj.garvel.core.test.TestTimings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class TestJob implements Job<TestCommandResult> {
+    private static final String JAVA_SOURCE_EXTENSION = ".java";
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final TestCommandParams params;
+
+    public TestJob(final TestCommandParams params) {
+        this.params = params;
+    }
+
+    /**
+     * Run the tests of the project (under `tests` in the project root) against the project JAR
+     * built by the `build` prerequisite.
+     * <p>
+     * Algorithm:
+     * <p>
+     * 1. Compile the tests into `target/test-classes`, with the project JAR (and through its
+     * Class-Path, the dependencies) on the classpath. The non-source files under `tests` are
+     * copied over as well.
+     * 2. Every top-level class in `target/test-classes` is a candidate test class.
+     * 3. Index the class-level dependencies of the test classes. With `--affected`, only the
+     * test classes affected by the changes made since the last green run are kept (see
+     * AffectedTestSelector).
+     * 4. Run the test classes in parallel, across up to `garvel.test.workers` forked JVMs (see
+     * TestRunner), longest first as per the timings of the previous run. The result of every
+     * test class is reported as soon as it is in.
+     * 5. Record the timings of this run for the next one and, if all the tests passed, the
+     * dependency index as the new baseline.
+     *
+     * @return
+     * @throws JobException
+     */
     @Override
     public TestCommandResult call() throws JobException {
-        return null;
+        final TestCommandResult result = new TestCommandResult();
+
+        final Path testsPath = Paths.get(GarvelCoreConstants.GARVEL_PROJECT_TESTS_ROOT);
+        final List<File> testSources = getTestSources(testsPath);
+        if (testSources.isEmpty()) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "No tests found in %s", testsPath);
+            return result;
+        }
+
+        final Path jarFilePath = CoreModuleLoader.INSTANCE.getConfigManager().checkProjectJARFileExists();
+        if (jarFilePath == null) {
+            throw new JobException("project JAR file not found. Please build the project first\n");
+        }
+
+        // 1. compile the tests
+        final Path testClassesPath = createTestClassesDir(testsPath);
+        final String testClassPath = UtilServiceImpl.INSTANCE.convertStringsToOSSpecificClassPathString(
+                Arrays.asList(testClassesPath.toFile().getAbsolutePath(), jarFilePath.toFile().getAbsolutePath()));
+        compileTests(testClassesPath, testSources, testClassPath);
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Compiling tests...DONE");
+
+        // 2. discover the test classes
+        final List<String> testClasses = getTestClasses(testClassesPath);
+
+        // 3. index them, and pick the affected ones
+        final TestDependencyIndex index = indexTests(testsPath, testSources, testClassesPath, testClasses);
+        final List<String> selectedTestClasses = selectTestClasses(testClasses, index);
+        if (selectedTestClasses.isEmpty()) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "No tests affected by the changes since the last green run");
+            return result;
+        }
+
+        // 4. run them
+        final TestTimings timings = TestTimings.load(GarvelCoreConstants.GARVEL_PROJECT_TEST_TIMINGS_FILE);
+        final List<String> orderedTestClasses = timings.order(selectedTestClasses);
+        final int workers = Math.min(GarvelCoreConstants.GARVEL_TEST_WORKERS, orderedTestClasses.size());
+
+        UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Running %d test classes on %d workers...",
+                orderedTestClasses.size(), workers);
+
+        final long start = System.nanoTime();
+        List<TestClassResult> classResults = null;
+        try {
+            classResults = new TestRunner(testClassPath, workers).run(orderedTestClasses, new TestReporter());
+        } catch (TestRunnerException e) {
+            throw new JobException(String.format("failed to run the tests: %s", e.getErrorString()));
+        }
+
+        // 5. record the timings, and the new baseline
+        for (final TestClassResult classResult : classResults) {
+            timings.put(classResult.getClassName(), classResult.getDurationMillis());
+        }
+        timings.save(GarvelCoreConstants.GARVEL_PROJECT_TEST_TIMINGS_FILE);
+
+        populateResult(result, classResults, (System.nanoTime() - start) / 1000000L);
+
+        if (result.isSuccessful() && index != null) {
+            AffectedTestSelector.save(index, GarvelCoreConstants.GARVEL_PROJECT_TEST_INDEX_FILE);
+        }
+
+        return result;
+    }
+
+    /**
+     * Index the test classes. The index only ever narrows down the tests to run, so failing
+     * to build it is not fatal.
+     *
+     * @param testsPath
+     * @param testSources
+     * @param testClassesPath
+     * @param testClasses
+     * @return the index, or null if the tests could not be indexed.
+     */
+    private TestDependencyIndex indexTests(final Path testsPath, final List<File> testSources,
+                                           final Path testClassesPath, final List<String> testClasses) {
+        try {
+            return AffectedTestSelector.index(testsPath, testSources, testClassesPath, testClasses);
+        } catch (IOException e) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "Warning: failed to index the tests: %s",
+                    e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * With `--affected`, keep only the test classes affected by the changes made since the
+     * last green run. Otherwise, and whenever there is no usable baseline, run all of them.
+     *
+     * @param testClasses
+     * @param index
+     * @return
+     */
+    private List<String> selectTestClasses(final List<String> testClasses, final TestDependencyIndex index) {
+        if (!params.isAffected()) {
+            return testClasses;
+        }
+
+        final TestDependencyIndex baseline = AffectedTestSelector.load(GarvelCoreConstants.GARVEL_PROJECT_TEST_INDEX_FILE);
+        if (!AffectedTestSelector.isUsable(index, baseline)) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "No usable record of the last green run, running all tests");
+            return testClasses;
+        }
+
+        final List<String> affected = AffectedTestSelector.select(testClasses, index, baseline);
+        if (!affected.isEmpty()) {
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "%d of %d test classes affected by the changes since the last green run",
+                    affected.size(), testClasses.size());
+        }
+
+        return affected;
+    }
+
+    private void populateResult(final TestCommandResult result, final List<TestClassResult> classResults, final long durationMillis) {
+        int testClasses = 0;
+        int tests = 0;
+        int failures = 0;
+        int skipped = 0;
+
+        for (final TestClassResult classResult : classResults) {
+            if (classResult.getTests() == 0 && classResult.isSuccessful()) {
+                continue;
+            }
+
+            testClasses++;
+            tests += classResult.getTests();
+            failures += classResult.getFailures().size();
+            skipped += classResult.getSkipped();
+        }
+
+        result.setTestClasses(testClasses);
+        result.setTests(tests);
+        result.setFailures(failures);
+        result.setSkipped(skipped);
+        result.setDurationMillis(durationMillis);
+    }
+
+    /**
+     * Collect the Java source files under `tests`, if any.
+     *
+     * @param testsPath
+     * @return
+     * @throws JobException
+     */
+    private List<File> getTestSources(final Path testsPath) throws JobException {
+        final List<File> testSources = new ArrayList<>();
+        if (!Files.isDirectory(testsPath)) {
+            return testSources;
+        }
+
+        try {
+            Files.walkFileTree(testsPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (file.toString().endsWith(JAVA_SOURCE_EXTENSION)) {
+                        testSources.add(file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new JobException(String.format("failed to collect the tests: %s\n", e.getLocalizedMessage()));
+        }
+
+        return testSources;
+    }
+
+    /**
+     * Recreate `target/test-classes` from scratch (the tests are always compiled in full),
+     * with the directory structure of `tests` and its non-source files copied over.
+     *
+     * @param testsPath
+     * @return
+     * @throws JobException
+     */
+    private Path createTestClassesDir(final Path testsPath) throws JobException {
+        final String testClassesDir = GarvelCoreConstants.GARVEL_PROJECT_TEST_CLASSES_DIR;
+
+        try {
+            final Path existing = CoreModuleLoader.INSTANCE.getFileSystemFramework().checkDirectoryExistsGetPath(testClassesDir);
+            if (existing != null) {
+                CoreModuleLoader.INSTANCE.getFileSystemFramework().deleteDirectoryHierarchy(existing);
+            }
+
+            return CoreModuleLoader.INSTANCE.getFileSystemFramework()
+                    .makeDirectoryHierarchyWithVisitor(testsPath, testClassesDir, new BuildSkeletonCreatorFileVisitor(testsPath, testClassesDir));
+        } catch (FilesystemFrameworkException e) {
+            throw new JobException(String.format("failed to create `target/test-classes`: %s\n", e.getErrorString()));
+        }
+    }
+
+    private void compileTests(final Path testClassesPath, final List<File> testSources, final String testClassPath) throws JobException {
+        final List<String> options = new ArrayList<>();
+        options.add("-Xlint");
+        options.add("-d");
+        options.add(testClassesPath.toFile().getAbsolutePath());
+        options.add("-cp");
+        options.add(testClassPath);
+
+        CompilationResult compilationResult = null;
+        try {
+            compilationResult = CompilerFactory.getCompiler(CompilerType.JAVAX_JAVACOMPILER)
+                    .compile(testClassesPath, testSources, options);
+        } catch (CompilationException e) {
+            throw new JobException(String.format("failed to compile the tests: %s", e.getErrorString()));
+        }
+
+        if (!compilationResult.isSuccessful()) {
+            for (final String diagnostic : compilationResult.getDiagnostics()) {
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(false, "%s", diagnostic);
+            }
+
+            throw new JobException("failed to compile the tests\n");
+        }
+    }
+
+    /**
+     * Every top-level class is a candidate - the workers skip the ones which turn out to have
+     * no tests.
+     *
+     * @param testClassesPath
+     * @return
+     * @throws JobException
+     */
+    private List<String> getTestClasses(final Path testClassesPath) throws JobException {
+        final List<String> testClasses = new ArrayList<>();
+
+        try {
+            Files.walkFileTree(testClassesPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    final String fileName = file.getFileName().toString();
+                    if (fileName.endsWith(CLASS_FILE_EXTENSION) && fileName.indexOf('$') < 0) {
+                        final String relative = testClassesPath.relativize(file).toString();
+                        testClasses.add(relative
+                                .substring(0, relative.length() - CLASS_FILE_EXTENSION.length())
+                                .replace(File.separatorChar, '.'));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new JobException(String.format("failed to collect the test classes: %s\n", e.getLocalizedMessage()));
+        }
+
+        return testClasses;
+    }
+
+    /**
+     * Reports the result of every test class as soon as it is in. The classes which turned
+     * out to have no tests are not reported.
+     */
+    private static class TestReporter implements TestRunner.Listener {
+        @Override
+        public synchronized void testClassCompleted(final TestClassResult result) {
+            if (result.getTests() == 0 && result.isSuccessful()) {
+                return;
+            }
+
+            if (result.isSuccessful()) {
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\t%s...PASSED (%d tests, %d ms)",
+                        result.getClassName(), result.getTests(), result.getDurationMillis());
+                return;
+            }
+
+            UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\t%s...FAILED (%d of %d tests failed, %d ms)",
+                    result.getClassName(), result.getFailures().size(), result.getTests(), result.getDurationMillis());
+
+            for (final TestClassResult.TestFailure failure : result.getFailures()) {
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\t\t%s\n%s", failure.getTestName(), failure.getTrace());
+            }
+
+            if (result.getOutput() != null && !result.getOutput().isEmpty()) {
+                UtilServiceImpl.INSTANCE.displayFormattedToConsole(true, "\t\tOutput:\n%s", result.getOutput());
+            }
+        }
     }
 }
@@ -66,11 +66,27 @@ public class HelpPages {
             "In addition, if the `lib` section is present, then the mandatory `main-class` key will ensure that the built JAR file is a runnable JAR file\n" +
             " with the `Main-Class` JAR attribute set to the supplied value for `main-class`\n" +
             "\n" +
+            "By default, only the sources that have changed since the last build (and the sources that depend on them) are\n" +
+            "recompiled, with the compiled classes kept in `target/build`.\n" +
+            "\n" +
+            "The resolved dependencies (in classpath order, along with the repository each one came from, and the SHA-1 and\n" +
+            "SHA-256 hashes of its JAR file) are recorded in `Garvel.lock`, and are not resolved again as long as the\n" +
+            "dependencies in `Garvel.gl` stay the same.\n" +
+            "\n" +
             "USAGE:\n" +
-            "    garvel build\n" +
+            "    garvel build [--in-memory] [--profile] [--watch] [--offline]\n" +
             "\n" +
             "ARGS:\n" +
-            "    None\n\n";
+            "    [--in-memory] compile all the sources in memory, and write the JAR file straight from the compiled classes,\n" +
+            "                  without going through `target/build`.\n" +
+            "    [--profile]   record the wall time, CPU time, and allocated bytes of each build step, and write a JSON summary\n" +
+            "                  (`target/profile.json`) and a Chrome trace (`target/profile.trace.json`).\n" +
+            "    [--watch]     keep watching the project after the build, and rebuild it as soon as it changes. Only the changed\n" +
+            "                  sources are recompiled, and the dependencies are only analysed again when `Garvel.gl` changes.\n" +
+            "                  Stop with Ctrl-C.\n" +
+            "    [--offline]   build without touching the network. The dependencies are taken as resolved in `Garvel.lock`, and\n" +
+            "                  their JAR files from the Garvel Cache (checked against the hashes in `Garvel.lock`). Fails if\n" +
+            "                  `Garvel.lock` does not match the dependencies in `Garvel.gl`, or if any JAR file is missing.\n\n";
 
     public static final String cleanCommand = "garvel-clean\n\n" +
             "Cleans the current project. Specifically, it deletes the `target` directory.\n" +
@@ -88,12 +104,33 @@ public class HelpPages {
             "an exception message will be issued.\n" +
             "\n" +
             "USAGE:\n" +
-            "    garvel run [target-name] [target-args]*\n" +
+            "    garvel run [--watch] [target-name] [target-args]*\n" +
             "\n" +
             "ARGS:\n" +
+            "    --watch     keep watching the project, and rebuild it and run the target afresh (in a JVM of its own) as soon\n" +
+            "                as it changes. Stop with Ctrl-C.\n" +
             "    target-name the target name (as specified in the `bin` section of the `Garvel.gl` file). Optional.\n" +
             "    target-args zero or more arguments to the target\n\n";
 
+    public static final String testCommand = "garvel-test\n\n" +
+            "Builds the current project, and runs its tests. The tests live in the `tests` directory under project root, and\n" +
+            "are compiled into `target/test-classes` against the project JAR (and its dependencies).\n" +
+            "\n" +
+            "The test classes are run with JUnit 4 if it is among the dependencies, or else by running their public `test*`\n" +
+            "methods. They are run in parallel, across a number of forked JVMs (one per CPU by default, or as set by the\n" +
+            "`garvel.test.workers` system property), with the results reported as each test class completes.\n" +
+            "\n" +
+            "A run in which all the tests pass records the class-level dependencies of every test class (in\n" +
+            "`target/test-deps.index`), so that later runs can pick out the tests affected by a change.\n" +
+            "\n" +
+            "USAGE:\n" +
+            "    garvel test [--affected]\n" +
+            "\n" +
+            "ARGS:\n" +
+            "    [--affected] only run the test classes which (transitively) depend on the sources changed since the last\n" +
+            "                 green run. Changes to compile-time constants, resources, and classes only loaded reflectively\n" +
+            "                 are not tracked, so run the full suite before a release.\n\n";
+
     public static final String depCommand = "garvel-dep\n\n" +
             "For the given jar, lists all the currently available versions, and if the `--show-dependencies` option is\n" +
             "supplied, then lists all the artifacts the specific version of the jar depends upon.\n" +
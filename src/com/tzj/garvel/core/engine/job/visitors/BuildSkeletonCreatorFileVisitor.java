@@ -65,6 +65,13 @@ public class BuildSkeletonCreatorFileVisitor implements FileVisitor<Path> {
             final Path targetFileRelPath = basePath.relativize(file);
             final String targetFile = buildDirPath + File.separator + targetFileRelPath.toString();
 
+            // the build directory is kept across incremental builds, so only copy
+            // over the files which have changed since they were last copied
+            final File existingFile = new File(targetFile);
+            if (existingFile.exists() && existingFile.lastModified() >= file.toFile().lastModified()) {
+                return FileVisitResult.CONTINUE;
+            }
+
             try {
                 CoreModuleLoader.INSTANCE.getFileSystemFramework().copyFile(targetFile.toString(), file.toString());
             } catch (FilesystemFrameworkException e) {
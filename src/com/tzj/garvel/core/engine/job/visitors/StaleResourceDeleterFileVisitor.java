@@ -0,0 +1,85 @@
+package com.tzj.garvel.core.engine.job.visitors;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The `target/build` directory is kept across incremental builds, so the non-source files
+ * deleted (or renamed) under `src` since the last build must be deleted from it as well, lest
+ * they end up in the project artifacts. The class files are left to the build strategy, and
+ * directories are only deleted once empty.
+ */
+public class StaleResourceDeleterFileVisitor implements FileVisitor<Path> {
+    private static final String CLASS = ".class";
+
+    private final Path srcDirPath;
+    private final Path buildDirPath;
+
+    public StaleResourceDeleterFileVisitor(final Path srcDirPath, final Path buildDirPath) {
+        this.srcDirPath = srcDirPath;
+        this.buildDirPath = buildDirPath;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Delete the non-class file if it has no counterpart under `src`.
+     *
+     * @param file
+     * @param attrs
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+        if (!file.getFileName().toString().endsWith(CLASS) && !Files.isRegularFile(getSourcePath(file))) {
+            Files.delete(file);
+        }
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(final Path file, final IOException exc) throws IOException {
+        throw exc;
+    }
+
+    /**
+     * Delete the directory if it has no counterpart under `src`, and nothing is left in it.
+     *
+     * @param dir
+     * @param exc
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+        if (exc != null) {
+            throw exc;
+        }
+
+        if (!dir.equals(buildDirPath) && !Files.isDirectory(getSourcePath(dir)) && isEmpty(dir)) {
+            Files.delete(dir);
+        }
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    private Path getSourcePath(final Path path) {
+        return srcDirPath.resolve(buildDirPath.relativize(path).toString());
+    }
+
+    private static boolean isEmpty(final Path dir) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            return !entries.iterator().hasNext();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tzj.garvel.core.engine.task;
+
+import com.tzj.garvel.core.engine.exception.TaskException;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single step of a TaskGraph. A task runs once all the tasks it depends on have
+ * completed successfully, and can pick up their results from the TaskResults.
+ * <p>
+ * A task which declares its inputs (files or directories) is incremental: the TaskGraph
+ * fingerprints the inputs, and skips the task - reusing the result recorded by the last
+ * run - as long as the fingerprint (and those of the incremental tasks it depends on) is
+ * unchanged, and the recorded result is still valid. Results of incremental tasks must
+ * therefore be Serializable.
+ *
+ * @param <T> the type of the result.
+ */
+public abstract class Task<T> {
+    private final String name;
+    private final List<Task<?>> dependencies;
+
+    protected Task(final String name, final Task<?>... dependencies) {
+        this.name = name;
+        this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Task<?>> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Run the task.
+     *
+     * @param results the results of the tasks completed so far.
+     * @return
+     * @throws TaskException
+     */
+    public abstract T execute(final TaskResults results) throws TaskException;
+
+    /**
+     * The files (or directory trees) whose state determines the result of the task.
+     * Tasks which return null (the default) always run.
+     *
+     * @return
+     */
+    public List<Path> getInputs() {
+        return null;
+    }
+
+    /**
+     * Check whether the result recorded by the last run can still be used, for
+     * instance because the files it refers to still exist.
+     *
+     * @param result
+     * @return
+     */
+    public boolean isResultValid(final T result) {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Task{" +
+                "name='" + name + '\'' +
+                '}';
+    }
+}
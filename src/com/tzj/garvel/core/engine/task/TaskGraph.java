@@ -0,0 +1,307 @@
+package com.tzj.garvel.core.engine.task;
+
+import com.tzj.garvel.core.engine.exception.TaskException;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a set of tasks in dependency order, running the independent ones concurrently.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Tasks are added in dependency order - a task can only depend on tasks which have
+ * already been added, so the graph is acyclic by construction.
+ * 2. Every task without pending dependencies is submitted to the executor. Whenever a task
+ * completes, the tasks depending on it lose one pending dependency, and are submitted once
+ * they have none left.
+ * 3. Before running an incremental task (see Task), fingerprint its inputs along with the
+ * fingerprints of the incremental tasks it depends on, and compare against the fingerprint
+ * recorded by the last run. If it matches, and the recorded result is still valid, the task
+ * is skipped and the recorded result is used instead. Otherwise the task runs, and the
+ * fingerprint of its inputs is taken again afterwards and recorded, since a task may update
+ * its own inputs.
+ * 4. As soon as a task fails, no more tasks are started. The tasks already running are
+ * allowed to finish, the fingerprints recorded so far are saved, and the first failure
+ * is reported.
+ */
+public class TaskGraph {
+    private final Map<String, Task<?>> tasks;
+    private final String stateFile;
+
+    /**
+     * @param stateFile where the fingerprints of the incremental tasks are kept between
+     *                  runs, or null to always run every task.
+     */
+    public TaskGraph(final String stateFile) {
+        this.tasks = new LinkedHashMap<>();
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Add a task, after all the tasks it depends on.
+     *
+     * @param task
+     * @param <T>
+     * @return the task, for convenience.
+     */
+    public <T> Task<T> add(final Task<T> task) {
+        if (tasks.containsKey(task.getName())) {
+            throw new IllegalArgumentException(String.format("duplicate task %s", task.getName()));
+        }
+
+        for (final Task<?> dependency : task.getDependencies()) {
+            if (tasks.get(dependency.getName()) != dependency) {
+                throw new IllegalArgumentException(String.format("task %s depends on %s, which has not been added",
+                        task.getName(), dependency.getName()));
+            }
+        }
+
+        tasks.put(task.getName(), task);
+        return task;
+    }
+
+    /**
+     * Run all the tasks.
+     *
+     * @param executor
+     * @return the results of all the tasks.
+     * @throws TaskException the first failure.
+     */
+    public TaskResults execute(final ExecutorService executor) throws TaskException {
+        final TaskResults results = new TaskResults();
+        final TaskStateStore store = stateFile == null ? null : TaskStateStore.load(stateFile);
+        final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+        final Map<Task<?>, Integer> pending = new HashMap<>();
+        final Map<Task<?>, List<Task<?>>> dependents = new HashMap<>();
+        for (final Task<?> task : tasks.values()) {
+            pending.put(task, task.getDependencies().size());
+            dependents.put(task, new ArrayList<Task<?>>());
+        }
+        for (final Task<?> task : tasks.values()) {
+            for (final Task<?> dependency : task.getDependencies()) {
+                dependents.get(dependency).add(task);
+            }
+        }
+
+        final CompletionService<Completion> completions = new ExecutorCompletionService<>(executor);
+        int running = 0;
+
+        for (final Task<?> task : tasks.values()) {
+            if (task.getDependencies().isEmpty()) {
+                completions.submit(new TaskRunner(task, results, store, fingerprints));
+                running++;
+            }
+        }
+
+        TaskException failure = null;
+        try {
+            while (running > 0) {
+                final Completion completion = awaitCompletion(completions);
+                running--;
+
+                if (completion.failure != null) {
+                    if (failure == null) {
+                        failure = completion.failure;
+                    }
+                    continue;
+                }
+
+                results.put(completion.task, completion.result, completion.upToDate);
+
+                if (failure == null) {
+                    for (final Task<?> dependent : dependents.get(completion.task)) {
+                        final int remaining = pending.get(dependent) - 1;
+                        pending.put(dependent, remaining);
+
+                        if (remaining == 0) {
+                            completions.submit(new TaskRunner(dependent, results, store, fingerprints));
+                            running++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (store != null) {
+                store.save(stateFile);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return results;
+    }
+
+    private Completion awaitCompletion(final CompletionService<Completion> completions) throws TaskException {
+        try {
+            return completions.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskException("interrupted while waiting for the tasks to complete\n");
+        } catch (ExecutionException e) {
+            // the runner catches everything itself
+            throw new TaskException(String.format("internal error: %s\n", e.getCause()));
+        }
+    }
+
+    /**
+     * The outcome of running (or skipping) a task.
+     */
+    private static class Completion {
+        private final Task<?> task;
+        private final Object result;
+        private final boolean upToDate;
+        private final TaskException failure;
+
+        Completion(final Task<?> task, final Object result, final boolean upToDate, final TaskException failure) {
+            this.task = task;
+            this.result = result;
+            this.upToDate = upToDate;
+            this.failure = failure;
+        }
+    }
+
+    private static class TaskRunner implements Callable<Completion> {
+        private final Task<?> task;
+        private final TaskResults results;
+        private final TaskStateStore store;
+        private final Map<String, String> fingerprints;
+
+        TaskRunner(final Task<?> task, final TaskResults results, final TaskStateStore store,
+                   final Map<String, String> fingerprints) {
+            this.task = task;
+            this.results = results;
+            this.store = store;
+            this.fingerprints = fingerprints;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        public Completion call() {
+            try (final ProfileSpan span = BuildProfiler.INSTANCE.begin("task", task.getName())) {
+                return run(task);
+            } catch (TaskException e) {
+                return new Completion(task, null, false, e);
+            } catch (RuntimeException e) {
+                return new Completion(task, null, false,
+                        new TaskException(task.getName(), String.format("task %s failed: %s\n", task.getName(), e)));
+            }
+        }
+
+        private <T> Completion run(final Task<T> t) throws TaskException {
+            final List<Path> inputs = t.getInputs();
+            if (inputs == null || store == null) {
+                return new Completion(t, t.execute(results), false, null);
+            }
+
+            final String fingerprint = fingerprint(t, inputs);
+            final TaskStateStore.TaskRecord record = store.get(t.getName());
+
+            if (record != null && fingerprint.equals(record.getFingerprint())) {
+                @SuppressWarnings("unchecked")
+                final T recorded = (T) record.getResult();
+
+                if (t.isResultValid(recorded)) {
+                    fingerprints.put(t.getName(), fingerprint);
+                    return new Completion(t, recorded, true, null);
+                }
+            }
+
+            final T result = t.execute(results);
+
+            // a task may well update its own inputs (the dependency analysis rewrites the lock
+            // file, say), so what is recorded is the state they were left in
+            final String executedFingerprint = fingerprint(t, inputs);
+
+            if (result == null || result instanceof Serializable) {
+                store.put(t.getName(), new TaskStateStore.TaskRecord(executedFingerprint, (Serializable) result));
+                fingerprints.put(t.getName(), executedFingerprint);
+            } else {
+                store.remove(t.getName());
+            }
+
+            return new Completion(t, result, false, null);
+        }
+
+        /**
+         * The SHA-1 of the state (modification time and size) of every input file, and of
+         * the fingerprints of the incremental tasks this task depends on.
+         *
+         * @param t
+         * @param inputs
+         * @return
+         * @throws TaskException
+         */
+        private String fingerprint(final Task<?> t, final List<Path> inputs) throws TaskException {
+            final StringBuilder sb = new StringBuilder();
+
+            for (final Task<?> dependency : t.getDependencies()) {
+                final String dependencyFingerprint = fingerprints.get(dependency.getName());
+                if (dependencyFingerprint != null) {
+                    sb.append(dependency.getName()).append('=').append(dependencyFingerprint).append('\n');
+                }
+            }
+
+            try {
+                for (final Path input : inputs) {
+                    appendState(sb, input);
+                }
+            } catch (IOException e) {
+                throw new TaskException(t.getName(), String.format("failed to check the inputs of %s: %s\n",
+                        t.getName(), e.getLocalizedMessage()));
+            }
+
+            try {
+                final byte[] hash = MessageDigest.getInstance("SHA-1").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+                final StringBuilder hex = new StringBuilder();
+                for (final byte b : hash) {
+                    hex.append(String.format("%02x", b & 0xff));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                // every JRE is required to support SHA-1
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void appendState(final StringBuilder sb, final Path input) throws IOException {
+            if (!Files.exists(input)) {
+                sb.append(input).append("|-\n");
+                return;
+            }
+
+            if (!Files.isDirectory(input)) {
+                sb.append(input).append('|').append(Files.getLastModifiedTime(input).toMillis())
+                        .append('|').append(Files.size(input)).append('\n');
+                return;
+            }
+
+            // a directory - every file in the tree, in a stable order
+            final SortedMap<String, String> files = new TreeMap<>();
+            Files.walkFileTree(input, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    files.put(file.toString(), attrs.lastModifiedTime().toMillis() + "|" + attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            for (final Map.Entry<String, String> file : files.entrySet()) {
+                sb.append(file.getKey()).append('|').append(file.getValue()).append('\n');
+            }
+        }
+    }
+}
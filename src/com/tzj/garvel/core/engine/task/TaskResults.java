@@ -0,0 +1,62 @@
+package com.tzj.garvel.core.engine.task;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The results of the completed tasks of a TaskGraph run. Tasks read the results of
+ * their dependencies from here while other tasks are still running.
+ */
+public class TaskResults {
+    // ConcurrentHashMap does not take null values
+    private static final Object NULL = new Object();
+
+    private final Map<String, Object> results;
+    private final Set<String> skipped;
+
+    TaskResults() {
+        this.results = new ConcurrentHashMap<>();
+        this.skipped = Collections.synchronizedSet(new HashSet<String>());
+    }
+
+    /**
+     * The result of the given (completed) task.
+     *
+     * @param task
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Task<T> task) {
+        final Object result = results.get(task.getName());
+        if (result == null) {
+            throw new IllegalStateException(String.format("task %s has not completed", task.getName()));
+        }
+
+        return result == NULL ? null : (T) result;
+    }
+
+    public boolean isCompleted(final Task<?> task) {
+        return results.containsKey(task.getName());
+    }
+
+    /**
+     * Was the task skipped because it was up-to-date?
+     *
+     * @param task
+     * @return
+     */
+    public boolean isSkipped(final Task<?> task) {
+        return skipped.contains(task.getName());
+    }
+
+    void put(final Task<?> task, final Object result, final boolean upToDate) {
+        results.put(task.getName(), result == null ? NULL : result);
+        if (upToDate) {
+            skipped.add(task.getName());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tzj.garvel.core.engine.task;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fingerprints and results of the incremental tasks, as of their last successful run.
+ */
+class TaskStateStore implements Serializable {
+    private static final long serialVersionUID = -2840675918314220961L;
+
+    private final Map<String, TaskRecord> records;
+    private transient boolean modified;
+
+    private TaskStateStore() {
+        this.records = new HashMap<>();
+    }
+
+    /**
+     * Load the store, or start with an empty one if it does not exist (or is unreadable).
+     *
+     * @param filename
+     * @return
+     */
+    static TaskStateStore load(final String filename) {
+        if (new File(filename).isFile()) {
+            try {
+                return CoreModuleLoader.INSTANCE.getFileSystemFramework().loadSerializedObject(filename, TaskStateStore.class);
+            } catch (FilesystemFrameworkException | ClassCastException e) {
+                // start afresh - every incremental task simply runs again
+            }
+        }
+
+        return new TaskStateStore();
+    }
+
+    /**
+     * Save the store, if anything has changed. The store only ever speeds up the next
+     * run, so failures are ignored.
+     *
+     * @param filename
+     */
+    synchronized void save(final String filename) {
+        if (!modified || !new File(filename).getParentFile().isDirectory()) {
+            return;
+        }
+
+        try {
+            CoreModuleLoader.INSTANCE.getFileSystemFramework().storeSerializedObject(this, filename);
+            modified = false;
+        } catch (FilesystemFrameworkException e) {
+            // the tasks will run again next time
+        }
+    }
+
+    synchronized TaskRecord get(final String taskName) {
+        return records.get(taskName);
+    }
+
+    synchronized void put(final String taskName, final TaskRecord record) {
+        records.put(taskName, record);
+        modified = true;
+    }
+
+    synchronized void remove(final String taskName) {
+        if (records.remove(taskName) != null) {
+            modified = true;
+        }
+    }
+
+    static class TaskRecord implements Serializable {
+        private static final long serialVersionUID = 6189233405170652367L;
+
+        private final String fingerprint;
+        private final Serializable result;
+
+        TaskRecord(final String fingerprint, final Serializable result) {
+            this.fingerprint = fingerprint;
+            this.result = result;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        Serializable getResult() {
+            return result;
+        }
+    }
+}
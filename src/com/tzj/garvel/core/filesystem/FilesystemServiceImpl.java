@@ -437,10 +437,33 @@ public enum FilesystemServiceImpl implements FilesystemService {
      */
     @Override
     public void storeSerializedObject(final Object object, final String filename) throws FilesystemFrameworkException {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename))) {
-            out.writeObject(object);
+        // write to a sibling file first, and then rename it over the target so that
+        // readers never see a partially written object
+        final Path target = Paths.get(filename).toAbsolutePath();
+        Path tmp = null;
+
+        try {
+            tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp.toFile())))) {
+                out.writeObject(object);
+            }
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             throw new FilesystemFrameworkException(String.format("failed to save binary object in %s\n", filename));
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
         }
     }
 
@@ -1,19 +1,36 @@
 package com.tzj.garvel.core.net;
 
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
 import com.tzj.garvel.core.net.api.NetworkConnector;
 import com.tzj.garvel.core.net.api.NetworkConnectorFactory;
+import com.tzj.garvel.core.net.api.NetworkConnectorType;
 import com.tzj.garvel.core.net.api.NetworkConstants;
 import com.tzj.garvel.core.net.api.NetworkService;
 import com.tzj.garvel.common.buffers.DynamicBuffer;
 import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
+import com.tzj.garvel.core.net.connectors.PooledHttpConnector;
+import com.tzj.garvel.core.profile.BuildProfiler;
+import com.tzj.garvel.core.profile.ProfileSpan;
 
 import java.io.*;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public enum NetworkServiceImpl implements NetworkService {
     INSTANCE;
 
+    private static final String PROFILE_CATEGORY = "net";
+
+    private ExecutorService asyncExecutor;
+    private boolean configured;
+
     /**
      * Try to connect to the given URL with a set timeout to see if the link is
      * up and running.
@@ -22,8 +39,9 @@ public enum NetworkServiceImpl implements NetworkService {
      * @throws NetworkServiceException
      */
     @Override
+    @SuppressWarnings("try")
     public boolean checkUrlAvailable(final String urlString) {
-        try {
+        try (final ProfileSpan span = profile(NetworkConstants.HEAD, urlString)) {
             final NetworkConnector connector = NetworkConnectorFactory.getConnector();
             URL url = null;
             url = new URL(urlString);
@@ -37,7 +55,10 @@ public enum NetworkServiceImpl implements NetworkService {
             conn.setReadTimeout(NetworkConstants.READ_TIMEOUT);
             conn.setRequestMethod(NetworkConstants.HEAD);
 
-            if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
+            final int code = conn.getResponseCode();
+            release(conn, code);
+
+            if (code == HttpURLConnection.HTTP_OK) {
                 return true;
             }
         } catch (Exception ex) {
@@ -55,10 +76,11 @@ public enum NetworkServiceImpl implements NetworkService {
      * @throws NetworkServiceException
      */
     @Override
+    @SuppressWarnings("try")
     public String downloadTextFileAsString(final String urlString) throws NetworkServiceException {
         final StringWriter outputFile = new StringWriter();
 
-        try {
+        try (final ProfileSpan span = profile(NetworkConstants.GET, urlString)) {
             final NetworkConnector connector = NetworkConnectorFactory.getConnector();
 
             final URL url = new URL(urlString);
@@ -66,7 +88,8 @@ public enum NetworkServiceImpl implements NetworkService {
 
             final int code = conn.getResponseCode();
             if (code != HttpURLConnection.HTTP_OK) {
-                throw new NetworkServiceException(String.format("Failed to download text file as string %s: Server returned %s\n", code));
+                release(conn, code);
+                throw new NetworkServiceException(String.format("Failed to download text file as string %s: Server returned %s\n", urlString, code), code);
             }
 
             conn.setReadTimeout(0);
@@ -96,8 +119,9 @@ public enum NetworkServiceImpl implements NetworkService {
      * @param urlString
      */
     @Override
+    @SuppressWarnings("try")
     public void downloadBinaryFile(final String urlString, final String targetFile) throws NetworkServiceException {
-        try {
+        try (final ProfileSpan span = profile(NetworkConstants.GET, urlString)) {
             final NetworkConnector connector = NetworkConnectorFactory.getConnector();
 
             final URL url = new URL(urlString);
@@ -105,7 +129,8 @@ public enum NetworkServiceImpl implements NetworkService {
 
             final int code = conn.getResponseCode();
             if (code != HttpURLConnection.HTTP_OK) {
-                throw new NetworkServiceException(String.format("Failed to download binary file %s: Server returned %s\n", code));
+                release(conn, code);
+                throw new NetworkServiceException(String.format("Failed to download binary file %s: Server returned %s\n", urlString, code), code);
             }
             conn.setReadTimeout(0);
 
@@ -126,6 +151,99 @@ public enum NetworkServiceImpl implements NetworkService {
         }
     }
 
+    /**
+     * Download a binary file from the given url into the given location, computing the
+     * requested digests (MD5, SHA1, etc.) of the contents as they are streamed to disk.
+     * The file is therefore read exactly once.
+     *
+     * @param urlString
+     * @param targetFile
+     * @param algorithms
+     * @return the hex-encoded digests, keyed by algorithm.
+     * @throws NetworkServiceException
+     */
+    @Override
+    @SuppressWarnings("try")
+    public Map<String, String> downloadBinaryFileWithDigests(final String urlString, final String targetFile,
+                                                             final String... algorithms) throws NetworkServiceException {
+        final MessageDigest[] digests = new MessageDigest[algorithms.length];
+        try {
+            for (int i = 0; i < algorithms.length; i++) {
+                digests[i] = MessageDigest.getInstance(algorithms[i]);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new NetworkServiceException(String.format("Unsupported digest algorithm: %s\n", e.getLocalizedMessage()));
+        }
+
+        try (final ProfileSpan span = profile(NetworkConstants.GET, urlString)) {
+            final NetworkConnector connector = NetworkConnectorFactory.getConnector();
+
+            final URL url = new URL(urlString);
+            final HttpURLConnection conn = connector.getConnection(url);
+
+            final int code = conn.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                release(conn, code);
+                throw new NetworkServiceException(String.format("Failed to download binary file %s: Server returned %s\n", urlString, code), code);
+            }
+            conn.setReadTimeout(0);
+
+            try (InputStream in = conn.getInputStream();
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(targetFile))) {
+
+                byte[] buffer = new byte[NetworkConstants.BUF_SIZE];
+                int count = -1;
+
+                while ((count = in.read(buffer)) != -1) {
+                    for (final MessageDigest digest : digests) {
+                        digest.update(buffer, 0, count);
+                    }
+                    out.write(buffer, 0, count);
+                }
+            }
+        } catch (IOException e) {
+            throw new NetworkServiceException(String.format("Failed to download binary file %s: %s\n", urlString, e.getLocalizedMessage()));
+        }
+
+        final Map<String, String> hashes = new LinkedHashMap<>();
+        for (int i = 0; i < algorithms.length; i++) {
+            hashes.put(algorithms[i], toHex(digests[i].digest()));
+        }
+
+        return hashes;
+    }
+
+    /**
+     * Requests are profiled by host, so that a slow repository stands out in the summary.
+     *
+     * @param method
+     * @param urlString
+     * @return
+     */
+    private ProfileSpan profile(final String method, final String urlString) {
+        if (!BuildProfiler.INSTANCE.isEnabled()) {
+            return BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, null);
+        }
+
+        String host = urlString;
+        try {
+            host = new URL(urlString).getHost();
+        } catch (MalformedURLException e) {
+            // the request itself will fail - profile it under the raw URL
+        }
+
+        return BuildProfiler.INSTANCE.begin(PROFILE_CATEGORY, host, method + " " + urlString);
+    }
+
+    private String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (int i = 0; i < bytes.length; i++) {
+            sb.append(String.format("%02x", bytes[i] & 0xff));
+        }
+
+        return sb.toString();
+    }
+
     /**
      * Download a text file from the given url, into the given location. To avoid issues with encoding.
      * process the stream as a byte stream instead of a character stream.
@@ -133,8 +251,9 @@ public enum NetworkServiceImpl implements NetworkService {
      * @param urlString
      */
     @Override
+    @SuppressWarnings("try")
     public void downloadTextFile(final String urlString, final String downloadLocation) throws NetworkServiceException {
-        try {
+        try (final ProfileSpan span = profile(NetworkConstants.GET, urlString)) {
             final String outputFile = downloadLocation
                     + File.separator + urlString.substring(urlString.lastIndexOf("/") + 1, urlString.length());
             final NetworkConnector connector = NetworkConnectorFactory.getConnector();
@@ -144,7 +263,8 @@ public enum NetworkServiceImpl implements NetworkService {
 
             final int code = conn.getResponseCode();
             if (code != HttpURLConnection.HTTP_OK) {
-                throw new NetworkServiceException(String.format("Failed to download text file %s: Server returned %s\n", urlString, code));
+                release(conn, code);
+                throw new NetworkServiceException(String.format("Failed to download text file %s: Server returned %s\n", urlString, code), code);
             }
 
             conn.setReadTimeout(0);
@@ -170,4 +290,99 @@ public enum NetworkServiceImpl implements NetworkService {
     public DynamicBuffer<Byte> downloadBinaryFileAsByteBuffer(final String url) throws NetworkServiceException {
         return null;
     }
+
+    /**
+     * Asynchronous version of downloadTextFileAsString.
+     *
+     * @param url
+     * @return
+     */
+    @Override
+    public Future<String> downloadTextFileAsStringAsync(final String url) {
+        return getAsyncExecutor().submit(new Callable<String>() {
+            @Override
+            public String call() throws NetworkServiceException {
+                return downloadTextFileAsString(url);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of downloadBinaryFile. The Future yields the target file
+     * once the download has completed.
+     *
+     * @param url
+     * @param targetFile
+     * @return
+     */
+    @Override
+    public Future<String> downloadBinaryFileAsync(final String url, final String targetFile) {
+        return getAsyncExecutor().submit(new Callable<String>() {
+            @Override
+            public String call() throws NetworkServiceException {
+                downloadBinaryFile(url, targetFile);
+                return targetFile;
+            }
+        });
+    }
+
+    /**
+     * Apply the JVM-wide settings the selected connector relies on. This is done once, at
+     * core startup, before any connection is opened.
+     */
+    @Override
+    public synchronized void configure() {
+        if (configured) {
+            return;
+        }
+
+        if (NetworkConnectorFactory.getConfiguredType() == NetworkConnectorType.POOLED) {
+            PooledHttpConnector.configureKeepAliveCache();
+        }
+
+        configured = true;
+    }
+
+    /**
+     * Stop the threads backing the asynchronous API.
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+            asyncExecutor = null;
+        }
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null || asyncExecutor.isShutdown()) {
+            final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+            asyncExecutor = concurrency.newLimitedExecutor("net", concurrency.getNetworkExecutor(), NetworkConstants.ASYNC_THREADS);
+        }
+
+        return asyncExecutor;
+    }
+
+    /**
+     * Read the remainder of an unwanted response body (for instance, that of an error or a HEAD
+     * response) and close it. This allows the underlying connection to be returned to the
+     * keep-alive cache instead of being torn down.
+     *
+     * @param conn
+     * @param code
+     */
+    private void release(final HttpURLConnection conn, final int code) {
+        try (InputStream in = code >= HttpURLConnection.HTTP_BAD_REQUEST ? conn.getErrorStream() : conn.getInputStream()) {
+            if (in == null) {
+                return;
+            }
+
+            final byte[] buffer = new byte[NetworkConstants.BUF_SIZE];
+            while (in.read(buffer) != -1) {
+                // discard
+            }
+        } catch (IOException e) {
+            // the connection will simply not be reused
+        }
+    }
 }
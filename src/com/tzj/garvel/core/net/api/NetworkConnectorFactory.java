@@ -1,16 +1,53 @@
 package com.tzj.garvel.core.net.api;
 
 import com.tzj.garvel.core.net.connectors.HttpConnector;
+import com.tzj.garvel.core.net.connectors.PooledHttpConnector;
 
 /**
- * The default scheme for now is to try HTTP first,
- * and failing that, trying HTTPS.
+ * The default scheme is to use the pooled (keep-alive) connector. The basic
+ * scheme of trying HTTP first and, failing that, HTTPS, can still be selected
+ * by setting the `garvel.net.connector` property to BASIC.
  */
 public class NetworkConnectorFactory {
     private NetworkConnectorFactory() {
     }
 
     public static NetworkConnector getConnector() {
-        return new HttpConnector();
+        return getConnector(getConfiguredType());
+    }
+
+    /**
+     * The connector type selected by the `garvel.net.connector` property - POOLED by default.
+     *
+     * @return
+     */
+    public static NetworkConnectorType getConfiguredType() {
+        NetworkConnectorType type = NetworkConnectorType.POOLED;
+
+        final String configuredType = System.getProperty(NetworkConstants.CONNECTOR_PROPERTY);
+        if (configuredType != null) {
+            try {
+                type = NetworkConnectorType.valueOf(configuredType.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // fall back to the default
+            }
+        }
+
+        return type;
+    }
+
+    public static NetworkConnector getConnector(final NetworkConnectorType type) {
+        NetworkConnector connector = null;
+
+        switch (type) {
+            case BASIC:
+                connector = new HttpConnector();
+                break;
+            case POOLED:
+                connector = new PooledHttpConnector();
+                break;
+        }
+
+        return connector;
     }
 }
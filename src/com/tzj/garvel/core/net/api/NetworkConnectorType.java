@@ -0,0 +1,13 @@
+package com.tzj.garvel.core.net.api;
+
+/**
+ * The available NetworkConnector backends.
+ * <p>
+ * BASIC opens a plain connection per request, trying HTTP first and then HTTPS.
+ * POOLED keeps the underlying sockets alive and reuses them across requests to
+ * the same host.
+ */
+public enum NetworkConnectorType {
+    BASIC,
+    POOLED
+}
@@ -1,11 +1,14 @@
 package com.tzj.garvel.core.net.api;
 
+import com.tzj.garvel.core.GarvelCoreConstants;
+
 public class NetworkConstants {
     public static final int CONNECT_TIMEOUT = 5000; // 5 seconds
 
     public static final int READ_TIMEOUT = 5000;
 
     public static final String HEAD = "HEAD";
+    public static final String GET = "GET";
 
     // useful to have a constant here for forming URLs
     public static final String FORWARD_SLASH = "/";
@@ -13,4 +16,13 @@ public class NetworkConstants {
     public static final String DASH = "-";
 
     public static final int BUF_SIZE = 8192; // 8KB default
+
+    // size of the JDK keep-alive cache, per host
+    public static final int MAX_CONNECTIONS_PER_HOST = Integer.getInteger("garvel.net.connections", 16);
+
+    // threads used for the asynchronous downloads
+    public static final int ASYNC_THREADS = GarvelCoreConstants.GARVEL_NET_THREADS;
+
+    // the NetworkConnectorType to use - POOLED by default
+    public static final String CONNECTOR_PROPERTY = "garvel.net.connector";
 }
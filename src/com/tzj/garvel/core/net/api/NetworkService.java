@@ -3,6 +3,9 @@ package com.tzj.garvel.core.net.api;
 import com.tzj.garvel.common.buffers.DynamicBuffer;
 import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
 
+import java.util.Map;
+import java.util.concurrent.Future;
+
 public interface NetworkService {
     boolean checkUrlAvailable(final String url) throws NetworkServiceException;
 
@@ -12,6 +15,16 @@ public interface NetworkService {
 
     void downloadBinaryFile(final String url, final String targetFile) throws NetworkServiceException;
 
+    Map<String, String> downloadBinaryFileWithDigests(final String url, final String targetFile, final String... algorithms) throws NetworkServiceException;
+
     DynamicBuffer<Byte> downloadBinaryFileAsByteBuffer(final String url) throws NetworkServiceException;
 
+    Future<String> downloadTextFileAsStringAsync(final String url);
+
+    Future<String> downloadBinaryFileAsync(final String url, final String targetFile);
+
+    void configure();
+
+    void shutdown();
+
 }
@@ -5,7 +5,21 @@ import com.tzj.garvel.common.spi.exception.GarvelCheckedException;
 public class NetworkServiceException extends GarvelCheckedException {
     private static final long serialVersionUID = 959111880726834053L;
 
+    /**
+     * The HTTP status code returned by the server, or -1 if no response was received.
+     */
+    private final int statusCode;
+
     public NetworkServiceException(final String errorMessage) {
+        this(errorMessage, -1);
+    }
+
+    public NetworkServiceException(final String errorMessage, final int statusCode) {
         super(errorMessage);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
     }
 }
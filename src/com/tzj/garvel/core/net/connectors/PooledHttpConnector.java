@@ -0,0 +1,70 @@
+package com.tzj.garvel.core.net.connectors;
+
+import com.tzj.garvel.core.net.api.NetworkConnector;
+import com.tzj.garvel.core.net.api.NetworkConstants;
+import com.tzj.garvel.core.net.api.exception.NetworkServiceException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * A connector that reuses connections across requests.
+ * <p>
+ * The JDK keeps idle HTTP(S) connections in a per-host keep-alive cache, and hands them
+ * back out for the next request to the same host, skipping the TCP (and TLS) handshake.
+ * The cache itself is configured through JVM-wide system properties, which are set once,
+ * at core startup (see configureKeepAliveCache) - never as a side effect of loading this
+ * class. Connections are
+ * only returned to the cache once their response body has been fully read and closed,
+ * which NetworkServiceImpl takes care of.
+ */
+public class PooledHttpConnector extends NetworkConnector {
+    private static final String KEEP_ALIVE_PROPERTY = "http.keepAlive";
+    private static final String MAX_CONNECTIONS_PROPERTY = "http.maxConnections";
+
+    public PooledHttpConnector() {
+        super();
+        nextConnector = null;
+    }
+
+    /**
+     * Make sure the JDK keep-alive cache is enabled, and large enough for the number of
+     * concurrent downloads Garvel runs against a single repository. Properties which the
+     * user has already set are left alone.
+     */
+    public static void configureKeepAliveCache() {
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, "true");
+        }
+
+        if (System.getProperty(MAX_CONNECTIONS_PROPERTY) == null) {
+            System.setProperty(MAX_CONNECTIONS_PROPERTY, String.valueOf(NetworkConstants.MAX_CONNECTIONS_PER_HOST));
+        }
+    }
+
+    /**
+     * Open a connection to the given url (either HTTP or HTTPS), allowing it to be
+     * served from, and returned to, the keep-alive cache.
+     *
+     * @param url
+     * @return
+     * @throws NetworkServiceException
+     */
+    @Override
+    public HttpURLConnection getConnection(final URL url) throws NetworkServiceException {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) url.openConnection();
+        } catch (IOException | ClassCastException e) {
+            throw new NetworkServiceException(String.format("Unable to open pooled connection to %s\n", url));
+        }
+
+        conn.setConnectTimeout(NetworkConstants.CONNECT_TIMEOUT);
+        conn.setReadTimeout(NetworkConstants.READ_TIMEOUT);
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Connection", "keep-alive");
+
+        return conn;
+    }
+}
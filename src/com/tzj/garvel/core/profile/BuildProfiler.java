@@ -0,0 +1,195 @@
+package com.tzj.garvel.core.profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the wall time, CPU time, and allocated bytes of the steps of a build.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. start() enables profiling.
+ * 2. The instrumented steps open a span on entry, and close it on exit. Each span samples
+ * the clock, the CPU time of the current thread, and the bytes allocated by the current
+ * thread, on both ends.
+ * 3. stop() records the root event covering the whole build - with the CPU time of the whole
+ * process, rather than that of a single thread - disables profiling, and hands back the
+ * recorded events (see ProfileReportWriter for the reports).
+ * <p>
+ * Spans nest naturally per thread, since a step only ever runs on a single thread. Steps
+ * running on other threads (the concurrent tasks, resolver fetches, and downloads) show
+ * up as spans of their own threads.
+ */
+public enum BuildProfiler {
+    INSTANCE;
+
+    public static final String BUILD_CATEGORY = "build";
+    private static final String ROOT_SPAN = "total";
+
+    private final List<ProfileEvent> events = new ArrayList<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported = isCpuTimeSupported(threads);
+    private final boolean allocationSupported = isAllocationSupported(threads);
+
+    private volatile boolean enabled;
+    private long origin;
+    private long originProcessCpuNanos;
+
+    /**
+     * Check whether the JVM measures the CPU time of a thread, and enable the measurement
+     * if needed.
+     *
+     * @param threads
+     * @return
+     */
+    private static boolean isCpuTimeSupported(final ThreadMXBean threads) {
+        try {
+            if (!threads.isCurrentThreadCpuTimeSupported()) {
+                return false;
+            }
+            if (!threads.isThreadCpuTimeEnabled()) {
+                threads.setThreadCpuTimeEnabled(true);
+            }
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The allocated bytes of a thread are only available through the HotSpot extension of
+     * the ThreadMXBean.
+     *
+     * @param threads
+     * @return
+     */
+    private static boolean isAllocationSupported(final ThreadMXBean threads) {
+        try {
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+
+            final com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (!hotspot.isThreadAllocatedMemorySupported()) {
+                return false;
+            }
+            if (!hotspot.isThreadAllocatedMemoryEnabled()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+            }
+            return true;
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The CPU time of the whole process is only available through the HotSpot extension of
+     * the OperatingSystemMXBean.
+     *
+     * @return the CPU time, or -1 if it is not available.
+     */
+    private static long processCpuTime() {
+        try {
+            final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+            }
+        } catch (LinkageError e) {
+            // not HotSpot
+        }
+
+        return -1;
+    }
+
+    /**
+     * Start a new profile, discarding any previous one.
+     */
+    public synchronized void start() {
+        events.clear();
+        origin = System.nanoTime();
+        originProcessCpuNanos = processCpuTime();
+        enabled = true;
+    }
+
+    /**
+     * Stop profiling.
+     *
+     * @return the recorded events, in the order in which they completed. The root event,
+     * covering the whole build, is the last one.
+     */
+    public synchronized List<ProfileEvent> stop() {
+        if (enabled) {
+            final Thread current = Thread.currentThread();
+            events.add(new ProfileEvent(BUILD_CATEGORY, ROOT_SPAN, null, current.getId(), current.getName(),
+                    0L, System.nanoTime() - origin, difference(originProcessCpuNanos, processCpuTime()), -1));
+        }
+        enabled = false;
+
+        return new ArrayList<>(events);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ProfileSpan begin(final String category, final String name) {
+        return begin(category, name, null);
+    }
+
+    /**
+     * Open a span on the current thread.
+     *
+     * @param category the component (build, task, resolver, net).
+     * @param name     the step - spans are aggregated by category and name in the summary.
+     * @param detail   what the step works on (a URL, an artifact), or null.
+     * @return
+     */
+    public ProfileSpan begin(final String category, final String name, final String detail) {
+        if (!enabled) {
+            return ProfileSpan.NOOP;
+        }
+
+        return new ProfileSpan(this, category, name, detail, System.nanoTime(), cpuTime(), allocatedBytes());
+    }
+
+    void end(final ProfileSpan span) {
+        final long endNanos = System.nanoTime();
+        final long endCpuNanos = cpuTime();
+        final long endAllocatedBytes = allocatedBytes();
+
+        final Thread current = Thread.currentThread();
+
+        synchronized (this) {
+            // a span outliving its profile is dropped
+            if (!enabled) {
+                return;
+            }
+
+            events.add(new ProfileEvent(span.getCategory(), span.getName(), span.getDetail(),
+                    current.getId(), current.getName(),
+                    span.getStartNanos() - origin,
+                    endNanos - span.getStartNanos(),
+                    difference(span.getStartCpuNanos(), endCpuNanos),
+                    difference(span.getStartAllocatedBytes(), endAllocatedBytes)));
+        }
+    }
+
+    private long difference(final long start, final long end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private long allocatedBytes() {
+        if (!allocationSupported) {
+            return -1;
+        }
+
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
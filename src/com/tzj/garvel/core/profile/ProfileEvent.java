@@ -0,0 +1,86 @@
+package com.tzj.garvel.core.profile;
+
+/**
+ * A completed span - one timed step of the build on one thread.
+ */
+public class ProfileEvent {
+    private final String category;
+    private final String name;
+    private final String detail;
+    private final long threadId;
+    private final String threadName;
+    private final long startNanos;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    ProfileEvent(final String category, final String name, final String detail, final long threadId,
+                 final String threadName, final long startNanos, final long wallNanos, final long cpuNanos,
+                 final long allocatedBytes) {
+        this.category = category;
+        this.name = name;
+        this.detail = detail;
+        this.threadId = threadId;
+        this.threadName = threadName;
+        this.startNanos = startNanos;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * What the step worked on (a URL, an artifact), or null.
+     *
+     * @return
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * The start of the step, relative to the start of the profile.
+     *
+     * @return
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * The CPU time of the step's thread, or -1 if the JVM does not measure it.
+     *
+     * @return
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * The bytes allocated by the step's thread, or -1 if the JVM does not measure them.
+     *
+     * @return
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
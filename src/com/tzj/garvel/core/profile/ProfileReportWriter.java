@@ -0,0 +1,215 @@
+package com.tzj.garvel.core.profile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Writes the reports of a build profile:
+ * <p>
+ * 1. A JSON summary - the total wall time, the steps aggregated by category and name (in
+ * order of first appearance), and the slowest individual steps along with what they
+ * worked on. This is the file to compare across builds, say in CI.
+ * 2. A trace in the Chrome Trace Event format, which can be loaded into chrome://tracing
+ * (or Perfetto) to see the steps of every thread on a timeline.
+ */
+public class ProfileReportWriter {
+    private static final int SLOWEST_EVENTS = 20;
+
+    private final List<ProfileEvent> events;
+
+    public ProfileReportWriter(final List<ProfileEvent> events) {
+        this.events = events;
+    }
+
+    public void writeSummary(final String filename) throws IOException {
+        long wallNanos = 0L;
+        final Map<String, Phase> phases = new LinkedHashMap<>();
+
+        final List<ProfileEvent> ordered = new ArrayList<>(events);
+        Collections.sort(ordered, new Comparator<ProfileEvent>() {
+            @Override
+            public int compare(final ProfileEvent a, final ProfileEvent b) {
+                return Long.compare(a.getStartNanos(), b.getStartNanos());
+            }
+        });
+
+        for (final ProfileEvent event : ordered) {
+            wallNanos = Math.max(wallNanos, event.getStartNanos() + event.getWallNanos());
+
+            final String key = event.getCategory() + "/" + event.getName();
+            Phase phase = phases.get(key);
+            if (phase == null) {
+                phase = new Phase(event.getCategory(), event.getName());
+                phases.put(key, phase);
+            }
+            phase.add(event);
+        }
+
+        final List<ProfileEvent> slowest = new ArrayList<>(events);
+        Collections.sort(slowest, new Comparator<ProfileEvent>() {
+            @Override
+            public int compare(final ProfileEvent a, final ProfileEvent b) {
+                return Long.compare(b.getWallNanos(), a.getWallNanos());
+            }
+        });
+
+        try (Writer out = newWriter(filename)) {
+            out.write("{\n");
+            out.write(String.format("  \"wallMs\": %s,\n", millis(wallNanos)));
+
+            out.write("  \"phases\": [");
+            String separator = "\n";
+            for (final Phase phase : phases.values()) {
+                out.write(separator);
+                out.write(String.format("    {\"category\": %s, \"name\": %s, \"count\": %d, \"wallMs\": %s, \"cpuMs\": %s, \"allocatedBytes\": %d}",
+                        quote(phase.category), quote(phase.name), phase.count, millis(phase.wallNanos),
+                        millis(phase.cpuNanos), phase.allocatedBytes));
+                separator = ",\n";
+            }
+            out.write("\n  ],\n");
+
+            out.write("  \"slowest\": [");
+            separator = "\n";
+            for (int i = 0; i < slowest.size() && i < SLOWEST_EVENTS; i++) {
+                final ProfileEvent event = slowest.get(i);
+
+                out.write(separator);
+                out.write(String.format("    {\"category\": %s, \"name\": %s, \"detail\": %s, \"thread\": %s, \"startMs\": %s, \"wallMs\": %s, \"cpuMs\": %s, \"allocatedBytes\": %d}",
+                        quote(event.getCategory()), quote(event.getName()), quote(event.getDetail()),
+                        quote(event.getThreadName()), millis(event.getStartNanos()), millis(event.getWallNanos()),
+                        millis(event.getCpuNanos()), event.getAllocatedBytes()));
+                separator = ",\n";
+            }
+            out.write("\n  ]\n");
+            out.write("}\n");
+        }
+    }
+
+    /**
+     * Every event becomes a complete ("X") event on the timeline of its thread, and every
+     * thread gets a metadata event carrying its name.
+     *
+     * @param filename
+     * @throws IOException
+     */
+    public void writeTrace(final String filename) throws IOException {
+        final Map<Long, String> threadNames = new TreeMap<>();
+
+        try (Writer out = newWriter(filename)) {
+            out.write("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [");
+
+            String separator = "\n";
+            for (final ProfileEvent event : events) {
+                threadNames.put(event.getThreadId(), event.getThreadName());
+
+                out.write(separator);
+                out.write(String.format("{\"name\": %s, \"cat\": %s, \"ph\": \"X\", \"ts\": %d, \"dur\": %d, \"pid\": 1, \"tid\": %d, " +
+                                "\"args\": {\"detail\": %s, \"cpuMs\": %s, \"allocatedBytes\": %d}}",
+                        quote(event.getName()), quote(event.getCategory()),
+                        event.getStartNanos() / 1000, event.getWallNanos() / 1000, event.getThreadId(),
+                        quote(event.getDetail()), millis(event.getCpuNanos()), event.getAllocatedBytes()));
+                separator = ",\n";
+            }
+
+            for (final Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                out.write(separator);
+                out.write(String.format("{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": 1, \"tid\": %d, \"args\": {\"name\": %s}}",
+                        thread.getKey(), quote(thread.getValue())));
+                separator = ",\n";
+            }
+
+            out.write("\n]}\n");
+        }
+    }
+
+    private Writer newWriter(final String filename) throws IOException {
+        final Path path = Paths.get(filename);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Nanoseconds as milliseconds, or -1 if the value was not measured.
+     *
+     * @param nanos
+     * @return
+     */
+    private String millis(final long nanos) {
+        if (nanos < 0) {
+            return "-1";
+        }
+
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private String quote(final String s) {
+        if (s == null) {
+            return "null";
+        }
+
+        final StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+
+        return sb.toString();
+    }
+
+    /**
+     * The totals of all the events of a step.
+     */
+    private static class Phase {
+        private final String category;
+        private final String name;
+        private int count;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+
+        Phase(final String category, final String name) {
+            this.category = category;
+            this.name = name;
+        }
+
+        void add(final ProfileEvent event) {
+            count++;
+            wallNanos += event.getWallNanos();
+            cpuNanos = event.getCpuNanos() < 0 || cpuNanos < 0 ? -1 : cpuNanos + event.getCpuNanos();
+            allocatedBytes = event.getAllocatedBytes() < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + event.getAllocatedBytes();
+        }
+    }
+}
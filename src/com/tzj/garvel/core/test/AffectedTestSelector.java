@@ -0,0 +1,276 @@
+package com.tzj.garvel.core.test;
+
+import com.tzj.garvel.common.util.UtilServiceImpl;
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.builder.incremental.ClassFileInfo;
+import com.tzj.garvel.core.builder.incremental.ClassFileReader;
+import com.tzj.garvel.core.builder.incremental.IncrementalBuildState;
+import com.tzj.garvel.core.builder.incremental.SourceFingerprint;
+import com.tzj.garvel.core.filesystem.exception.FilesystemFrameworkException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Selects the test classes affected by the changes made since the last green run.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Index the tests: read the constant pool of every class in `target/test-classes`
+ * (see ClassFileReader), and walk the class references of every test class, through the
+ * test classes and then through the classes of the project (using the class-level
+ * dependency map that the incremental build keeps for `target/build`), collecting the
+ * source files of all the classes reached on the way.
+ * 2. The index of the last green run is the baseline. Compare the source hashes of the two
+ * indexes to find the added, modified, and deleted source files.
+ * 3. A test class is affected if it depends on a changed source file, as per either index
+ * (the baseline catches dependencies on deleted source files), or if it is not in the
+ * baseline at all.
+ * <p>
+ * Without a baseline, if the project classpath has changed since, or if a source file
+ * declaring compile-time constants has changed (javac inlines their uses, which leave no
+ * trace in the class references), every test class is affected. Note that resources and
+ * reflective lookups leave no trace either - so a full run is still in order before a release.
+ */
+public class AffectedTestSelector {
+    private static final String CLASS = ".class";
+
+    private AffectedTestSelector() {
+    }
+
+    /**
+     * Index the given test classes against the current state of the project.
+     *
+     * @param testsPath
+     * @param testSources
+     * @param testClassesPath
+     * @param testClasses
+     * @return the index, or null if the project has no incremental build state to index
+     * against (as is the case after an in-memory build).
+     * @throws IOException
+     */
+    public static TestDependencyIndex index(final Path testsPath, final List<File> testSources,
+                                            final Path testClassesPath, final List<String> testClasses) throws IOException {
+        final IncrementalBuildState buildState = loadBuildState();
+        if (buildState == null) {
+            return null;
+        }
+
+        final TestDependencyIndex index = new TestDependencyIndex(buildState.getClassPath());
+
+        // the source hashes
+        for (final Map.Entry<String, SourceFingerprint> entry : buildState.getFingerprints().entrySet()) {
+            index.getSourceHashes().put(TestDependencyIndex.MAIN_SOURCE_PREFIX + entry.getKey(), entry.getValue().getHash());
+        }
+        for (final String source : buildState.getConstantSources()) {
+            index.getConstantSources().add(TestDependencyIndex.MAIN_SOURCE_PREFIX + source);
+        }
+        for (final File testSource : testSources) {
+            index.getSourceHashes().put(TestDependencyIndex.TEST_SOURCE_PREFIX + getSourceKey(testsPath.relativize(testSource.toPath())),
+                    UtilServiceImpl.INSTANCE.getSHA1(testSource.toPath()));
+        }
+
+        // the dependencies of the test classes
+        final Map<String, ClassFileInfo> testClassInfos = readClassFiles(testClassesPath);
+        final Map<String, String> mainClassSources = buildState.getClassSources();
+
+        for (final ClassFileInfo testClassInfo : testClassInfos.values()) {
+            if (testClassInfo.declaresConstants()) {
+                index.getConstantSources().add(TestDependencyIndex.TEST_SOURCE_PREFIX + testClassInfo.getSourceFile());
+            }
+        }
+
+        for (final String testClass : testClasses) {
+            index.putSources(testClass, getDependencies(testClass.replace('.', '/'), testClassInfos, mainClassSources, buildState));
+        }
+
+        return index;
+    }
+
+    /**
+     * Pick the test classes affected by the changes made since the baseline was recorded.
+     *
+     * @param testClasses
+     * @param current
+     * @param baseline
+     * @return the affected test classes, in their original order.
+     */
+    public static List<String> select(final List<String> testClasses, final TestDependencyIndex current,
+                                      final TestDependencyIndex baseline) {
+        if (!isUsable(current, baseline)) {
+            return testClasses;
+        }
+
+        final Set<String> changed = current.getChangedSources(baseline);
+        if (!Collections.disjoint(changed, current.getConstantSources())
+                || !Collections.disjoint(changed, baseline.getConstantSources())) {
+            return testClasses;
+        }
+
+        final List<String> affected = new ArrayList<>();
+        for (final String testClass : testClasses) {
+            final Set<String> previous = baseline.getSources(testClass);
+            final Set<String> sources = current.getSources(testClass);
+
+            if (previous == null || dependsOnAny(sources, changed, current) || dependsOnAny(previous, changed, current)) {
+                affected.add(testClass);
+            }
+        }
+
+        return affected;
+    }
+
+    /**
+     * The tests can only be selected if both indexes are there, and the project classpath
+     * has not changed in between.
+     *
+     * @param current
+     * @param baseline
+     * @return
+     */
+    public static boolean isUsable(final TestDependencyIndex current, final TestDependencyIndex baseline) {
+        return current != null && baseline != null && current.getClassPath().equals(baseline.getClassPath());
+    }
+
+    /**
+     * Load the index of the last green run, if any. An unreadable index is treated as missing.
+     *
+     * @param filename
+     * @return
+     */
+    public static TestDependencyIndex load(final String filename) {
+        if (!CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(filename)) {
+            return null;
+        }
+
+        try {
+            return CoreModuleLoader.INSTANCE.getFileSystemFramework()
+                    .loadSerializedObject(filename, TestDependencyIndex.class);
+        } catch (FilesystemFrameworkException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save the index as the baseline for the next run. Failing to save only makes the next
+     * run less selective, so failures are ignored.
+     *
+     * @param index
+     * @param filename
+     */
+    public static void save(final TestDependencyIndex index, final String filename) {
+        try {
+            CoreModuleLoader.INSTANCE.getFileSystemFramework().storeSerializedObject(index, filename);
+        } catch (FilesystemFrameworkException e) {
+            // the next run will simply run more tests
+        }
+    }
+
+    /**
+     * A source file that cannot be found in the index (say, a test source not laid out as per
+     * its package) cannot be vouched for, so it counts as changed.
+     *
+     * @param sources
+     * @param changed
+     * @param current
+     * @return
+     */
+    private static boolean dependsOnAny(final Set<String> sources, final Set<String> changed, final TestDependencyIndex current) {
+        for (final String source : sources) {
+            if (changed.contains(source) || !current.getSourceHashes().containsKey(source)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Walk the class references starting from the given test class (in internal form),
+     * first through the test classes, and then through the project classes, ignoring
+     * the classes of the JDK and the dependencies.
+     *
+     * @param testClass
+     * @param testClassInfos
+     * @param mainClassSources
+     * @param buildState
+     * @return the source files of all the classes reached.
+     */
+    private static Set<String> getDependencies(final String testClass, final Map<String, ClassFileInfo> testClassInfos,
+                                               final Map<String, String> mainClassSources, final IncrementalBuildState buildState) {
+        final Set<String> sources = new HashSet<>();
+
+        final Set<String> visited = new HashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        visited.add(testClass);
+        queue.add(testClass);
+
+        while (!queue.isEmpty()) {
+            final String className = queue.poll();
+
+            Set<String> references = null;
+            final ClassFileInfo testClassInfo = testClassInfos.get(className);
+            if (testClassInfo != null) {
+                sources.add(TestDependencyIndex.TEST_SOURCE_PREFIX + testClassInfo.getSourceFile());
+                references = testClassInfo.getReferences();
+            } else if (mainClassSources.containsKey(className)) {
+                sources.add(TestDependencyIndex.MAIN_SOURCE_PREFIX + mainClassSources.get(className));
+                references = buildState.getReferences(className);
+            } else {
+                continue;
+            }
+
+            for (final String reference : references) {
+                if (visited.add(reference)) {
+                    queue.add(reference);
+                }
+            }
+        }
+
+        return sources;
+    }
+
+    private static Map<String, ClassFileInfo> readClassFiles(final Path testClassesPath) throws IOException {
+        final Map<String, ClassFileInfo> classInfos = new HashMap<>();
+
+        Files.walkFileTree(testClassesPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                if (file.toString().endsWith(CLASS)) {
+                    final ClassFileInfo classInfo = ClassFileReader.read(file);
+                    classInfos.put(classInfo.getClassName(), classInfo);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return classInfos;
+    }
+
+    private static String getSourceKey(final Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    private static IncrementalBuildState loadBuildState() {
+        final String stateFile = GarvelCoreConstants.GARVEL_PROJECT_INCREMENTAL_STATE_FILE;
+
+        if (!CoreModuleLoader.INSTANCE.getFileSystemFramework().checkFileExists(stateFile)) {
+            return null;
+        }
+
+        try {
+            return CoreModuleLoader.INSTANCE.getFileSystemFramework()
+                    .loadSerializedObject(stateFile, IncrementalBuildState.class);
+        } catch (FilesystemFrameworkException | ClassCastException e) {
+            return null;
+        }
+    }
+}
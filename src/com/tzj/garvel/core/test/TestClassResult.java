@@ -0,0 +1,102 @@
+package com.tzj.garvel.core.test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of running the tests of a single test class in a worker JVM.
+ */
+public class TestClassResult implements Serializable {
+    private static final long serialVersionUID = 4471982360915832715L;
+
+    private final String className;
+    private int tests;
+    private int skipped;
+    private long durationMillis;
+    private String output;
+    private final List<TestFailure> failures;
+
+    public TestClassResult(final String className) {
+        this.className = className;
+        this.failures = new ArrayList<>();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * The number of tests run - 0 if the class turned out not to be a test class.
+     *
+     * @return
+     */
+    public int getTests() {
+        return tests;
+    }
+
+    public void setTests(final int tests) {
+        this.tests = tests;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(final int skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(final long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Everything the tests printed to stdout and stderr.
+     *
+     * @return
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(final String output) {
+        this.output = output;
+    }
+
+    public List<TestFailure> getFailures() {
+        return failures;
+    }
+
+    public void addFailure(final String testName, final String trace) {
+        failures.add(new TestFailure(testName, trace));
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public static class TestFailure implements Serializable {
+        private static final long serialVersionUID = -3302446173825062641L;
+
+        private final String testName;
+        private final String trace;
+
+        TestFailure(final String testName, final String trace) {
+            this.testName = testName;
+            this.trace = trace;
+        }
+
+        public String getTestName() {
+            return testName;
+        }
+
+        public String getTrace() {
+            return trace;
+        }
+    }
+}
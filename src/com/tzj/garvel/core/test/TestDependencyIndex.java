@@ -0,0 +1,93 @@
+package com.tzj.garvel.core.test;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The class-level dependency index of the tests (in `target/test-deps.index`), as of the
+ * last green run:
+ * <p>
+ * 1. the classpath that the project was compiled against.
+ * 2. the hash of every source file, project and test.
+ * 3. the source files that every test class (transitively) depends on.
+ * 4. the source files declaring compile-time constants, project and test.
+ * <p>
+ * Source files are keyed by their path relative to the project root, and using `/` as the
+ * separator, i.e., `src/com/foo/Bar.java` and `tests/com/foo/BarTest.java`.
+ */
+public class TestDependencyIndex implements Serializable {
+    private static final long serialVersionUID = -2739461151880753301L;
+
+    public static final String MAIN_SOURCE_PREFIX = "src/";
+    public static final String TEST_SOURCE_PREFIX = "tests/";
+
+    private final String classPath;
+    private final Map<String, String> sourceHashes;
+    private final Map<String, Set<String>> testClassSources;
+    private final Set<String> constantSources;
+
+    public TestDependencyIndex(final String classPath) {
+        this.classPath = classPath;
+        this.sourceHashes = new HashMap<>();
+        this.testClassSources = new HashMap<>();
+        this.constantSources = new HashSet<>();
+    }
+
+    public String getClassPath() {
+        return classPath;
+    }
+
+    public Map<String, String> getSourceHashes() {
+        return sourceHashes;
+    }
+
+    /**
+     * The source files that the given test class depends on.
+     *
+     * @param testClass
+     * @return the source files, or null if the test class is not in the index.
+     */
+    public Set<String> getSources(final String testClass) {
+        return testClassSources.get(testClass);
+    }
+
+    public void putSources(final String testClass, final Set<String> sources) {
+        testClassSources.put(testClass, sources);
+    }
+
+    /**
+     * The source files declaring compile-time constants. Uses of those constants are inlined
+     * by javac, so a change to any of them may affect every test.
+     *
+     * @return
+     */
+    public Set<String> getConstantSources() {
+        return constantSources;
+    }
+
+    /**
+     * Find the source files which have been added, modified, or deleted since the given
+     * index was recorded.
+     *
+     * @param baseline
+     * @return
+     */
+    public Set<String> getChangedSources(final TestDependencyIndex baseline) {
+        final Set<String> changed = new HashSet<>();
+
+        for (final Map.Entry<String, String> entry : sourceHashes.entrySet()) {
+            final String hash = baseline.sourceHashes.get(entry.getKey());
+            if (hash == null || entry.getValue() == null || !hash.equals(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        for (final String source : baseline.sourceHashes.keySet()) {
+            if (!sourceHashes.containsKey(source)) {
+                changed.add(source);
+            }
+        }
+
+        return changed;
+    }
+}
@@ -0,0 +1,286 @@
+package com.tzj.garvel.core.test;
+
+import com.tzj.garvel.core.CoreModuleLoader;
+import com.tzj.garvel.core.GarvelCoreConstants;
+import com.tzj.garvel.core.concurrent.api.ConcurrencyService;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Runs test classes in parallel across a pool of forked worker JVMs (see TestWorker).
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Order the test classes Longest Processing Time first, using the timings of the
+ * previous run.
+ * 2. Start up to `workers` worker JVMs. Each worker is driven by a thread of its own, which
+ * keeps taking the next test class off the shared queue, and sending it to its worker. The
+ * class is the unit of sharding, and since the workers pull the classes, a worker which
+ * drew short classes simply runs more of them.
+ * 3. Every result is handed to the listener as soon as it arrives.
+ * 4. A worker which dies (say, a test called System.exit) fails the class it was running,
+ * and is replaced by a new worker for the rest of the queue.
+ * 5. A worker which runs a single class for longer than GARVEL_TEST_TIMEOUT (a hung test,
+ * say) is killed by a watchdog on the scheduler, and treated as in step 4.
+ */
+public class TestRunner {
+    private final String testClassPath;
+    private final int workers;
+
+    /**
+     * @param testClassPath the classpath of the tests (the test classes, the project JAR,
+     *                      and the dependencies).
+     * @param workers       the maximum number of worker JVMs.
+     */
+    public TestRunner(final String testClassPath, final int workers) {
+        this.testClassPath = testClassPath;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Run the given test classes.
+     *
+     * @param classNames the test classes, in the order in which they should be handed out.
+     * @param listener
+     * @return the results, in order of completion.
+     * @throws TestRunnerException if the workers could not be started.
+     */
+    public List<TestClassResult> run(final List<String> classNames, final Listener listener) throws TestRunnerException {
+        final List<TestClassResult> results = Collections.synchronizedList(new ArrayList<TestClassResult>());
+        if (classNames.isEmpty()) {
+            return results;
+        }
+
+        final Queue<String> queue = new ConcurrentLinkedQueue<>(classNames);
+        final int poolSize = Math.min(workers, classNames.size());
+
+        final ConcurrencyService concurrency = CoreModuleLoader.INSTANCE.getConcurrencyFramework();
+        final ExecutorService pool = concurrency.newLimitedExecutor("test", concurrency.getIOExecutor(), poolSize);
+
+        final List<Future<Void>> drivers = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                drivers.add(pool.submit(new WorkerDriver(queue, results, listener)));
+            }
+
+            for (final Future<Void> driver : drivers) {
+                await(driver);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return results;
+    }
+
+    private void await(final Future<Void> driver) throws TestRunnerException {
+        try {
+            driver.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestRunnerException("interrupted while running the tests\n");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof TestRunnerException) {
+                throw (TestRunnerException) cause;
+            }
+            throw new TestRunnerException(String.format("test worker failed: %s\n", cause));
+        }
+    }
+
+    /**
+     * Receives the result of every test class as soon as it has run. Called from several
+     * threads at once.
+     */
+    public interface Listener {
+        void testClassCompleted(final TestClassResult result);
+    }
+
+    /**
+     * Feeds test classes to a single worker JVM (restarting it if it dies), until the queue
+     * is empty.
+     */
+    private class WorkerDriver implements Callable<Void> {
+        private final Queue<String> queue;
+        private final List<TestClassResult> results;
+        private final Listener listener;
+
+        WorkerDriver(final Queue<String> queue, final List<TestClassResult> results, final Listener listener) {
+            this.queue = queue;
+            this.results = results;
+            this.listener = listener;
+        }
+
+        @Override
+        public Void call() throws TestRunnerException {
+            WorkerProcess worker = null;
+
+            try {
+                String className;
+                while ((className = queue.poll()) != null) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+
+                    if (worker == null) {
+                        worker = startWorker();
+                    }
+
+                    final WorkerProcess runningWorker = worker;
+                    final ScheduledFuture<?> watchdog = CoreModuleLoader.INSTANCE.getConcurrencyFramework().getScheduler()
+                            .schedule(new Runnable() {
+                                @Override
+                                public void run() {
+                                    runningWorker.kill();
+                                }
+                            }, GarvelCoreConstants.GARVEL_TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+
+                    TestClassResult result;
+                    try {
+                        result = worker.run(className);
+                    } catch (IOException | ClassNotFoundException e) {
+                        // the crash (or the timeout) counts as a single failed test
+                        result = new TestClassResult(className);
+                        result.setTests(1);
+                        if (worker.isKilled()) {
+                            result.addFailure("worker", String.format("%s timed out after %ds, and its test worker JVM was killed\n",
+                                    className, GarvelCoreConstants.GARVEL_TEST_TIMEOUT / 1000));
+                            worker.destroy();
+                        } else {
+                            result.addFailure("worker", String.format("the test worker JVM exited unexpectedly while running %s (exit code %s)\n",
+                                    className, worker.destroy()));
+                        }
+                        worker = null;
+                    } finally {
+                        watchdog.cancel(false);
+                    }
+
+                    // the watchdog may have gone off just as the class completed
+                    if (worker != null && worker.isKilled()) {
+                        worker.destroy();
+                        worker = null;
+                    }
+
+                    results.add(result);
+                    listener.testClassCompleted(result);
+                }
+            } finally {
+                if (worker != null) {
+                    worker.stop();
+                }
+            }
+
+            return null;
+        }
+
+        private WorkerProcess startWorker() throws TestRunnerException {
+            try {
+                return new WorkerProcess(testClassPath);
+            } catch (IOException e) {
+                throw new TestRunnerException(String.format("failed to start a test worker JVM: %s\n", e.getLocalizedMessage()));
+            }
+        }
+    }
+
+    /**
+     * A worker JVM, running with the same JVM and classpath as this process. Its stderr is
+     * passed through, so that JVM-level failures (say, running out of memory) are visible.
+     */
+    private static class WorkerProcess {
+        private static final int EXIT_POLLS = 10;
+        private static final long EXIT_POLL_INTERVAL = 100L;
+
+        private final Process process;
+        private final ObjectOutputStream out;
+        private final ObjectInputStream in;
+        private volatile boolean killed;
+
+        WorkerProcess(final String testClassPath) throws IOException {
+            final List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(TestWorker.class.getName());
+            command.add(testClassPath);
+
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+
+            try {
+                out = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+                out.flush();
+                in = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+            } catch (IOException e) {
+                process.destroy();
+                throw e;
+            }
+        }
+
+        TestClassResult run(final String className) throws IOException, ClassNotFoundException {
+            out.writeObject(className);
+            out.flush();
+
+            return (TestClassResult) in.readObject();
+        }
+
+        /**
+         * Kill the worker outright - called by the watchdog, from another thread. This makes
+         * the pending run fail.
+         */
+        void kill() {
+            killed = true;
+            process.destroy();
+        }
+
+        boolean isKilled() {
+            return killed;
+        }
+
+        /**
+         * Ask the worker to exit, killing it if it does not.
+         */
+        void stop() {
+            try {
+                out.writeObject(null);
+                out.close();
+                in.close();
+                process.waitFor();
+            } catch (IOException e) {
+                process.destroy();
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Kill the worker, giving it a moment to exit on its own first - a worker whose
+         * stdout has just closed is usually on its way out.
+         *
+         * @return the exit code, if the worker exited on its own, or "n/a".
+         */
+        String destroy() {
+            try {
+                for (int i = 0; i < EXIT_POLLS; i++) {
+                    try {
+                        return String.valueOf(process.exitValue());
+                    } catch (IllegalThreadStateException e) {
+                        Thread.sleep(EXIT_POLL_INTERVAL);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                process.destroy();
+            }
+
+            return "n/a";
+        }
+    }
+}
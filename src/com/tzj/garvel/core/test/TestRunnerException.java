@@ -0,0 +1,11 @@
+package com.tzj.garvel.core.test;
+
+import com.tzj.garvel.common.spi.exception.GarvelCheckedException;
+
+public class TestRunnerException extends GarvelCheckedException {
+    private static final long serialVersionUID = 5918472036651928104L;
+
+    public TestRunnerException(final String errorMessage) {
+        super(errorMessage);
+    }
+}
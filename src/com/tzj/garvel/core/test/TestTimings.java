@@ -0,0 +1,98 @@
+package com.tzj.garvel.core.test;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The duration of every test class, as of its last run, used to balance the test classes
+ * across the workers.
+ */
+public class TestTimings {
+    private static final long UNKNOWN = -1L;
+
+    private final Properties timings;
+
+    private TestTimings(final Properties timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * Load the timings, or start with none if the file does not exist (or is unreadable).
+     *
+     * @param filename
+     * @return
+     */
+    public static TestTimings load(final String filename) {
+        final Properties timings = new Properties();
+
+        final File file = new File(filename);
+        if (file.isFile()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                timings.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                timings.clear();
+            }
+        }
+
+        return new TestTimings(timings);
+    }
+
+    /**
+     * Save the timings. The timings only ever balance the next run better, so failures
+     * are ignored.
+     *
+     * @param filename
+     */
+    public synchronized void save(final String filename) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+            timings.store(out, "test class durations (ms)");
+        } catch (IOException e) {
+            // the next run is simply balanced with older timings
+        }
+    }
+
+    public synchronized long get(final String className) {
+        final String millis = timings.getProperty(className);
+        if (millis == null) {
+            return UNKNOWN;
+        }
+
+        try {
+            return Long.parseLong(millis);
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    public synchronized void put(final String className, final long millis) {
+        timings.setProperty(className, String.valueOf(millis));
+    }
+
+    /**
+     * Longest Processing Time first - handing the longest test classes out first keeps a
+     * long class from starting last, and holding up the whole run, while the other workers
+     * sit idle. Classes without a recorded timing (usually new ones) go first, since they
+     * may be the longest of all.
+     *
+     * @param classNames
+     * @return
+     */
+    public List<String> order(final Collection<String> classNames) {
+        final Map<String, Long> expected = new HashMap<>();
+        for (final String className : classNames) {
+            final long millis = get(className);
+            expected.put(className, millis == UNKNOWN ? Long.MAX_VALUE : millis);
+        }
+
+        final List<String> ordered = new ArrayList<>(classNames);
+        Collections.sort(ordered, new Comparator<String>() {
+            @Override
+            public int compare(final String a, final String b) {
+                final int byDuration = Long.compare(expected.get(b), expected.get(a));
+                return byDuration != 0 ? byDuration : a.compareTo(b);
+            }
+        });
+
+        return ordered;
+    }
+}
@@ -0,0 +1,238 @@
+package com.tzj.garvel.core.test;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The entry point of a forked test worker JVM.
+ * <p>
+ * The worker reads the names of the test classes to run from stdin, one at a time (a null
+ * name means stop), and writes back a TestClassResult for each of them on stdout. Whatever
+ * the tests print is captured, and sent back along with the result.
+ * <p>
+ * Every test class is loaded by a fresh class loader over the test classpath, so that no
+ * static state leaks from one test class into the next. The tests are run with JUnit 4 if
+ * it is on the test classpath (JUnit is only ever used reflectively, through the class
+ * loader of the test class). Otherwise, the public no-argument methods whose names start
+ * with `test` are run, on a new instance each, and a test fails if it throws.
+ */
+public class TestWorker {
+    private static final String JUNIT_CORE = "org.junit.runner.JUnitCore";
+    private static final String JUNIT_TEST = "org.junit.Test";
+    private static final String JUNIT_RUN_WITH = "org.junit.runner.RunWith";
+    private static final String JUNIT3_TEST_CASE = "junit.framework.TestCase";
+    private static final String TEST_METHOD_PREFIX = "test";
+    private static final String INITIALIZATION_ERROR = "initializationError";
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: TestWorker <test classpath>");
+            System.exit(2);
+        }
+
+        final URL[] classPath = toURLs(args[0]);
+
+        // the protocol goes over the real stdout - the tests only ever see the capture stream
+        final ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        out.flush();
+        final ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(System.in));
+
+        final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        final PrintStream capture = new PrintStream(captured, true);
+        System.setOut(capture);
+        System.setErr(capture);
+
+        while (true) {
+            final String className;
+            try {
+                className = (String) in.readObject();
+            } catch (ClassNotFoundException | EOFException e) {
+                break;
+            }
+
+            if (className == null) {
+                break;
+            }
+
+            captured.reset();
+            final TestClassResult result = runClass(classPath, className);
+            capture.flush();
+            result.setOutput(captured.toString());
+
+            out.writeObject(result);
+            out.flush();
+            out.reset();
+        }
+
+        out.close();
+    }
+
+    private static URL[] toURLs(final String classPath) throws MalformedURLException {
+        final List<URL> urls = new ArrayList<>();
+        for (final String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                urls.add(new File(entry).toURI().toURL());
+            }
+        }
+
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    private static TestClassResult runClass(final URL[] classPath, final String className) {
+        final TestClassResult result = new TestClassResult(className);
+        final Thread current = Thread.currentThread();
+        final ClassLoader previous = current.getContextClassLoader();
+        final long start = System.nanoTime();
+
+        // the parent is the extension (platform) class loader, so that the worker's own
+        // classes stay invisible to the tests
+        try (URLClassLoader loader = new URLClassLoader(classPath, ClassLoader.getSystemClassLoader().getParent())) {
+            current.setContextClassLoader(loader);
+
+            final Class<?> testClass = Class.forName(className, false, loader);
+            if (isTestCandidate(testClass)) {
+                if (isJUnitTest(testClass) && hasJUnit(loader)) {
+                    runJUnit(loader, testClass, result);
+                } else {
+                    runTestMethods(testClass, result);
+                }
+            }
+        } catch (ReflectiveOperationException | LinkageError | IOException e) {
+            result.addFailure(INITIALIZATION_ERROR, getTrace(e));
+        } finally {
+            current.setContextClassLoader(previous);
+            result.setDurationMillis((System.nanoTime() - start) / 1000000L);
+        }
+
+        return result;
+    }
+
+    private static boolean isTestCandidate(final Class<?> clazz) {
+        final int mods = clazz.getModifiers();
+        return Modifier.isPublic(mods) && !Modifier.isAbstract(mods) && !clazz.isInterface() &&
+                !clazz.isEnum() && !clazz.isAnnotation();
+    }
+
+    /**
+     * JUnit 4 test classes are annotated with @RunWith, or have @Test methods. JUnit 3 test
+     * classes extend TestCase.
+     *
+     * @param clazz
+     * @return
+     */
+    private static boolean isJUnitTest(final Class<?> clazz) {
+        for (final Annotation annotation : clazz.getAnnotations()) {
+            if (JUNIT_RUN_WITH.equals(annotation.annotationType().getName())) {
+                return true;
+            }
+        }
+
+        for (final Method method : clazz.getMethods()) {
+            for (final Annotation annotation : method.getAnnotations()) {
+                if (JUNIT_TEST.equals(annotation.annotationType().getName())) {
+                    return true;
+                }
+            }
+        }
+
+        for (Class<?> c = clazz.getSuperclass(); c != null; c = c.getSuperclass()) {
+            if (JUNIT3_TEST_CASE.equals(c.getName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasJUnit(final ClassLoader loader) {
+        try {
+            Class.forName(JUNIT_CORE, false, loader);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run the class with JUnitCore.runClasses, and translate its Result.
+     *
+     * @param loader
+     * @param testClass
+     * @param result
+     * @throws ReflectiveOperationException
+     */
+    private static void runJUnit(final ClassLoader loader, final Class<?> testClass,
+                                 final TestClassResult result) throws ReflectiveOperationException {
+        final Class<?> core = Class.forName(JUNIT_CORE, true, loader);
+        final Object junitResult = core.getMethod("runClasses", Class[].class).invoke(null, (Object) new Class<?>[]{testClass});
+
+        final Class<?> resultClass = junitResult.getClass();
+        result.setTests((Integer) resultClass.getMethod("getRunCount").invoke(junitResult));
+        result.setSkipped((Integer) resultClass.getMethod("getIgnoreCount").invoke(junitResult));
+
+        for (final Object failure : (List<?>) resultClass.getMethod("getFailures").invoke(junitResult)) {
+            final Class<?> failureClass = failure.getClass();
+            result.addFailure((String) failureClass.getMethod("getTestHeader").invoke(failure),
+                    (String) failureClass.getMethod("getTrace").invoke(failure));
+        }
+    }
+
+    /**
+     * Run the public no-argument `test*` methods, in name order, each on a new instance.
+     *
+     * @param testClass
+     * @param result
+     * @throws ReflectiveOperationException
+     */
+    private static void runTestMethods(final Class<?> testClass, final TestClassResult result) throws ReflectiveOperationException {
+        final List<Method> testMethods = new ArrayList<>();
+        for (final Method method : testClass.getMethods()) {
+            if (method.getName().startsWith(TEST_METHOD_PREFIX) && method.getParameterTypes().length == 0 &&
+                    !Modifier.isStatic(method.getModifiers()) && method.getReturnType().equals(Void.TYPE)) {
+                testMethods.add(method);
+            }
+        }
+
+        if (testMethods.isEmpty()) {
+            return;
+        }
+
+        Collections.sort(testMethods, new Comparator<Method>() {
+            @Override
+            public int compare(final Method a, final Method b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+
+        for (final Method method : testMethods) {
+            final String testName = String.format("%s(%s)", method.getName(), testClass.getName());
+
+            try {
+                final Object instance = testClass.getConstructor().newInstance();
+                method.invoke(instance);
+            } catch (InvocationTargetException e) {
+                result.addFailure(testName, getTrace(e.getCause() != null ? e.getCause() : e));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                result.addFailure(testName, getTrace(e));
+            }
+        }
+
+        result.setTests(testMethods.size());
+    }
+
+    private static String getTrace(final Throwable t) {
+        final StringWriter trace = new StringWriter();
+        t.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+}
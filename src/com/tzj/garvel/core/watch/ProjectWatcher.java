@@ -0,0 +1,242 @@
+package com.tzj.garvel.core.watch;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the source tree and the project configuration file for changes, with a
+ * WatchService, and keeps the set of source files in memory, so that a rebuild never has to
+ * walk the source tree.
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Walk the source tree once, registering every directory with the WatchService, and
+ * collecting the source files.
+ * 2. Wait for the first event, and then keep collecting events until none has arrived for the
+ * debounce interval, so that a burst of events (saving several files at once, a VCS checkout,
+ * an editor writing a file in several steps) results in a single rebuild.
+ * 3. Keep the source set up to date as the events come in. New directories are registered
+ * (and walked, since files may have been created in them before they were registered), and
+ * deleted directories take their source files with them.
+ * 4. If the WatchService lost events, walk the whole source tree again.
+ * <p>
+ * Hidden files, and the backup files of editors (ending in `~`), are ignored.
+ */
+public class ProjectWatcher implements Closeable {
+    private static final String JAVA = ".java";
+
+    private final Path srcRoot;
+    private final Path configFile;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories;
+    private final Map<String, File> sources;
+
+    /**
+     * Start watching the project.
+     *
+     * @param srcRoot        the source root.
+     * @param configFile     the project configuration file (`Garvel.gl`).
+     * @param debounceMillis
+     * @throws IOException
+     */
+    public ProjectWatcher(final Path srcRoot, final Path configFile, final long debounceMillis) throws IOException {
+        this.srcRoot = srcRoot.toAbsolutePath().normalize();
+        this.configFile = configFile.toAbsolutePath().normalize();
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.directories = new HashMap<>();
+        this.sources = new HashMap<>();
+
+        try {
+            register(this.configFile.getParent());
+            registerTree(this.srcRoot, null);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The source files of the project, keyed by their path relative to the source root.
+     *
+     * @return
+     */
+    public Map<String, File> getSources() {
+        return new HashMap<>(sources);
+    }
+
+    /**
+     * Block until the project changes, and return the (debounced) changes.
+     *
+     * @return
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    public WatchChanges awaitChanges() throws InterruptedException, IOException {
+        final WatchChanges changes = new WatchChanges();
+
+        // events for unrelated files (in the project root) do not count
+        while (changes.isEmpty()) {
+            WatchKey key = watchService.take();
+            while (key != null) {
+                process(key, changes);
+                key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return changes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void process(final WatchKey key, final WatchChanges changes) throws IOException {
+        final Path dir = directories.get(key);
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                rescan(changes);
+                continue;
+            }
+
+            if (dir == null) {
+                continue;
+            }
+
+            final Path path = dir.resolve((Path) event.context());
+            if (path.equals(configFile)) {
+                changes.setConfigChanged(true);
+                continue;
+            }
+
+            if (!path.startsWith(srcRoot) || path.equals(srcRoot) || isIgnored(path)) {
+                continue;
+            }
+
+            if (event.kind() == ENTRY_DELETE) {
+                deleted(path, changes);
+            } else if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                changes.addResource(getKey(path));
+                registerTree(path, changes);
+            } else {
+                changed(path, changes);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void changed(final Path path, final WatchChanges changes) {
+        final String key = getKey(path);
+
+        if (key.endsWith(JAVA)) {
+            sources.put(key, path.toFile());
+            changes.addSource(key);
+        } else if (!Files.isDirectory(path)) {
+            changes.addResource(key);
+        }
+    }
+
+    /**
+     * A deleted path may be a source file, a resource, or a whole directory of them.
+     *
+     * @param path
+     * @param changes
+     */
+    private void deleted(final Path path, final WatchChanges changes) {
+        final String key = getKey(path);
+        final String prefix = key + "/";
+
+        final Iterator<String> it = sources.keySet().iterator();
+        while (it.hasNext()) {
+            final String source = it.next();
+            if (source.equals(key) || source.startsWith(prefix)) {
+                it.remove();
+                changes.addSource(source);
+            }
+        }
+
+        if (!key.endsWith(JAVA)) {
+            changes.addResource(key);
+        }
+    }
+
+    /**
+     * Walk the source tree again, after events have been lost.
+     *
+     * @param changes
+     * @throws IOException
+     */
+    private void rescan(final WatchChanges changes) throws IOException {
+        sources.clear();
+        registerTree(srcRoot, null);
+        changes.setRescanned(true);
+    }
+
+    /**
+     * Register the given directory and all the directories under it, and collect their
+     * source files - reporting them as changes, if any are given.
+     *
+     * @param root
+     * @param changes
+     * @throws IOException
+     */
+    private void registerTree(final Path root, final WatchChanges changes) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && isIgnored(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                if (isIgnored(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                if (changes != null) {
+                    changed(file, changes);
+                } else if (file.toString().endsWith(JAVA)) {
+                    sources.put(getKey(file), file.toFile());
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(final Path dir) throws IOException {
+        final WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        directories.put(key, dir);
+    }
+
+    private boolean isIgnored(final Path path) {
+        final String name = path.getFileName().toString();
+        return name.startsWith(".") || name.endsWith("~");
+    }
+
+    private String getKey(final Path path) {
+        return srcRoot.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
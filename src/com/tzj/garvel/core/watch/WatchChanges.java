@@ -0,0 +1,80 @@
+package com.tzj.garvel.core.watch;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A debounced batch of changes to the project, as seen by the ProjectWatcher.
+ * <p>
+ * Paths are relative to the source root, and use `/` as the separator, i.e.,
+ * `com/foo/Bar.java`.
+ */
+public class WatchChanges {
+    private final Set<String> sources;
+    private final Set<String> resources;
+    private boolean configChanged;
+    private boolean rescanned;
+
+    public WatchChanges() {
+        this.sources = new HashSet<>();
+        this.resources = new HashSet<>();
+    }
+
+    /**
+     * The source files which have been created, modified, or deleted.
+     *
+     * @return
+     */
+    public Set<String> getSources() {
+        return Collections.unmodifiableSet(sources);
+    }
+
+    void addSource(final String source) {
+        sources.add(source);
+    }
+
+    /**
+     * The non-source files (and directories) which have been created, modified, or deleted.
+     *
+     * @return
+     */
+    public Set<String> getResources() {
+        return Collections.unmodifiableSet(resources);
+    }
+
+    void addResource(final String resource) {
+        resources.add(resource);
+    }
+
+    /**
+     * Has `Garvel.gl` changed? If so, the dependencies have to be analysed again.
+     *
+     * @return
+     */
+    public boolean isConfigChanged() {
+        return configChanged;
+    }
+
+    void setConfigChanged(final boolean configChanged) {
+        this.configChanged = configChanged;
+    }
+
+    /**
+     * Were events lost (the event queue of the WatchService overflowed), so that the source
+     * tree had to be scanned again? If so, the individual changes are unknown.
+     *
+     * @return
+     */
+    public boolean isRescanned() {
+        return rescanned;
+    }
+
+    void setRescanned(final boolean rescanned) {
+        this.rescanned = rescanned;
+    }
+
+    public boolean isEmpty() {
+        return sources.isEmpty() && resources.isEmpty() && !configChanged && !rescanned;
+    }
+}